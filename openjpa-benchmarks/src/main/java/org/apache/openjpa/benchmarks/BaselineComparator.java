@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH result file written with <code>-rf csv</code> against a
+ * baseline file in the same format, and exits with a non-zero status if any
+ * benchmark is slower than its baseline by more than the given percentage.
+ * Benchmarks are matched by name, mode and parameters; benchmarks that
+ * appear in only one of the files are reported but do not fail the check.
+ *
+ * Usage: <code>BaselineComparator &lt;baseline.csv&gt; &lt;result.csv&gt;
+ * [tolerance percent, default 10]</code>
+ */
+public class BaselineComparator {
+
+    public static void main(String[] args)
+        throws IOException {
+        PrintStream out = System.out;
+        if (args.length < 2) {
+            out.println("Usage: BaselineComparator <baseline.csv> "
+                + "<result.csv> [tolerance percent]");
+            System.exit(2);
+        }
+        double tolerance = (args.length > 2) ? Double.parseDouble(args[2])
+            : 10;
+        Map<String, Score> baseline = read(args[0]);
+        Map<String, Score> result = read(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : result.entrySet()) {
+            Score base = baseline.get(entry.getKey());
+            Score score = entry.getValue();
+            if (base == null) {
+                out.println("NEW      " + entry.getKey() + ": "
+                    + score);
+                continue;
+            }
+
+            // percentage by which the result is worse than the baseline
+            double change = (score.value - base.value) / base.value * 100;
+            if (score.higherIsBetter)
+                change = -change;
+            boolean regressed = change > tolerance;
+            if (regressed)
+                regressions++;
+            out.println((regressed ? "SLOWER   " : "OK       ")
+                + entry.getKey() + ": " + base + " -> " + score
+                + String.format(" (%+.1f%%)", change));
+        }
+        for (String key : baseline.keySet())
+            if (!result.containsKey(key))
+                out.println("MISSING  " + key);
+
+        if (regressions > 0) {
+            out.println(regressions + " benchmark(s) regressed by "
+                + "more than " + tolerance + "%");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Read the scores of a JMH CSV result file, keyed by benchmark name,
+     * mode and parameter values.
+     */
+    static Map<String, Score> read(String file)
+        throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(file),
+            StandardCharsets.UTF_8)) {
+            String line = in.readLine();
+            if (line == null)
+                return scores;
+            List<String> header = split(line);
+            int name = header.indexOf("Benchmark");
+            int mode = header.indexOf("Mode");
+            int score = header.indexOf("Score");
+            int unit = header.indexOf("Unit");
+
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty())
+                    continue;
+                List<String> row = split(line);
+                StringBuilder key = new StringBuilder(row.get(name))
+                    .append(" [").append(row.get(mode)).append("]");
+                for (int i = unit + 1; i < row.size(); i++)
+                    if (!row.get(i).isEmpty())
+                        key.append(" ").append(header.get(i)
+                            .replace("Param: ", "")).append("=")
+                            .append(row.get(i));
+                scores.put(key.toString(), new Score(
+                    Double.parseDouble(row.get(score)), row.get(unit),
+                    "thrpt".equals(row.get(mode))));
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Split a CSV line, removing the quotes around values.
+     */
+    static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder buf = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"')
+                quoted = !quoted;
+            else if (c == ',' && !quoted) {
+                values.add(buf.toString());
+                buf.setLength(0);
+            } else
+                buf.append(c);
+        }
+        values.add(buf.toString());
+        return values;
+    }
+
+    /**
+     * A benchmark score.
+     */
+    static class Score {
+
+        final double value;
+        final String unit;
+        final boolean higherIsBetter;
+
+        Score(double value, String unit, boolean higherIsBetter) {
+            this.value = value;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f %s", value, unit);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Persistence;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+
+/**
+ * Creates entity manager factories over an in-memory Derby database that is
+ * populated with {@link BenchmarkEntity} rows.
+ */
+public final class BenchmarkDatabase {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Create a factory over a new database holding the given number of
+     * entities with identities 0 to rows - 1.
+     *
+     * @param props additional configuration properties, in key/value pairs
+     */
+    public static OpenJPAEntityManagerFactorySPI create(int rows,
+        String... props) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("openjpa.ConnectionURL", "jdbc:derby:memory:openjpa-bench"
+            + DATABASES.incrementAndGet() + ";create=true");
+        for (int i = 0; i + 1 < props.length; i += 2)
+            config.put(props[i], props[i + 1]);
+        OpenJPAEntityManagerFactorySPI emf = (OpenJPAEntityManagerFactorySPI)
+            Persistence.createEntityManagerFactory("benchmarks", config);
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < rows; i++) {
+            em.persist(new BenchmarkEntity(i));
+            if (i % 1000 == 999) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+        return emf;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.util.Date;
+
+import javax.persistence.Basic;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * Entity used by the benchmarks that go through the persistence layer.
+ */
+@Entity
+public class BenchmarkEntity {
+
+    @Id
+    private long id;
+
+    private String name;
+
+    private int quantity;
+
+    private double price;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date created;
+
+    @Basic(fetch = FetchType.LAZY)
+    private String description;
+
+    public BenchmarkEntity() {
+    }
+
+    public BenchmarkEntity(long id) {
+        this.id = id;
+        this.name = "name" + id;
+        this.quantity = (int) id;
+        this.price = id / 100d;
+        this.created = new Date(id);
+        this.description = "description of entity " + id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public Date getCreated() {
+        return created;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
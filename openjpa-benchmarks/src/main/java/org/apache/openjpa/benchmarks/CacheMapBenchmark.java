@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.openjpa.util.CacheMap;
+import org.apache.openjpa.util.StripedCacheMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link CacheMap} with {@link StripedCacheMap} under a read-mostly
+ * workload similar to data cache lookups. Run with different thread counts
+ * (<code>-t</code>) to see the effect of lock contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+@Threads(Threads.MAX)
+public class CacheMapBenchmark {
+
+    private static final int KEYS = 10000;
+
+    @Param({ "CacheMap", "StripedCacheMap" })
+    public String impl;
+
+    @Param({ "false", "true" })
+    public boolean lru;
+
+    /**
+     * Percentage of operations that are writes.
+     */
+    @Param({ "5" })
+    public int writePercent;
+
+    private CacheMap _map;
+    private Long[] _keys;
+
+    @Setup
+    public void setUp() {
+        if ("StripedCacheMap".equals(impl))
+            _map = new StripedCacheMap(lru, KEYS, 16);
+        else
+            _map = new CacheMap(lru, KEYS);
+
+        _keys = new Long[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            _keys[i] = Long.valueOf(i);
+            _map.put(_keys[i], _keys[i]);
+        }
+    }
+
+    @Benchmark
+    public Object readWrite() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        Long key = _keys[rnd.nextInt(KEYS)];
+        if (rnd.nextInt(100) < writePercent)
+            return _map.put(key, key);
+        return _map.get(key);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures <code>BrokerImpl.find</code> for instances that are already
+ * managed, instances that must be loaded from the data cache or the
+ * database, and the load of a lazy field by the state manager.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class FindBenchmark {
+
+    private static final int ROWS = 1000;
+
+    /**
+     * Whether the data cache is enabled, in which case instances that are
+     * not managed are loaded through <code>DataCacheStoreManager</code>.
+     */
+    @Param({ "false", "true" })
+    public boolean dataCache;
+
+    private OpenJPAEntityManagerFactorySPI _emf;
+    private EntityManager _em;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _emf = BenchmarkDatabase.create(ROWS,
+            "openjpa.DataCache", String.valueOf(dataCache),
+            "openjpa.RemoteCommitProvider", "sjvm");
+        _em = _emf.createEntityManager();
+
+        // populate the data cache
+        if (dataCache)
+            for (int i = 0; i < ROWS; i++)
+                _em.find(BenchmarkEntity.class, (long) i);
+        _em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        _em.close();
+        _emf.close();
+    }
+
+    /**
+     * Find an instance that is managed by the persistence context.
+     */
+    @Benchmark
+    public Object findManaged() {
+        return _em.find(BenchmarkEntity.class, 0L);
+    }
+
+    /**
+     * Find an instance that has to be loaded.
+     */
+    @Benchmark
+    public Object findUnmanaged() {
+        _em.clear();
+        return _em.find(BenchmarkEntity.class,
+            (long) ThreadLocalRandom.current().nextInt(ROWS));
+    }
+
+    /**
+     * Load an instance and then its lazy field.
+     */
+    @Benchmark
+    public Object loadLazyField() {
+        _em.clear();
+        BenchmarkEntity e = _em.find(BenchmarkEntity.class,
+            (long) ThreadLocalRandom.current().nextInt(ROWS));
+        return e.getDescription();
+    }
+}
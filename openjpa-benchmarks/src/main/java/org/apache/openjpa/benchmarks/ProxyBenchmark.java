@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.openjpa.util.ProxyManager;
+import org.apache.openjpa.util.ProxyManagerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the copies and proxies {@link ProxyManagerImpl} makes of
+ * mutable field values when instances are loaded, detached or compared.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class ProxyBenchmark {
+
+    @Param({ "10", "1000" })
+    public int size;
+
+    private ProxyManager _mgr;
+    private List<Integer> _list;
+    private Map<Integer, String> _map;
+    private Date _date;
+
+    @Setup
+    public void setUp() {
+        _mgr = new ProxyManagerImpl();
+        _list = new ArrayList<>(size);
+        _map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            _list.add(i);
+            _map.put(i, String.valueOf(i));
+        }
+        _date = new Date();
+    }
+
+    @Benchmark
+    public Object copyCollection() {
+        return _mgr.copyCollection(_list);
+    }
+
+    @Benchmark
+    public Object copyMap() {
+        return _mgr.copyMap(_map);
+    }
+
+    @Benchmark
+    public Object copyDate() {
+        return _mgr.copyDate(_date);
+    }
+
+    @Benchmark
+    public Object newCollectionProxy() {
+        return _mgr.newCollectionProxy(ArrayList.class, Integer.class, null,
+            true);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Small end-to-end workloads: a JPQL range query whose results are loaded
+ * into a fresh persistence context, and a transaction that inserts and
+ * deletes a batch of instances.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class QueryBenchmark {
+
+    private static final int ROWS = 10000;
+    private static final int RANGE = 100;
+
+    private OpenJPAEntityManagerFactorySPI _emf;
+    private EntityManager _em;
+    private long _nextId = ROWS;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _emf = BenchmarkDatabase.create(ROWS);
+        _em = _emf.createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        _em.close();
+        _emf.close();
+    }
+
+    @Benchmark
+    public int queryRange() {
+        _em.clear();
+        long start = ThreadLocalRandom.current().nextInt(ROWS - RANGE);
+        List<BenchmarkEntity> result = _em.createQuery("select e from "
+            + "BenchmarkEntity e where e.id >= :start and e.id < :end",
+            BenchmarkEntity.class).setParameter("start", start)
+            .setParameter("end", start + RANGE).getResultList();
+        int sum = 0;
+        for (BenchmarkEntity e : result)
+            sum += e.getQuantity();
+        return sum;
+    }
+
+    @Benchmark
+    public void insertAndDelete() {
+        long first = _nextId;
+        _em.getTransaction().begin();
+        for (int i = 0; i < RANGE; i++)
+            _em.persist(new BenchmarkEntity(_nextId++));
+        _em.getTransaction().commit();
+        _em.clear();
+
+        _em.getTransaction().begin();
+        _em.createQuery("delete from BenchmarkEntity e where e.id >= :first")
+            .setParameter("first", first).executeUpdate();
+        _em.getTransaction().commit();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
+import org.apache.openjpa.jdbc.meta.ClassMapping;
+import org.apache.openjpa.jdbc.sql.SQLBuffer;
+import org.apache.openjpa.jdbc.sql.SQLFactory;
+import org.apache.openjpa.jdbc.sql.Select;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.util.LongId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building a select by primary key and generating its SQL with
+ * <code>SelectImpl</code>, without executing it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class SelectBenchmark {
+
+    private OpenJPAEntityManagerFactorySPI _emf;
+    private SQLFactory _factory;
+    private ClassMapping _mapping;
+    private Object _oid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        _emf = BenchmarkDatabase.create(0);
+        JDBCConfiguration conf = (JDBCConfiguration) _emf.getConfiguration();
+        _factory = conf.getSQLFactoryInstance();
+        _mapping = conf.getMappingRepositoryInstance().getMapping
+            (BenchmarkEntity.class, getClass().getClassLoader(), true);
+        _oid = new LongId(BenchmarkEntity.class, 1L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        _emf.close();
+    }
+
+    @Benchmark
+    public String selectByPrimaryKey() {
+        Select sel = _factory.newSelect();
+        sel.select(_mapping.getTable().getColumns());
+        sel.wherePrimaryKey(_oid, _mapping, null);
+        SQLBuffer sql = sel.toSelect(false, null);
+        return sql.getSQL();
+    }
+}
@@ -18,6 +18,8 @@
  */
 package org.apache.openjpa.jdbc.conf;
 
+import java.util.concurrent.Executor;
+
 import javax.sql.DataSource;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
@@ -234,6 +236,9 @@ public interface JDBCConfiguration
      * <li><code>parallel</code>: When querying for objects, also select for
      * both 1-1 relations using joins and to-many relations using batched
      * selects.</li>
+     * <li><code>subselect</code>: Like <code>parallel</code>, but limit the
+     * batched selects to the primary keys of the objects already read
+     * rather than re-running the query.</li>
      * </li>
      * </ul>
      *
@@ -252,6 +257,9 @@ public interface JDBCConfiguration
      * <li><code>parallel</code>: When querying for objects, also select for
      * both 1-1 relations using joins and to-many relations using batched
      * selects.</li>
+     * <li><code>subselect</code>: Like <code>parallel</code>, but limit the
+     * batched selects to the primary keys of the objects already read
+     * rather than re-running the query.</li>
      * </ul>
      */
     void setEagerFetchMode(String mode);
@@ -262,6 +270,7 @@ public interface JDBCConfiguration
      * <li>{@link EagerFetchModes#EAGER_NONE}</li>
      * <li>{@link EagerFetchModes#EAGER_JOIN}</li>
      * <li>{@link EagerFetchModes#EAGER_PARALLEL}</li>
+     * <li>{@link EagerFetchModes#EAGER_SUBSELECT}</li>
      * </ul>
      *
      * @since 0.3.0
@@ -274,6 +283,7 @@ public interface JDBCConfiguration
      * <li>{@link EagerFetchModes#EAGER_NONE}</li>
      * <li>{@link EagerFetchModes#EAGER_JOIN}</li>
      * <li>{@link EagerFetchModes#EAGER_PARALLEL}</li>
+     * <li>{@link EagerFetchModes#EAGER_SUBSELECT}</li>
      * </ul>
      *
      * @since 0.3.0
@@ -470,6 +480,38 @@ public interface JDBCConfiguration
      */
     void setUpdateManager(UpdateManager updateManager);
 
+    /**
+     * The {@link Executor} whose threads read the rows of pipelined query
+     * results.
+     *
+     * @since 3.1.3
+     */
+    String getPipelinedFetchExecutor();
+
+    /**
+     * The {@link Executor} whose threads read the rows of pipelined query
+     * results.
+     *
+     * @since 3.1.3
+     */
+    void setPipelinedFetchExecutor(String executor);
+
+    /**
+     * The {@link Executor} whose threads read the rows of pipelined query
+     * results.
+     *
+     * @since 3.1.3
+     */
+    Executor getPipelinedFetchExecutorInstance();
+
+    /**
+     * The {@link Executor} whose threads read the rows of pipelined query
+     * results.
+     *
+     * @since 3.1.3
+     */
+    void setPipelinedFetchExecutorInstance(Executor executor);
+
     /**
      * The {@link DriverDataSource} to use for creating a {@link DataSource}
      * from a JDBC {@link Driver}.
@@ -21,6 +21,7 @@ package org.apache.openjpa.jdbc.conf;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.util.Locale;
+import java.util.concurrent.Executor;
 
 import javax.sql.DataSource;
 
@@ -41,6 +42,7 @@ import org.apache.openjpa.jdbc.schema.SchemaFactory;
 import org.apache.openjpa.jdbc.sql.DBDictionary;
 import org.apache.openjpa.jdbc.sql.DBDictionaryFactory;
 import org.apache.openjpa.jdbc.sql.MaxDBDictionary;
+import org.apache.openjpa.jdbc.sql.PipelinedFetchExecutor;
 import org.apache.openjpa.jdbc.sql.SQLFactory;
 import org.apache.openjpa.kernel.BrokerImpl;
 import org.apache.openjpa.kernel.StoreContext;
@@ -82,6 +84,7 @@ public class JDBCConfigurationImpl
     public ObjectValue connectionDecoratorPlugins;
     public PluginValue dbdictionaryPlugin;
     public ObjectValue updateManagerPlugin;
+    public ObjectValue pipelinedFetchExecutorPlugin;
     public ObjectValue schemaFactoryPlugin;
     public ObjectValue sqlFactoryPlugin;
     public ObjectValue mappingDefaultsPlugin;
@@ -245,6 +248,17 @@ public class JDBCConfigurationImpl
         updateManagerPlugin.setString(aliases[0]);
         updateManagerPlugin.setInstantiatingGetter("getUpdateManagerInstance");
 
+        pipelinedFetchExecutorPlugin = addPlugin("jdbc.PipelinedFetchExecutor",
+            true);
+        aliases = new String[]{
+            "default", PipelinedFetchExecutor.class.getName(),
+        };
+        pipelinedFetchExecutorPlugin.setAliases(aliases);
+        pipelinedFetchExecutorPlugin.setDefault(aliases[0]);
+        pipelinedFetchExecutorPlugin.setString(aliases[0]);
+        pipelinedFetchExecutorPlugin.setInstantiatingGetter(
+            "getPipelinedFetchExecutorInstance");
+
         driverDataSourcePlugin = addPlugin("jdbc.DriverDataSource", false);
         aliases = new String[]{
             "auto", "org.apache.openjpa.jdbc.schema.AutoDriverDataSource",
@@ -678,6 +692,28 @@ public class JDBCConfigurationImpl
         return (UpdateManager) updateManagerPlugin.get();
     }
 
+    @Override
+    public String getPipelinedFetchExecutor() {
+        return pipelinedFetchExecutorPlugin.getString();
+    }
+
+    @Override
+    public void setPipelinedFetchExecutor(String executor) {
+        pipelinedFetchExecutorPlugin.setString(executor);
+    }
+
+    @Override
+    public Executor getPipelinedFetchExecutorInstance() {
+        if (pipelinedFetchExecutorPlugin.get() == null)
+            pipelinedFetchExecutorPlugin.instantiate(Executor.class, this);
+        return (Executor) pipelinedFetchExecutorPlugin.get();
+    }
+
+    @Override
+    public void setPipelinedFetchExecutorInstance(Executor executor) {
+        pipelinedFetchExecutorPlugin.set(executor);
+    }
+
     @Override
     public void setDriverDataSource(String driverDataSource) {
         driverDataSourcePlugin.setString(driverDataSource);
@@ -151,6 +151,12 @@ public class BatchingPreparedStatementManagerImpl extends
             PreparedStatement ps = null;
             try {
                 RowImpl onerow = null;
+                int rowsPerInsert = getRowsPerInsert(batchedRows);
+                if (rowsPerInsert > 1) {
+                    // combine the inserts into multi-row statements
+                    flushMultiRowInserts(batchedRows, rowsPerInsert);
+                    return;
+                }
                 ps = prepareStatement(batchedSql);
                 if (batchSize == 1) {
                     // execute a single row.
@@ -264,6 +270,131 @@ public class BatchingPreparedStatementManagerImpl extends
         }
     }
 
+    /*
+     * Return the number of batched rows to combine into one multi-row
+     * insert, or 1 if the rows are not inserts, batching is disabled or the
+     * dictionary does not allow multi-row inserts. A positive batch limit
+     * also limits the rows of each insert.
+     */
+    private int getRowsPerInsert(List<RowImpl> rows) {
+        RowImpl row = rows.get(0);
+        if (_batchLimit == 1 || rows.size() < 2
+            || row.getAction() != Row.ACTION_INSERT)
+            return 1;
+        int limit = _dict.getMultiRowInsertLimit(
+            row.getInsertParameterCount());
+        if (_batchLimit > 0)
+            limit = Math.min(limit, _batchLimit);
+        return Math.min(rows.size(), limit);
+    }
+
+    /*
+     * Execute the batched inserts as INSERT ... VALUES (...), (...)
+     * statements of at most the given number of rows each. All rows share
+     * the same SQL, so the values list of the first row applies to all.
+     */
+    private void flushMultiRowInserts(List<RowImpl> rows, int rowsPerInsert)
+        throws SQLException {
+        RowImpl first = rows.get(0);
+        String sql = first.getSQL(_dict);
+        String values = first.getInsertValuesSQL(_dict);
+        int params = first.getInsertParameterCount();
+
+        PreparedStatement ps = null;
+        int psRows = 0;
+        try {
+            for (int start = 0; start < rows.size(); start += rowsPerInsert) {
+                int n = Math.min(rowsPerInsert, rows.size() - start);
+                if (n != psRows) {
+                    if (ps != null)
+                        ps.close();
+                    StringBuilder buf = new StringBuilder(sql.length()
+                        + (n - 1) * (values.length() + 2));
+                    buf.append(sql);
+                    for (int i = 1; i < n; i++)
+                        buf.append(", ").append(values);
+                    ps = prepareStatement(buf.toString());
+                    psRows = n;
+                }
+                flushMultiRowInsert(rows.subList(start, start + n), ps,
+                    params);
+            }
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException sqex) {
+                    throw SQLExceptions.getStore(sqex, ps, _dict);
+                }
+            }
+        }
+    }
+
+    /*
+     * Execute a single multi-row insert and check its update count.
+     */
+    private void flushMultiRowInsert(List<RowImpl> rows, PreparedStatement ps,
+        int params)
+        throws SQLException {
+        RowImpl first = rows.get(0);
+        if (ps != null) {
+            int idx = 1;
+            for (RowImpl row : rows) {
+                row.flush(ps, idx, _dict, _store);
+                idx += params;
+            }
+        }
+        int count;
+        try {
+            count = executeUpdate(ps, first.getSQL(_dict), first);
+        } catch (SQLException se) {
+            // the statement failed as a whole; insert the rows one at a
+            // time to find the row that fails
+            flushSingleRows(rows, se);
+            return;
+        }
+        if (count == 0) {
+            logSQLWarnings(ps);
+            flushSingleRows(rows, null);
+        } else if (count != rows.size()) {
+            // some of the rows may have been inserted, so they cannot be
+            // retried one at a time, and the failed ones are unknown
+            logSQLWarnings(ps);
+            throw new SQLException(_loc.get("update-failed-no-failed-obj",
+                String.valueOf(count), first.getSQL(_dict)).getMessage());
+        }
+    }
+
+    /*
+     * Execute the given rows one at a time after their multi-row insert
+     * inserted none of them, so that a failure is reported for the row that
+     * causes it. The given exception of the multi-row insert, if any, is
+     * kept with the failure: a database that aborts the transaction on an
+     * error fails every retry.
+     */
+    private void flushSingleRows(List<RowImpl> rows, SQLException cause)
+        throws SQLException {
+        PreparedStatement ps = prepareStatement(rows.get(0).getSQL(_dict));
+        try {
+            for (RowImpl row : rows) {
+                try {
+                    flushSingleRow(row, ps);
+                } catch (SQLException se) {
+                    if (cause != null)
+                        se.setNextException(cause);
+                    throw SQLExceptions.getStore(se, row.getFailedObject(),
+                        _dict);
+                }
+            }
+        } finally {
+            try {
+                ps.close();
+            } catch (SQLException sqex) {
+                throw SQLExceptions.getStore(sqex, ps, _dict);
+            }
+        }
+    }
+
     /*
      * Process executeBatch function array of return counts.
      */
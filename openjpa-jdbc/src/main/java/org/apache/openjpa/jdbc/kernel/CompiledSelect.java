@@ -0,0 +1,264 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.jdbc.kernel;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.apache.openjpa.jdbc.meta.ClassMapping;
+import org.apache.openjpa.jdbc.meta.FieldMapping;
+import org.apache.openjpa.jdbc.meta.Joinable;
+import org.apache.openjpa.jdbc.schema.Column;
+import org.apache.openjpa.jdbc.sql.DBDictionary;
+import org.apache.openjpa.jdbc.sql.Joins;
+import org.apache.openjpa.jdbc.sql.LogicalUnion;
+import org.apache.openjpa.jdbc.sql.Result;
+import org.apache.openjpa.jdbc.sql.SQLBuffer;
+import org.apache.openjpa.jdbc.sql.SelectExecutor;
+import org.apache.openjpa.jdbc.sql.SelectImpl;
+import org.apache.openjpa.jdbc.sql.Union;
+import org.apache.openjpa.kernel.FetchConfigurationImpl;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.kernel.QueryHints;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.meta.FieldMetaData;
+import org.apache.openjpa.util.ApplicationIds;
+import org.apache.openjpa.util.Id;
+
+/**
+ * An executed select whose SQL is reused to load a relation of other
+ * instances of the same owning mapping. Only the primary key values of the
+ * owning instance change between loads, so the template holds the SQL
+ * string along with a plan binding each of its parameters to one of the
+ * owner's primary key columns, and the joins the field strategy uses to
+ * read the result.
+ *
+ * Templates are kept by the field strategies, keyed on the
+ * {@link #getSignature signature} of the fetch configuration that built
+ * them. Like finder queries, they are only used when the finder cache is
+ * enabled for the broker.
+ *
+ * @see FinderQueryImpl
+ * @since 3.1.3
+ */
+public class CompiledSelect {
+
+    private final SelectImpl _select;
+    private final SQLBuffer _buffer;
+    private final String _sql;
+    private final Column[] _cols;
+    private final int[] _bindings;
+    private final ClassMapping _base;
+    private final Joins[] _joins;
+
+    private CompiledSelect(SelectImpl select, SQLBuffer buffer,
+        Column[] cols, int[] bindings, ClassMapping base, Joins[] joins) {
+        _select = select;
+        _buffer = buffer;
+        _sql = buffer.getSQL();
+        _cols = cols;
+        _bindings = bindings;
+        _base = base;
+        _joins = joins;
+    }
+
+    /**
+     * Return the signature of the parts of the given fetch configuration
+     * that shape the SQL of a relation load, or -1 if selects executed with
+     * the configuration cannot be compiled. Only configurations traversed
+     * one relation from the root with the persistence unit's default fetch
+     * plan and no lock qualify.
+     */
+    public static long getSignature(JDBCStore store,
+        JDBCFetchConfiguration fetch) {
+        if (!(store instanceof JDBCStoreManager)
+            || ((JDBCStoreManager) store).getFinderCache() == null)
+            return -1;
+        if (!(fetch instanceof FetchConfigurationImpl)
+            || ((FetchConfigurationImpl) fetch).getTraversalDepth() != 1)
+            return -1;
+        if (fetch.getReadLockLevel() != 0
+            || !fetch.isFetchConfigurationSQLCacheAdmissible())
+            return -1;
+        Object ignore = fetch.getHint(QueryHints.HINT_IGNORE_FINDER);
+        if (ignore != null && "true".equalsIgnoreCase(ignore.toString()))
+            return -1;
+
+        return ((long) fetch.getMaxFetchDepth() << 32)
+            | ((long) (fetch.getIsolation() & 0xFF) << 16)
+            | (fetch.getEagerFetchMode() << 8)
+            | (fetch.getSubclassFetchMode() << 4)
+            | fetch.getJoinSyntax();
+    }
+
+    /**
+     * Compile the given executed union that loaded the given field of the
+     * given instance, or return null if its SQL cannot be reused for other
+     * instances.
+     *
+     * @param union the executed union
+     * @param res the result of executing the union
+     * @param joins the joins used to read the result, per select
+     */
+    public static CompiledSelect newInstance(Union union, Result res,
+        Joins[] joins, OpenJPAStateManager sm, FieldMapping field,
+        JDBCStore store) {
+        if (union.isUnion() || union.getSelects().length != 1)
+            return null;
+        SelectImpl select = extractImplementation(union.getSelects()[0]);
+        if (select == null || select.isLRS() || select.getSQL() == null)
+            return null;
+
+        ClassMapping owner = field.getDefiningMapping();
+        Object[] vals = getKeyValues(owner, sm, store);
+        if (vals == null)
+            return null;
+
+        // every parameter must be one of the owner's key values, and every
+        // key value must be bound exactly once
+        SQLBuffer buffer = select.getSQL();
+        List params = buffer.getParameters();
+        if (params.size() != vals.length)
+            return null;
+        int[] bindings = new int[params.size()];
+        boolean[] bound = new boolean[vals.length];
+        for (int i = 0; i < bindings.length; i++) {
+            bindings[i] = -1;
+            for (int j = 0; j < vals.length; j++) {
+                if (!vals[j].equals(params.get(i)))
+                    continue;
+                if (bindings[i] != -1 || bound[j])
+                    return null;
+                bindings[i] = j;
+            }
+            if (bindings[i] == -1)
+                return null;
+            bound[bindings[i]] = true;
+        }
+
+        List cols = buffer.getColumns();
+        Column[] pcols = new Column[bindings.length];
+        for (int i = 0; cols != null && i < pcols.length; i++)
+            pcols[i] = (Column) cols.get(i);
+        return new CompiledSelect(select, buffer, pcols, bindings,
+            res.getBaseMapping(), joins.clone());
+    }
+
+    private static SelectImpl extractImplementation(SelectExecutor sel) {
+        if (sel.hasMultipleSelects())
+            return null;
+        if (sel instanceof SelectImpl)
+            return (SelectImpl) sel;
+        if (sel instanceof LogicalUnion.UnionSelect)
+            return ((LogicalUnion.UnionSelect) sel).getDelegate();
+        return null;
+    }
+
+    /**
+     * Return the values of the given mapping's primary key columns for the
+     * given instance, or null if any is unknown.
+     */
+    private static Object[] getKeyValues(ClassMapping owner,
+        OpenJPAStateManager sm, JDBCStore store) {
+        Object oid = sm.getObjectId();
+        if (oid == null || owner.getEmbeddingMapping() != null)
+            return null;
+        Column[] pkCols = owner.getPrimaryKeyColumns();
+        Object[] vals = new Object[pkCols.length];
+        if (owner.getIdentityType() == ClassMetaData.ID_DATASTORE) {
+            if (vals.length != 1 || !(oid instanceof Id))
+                return null;
+            vals[0] = ((Id) oid).getId();
+            return vals;
+        }
+
+        Object[] pks = ApplicationIds.toPKValues(oid, owner);
+        Joinable join;
+        FieldMetaData pk;
+        for (int i = 0; i < pkCols.length; i++) {
+            join = owner.assertJoinable(pkCols[i]);
+            pk = owner.getField(join.getFieldIndex());
+            vals[i] = join.getJoinValue(pks[(pk == null) ? 0
+                : pk.getPrimaryKeyIndex()], pkCols[i], store);
+            if (vals[i] == null)
+                return null;
+        }
+        return vals;
+    }
+
+    /**
+     * The SQL of this template.
+     */
+    public String getQueryString() {
+        return _sql;
+    }
+
+    /**
+     * The joins to read the result of {@link #execute} with, per select.
+     */
+    public Joins[] getJoins() {
+        return _joins;
+    }
+
+    /**
+     * Execute this template for the given instance, or return null if the
+     * instance's key values cannot be bound.
+     */
+    public Result execute(OpenJPAStateManager sm, FieldMapping field,
+        JDBCStore store, JDBCFetchConfiguration fetch)
+        throws SQLException {
+        Object[] vals = getKeyValues(field.getDefiningMapping(), sm,
+            store);
+        if (vals == null)
+            return null;
+        Object[] params = new Object[_bindings.length];
+        for (int i = 0; i < params.length; i++)
+            params[i] = vals[_bindings[i]];
+
+        Connection conn = store.getConnection();
+        DBDictionary dict = store.getDBDictionary();
+        PreparedStatement stmnt = null;
+        ResultSet rs;
+        try {
+            stmnt = _select.prepareStatement(conn, _sql);
+            for (int i = 0; i < params.length; i++)
+                dict.setUnknown(stmnt, i + 1, params[i], _cols[i]);
+            dict.setTimeouts(stmnt, fetch, false);
+            rs = _select.executeQuery(conn, stmnt, _sql, store, params,
+                _cols);
+        } catch (SQLException se) {
+            if (stmnt != null)
+                try { stmnt.close(); } catch (SQLException se2) {}
+            try { conn.close(); } catch (SQLException se2) {}
+            throw se;
+        }
+        Result res = _select.getEagerResult(conn, stmnt, rs, store, fetch,
+            false, _buffer);
+        res.setBaseMapping(_base);
+        return res;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + _sql + "]";
+    }
+}
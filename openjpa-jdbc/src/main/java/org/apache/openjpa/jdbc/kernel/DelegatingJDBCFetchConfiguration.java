@@ -340,4 +340,23 @@ public class DelegatingJDBCFetchConfiguration
             throw translate(re);
         }
     }
+
+    @Override
+    public int getRelationBatchSize() {
+        try {
+            return getJDBCDelegate().getRelationBatchSize();
+        } catch (RuntimeException re) {
+            throw translate(re);
+        }
+    }
+
+    @Override
+    public JDBCFetchConfiguration setRelationBatchSize(int size) {
+        try {
+            getJDBCDelegate().setRelationBatchSize(size);
+            return this;
+        } catch (RuntimeException re) {
+            throw translate(re);
+        }
+    }
 }
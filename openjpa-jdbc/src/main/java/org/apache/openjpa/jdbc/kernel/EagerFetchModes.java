@@ -42,4 +42,14 @@ public interface EagerFetchModes {
      * using either joins or parallel queries.
      */
     int EAGER_PARALLEL = 2;
+
+    /**
+     * Constant indicating to load relations and subclass data if possible
+     * using either joins or separate queries limited to the primary keys
+     * of the instances already read, rather than re-running the original
+     * query for each parallel select.
+     *
+     * @since 3.1.3
+     */
+    int EAGER_SUBSELECT = 3;
 }
@@ -21,11 +21,12 @@ package org.apache.openjpa.jdbc.kernel;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.openjpa.jdbc.meta.ClassMapping;
@@ -38,9 +39,12 @@ import org.apache.openjpa.kernel.QueryHints;
 import org.apache.openjpa.kernel.QueryStatistics;
 import org.apache.openjpa.lib.conf.Configuration;
 import org.apache.openjpa.lib.util.StringUtil;
+import org.apache.openjpa.lib.util.concurrent.ConcurrentLRUMap;
 
 /**
- * Implementation of FinderCache for JDBC.
+ * Implementation of FinderCache for JDBC. Lookups take no lock. The cache
+ * holds at most a configurable number of finders and evicts the least
+ * recently used ones beyond that size.
  *
  * @author Pinaki Poddar
  *
@@ -55,14 +59,20 @@ public class FinderCacheImpl
     private final Map<ClassMapping, FinderQuery<ClassMapping, SelectExecutor, Result>> _delegate;
     // Key: class name Value: Reason why excluded
     private final Map<String, String> _uncachables;
-    private List<String> _exclusionPatterns;
+    private volatile List<String> _exclusionPatterns;
     private QueryStatistics<ClassMapping> _stats;
     private ReentrantLock _lock = new ReentrantLock();
     private boolean _enableStats = false;
 
     public FinderCacheImpl() {
-        _delegate = new HashMap<>();
-        _uncachables = new HashMap<>();
+        _delegate = new ConcurrentLRUMap<ClassMapping, FinderQuery<ClassMapping, SelectExecutor, Result>>(1000) {
+            @Override
+            public void overflowRemoved(ClassMapping key,
+                FinderQuery<ClassMapping, SelectExecutor, Result> value) {
+                _stats.recordEviction(key);
+            }
+        };
+        _uncachables = new ConcurrentHashMap<>();
         _stats = new QueryStatistics.None<>();
     }
 
@@ -73,17 +83,13 @@ public class FinderCacheImpl
      */
     @Override
     public Map<String, String> getMapView() {
-        lock();
-        try {
-            Map<String, String> view = new TreeMap<>();
-            for (ClassMapping mapping : _delegate.keySet()) {
-                view.put(mapping.getDescribedType().getName(),
-                    _delegate.get(mapping).getQueryString());
-            }
-            return view;
-        } finally {
-            unlock();
+        Map<String, String> view = new TreeMap<>();
+        for (Map.Entry<ClassMapping, FinderQuery<ClassMapping, SelectExecutor, Result>> entry
+            : _delegate.entrySet()) {
+            view.put(entry.getKey().getDescribedType().getName(),
+                entry.getValue().getQueryString());
         }
+        return view;
     }
 
     /**
@@ -125,6 +131,8 @@ public class FinderCacheImpl
         }
         FinderQuery<ClassMapping, SelectExecutor, Result> result = _delegate.get(mapping);
         _stats.recordExecution(mapping);
+        if (result == null)
+            _stats.recordMiss(mapping);
         return result;
     }
 
@@ -215,7 +223,7 @@ public class FinderCacheImpl
         lock();
         try {
             if (_exclusionPatterns == null)
-                _exclusionPatterns = new ArrayList<>();
+                _exclusionPatterns = new CopyOnWriteArrayList<>();
             _exclusionPatterns.add(pattern);
             Collection<ClassMapping> invalidMappings = getMatchedKeys(pattern,
                     _delegate.keySet());
@@ -351,7 +359,7 @@ public class FinderCacheImpl
             if (StringUtil.isEmpty(excludes))
                 return;
             if (_exclusionPatterns == null)
-                _exclusionPatterns = new ArrayList<>();
+                _exclusionPatterns = new CopyOnWriteArrayList<>();
             String[] patterns = excludes.split(PATTERN_SEPARATOR);
             for (String pattern : patterns)
                 addExclusionPattern(pattern);
@@ -395,6 +403,20 @@ public class FinderCacheImpl
     public boolean getEnableStats() {
         return _enableStats;
     }
+
+    /**
+     * The maximum number of finders to cache. Defaults to 1000; a negative
+     * value means no limit.
+     *
+     * @since 3.1.3
+     */
+    public void setMaxCacheSize(int size) {
+        ((ConcurrentLRUMap<?, ?>) _delegate).setMaxSize(size);
+    }
+
+    public int getMaxCacheSize() {
+        return ((ConcurrentLRUMap<?, ?>) _delegate).getMaxSize();
+    }
     // ----------------------------------------------------
     //  Configuration contract
     // ----------------------------------------------------
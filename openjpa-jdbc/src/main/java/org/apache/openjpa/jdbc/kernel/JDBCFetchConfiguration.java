@@ -261,4 +261,25 @@ public interface JDBCFetchConfiguration
      * @since 2.2.0
      */
     void setIgnoreDfgForFkSelect(boolean b);
+
+    /**
+     * The number of instances whose lazy relation field is loaded together
+     * when the field is first accessed on one of them. The other instances
+     * are the managed instances of the same type whose field is not yet
+     * loaded; their relations are selected by primary key in a single
+     * batch. Values of 1 or less disable batch loading. Fields can override
+     * this value in their mapping. Defaults to 0.
+     *
+     * @since 3.1.3
+     */
+    int getRelationBatchSize();
+
+    /**
+     * The number of instances whose lazy relation field is loaded together
+     * when the field is first accessed on one of them.
+     *
+     * @see #getRelationBatchSize
+     * @since 3.1.3
+     */
+    JDBCFetchConfiguration setRelationBatchSize(int size);
 }
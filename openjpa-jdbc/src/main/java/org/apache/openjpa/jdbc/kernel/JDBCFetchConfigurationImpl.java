@@ -76,6 +76,7 @@ public class JDBCFetchConfigurationImpl
         populateHintSetter(target, "LRSSize", int.class, prefixes);
         populateHintSetter(target, "setLRSSize", "LRSSizeAlgorithm", int.class, prefixes);
         populateHintSetter(target, "ResultSetType", int.class, prefixes);
+        populateHintSetter(target, "RelationBatchSize", int.class, prefixes);
     }
 
     /**
@@ -94,6 +95,7 @@ public class JDBCFetchConfigurationImpl
         public Set<String> fetchInnerJoins = null;
         public int isolationLevel = -1;
         public boolean ignoreDfgForFkSelect = false;
+        public int relationBatchSize = 0;
     }
 
     protected final JDBCConfigurationState _state;
@@ -141,6 +143,7 @@ public class JDBCFetchConfigurationImpl
         setJoinSyntax(jf.getJoinSyntax());
         addJoins(jf.getJoins());
         setIgnoreDfgForFkSelect(jf.getIgnoreDfgForFkSelect());
+        setRelationBatchSize(jf.getRelationBatchSize());
     }
 
     @Override
@@ -163,7 +166,8 @@ public class JDBCFetchConfigurationImpl
         if (mode != DEFAULT
             && mode != EagerFetchModes.EAGER_NONE
             && mode != EagerFetchModes.EAGER_JOIN
-            && mode != EagerFetchModes.EAGER_PARALLEL)
+            && mode != EagerFetchModes.EAGER_PARALLEL
+            && mode != EagerFetchModes.EAGER_SUBSELECT)
             throw new IllegalArgumentException(_loc.get("bad-fetch-mode", Integer.valueOf(mode)).getMessage());
 
         if (mode == DEFAULT) {
@@ -196,7 +200,8 @@ public class JDBCFetchConfigurationImpl
         if (mode != DEFAULT
             && mode != EagerFetchModes.EAGER_NONE
             && mode != EagerFetchModes.EAGER_JOIN
-            && mode != EagerFetchModes.EAGER_PARALLEL)
+            && mode != EagerFetchModes.EAGER_PARALLEL
+            && mode != EagerFetchModes.EAGER_SUBSELECT)
             throw new IllegalArgumentException(_loc.get("bad-fetch-mode", Integer.valueOf(mode)).getMessage());
 
         if (mode == DEFAULT) {
@@ -204,6 +209,10 @@ public class JDBCFetchConfigurationImpl
             if (conf != null)
                 mode = conf.getSubclassFetchModeConstant();
         }
+        // subclass data is not owned by other instances, so there are no
+        // keys to limit a subselect by
+        if (mode == EagerFetchModes.EAGER_SUBSELECT)
+            mode = EagerFetchModes.EAGER_PARALLEL;
         if (mode != DEFAULT)
             _state.subclassMode = mode;
         return this;
@@ -426,6 +435,17 @@ public class JDBCFetchConfigurationImpl
         return this;
     }
 
+    @Override
+    public int getRelationBatchSize() {
+        return _state.relationBatchSize;
+    }
+
+    @Override
+    public JDBCFetchConfiguration setRelationBatchSize(int size) {
+        _state.relationBatchSize = (size == DEFAULT) ? 0 : size;
+        return this;
+    }
+
     @Override
     public JDBCFetchConfiguration traverseJDBC(FieldMetaData fm) {
         return (JDBCFetchConfiguration) traverse(fm);
@@ -23,10 +23,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -43,10 +45,12 @@ import org.apache.openjpa.jdbc.meta.Discriminator;
 import org.apache.openjpa.jdbc.meta.FieldMapping;
 import org.apache.openjpa.jdbc.meta.ValueMapping;
 import org.apache.openjpa.jdbc.meta.strats.SuperclassDiscriminatorStrategy;
+import org.apache.openjpa.jdbc.schema.Column;
 import org.apache.openjpa.jdbc.sql.DBDictionary;
 import org.apache.openjpa.jdbc.sql.JoinSyntaxes;
 import org.apache.openjpa.jdbc.sql.Joins;
 import org.apache.openjpa.jdbc.sql.Result;
+import org.apache.openjpa.jdbc.sql.SQLBuffer;
 import org.apache.openjpa.jdbc.sql.SQLExceptions;
 import org.apache.openjpa.jdbc.sql.SQLFactory;
 import org.apache.openjpa.jdbc.sql.Select;
@@ -55,6 +59,7 @@ import org.apache.openjpa.jdbc.sql.Union;
 import org.apache.openjpa.kernel.BrokerImpl;
 import org.apache.openjpa.kernel.FetchConfiguration;
 import org.apache.openjpa.kernel.FinderCache;
+import org.apache.openjpa.kernel.LockLevels;
 import org.apache.openjpa.kernel.LockManager;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.PCState;
@@ -70,6 +75,7 @@ import org.apache.openjpa.lib.jdbc.DelegatingStatement;
 import org.apache.openjpa.lib.log.Log;
 import org.apache.openjpa.lib.rop.MergedResultObjectProvider;
 import org.apache.openjpa.lib.rop.ResultObjectProvider;
+import org.apache.openjpa.lib.util.Closeable;
 import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.meta.FieldMetaData;
@@ -112,6 +118,10 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
     private List<CancelPreparedStatement> _cancelPreparedStatementsPool = new ArrayList<>();
     private List<CancelStatement> _cancelStatementPool = new ArrayList<>();
 
+    // ids of loaded instances that may batch load a relation field, for
+    // each field batch loaded in the current transaction; see loadBatch
+    private Map<FieldMapping, BatchCandidates> _batchCandidates = null;
+
     @Override
     public StoreContext getContext() {
         return _ctx;
@@ -214,6 +224,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             throw SQLExceptions.getStore(se, _dict);
         } finally {
             _active = false;
+            _batchCandidates = null;
         }
     }
 
@@ -232,6 +243,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             throw SQLExceptions.getStore(se, _dict);
         } finally {
             _active = false;
+            _batchCandidates = null;
         }
     }
 
@@ -415,7 +427,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
                         // setInverseRelation() when the sm owner is fully
                         // initialized.
                         int index = mappedByFieldMapping.getIndex();
-                        if (sm.getLoaded().get(index)) {
+                        if (sm.isLoaded(index)) {
                             sm.setImplData(index, mappedByObject);
                         } else {
                             sm.setIntermediate(index, mappedByObject);
@@ -432,6 +444,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
                 getVersion(mapping, sm, res);
                 setInverseRelation(sm, mapping, res);
             }
+            addBatchCandidate(sm);
             return true;
         } finally {
             if (res != null && (info == null || res != info.result))
@@ -695,12 +708,13 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             // now allow the fields to load themselves individually too
             FieldMapping[] fms = mapping.getFieldMappings();
             for (int i = 0; i < fms.length; i++)
-                if (fields.get(i) && (!sm.getLoaded().get(i) || sm.isDelayed(i))) {
+                if (fields.get(i) && (!sm.isLoaded(i) || sm.isDelayed(i))) {
                     if (_log.isTraceEnabled()) {
                         _log.trace("load field: '"+ fms[i].getName() + "' for oid="+sm.getObjectId()
                             +" "+mapping.getDescribedType());
                     }
-                    fms[i].load(sm, this, jfetch.traverseJDBC(fms[i]));
+                    if (!loadBatch(sm, fms[i], jfetch, lockLevel))
+                        fms[i].load(sm, this, jfetch.traverseJDBC(fms[i]));
                 }
             mapping.getVersion().afterLoad(sm, this);
             return true;
@@ -711,6 +725,145 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         }
     }
 
+    /**
+     * Load the given relation field of the given instance in a single select
+     * together with the same field of other managed instances holding it,
+     * such as instances of subclasses inheriting it, that have not loaded
+     * it yet, up to the field's relation batch size.
+     * Candidates are taken from a queue of the field, so that each loaded
+     * instance is only considered once rather than on every lazy load.
+     *
+     * @return false if the field was not batch loaded
+     */
+    private boolean loadBatch(OpenJPAStateManager sm, FieldMapping fm,
+        JDBCFetchConfiguration fetch, int lockLevel)
+        throws SQLException {
+        int size = fm.getRelationBatchSize();
+        if (size == FetchConfiguration.DEFAULT)
+            size = fetch.getRelationBatchSize();
+        int idx = fm.getIndex();
+        if (size <= 1 || lockLevel != LockLevels.LOCK_NONE
+            || fm.getRelationType() == null || fm.isLRS()
+            || sm.isEmbedded() || sm.isDelayed(idx))
+            return false;
+
+        // check the field can be selected before taking candidates from
+        // its queue, so that they stay queued if it cannot
+        JDBCFetchConfiguration tfetch = fetch.traverseJDBC(fm);
+        Select sel = _sql.newSelect();
+        int unions = fm.supportsSelect(sel, Select.EAGER_PARALLEL, sm, this,
+            tfetch);
+        if (unions == 0)
+            return false;
+
+        // find other instances holding the field that have not loaded it
+        BatchCandidates candidates = getBatchCandidates(sm, fm, size);
+        List<OpenJPAStateManager> sms = new ArrayList<>(size);
+        sms.add(sm);
+        StoreContext ctx = getContext();
+        OpenJPAStateManager osm;
+        Object pc;
+        while (sms.size() < size && !candidates.isEmpty()) {
+            pc = ctx.findCached(candidates.poll(), null);
+            osm = (pc == null) ? null : ctx.getStateManager(pc);
+            if (osm == null || osm == sm || !hasField(osm, fm)
+                || osm.getPCState() == PCState.HOLLOW || osm.isNew()
+                || osm.isDeleted() || osm.isLoaded(idx)
+                || osm.isDelayed(idx) || sms.contains(osm))
+                continue;
+            sms.add(osm);
+        }
+        if (sms.size() == 1)
+            return false;
+
+        // limit the select to the batch, as a paged result limits its
+        // eager selects to a page
+        Object[] pcs = new Object[sms.size()];
+        for (int i = 0; i < pcs.length; i++)
+            pcs[i] = sms.get(i).getManagedInstance();
+        ClassMapping owner = fm.getDefiningMapping();
+        Column[] pks = owner.getPrimaryKeyColumns();
+        SQLBuffer buf = new SQLBuffer(_dict);
+        if (pks.length == 1)
+            PagingResultObjectProvider.createInContains(sel, _dict, buf,
+                owner, pks, pcs, 0, pcs.length, this);
+        else
+            PagingResultObjectProvider.orContains(sel, buf, owner, pks, pcs,
+                0, pcs.length, this);
+        sel.where(buf);
+
+        SelectExecutor esel = (unions > 1) ? sel.whereClone(unions) : sel;
+        fm.selectEagerParallel(esel, null, this, tfetch,
+            EagerFetchModes.EAGER_PARALLEL);
+        Object res = esel.execute(this, tfetch);
+        try {
+            for (OpenJPAStateManager bsm : sms)
+                res = fm.loadEagerParallel(bsm, this, tfetch, res);
+        } finally {
+            if (res instanceof Closeable)
+                try { ((Closeable) res).close(); } catch (Exception e) {}
+        }
+        return true;
+    }
+
+    /**
+     * Return the queue of instances that may batch load the given field
+     * together with the given instance. The queue is seeded with the
+     * managed instances on first use, and later kept current as instances
+     * are loaded. A queue that dropped instances on overflow is seeded
+     * again once it runs empty.
+     */
+    private BatchCandidates getBatchCandidates(OpenJPAStateManager sm,
+        FieldMapping fm, int size) {
+        if (_batchCandidates == null)
+            _batchCandidates = new HashMap<>();
+        BatchCandidates candidates = _batchCandidates.get(fm);
+        if (candidates == null) {
+            candidates = new BatchCandidates(size);
+            _batchCandidates.put(fm, candidates);
+        } else if (!candidates.isEmpty() || !candidates.isDropped())
+            return candidates;
+
+        candidates.setDropped(false);
+        StoreContext ctx = getContext();
+        int idx = fm.getIndex();
+        OpenJPAStateManager osm;
+        for (Object pc : ctx.getManagedObjects()) {
+            osm = ctx.getStateManager(pc);
+            if (osm != null && osm != sm && hasField(osm, fm)
+                && !osm.isNew() && !osm.isLoaded(idx))
+                candidates.add(osm.getObjectId());
+        }
+        return candidates;
+    }
+
+    /**
+     * Add the given newly-loaded instance to the batch load queues of the
+     * fields it has not loaded.
+     */
+    private void addBatchCandidate(OpenJPAStateManager sm) {
+        if (_batchCandidates == null)
+            return;
+        FieldMapping fm;
+        for (Map.Entry<FieldMapping, BatchCandidates> entry
+            : _batchCandidates.entrySet()) {
+            fm = entry.getKey();
+            if (hasField(sm, fm) && !sm.isLoaded(fm.getIndex()))
+                entry.getValue().add(sm.getObjectId());
+        }
+    }
+
+    /**
+     * Whether the given instance holds the given field. Subclasses share
+     * the mappings of the fields they inherit, so their instances may batch
+     * load these fields together with instances of their superclass.
+     */
+    private static boolean hasField(OpenJPAStateManager sm, FieldMapping fm) {
+        FieldMetaData[] fmds = sm.getMetaData().getFields();
+        int idx = fm.getIndex();
+        return idx < fmds.length && fmds[idx] == fm;
+    }
+
     private boolean isDelayedLoadOnly(OpenJPAStateManager sm, BitSet fields, ClassMapping mapping) {
         if (!sm.getContext().getConfiguration().getProxyManagerInstance().getDelayCollectionLoading()
             || fields.isEmpty()) {
@@ -719,7 +872,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         FieldMapping[] fms = mapping.getFieldMappings();
         for (int i = 0; i < fms.length; i++) {
             if (fields.get(i)) {
-                if (!(fms[i].isDelayCapable() && (!sm.getLoaded().get(i) || sm.isDelayed(i)))) {
+                if (!(fms[i].isDelayCapable() && (!sm.isLoaded(i) || sm.isDelayed(i)))) {
                     return false;
                 }
             }
@@ -731,9 +884,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
      * Return a list formed by removing all loaded fields from the given one.
      */
     private void removeLoadedFields(OpenJPAStateManager sm, BitSet fields) {
-        for (int i = 0, len = fields.length(); i < len; i++)
-            if (fields.get(i) && sm.getLoaded().get(i))
-                fields.clear(i);
+        fields.andNot(sm.getLoaded());
     }
 
     @Override
@@ -745,6 +896,9 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
     @Override
     public void beforeStateChange(OpenJPAStateManager sm, PCState fromState,
         PCState toState) {
+        // instances are released when the context is cleared
+        if (toState == PCState.TRANSIENT)
+            _batchCandidates = null;
     }
 
     @Override
@@ -924,7 +1078,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         int subs = (subclasses) ? Select.SUBS_JOINABLE : Select.SUBS_NONE;
         // decide between paging and standard iteration
         BitSet paged = PagingResultObjectProvider.getPagedFields(sel, mapping,
-            this, fetch, EagerFetchModes.EAGER_PARALLEL,
+            this, fetch, EagerFetchModes.EAGER_SUBSELECT,
             Long.MAX_VALUE);
         if (paged == null)
             sel.selectIdentifier(mapping, subs, this, fetch,
@@ -987,6 +1141,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
 
     @Override
     public void close() {
+        _batchCandidates = null;
         if (_conn != null)
             _conn.free();
     }
@@ -1134,7 +1289,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         FieldMapping[] fms = mapping.getDefinedFieldMappings();
         Object eres, processed;
         for (int i = 0; i < fms.length; i++) {
-            if (fms[i].isPrimaryKey() || sm.getLoaded().get(fms[i].getIndex()))
+            if (fms[i].isPrimaryKey() || sm.isLoaded(fms[i].getIndex()))
                 continue;
 
             // check for eager result, and if not present do standard load
@@ -1277,7 +1432,9 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             // try to select with join first
             jtype = (fms[i].getNullValue() == FieldMetaData.NULL_EXCEPTION)
                 ? Select.EAGER_INNER : Select.EAGER_OUTER;
-            if (mode != EagerFetchModes.EAGER_PARALLEL && !fms[i].isEagerSelectToMany()
+            if (mode != EagerFetchModes.EAGER_PARALLEL
+                && mode != EagerFetchModes.EAGER_SUBSELECT
+                && !fms[i].isEagerSelectToMany()
                 && fms[i].supportsSelect(sel, jtype, sm, this, fetch) > 0
                 && sel.eagerClone(fms[i], jtype, false, 1) != null)
                 continue;
@@ -1304,8 +1461,9 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
                     continue;
             }
 
-            // finally, try parallel
-            if (eager == EagerFetchModes.EAGER_PARALLEL
+            // finally, try parallel; fields that page their subselects are
+            // never cloned here, so subselect mode falls back to parallel
+            if (eager >= EagerFetchModes.EAGER_PARALLEL
                 && (sels = fms[i].supportsSelect(sel, Select.EAGER_PARALLEL, sm,
                 this, fetch)) != 0)
                 sel.eagerClone(fms[i], Select.EAGER_PARALLEL,
@@ -1322,7 +1480,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         if (fields != null)
             return fields.get(fm.getIndex());
         if (sm != null && sm.getPCState() != PCState.TRANSIENT
-            && sm.getLoaded().get(fm.getIndex()))
+            && sm.isLoaded(fm.getIndex()))
             return false;
         return fetch.requiresFetch(fm) == FetchConfiguration.FETCH_LOAD;
     }
@@ -1450,7 +1608,7 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
             fetch.getIgnoreDfgForFkSelect() ||
                 !fm.isInDefaultFetchGroup() && !fm.isDefaultFetchGroupExplicit();
 
-        return dfg && (sm == null || sm.getPCState() == PCState.TRANSIENT || !sm.getLoaded().get(fm.getIndex()))
+        return dfg && (sm == null || sm.getPCState() == PCState.TRANSIENT || !sm.isLoaded(fm.getIndex()))
             && fm.supportsSelect(sel, Select.TYPE_TWO_PART, sm, this, fetch) > 0;
     }
 
@@ -1727,6 +1885,51 @@ public class JDBCStoreManager implements StoreManager, JDBCStore {
         return new CancelStatement(stmnt, conn);
     }
 
+    /**
+     * Queue of the ids of instances that may batch load a field. It holds
+     * at most {@link #BATCHES} batches; beyond that the oldest ids are
+     * dropped.
+     */
+    private static class BatchCandidates {
+
+        private static final int BATCHES = 16;
+
+        private final ArrayDeque<Object> _oids = new ArrayDeque<>();
+        private final int _limit;
+        private boolean _dropped = false;
+
+        public BatchCandidates(int size) {
+            _limit = size * BATCHES;
+        }
+
+        public void add(Object oid) {
+            if (_oids.size() >= _limit) {
+                _oids.poll();
+                _dropped = true;
+            }
+            _oids.add(oid);
+        }
+
+        public Object poll() {
+            return _oids.poll();
+        }
+
+        public boolean isEmpty() {
+            return _oids.isEmpty();
+        }
+
+        /**
+         * Whether ids were dropped since the queue was last seeded.
+         */
+        public boolean isDropped() {
+            return _dropped;
+        }
+
+        public void setDropped(boolean dropped) {
+            _dropped = dropped;
+        }
+    }
+
     /**
      * Statement type that adds and removes itself from the set of active
      * statements so that it can be canceled.
@@ -485,7 +485,7 @@ public class JDBCStoreQuery
      * The eager mode depends on the unique setting and range. If the range
      * produces 0 results, use eager setting of none. If it produces 1 result
      * or the query is unique, use an eager setting of single. Otherwise use
-     * an eager mode of multiple.
+     * an eager mode of multiple, batched by subselects if so configured.
      */
     private int calculateEagerMode(QueryExpressions exps, long start,
         long end) {
@@ -493,7 +493,7 @@ public class JDBCStoreQuery
             return EagerFetchModes.EAGER_NONE;
         if (end - start == 1 || ctx.isUnique())
             return EagerFetchModes.EAGER_JOIN;
-        return EagerFetchModes.EAGER_PARALLEL;
+        return EagerFetchModes.EAGER_SUBSELECT;
     }
 
     @Override
@@ -21,6 +21,9 @@ package org.apache.openjpa.jdbc.kernel;
 import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import org.apache.openjpa.jdbc.meta.ClassMapping;
 import org.apache.openjpa.jdbc.meta.FieldMapping;
@@ -42,8 +45,9 @@ import org.apache.openjpa.util.InternalException;
  * non-null bit set, this this provider is a good fit for your configuration.
  * The method tests the following conditions:
  * <ul>
- * <li>The eager fetch mode is <code>parallel</code>.</li>
- * <li>The select's result should be treated as a large result set.</li>
+ * <li>The eager fetch mode is <code>parallel</code> and the select's result
+ * should be treated as a large result set, or the eager fetch mode is
+ * <code>subselect</code>.</li>
  * <li>The mapping being selected has fields that use parallel selects
  * under the current fetch configuration.</li>
  * </ul>
@@ -56,6 +60,8 @@ import org.apache.openjpa.util.InternalException;
 public class PagingResultObjectProvider
     extends SelectResultObjectProvider {
 
+    private static final int SUBSELECT_PAGE_SIZE = 1000;
+
     private final ClassMapping[] _mappings;
     private final Object[] _page;
     private final int[] _idxs;
@@ -73,25 +79,16 @@ public class PagingResultObjectProvider
     public static BitSet getPagedFields(Select sel, ClassMapping mapping,
         JDBCStore store, JDBCFetchConfiguration fetch, int eagerMode,
         long size) {
-        // if we have a range then we always use paging if there are any
-        // eager select fields; otherwise it depends on lrs and fetch settings
-        if (size == Long.MAX_VALUE || !sel.getAutoDistinct()) {
-            // not lrs?
-            if (!sel.isLRS())
-                return null;
-            // not configured for lazy loading?
-            if (fetch.getFetchBatchSize() < 0)
-                return null;
-        }
-
         // not configured for eager selects?
         eagerMode = Math.min(eagerMode, fetch.getEagerFetchMode());
-        if (eagerMode != EagerFetchModes.EAGER_PARALLEL)
+        if (eagerMode != EagerFetchModes.EAGER_PARALLEL
+            && eagerMode != EagerFetchModes.EAGER_SUBSELECT)
             return null;
 
         // are there any mappings that require batched selects?
         FieldMapping[] fms = mapping.getDefinedFieldMappings();
         BitSet paged = null;
+        boolean subselect = eagerMode == EagerFetchModes.EAGER_SUBSELECT;
         for (int i = 0; i < fms.length; i++) {
             if (fetch.requiresFetch(fms[i]) != FetchConfiguration.FETCH_LOAD)
                 continue;
@@ -103,8 +100,25 @@ public class PagingResultObjectProvider
                 if (paged == null)
                     paged = new BitSet();
                 paged.set(fms[i].getIndex());
+                if (fms[i].getEagerFetchMode()
+                    == EagerFetchModes.EAGER_SUBSELECT)
+                    subselect = true;
             }
         }
+        if (paged == null)
+            return null;
+
+        // subselects are limited to the instances of each page, so they
+        // always page; if we have a range then we always use paging too,
+        // otherwise it depends on lrs and fetch settings
+        if (!subselect && (size == Long.MAX_VALUE || !sel.getAutoDistinct())) {
+            // not lrs?
+            if (!sel.isLRS())
+                return null;
+            // not configured for lazy loading?
+            if (fetch.getFetchBatchSize() < 0)
+                return null;
+        }
         return paged;
     }
 
@@ -153,10 +167,15 @@ public class PagingResultObjectProvider
         // try to find a good page size.  if the known size < batch size, use
         // it.  if the batch size is set, then use that; if it's sorta close
         // to the size, then use the size / 2 to get two full pages rather
-        // than a possible big one and small one
+        // than a possible big one and small one.  an unbounded result that
+        // is not lazily loaded only pages for subselects, so use pages as
+        // large as the database's IN clauses
         int batch = getFetchConfiguration().getFetchBatchSize();
         int pageSize;
-        if (batch < 0)
+        if (batch < 0 && size == Long.MAX_VALUE) {
+            int limit = store.getDBDictionary().inClauseLimit;
+            pageSize = (limit > 0) ? limit : SUBSELECT_PAGE_SIZE;
+        } else if (batch < 0)
             pageSize = (int) size;
         else {
             if (batch == 0)
@@ -349,9 +368,10 @@ public class PagingResultObjectProvider
         SQLBuffer buf = new SQLBuffer(dict);
         Column[] pks = mapping.getPrimaryKeyColumns();
         if (pks.length == 1)
-            createInContains(sel, dict, buf, mapping, pks, start, end);
+            createInContains(sel, dict, buf, mapping, pks, _page, start, end,
+                store);
         else
-            orContains(sel, buf, mapping, pks, start, end);
+            orContains(sel, buf, mapping, pks, _page, start, end, store);
         sel.where(buf);
 
         StoreContext ctx = store.getContext();
@@ -382,10 +402,14 @@ public class PagingResultObjectProvider
                 EagerFetchModes.EAGER_PARALLEL);
             res = esel.execute(store, fetch);
             try {
-                // and load result into paged instances
+                // and load result into paged instances, once per instance
+                // in case the result holds duplicates
+                Set<Object> loaded = Collections.newSetFromMap
+                    (new IdentityHashMap<>());
                 for (int j = start; j < end && _page[j] != null; j++)
-                    res = fms[i].loadEagerParallel(ctx.getStateManager
-                        (_page[j]), store, fetch, res);
+                    if (loaded.add(_page[j]))
+                        res = fms[i].loadEagerParallel(ctx.getStateManager
+                            (_page[j]), store, fetch, res);
             } finally {
                 if (res instanceof Closeable)
                     try { ((Closeable) res).close(); } catch (Exception e) {}
@@ -394,57 +418,60 @@ public class PagingResultObjectProvider
     }
 
     /**
-     *  Based on the DBDictionary, create the needed IN clauses.
+     *  Based on the DBDictionary, create the needed IN clauses limiting the
+     *  results to the given instances. Also used to batch load relations of
+     *  instances outside of paged results.
      */
-    private void createInContains(Select sel, DBDictionary dict, SQLBuffer buf,
-        ClassMapping mapping, Column[] pks, int start, int end) {
+    static void createInContains(Select sel, DBDictionary dict, SQLBuffer buf,
+        ClassMapping mapping, Column[] pks, Object[] pcs, int start, int end,
+        JDBCStore store) {
         int inClauseLimit = dict.inClauseLimit;
         if (inClauseLimit <= 0 || end - start <= inClauseLimit)
-            inContains(sel, buf, mapping, pks, start, end);
+            inContains(sel, buf, mapping, pks, pcs, start, end, store);
         else {
             buf.append("(");
             for (int low = start, high; low < end; low = high) {
                 if (low > start)
                     buf.append(" OR ");
                 high = Math.min(low + inClauseLimit, end);
-                inContains(sel, buf, mapping, pks, low, high);
+                inContains(sel, buf, mapping, pks, pcs, low, high, store);
             }
             buf.append(")");
         }
     }
 
     /**
-     * Create an IN clause limiting the results to the current page.
+     * Create an IN clause limiting the results to the given instances.
      */
-    private void inContains(Select sel, SQLBuffer buf, ClassMapping mapping,
-        Column[] pks, int start, int end) {
+    private static void inContains(Select sel, SQLBuffer buf,
+        ClassMapping mapping, Column[] pks, Object[] pcs, int start, int end,
+        JDBCStore store) {
         buf.append(sel.getColumnAlias(pks[0])).append(" IN (");
-        for (int i = start; i < end && _page[i] != null; i++) {
+        for (int i = start; i < end && pcs[i] != null; i++) {
             if (i > start)
                 buf.append(", ");
-            buf.appendValue(mapping.toDataStoreValue(_page[i], pks,
-                getStore()), pks[0]);
+            buf.appendValue(mapping.toDataStoreValue(pcs[i], pks, store),
+                pks[0]);
         }
         buf.append(")");
     }
 
     /**
-     * Create OR conditions limiting the results to the curent page.
+     * Create OR conditions limiting the results to the given instances.
      */
-    private void orContains(Select sel, SQLBuffer buf, ClassMapping mapping,
-        Column[] pks, int start, int end) {
+    static void orContains(Select sel, SQLBuffer buf, ClassMapping mapping,
+        Column[] pks, Object[] pcs, int start, int end, JDBCStore store) {
         String[] aliases = new String[pks.length];
         for (int i = 0; i < pks.length; i++)
             aliases[i] = sel.getColumnAlias(pks[i]);
 
         Object[] vals;
         buf.append("(");
-        for (int i = start; i < end && _page[i] != null; i++) {
+        for (int i = start; i < end && pcs[i] != null; i++) {
             if (i > start)
                 buf.append(" OR ");
 
-            vals = (Object[]) mapping.toDataStoreValue(_page[i], pks,
-                getStore());
+            vals = (Object[]) mapping.toDataStoreValue(pcs[i], pks, store);
             buf.append("(");
             for (int j = 0; j < vals.length; j++) {
                 if (j > 0)
@@ -25,9 +25,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import org.apache.commons.collections4.map.AbstractReferenceMap.ReferenceStrength;
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.kernel.FetchConfiguration;
 import org.apache.openjpa.kernel.PreparedQuery;
@@ -40,10 +42,14 @@ import org.apache.openjpa.lib.conf.Configuration;
 import org.apache.openjpa.lib.log.Log;
 import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.lib.util.StringUtil;
-import org.apache.openjpa.util.CacheMap;
+import org.apache.openjpa.lib.util.concurrent.ConcurrentLRUMap;
+import org.apache.openjpa.lib.util.concurrent.ConcurrentReferenceHashMap;
 
 /**
  * An implementation of the cache of {@link PreparedQuery prepared queries}.
+ * Lookups of cached queries take no lock. The cache holds at most a
+ * configurable number of queries and evicts the least recently used ones
+ * beyond that size into a softly referenced overflow map.
  *
  * @author Pinaki Poddar
  *
@@ -54,6 +60,8 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
 	private static final String PATTERN_SEPARATOR = "\\;";
 	// Key: Query identifier
 	private final Map<String, PreparedQuery> _delegate;
+	// Key: Query identifier of entries evicted from the delegate
+	private final Map<String, PreparedQuery> _evicted;
 	// Key: Query identifier Value: Reason why excluded
 	private final Map<String, Exclusion> _uncachables;
 	private final List<Exclusion> _exclusionPatterns;
@@ -65,10 +73,23 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
 	private Log _log;
     private static Localizer _loc = Localizer.forPackage(PreparedQueryCacheImpl.class);
 
+	@SuppressWarnings("unchecked")
 	public PreparedQueryCacheImpl() {
-		_delegate = new CacheMap();
-		_uncachables = new CacheMap();
-		_exclusionPatterns = new ArrayList<>();
+		// evicted queries are softly held so that a query created from an
+		// evicted entry can still find it on execution
+		_evicted = new ConcurrentReferenceHashMap(ReferenceStrength.HARD,
+		    ReferenceStrength.SOFT, 500, .75f);
+		((ConcurrentReferenceHashMap) _evicted).setMaxSize(500);
+		_delegate = new ConcurrentLRUMap<String, PreparedQuery>(1000) {
+			@Override
+			public void overflowRemoved(String key, PreparedQuery value) {
+				_evicted.put(key, value);
+				if (_statsEnabled)
+					_stats.recordEviction(key);
+			}
+		};
+		_uncachables = new ConcurrentLRUMap<>(1000);
+		_exclusionPatterns = new CopyOnWriteArrayList<>();
 
 		ReentrantReadWriteLock _rwl = new ReentrantReadWriteLock();
         _writeLock = _rwl.writeLock();
@@ -89,6 +110,10 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
         PreparedQuery cached = get(id);
         if (cached != null)
             return null; // implies that it is already cached
+        // the only place a miss is counted; get() is also used to probe the
+        // cache outside of query execution
+        if (_statsEnabled)
+            _stats.recordMiss(id);
 
         PreparedQuery newEntry = new PreparedQueryImpl(id, query);
         return cache(newEntry);
@@ -96,15 +121,10 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
 
 	@Override
     public Map<String,String> getMapView() {
-		lock(false);
-		try {
-            Map<String, String> view = new TreeMap<>();
-            for (Map.Entry<String, PreparedQuery> entry : _delegate.entrySet())
-                view.put(entry.getKey(), entry.getValue().getTargetQuery());
-			return view;
-		} finally {
-			unlock(false);
-		}
+        Map<String, String> view = new TreeMap<>();
+        for (Map.Entry<String, PreparedQuery> entry : _delegate.entrySet())
+            view.put(entry.getKey(), entry.getValue().getTargetQuery());
+        return view;
 	}
 
 	/**
@@ -165,6 +185,7 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
 			if (_log != null && _log.isTraceEnabled())
                 _log.trace(_loc.get("prepared-query-invalidate", id));
 			boolean rc = _delegate.remove(id) != null;
+			_evicted.remove(id);
 			if (_statsEnabled && rc) {
 			    _stats.recordEviction(id);
 			}
@@ -176,26 +197,43 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
 
     @Override
     public PreparedQuery get(String id) {
+        PreparedQuery pq = _delegate.get(id);
+        if (pq != null)
+            return pq;
+
+        // the read lock excludes caching, so that an entry being moved to the
+        // evicted entries is always found in one of the maps
         lock(true);
         try {
-            return _delegate.get(id);
+            pq = _delegate.get(id);
+            if (pq != null || !_evicted.containsKey(id))
+                return pq;
         } finally {
             unlock(true);
         }
+
+        // only reinstating an evicted entry needs the write lock
+        lock(false);
+        try {
+            pq = _delegate.get(id);
+            if (pq == null) {
+                pq = _evicted.remove(id);
+                if (pq != null)
+                    _delegate.put(id, pq);
+            }
+            return pq;
+        } finally {
+            unlock(false);
+        }
     }
 
 	@Override
     public Boolean isCachable(String id) {
-		lock(true);
-		try {
-			if (_uncachables.containsKey(id))
-				return Boolean.FALSE;
-			if (_delegate.containsKey(id))
-				return Boolean.TRUE;
-			return null;
-		} finally {
-			unlock(true);
-		}
+		if (_uncachables.containsKey(id))
+			return Boolean.FALSE;
+		if (_delegate.containsKey(id) || _evicted.containsKey(id))
+			return Boolean.TRUE;
+		return null;
 	}
 
 	@Override
@@ -207,6 +245,7 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
 			        _log.trace(_loc.get("prepared-query-uncache", id, exclusion));
 			}
 			PreparedQuery pq = _delegate.remove(id);
+			_evicted.remove(id);
             if (_statsEnabled && pq != null) {
                 _stats.recordEviction(id);
             }
@@ -367,6 +406,7 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
     @Override
     public void clear() {
         _delegate.clear();
+        _evicted.clear();
         _stats.clear();
     }
 
@@ -380,8 +420,16 @@ public class PreparedQueryCacheImpl implements PreparedQueryCache {
         return _statsEnabled;
     }
 
+    /**
+     * The maximum number of queries to cache. Defaults to 1000; a negative
+     * value means no limit.
+     */
     public void setMaxCacheSize(int size) {
-        ((CacheMap)_delegate).setCacheSize(size);
+        ((ConcurrentLRUMap<?, ?>) _delegate).setMaxSize(size);
+    }
+
+    public int getMaxCacheSize() {
+        return ((ConcurrentLRUMap<?, ?>) _delegate).getMaxSize();
     }
 
     public int getCacheSize() {
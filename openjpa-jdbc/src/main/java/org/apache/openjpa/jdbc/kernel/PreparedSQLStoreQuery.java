@@ -106,8 +106,9 @@ public class PreparedSQLStoreQuery extends SQLStoreQuery {
             DBDictionary dict = store.getDBDictionary();
 
             SQLBuffer buf = new SQLBuffer(dict).append(pq.getTargetQuery());
-            Connection conn = store.getConnection();
             JDBCFetchConfiguration fetch = (JDBCFetchConfiguration)q.getContext().getFetchConfiguration();
+            SelectImpl cachedSelect = pq.getSelect();
+            Connection conn = cachedSelect.getConnection(store, fetch, false);
 
             ResultObjectProvider rop;
             PreparedStatement stmnt = null;
@@ -120,9 +121,9 @@ public class PreparedSQLStoreQuery extends SQLStoreQuery {
                 }
                 dict.setTimeouts(stmnt, fetch, false);
 
-                ResultSet rs = stmnt.executeQuery();
+                ResultSet rs = cachedSelect.pipeline(stmnt.executeQuery(), stmnt,
+                    store, fetch, false);
 
-                SelectImpl cachedSelect = pq.getSelect();
                 Result res = cachedSelect.getEagerResult(conn, stmnt, rs, store, fetch, false, null);
 
                 if (getQueryExpressions()[0].projections.length > 0) {
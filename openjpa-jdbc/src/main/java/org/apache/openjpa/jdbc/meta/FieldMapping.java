@@ -81,6 +81,7 @@ public class FieldMapping
     private Index _idx = null;
     private boolean _outer = false;
     private int _fetchMode = Integer.MAX_VALUE;
+    private int _batchSize = Integer.MAX_VALUE;
     private Unique[] _joinTableUniques; // Unique constraints on JoinTable
     private Boolean _bidirectionalJoinTableOwner = null;
     private Boolean _bidirectionalJoinTableNonOwner = null;
@@ -397,6 +398,30 @@ public class FieldMapping
         _fetchMode = mode;
     }
 
+    /**
+     * The number of instances whose relation field is loaded together when
+     * it is lazily loaded, or {@link FetchConfiguration#DEFAULT} to use the
+     * size of the fetch configuration.
+     *
+     * @since 3.1.3
+     */
+    public int getRelationBatchSize() {
+        if (_batchSize == Integer.MAX_VALUE)
+            _batchSize = FetchConfiguration.DEFAULT;
+        return _batchSize;
+    }
+
+    /**
+     * The number of instances whose relation field is loaded together when
+     * it is lazily loaded, or {@link FetchConfiguration#DEFAULT} to use the
+     * size of the fetch configuration.
+     *
+     * @since 3.1.3
+     */
+    public void setRelationBatchSize(int size) {
+        _batchSize = size;
+    }
+
     /**
      * Convenience method to perform cast from
      * {@link FieldMetaData#getRepository}
@@ -560,6 +585,8 @@ public class FieldMapping
         super.copy(fmd);
         if (_fetchMode == Integer.MAX_VALUE)
             _fetchMode = ((FieldMapping) fmd).getEagerFetchMode();
+        if (_batchSize == Integer.MAX_VALUE)
+            _batchSize = ((FieldMapping) fmd).getRelationBatchSize();
     }
 
     @Override
@@ -230,9 +230,11 @@ public class EmbedFieldStrategy
             em = new NullEmbeddedStateManager(owner, field);
         rm = new EmbeddedRowManager(rm, row);
         FieldMapping[] fields = field.getEmbeddedMapping().getFieldMappings();
+        BitSet dirty = em.getDirty();
+        BitSet flushed = em.getFlushed();
         for (int i = 0; i < fields.length; i++)
-            if (em.getDirty().get(i)
-                && !em.getFlushed().get(i)
+            if (dirty.get(i)
+                && !flushed.get(i)
                 && !Boolean.TRUE.equals(fields[i].isCustomUpdate(em, store)))
                 fields[i].update(em, store, rm);
 
@@ -244,7 +246,7 @@ public class EmbedFieldStrategy
     public void delete(OpenJPAStateManager sm, JDBCStore store, RowManager rm)
         throws SQLException {
         OpenJPAStateManager em = null;
-        if (sm.getLoaded().get(field.getIndex()))
+        if (sm.isLoaded(field.getIndex()))
             em = store.getContext().getStateManager(sm.fetchObject
                 (field.getIndex()));
         Row row = field.getRow(sm, store, rm, Row.ACTION_DELETE);
@@ -372,9 +374,11 @@ public class EmbedFieldStrategy
         if (em == null)
             em = new NullEmbeddedStateManager(sm, field);
         FieldMapping[] fields = field.getEmbeddedMapping().getFieldMappings();
+        BitSet dirty = em.getDirty();
+        BitSet flushed = em.getFlushed();
         for (int i = 0; i < fields.length; i++)
-            if (em.getDirty().get(i)
-                && !em.getFlushed().get(i)
+            if (dirty.get(i)
+                && !flushed.get(i)
                 && !Boolean.FALSE.equals(fields[i].isCustomUpdate(em, store)))
                 fields[i].customUpdate(em, store);
     }
@@ -533,7 +537,7 @@ public class EmbedFieldStrategy
                 } else {
                     fields[i].load(em, store, fetch, res);
                 }
-                needsLoad = needsLoad || (!em.getLoaded().get(i) &&
+                needsLoad = needsLoad || (!em.isLoaded(i) &&
                     fetch.requiresFetch(fields[i])
                         == FetchConfiguration.FETCH_LOAD);
             } finally {
@@ -849,6 +853,16 @@ public class EmbedFieldStrategy
             return _full;
         }
 
+        @Override
+        public boolean isLoaded(int field) {
+            return true;
+        }
+
+        @Override
+        public boolean isDirty(int field) {
+            return true;
+        }
+
         @Override
         public BitSet getFlushed() {
             return EMPTY_BITSET;
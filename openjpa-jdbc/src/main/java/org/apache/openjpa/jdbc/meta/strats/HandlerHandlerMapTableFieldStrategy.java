@@ -145,6 +145,12 @@ public class HandlerHandlerMapTableFieldStrategy
         field.mapPrimaryKey(adapt);
     }
 
+    @Override
+    protected boolean supportsEagerParallel() {
+        // batched entries are loaded without an owning instance
+        return !_kload && !_vload;
+    }
+
     @Override
     public void initialize() {
         _kload = field.getKeyMapping().getHandler().
@@ -102,6 +102,15 @@ public class HandlerRelationMapTableFieldStrategy
             store, fetch, EagerFetchModes.EAGER_NONE, joins);
     }
 
+    @Override
+    protected boolean supportsEagerParallel() {
+        // batched entries are loaded without an owning instance, and are
+        // read through the owner's join rather than the value's foreign key
+        return !_kload && !field.isUni1ToMFK()
+            && field.getElementMapping().getIndependentTypeMappings().length
+            == 1;
+    }
+
     @Override
     public Result[] getResults(final OpenJPAStateManager sm,
         final JDBCStore store, final JDBCFetchConfiguration fetch,
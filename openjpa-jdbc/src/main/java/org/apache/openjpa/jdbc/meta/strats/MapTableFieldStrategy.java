@@ -20,6 +20,7 @@ package org.apache.openjpa.jdbc.meta.strats;
 
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.openjpa.enhance.PersistenceCapable;
@@ -41,6 +42,7 @@ import org.apache.openjpa.jdbc.sql.Row;
 import org.apache.openjpa.jdbc.sql.RowImpl;
 import org.apache.openjpa.jdbc.sql.RowManager;
 import org.apache.openjpa.jdbc.sql.Select;
+import org.apache.openjpa.jdbc.sql.SelectExecutor;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.StoreContext;
 import org.apache.openjpa.lib.log.Log;
@@ -140,12 +142,114 @@ public abstract class MapTableFieldStrategy
         rm.flushAllRows(row);
     }
 
+    /**
+     * Whether the keys and values of this map can be read from a single
+     * select joined from the owner, as batched parallel and subselect eager
+     * fetching require. Returns false by default.
+     *
+     * @since 3.1.3
+     */
+    protected boolean supportsEagerParallel() {
+        return false;
+    }
+
     @Override
     public int supportsSelect(Select sel, int type, OpenJPAStateManager sm,
         JDBCStore store, JDBCFetchConfiguration fetch) {
+        if (type == Select.EAGER_PARALLEL && !field.isLRS()
+            && supportsEagerParallel())
+            return 1;
         return 0;
     }
 
+    @Override
+    public void selectEagerParallel(SelectExecutor sel, OpenJPAStateManager sm,
+        JDBCStore store, JDBCFetchConfiguration fetch, int eagerMode) {
+        // we only support parallel selects without a union
+        Select select = (Select) sel;
+        if (select.hasJoin(true))
+            select.setDistinct(true);
+        else if (!select.isDistinct())
+            select.setDistinct(false); // set explicitly so remembered
+
+        // order by the owner to group its entries, and use a variable so
+        // that conditions on this field in the original select do not
+        // limit the entries selected
+        select.orderByPrimaryKey(field.getDefiningMapping(), true, true);
+        Joins joins = join(select.newJoins().setVariable("*"), false);
+        selectKey(select, getKeyMapping(), sm, store, fetch, joins);
+        ClassMapping val = getValueMapping();
+        selectValue(select, val, sm, store, fetch,
+            joinValueRelation(joins, val));
+    }
+
+    @Override
+    public Object loadEagerParallel(OpenJPAStateManager sm, JDBCStore store,
+        JDBCFetchConfiguration fetch, Object res)
+        throws SQLException {
+        // process batched results if we haven't already
+        Map maps;
+        if (res instanceof Result)
+            maps = processEagerParallelResult(sm, store, fetch, (Result) res);
+        else
+            maps = (Map) res;
+
+        // look up the map for this oid, and store in instance
+        Object map = maps.remove(sm.getObjectId());
+        if (map == null)
+            map = sm.newProxy(field.getIndex());
+        sm.storeObject(field.getIndex(), map);
+        return maps;
+    }
+
+    /**
+     * Process the given batched result into a map of owner oids to maps.
+     */
+    private Map processEagerParallelResult(OpenJPAStateManager sm,
+        JDBCStore store, JDBCFetchConfiguration fetch, Result res)
+        throws SQLException {
+        // do same joins as for select
+        Joins keyJoins = join(res.newJoins().setVariable("*"), false);
+        Joins valJoins = joinValueRelation(join(res.newJoins().
+            setVariable("*"), false), getValueMapping());
+
+        Map maps = new HashMap();
+        ClassMapping owner = field.getDefiningMapping();
+        Object oid = null;
+        Object nextOid;
+        Map map = null;
+        while (res.next()) {
+            nextOid = owner.getObjectId(store, res, null, true, null);
+            if (map == null || !nextOid.equals(oid)) {
+                oid = nextOid;
+                map = (Map) sm.newProxy(field.getIndex());
+                maps.put(oid, map);
+            }
+            map.put(loadKey(null, store, fetch, res, keyJoins),
+                loadValue(null, store, fetch, res, valJoins));
+        }
+        res.close();
+        return maps;
+    }
+
+    /**
+     * The single independent key mapping, or null for keys that are not
+     * relations.
+     */
+    private ClassMapping getKeyMapping() {
+        ClassMapping[] keys = getIndependentKeyMappings(true);
+        return (keys.length == 0) ? null : keys[0];
+    }
+
+    /**
+     * The single independent value mapping, or null for values that are
+     * not relations.
+     */
+    private ClassMapping getValueMapping() {
+        ClassMapping[] vals = getIndependentValueMappings(true);
+        return (vals.length == 0) ? null : vals[0];
+    }
+
     @Override
     public void load(OpenJPAStateManager sm, JDBCStore store,
         JDBCFetchConfiguration fetch)
@@ -25,10 +25,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.openjpa.enhance.PersistenceCapable;
 import org.apache.openjpa.enhance.ReflectingPersistenceCapable;
 import org.apache.openjpa.jdbc.identifier.DBIdentifier;
+import org.apache.openjpa.jdbc.kernel.CompiledSelect;
 import org.apache.openjpa.jdbc.kernel.EagerFetchModes;
 import org.apache.openjpa.jdbc.kernel.JDBCFetchConfiguration;
 import org.apache.openjpa.jdbc.kernel.JDBCStore;
@@ -89,6 +91,7 @@ public class RelationFieldStrategy
         (RelationFieldStrategy.class);
 
     private Boolean _fkOid = null;
+    private transient Map<Long, CompiledSelect> _compiled = null;
 
     @Override
     public void map(boolean adapt) {
@@ -415,7 +418,7 @@ public class RelationFieldStrategy
             return;
 
         if (field.getJoinDirection() == ValueMapping.JOIN_INVERSE) {
-            if (sm.getLoaded().get(field.getIndex())) {
+            if (sm.isLoaded(field.getIndex())) {
                 OpenJPAStateManager rel = RelationStrategies.getStateManager(sm.
                     fetchObjectField(field.getIndex()), store.getContext());
                 updateInverse(sm, rel, store, rm);
@@ -815,9 +818,48 @@ public class RelationFieldStrategy
             }
         }
 
-        final ClassMapping[] rels = field.getIndependentTypeMappings();
+        // reuse the select compiled by an earlier load if there is one
+        ClassMapping[] rels = field.getIndependentTypeMappings();
+        long sig = CompiledSelect.getSignature(store, fetch);
+        CompiledSelect compiled = (sig == -1) ? null
+            : getCompiledSelects().get(sig);
+        Result res = (compiled == null) ? null
+            : compiled.execute(sm, field, store, fetch);
+        Joins[] resJoins;
+        if (res != null)
+            resJoins = compiled.getJoins();
+        else {
+            resJoins = new Joins[rels.length];
+            Union union = newLoadUnion(sm, store, fetch, rels, resJoins);
+            res = union.execute(store, fetch);
+            if (sig != -1) {
+                compiled = CompiledSelect.newInstance(union, res, resJoins,
+                    sm, field, store);
+                if (compiled != null)
+                    getCompiledSelects().putIfAbsent(sig, compiled);
+            }
+        }
+
+        try {
+            Object val = null;
+            if (res.next())
+                val = res.load(rels[res.indexOf()], store, fetch,
+                    resJoins[res.indexOf()]);
+            sm.storeObject(field.getIndex(), val);
+        } finally {
+            res.close();
+        }
+    }
+
+    /**
+     * Return the union selecting the related instance of the given instance.
+     *
+     * @param resJoins filled with the joins to read each select's result with
+     */
+    private Union newLoadUnion(final OpenJPAStateManager sm,
+        final JDBCStore store, final JDBCFetchConfiguration fetch,
+        final ClassMapping[] rels, final Joins[] resJoins) {
         final int subs = field.getSelectSubclasses();
-        final Joins[] resJoins = new Joins[rels.length];
 
         // select related mapping columns; joining from the related type
         // back to our fk table if not an inverse mapping (in which case we
@@ -852,16 +894,16 @@ public class RelationFieldStrategy
             }
         });
 
-        Result res = union.execute(store, fetch);
-        try {
-            Object val = null;
-            if (res.next())
-                val = res.load(rels[res.indexOf()], store, fetch,
-                    resJoins[res.indexOf()]);
-            sm.storeObject(field.getIndex(), val);
-        } finally {
-            res.close();
-        }
+        return union;
+    }
+
+    /**
+     * Selects compiled by earlier loads, keyed on fetch signature.
+     */
+    private Map<Long, CompiledSelect> getCompiledSelects() {
+        if (_compiled == null)
+            _compiled = new ConcurrentHashMap<>();
+        return _compiled;
     }
 
     @Override
@@ -300,7 +300,7 @@ public abstract class RelationToManyInverseKeyFieldStrategy
             return;
         }
 
-        if (!sm.getLoaded().get(field.getIndex()))
+        if (!sm.isLoaded(field.getIndex()))
             return;
 
         // update fk on each field value row
@@ -114,12 +114,14 @@ public class StateComparisonVersionStrategy
         FieldMapping[] fields = (FieldMapping[]) sm.getMetaData().getFields();
         Row row;
         if (sm.isVersionCheckRequired()) {
+            BitSet dirty = sm.getDirty();
+            BitSet flushed = sm.getFlushed();
             for (int i = 0, max = loaded.length(); i < max; i++) {
                 if (!loaded.get(i))
                     continue;
 
                 // update our next state image with the new field value
-                if (sm.getDirty().get(i) && !sm.getFlushed().get(i))
+                if (dirty.get(i) && !flushed.get(i))
                     nextState[i] = sm.fetch(fields[i].getIndex());
 
                 // fetch the row for this field; if no row exists, then we can't
@@ -174,11 +176,13 @@ public class StateComparisonVersionStrategy
             nextState = ArrayStateImage.clone(state);
 
         FieldMapping[] fields = (FieldMapping[]) sm.getMetaData().getFields();
+        BitSet dirty = (record) ? sm.getDirty() : null;
+        BitSet flushed = (record) ? sm.getFlushed() : null;
         for (int i = 0, max = loaded.length(); i < max; i++) {
             if (!loaded.get(i))
                 continue;
 
-            if (record && sm.getDirty().get(i) && !sm.getFlushed().get(i))
+            if (record && dirty.get(i) && !flushed.get(i))
                 nextState[i] = sm.fetch(fields[i].getIndex());
             if (fields[i].getTable() == table)
                 fields[i].where(sm, store, custom, state[i]);
@@ -199,12 +203,14 @@ public class StateComparisonVersionStrategy
         BitSet loaded = ArrayStateImage.getLoaded(state);
 
         // take a snapshot of all versionable field values that were loaded
+        BitSet smLoaded = sm.getLoaded();
+        BitSet dirty = sm.getDirty();
         for (int i = 0; i < fields.length; i++) {
             if (!fields[i].isPrimaryKey()
                 && fields[i].isVersionable()
-                && sm.getLoaded().get(fields[i].getIndex())
+                && smLoaded.get(fields[i].getIndex())
                 && !loaded.get(i)
-                && !sm.getDirty().get(fields[i].getIndex())) {
+                && !dirty.get(fields[i].getIndex())) {
                 loaded.set(i);
                 state[i] = sm.fetch(fields[i].getIndex());
             }
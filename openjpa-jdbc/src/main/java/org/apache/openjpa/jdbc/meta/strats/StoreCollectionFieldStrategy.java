@@ -23,9 +23,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.openjpa.enhance.FieldManager;
 import org.apache.openjpa.enhance.PersistenceCapable;
+import org.apache.openjpa.jdbc.kernel.CompiledSelect;
 import org.apache.openjpa.jdbc.kernel.EagerFetchModes;
 import org.apache.openjpa.jdbc.kernel.JDBCFetchConfiguration;
 import org.apache.openjpa.jdbc.kernel.JDBCStore;
@@ -68,6 +70,8 @@ public abstract class StoreCollectionFieldStrategy
     
     private static final long serialVersionUID = 1L;
 
+    private transient Map<Long, CompiledSelect> _compiled = null;
+
     /**
      * Return the foreign key used to join to the owning field for the given
      * element mapping from {@link #getIndependentElementMappings} (or null).
@@ -207,7 +211,8 @@ public abstract class StoreCollectionFieldStrategy
         // force distinct if there was a to-many join to avoid dups, but
         // if this is a parallel select don't make distinct based on the
         // eager joins alone if the original wasn't distinct
-        if (eagerMode == EagerFetchModes.EAGER_PARALLEL) {
+        if (eagerMode == EagerFetchModes.EAGER_PARALLEL
+            || eagerMode == EagerFetchModes.EAGER_SUBSELECT) {
             if (sel.hasJoin(true))
                 sel.setDistinct(true);
             else if (!sel.isDistinct())
@@ -464,6 +469,36 @@ public abstract class StoreCollectionFieldStrategy
             sm.storeObject(field.getIndex(), coll);
     }
 
+    /**
+     * Return the union selecting the elements of the given instance.
+     *
+     * @param resJoins filled with the joins to read each select's result with
+     */
+    private Union newLoadUnion(final OpenJPAStateManager sm,
+        final JDBCStore store, final JDBCFetchConfiguration fetch,
+        final ClassMapping[] elems, final Joins[] resJoins) {
+        Union union = store.getSQLFactory().newUnion
+            (Math.max(1, elems.length));
+        union.select(new Union.Selector() {
+            @Override
+            public void select(Select sel, int idx) {
+                ClassMapping elem = (elems.length == 0) ? null : elems[idx];
+                resJoins[idx] = selectAll(sel, elem, sm, store, fetch,
+                    EagerFetchModes.EAGER_PARALLEL);
+            }
+        });
+        return union;
+    }
+
+    /**
+     * Selects compiled by earlier loads, keyed on fetch signature.
+     */
+    private Map<Long, CompiledSelect> getCompiledSelects() {
+        if (_compiled == null)
+            _compiled = new ConcurrentHashMap<>();
+        return _compiled;
+    }
+
     /**
      * Extract the reference column value(s) from the given result. If the
      * extracted result is the same as the current one or the current
@@ -545,19 +580,16 @@ public abstract class StoreCollectionFieldStrategy
             return;
         }
 
-        // select data for this sm
+        // select data for this sm, reusing the select compiled by an earlier
+        // load if there is one
         final ClassMapping[] elems = getIndependentElementMappings(true);
-        final Joins[] resJoins = new Joins[Math.max(1, elems.length)];
-        Union union = store.getSQLFactory().newUnion
-            (Math.max(1, elems.length));
-        union.select(new Union.Selector() {
-            @Override
-            public void select(Select sel, int idx) {
-                ClassMapping elem = (elems.length == 0) ? null : elems[idx];
-                resJoins[idx] = selectAll(sel, elem, sm, store, fetch,
-                    EagerFetchModes.EAGER_PARALLEL);
-            }
-        });
+        long sig = CompiledSelect.getSignature(store, fetch);
+        for (int i = 0; sig != -1 && i < Math.max(1, elems.length); i++)
+            if (RelationStrategies.isRelationId(getJoinForeignKey
+                ((elems.length == 0) ? null : elems[i])))
+                sig = -1;
+        CompiledSelect compiled = (sig == -1) ? null
+            : getCompiledSelects().get(sig);
 
         // create proxy
         ChangeTracker ct = null;
@@ -584,7 +616,22 @@ public abstract class StoreCollectionFieldStrategy
         }
 
         // load values
-        Result res = union.execute(store, fetch);
+        Result res = (compiled == null) ? null
+            : compiled.execute(sm, field, store, fetch);
+        Joins[] resJoins;
+        if (res != null)
+            resJoins = compiled.getJoins();
+        else {
+            resJoins = new Joins[Math.max(1, elems.length)];
+            Union union = newLoadUnion(sm, store, fetch, elems, resJoins);
+            res = union.execute(store, fetch);
+            if (sig != -1) {
+                compiled = CompiledSelect.newInstance(union, res, resJoins,
+                    sm, field, store);
+                if (compiled != null)
+                    getCompiledSelects().putIfAbsent(sig, compiled);
+            }
+        }
         try {
             int seq = -1;
             while (res.next()) {
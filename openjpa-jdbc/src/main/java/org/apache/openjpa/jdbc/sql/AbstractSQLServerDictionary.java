@@ -46,6 +46,8 @@ public abstract class AbstractSQLServerDictionary
         supportsDeferredConstraints = false;
         supportsSelectEndIndex = true;
         allowsAliasInBulkClause = false;
+        supportsMultiRowInsert = true;
+        maxParametersPerStatement = 2099;
 
         supportsAutoAssign = true;
         autoAssignClause = "IDENTITY";
@@ -107,6 +107,8 @@ public class DB2Dictionary
         platform = "DB2";
         validationSQL = "SELECT DISTINCT(CURRENT TIMESTAMP) FROM SYSIBM.SYSTABLES";
         supportsSelectEndIndex = true;
+        supportsMultiRowInsert = true;
+        maxParametersPerStatement = 32767;
 
         nextSequenceQuery = "VALUES NEXTVAL FOR {0}";
 
@@ -503,6 +503,15 @@ public class DBDictionary
     // any positive number = batch limit
     public int batchLimit = NO_BATCH;
 
+    // multi-row insert settings: whether the database accepts
+    // INSERT ... VALUES (...), (...), whether batched inserts are rewritten
+    // into such statements, and the maximum number of rows and of bind
+    // parameters in one statement (0 = no limit)
+    public boolean supportsMultiRowInsert = false;
+    public boolean useMultiRowInsert = false;
+    public int maxRowsPerInsert = 1000;
+    public int maxParametersPerStatement = 0;
+
     public final Map<Integer,Set<String>> sqlStateCodes =
         new HashMap<>();
 
@@ -5533,6 +5542,24 @@ public class DBDictionary
         batchLimit = limit;
     }
 
+    /**
+     * Return the number of rows to insert with a single multi-row
+     * <code>INSERT ... VALUES (...), (...)</code> statement, given the
+     * number of parameters each row binds. A return value of 1 or less
+     * means that inserts should not be combined.
+     *
+     * @since 3.1.3
+     */
+    public int getMultiRowInsertLimit(int paramsPerRow) {
+        if (!useMultiRowInsert || !supportsMultiRowInsert)
+            return 1;
+        int limit = (maxRowsPerInsert <= 0) ? Integer.MAX_VALUE
+            : maxRowsPerInsert;
+        if (maxParametersPerStatement > 0 && paramsPerRow > 0)
+            limit = Math.min(limit, maxParametersPerStatement / paramsPerRow);
+        return limit;
+    }
+
     /**
      * Validate the batch process. In some cases, we can't batch the statements
      * due to some restrictions. For example, if the GeneratedType=IDENTITY,
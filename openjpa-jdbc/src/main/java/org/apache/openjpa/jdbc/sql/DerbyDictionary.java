@@ -60,6 +60,7 @@ public class DerbyDictionary
 
         allowsAliasInBulkClause = false;
         supportsDeferredConstraints = false;
+        supportsMultiRowInsert = true;
         supportsParameterInSelect = false;
         supportsSelectForUpdate = true;
         supportsDefaultDeleteAction = false;
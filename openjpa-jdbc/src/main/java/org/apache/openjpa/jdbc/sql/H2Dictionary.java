@@ -66,6 +66,7 @@ public class H2Dictionary extends DBDictionary {
 
         supportsSelectStartIndex = true;
         supportsSelectEndIndex = true;
+        supportsMultiRowInsert = true;
         rangePosition = RANGE_POST_LOCK;
         supportsDeferredConstraints = false;
 
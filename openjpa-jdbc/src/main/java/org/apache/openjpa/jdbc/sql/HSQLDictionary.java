@@ -78,6 +78,7 @@ public class HSQLDictionary extends DBDictionary {
         supportsSelectForUpdate = false;
         supportsSelectStartIndex = true;
         supportsSelectEndIndex = true;
+        supportsMultiRowInsert = true;
         supportsDeferredConstraints = false;
 
         doubleTypeName = "NUMERIC";
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.jdbc.sql;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.openjpa.lib.util.Closeable;
+
+/**
+ * Default <code>openjpa.jdbc.PipelinedFetchExecutor</code>. Runs the threads
+ * that read the rows of {@link PipelinedResultSet}s. Threads are daemons,
+ * created on first use and released after a minute of idleness. At most
+ * <code>MaxThreads</code> result sets are read at once; when every thread
+ * is busy, {@link #execute} rejects the task rather than queueing it, and
+ * the result set is read by its caller instead.
+ *
+ * @since 3.1.3
+ */
+public class PipelinedFetchExecutor
+    implements Executor, Closeable {
+
+    private int _maxThreads = 8;
+    private ThreadPoolExecutor _pool = null;
+    private boolean _closed = false;
+
+    /**
+     * The maximum number of result sets read at once. Defaults to 8.
+     */
+    public int getMaxThreads() {
+        return _maxThreads;
+    }
+
+    /**
+     * The maximum number of result sets read at once. Defaults to 8.
+     */
+    public void setMaxThreads(int maxThreads) {
+        _maxThreads = maxThreads;
+    }
+
+    /**
+     * Run the given task on a reading thread.
+     *
+     * @throws RejectedExecutionException if every thread is busy or the
+     * executor is closed
+     */
+    @Override
+    public void execute(Runnable task) {
+        getPool().execute(task);
+    }
+
+    private synchronized ThreadPoolExecutor getPool() {
+        if (_closed)
+            throw new RejectedExecutionException();
+        if (_pool == null) {
+            final AtomicInteger threads = new AtomicInteger();
+            _pool = new ThreadPoolExecutor(0, Math.max(1, _maxThreads), 60,
+                TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                    Thread t = new Thread(r, "OpenJPA-PipelinedFetch-"
+                        + threads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        }
+        return _pool;
+    }
+
+    /**
+     * Stop accepting tasks. Result sets already being read are read to
+     * their end or until they are closed.
+     */
+    @Override
+    public synchronized void close() {
+        _closed = true;
+        if (_pool != null)
+            _pool.shutdown();
+    }
+}
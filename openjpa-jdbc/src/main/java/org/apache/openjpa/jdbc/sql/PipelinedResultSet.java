@@ -0,0 +1,874 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.jdbc.sql;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLXML;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.openjpa.lib.jdbc.DelegatingResultSet;
+import org.apache.openjpa.lib.util.Localizer;
+
+/**
+ * Forward-only result set that reads the rows of another result set on a
+ * separate thread. The reading thread copies the column values of each row
+ * into a bounded buffer; the caller consumes rows from the buffer, so
+ * waiting for the database overlaps with processing the previous rows.
+ * When the buffer is full, reading pauses until the caller catches up.
+ * Closing the result set cancels its statement and stops the reading thread
+ * before the wrapped result set is closed.
+ * The wrapped result set is read only by the reading thread, so its
+ * connection must not be used by the caller until the result set is closed.
+ * Result sets with LOB, array, structured or reference columns, whose
+ * values are only valid while the cursor is on their row, are not
+ * pipelined; see {@link #newInstance}.
+ *
+ * @since 3.1.3
+ */
+public class PipelinedResultSet
+    extends DelegatingResultSet {
+
+    private static final Localizer _loc = Localizer.forPackage
+        (PipelinedResultSet.class);
+
+    // marks the end of the rows in the buffer
+    private static final Object[] END = new Object[0];
+
+    private final ResultSet _rs;
+    private final Statement _stmnt;
+    private final ResultSetMetaData _meta;
+    private final int[] _types;
+    private final BlockingQueue<Object[]> _rows;
+    private final CountDownLatch _done = new CountDownLatch(1);
+    private Map<String, Integer> _labels = null;
+
+    // set by the reading thread
+    private volatile Throwable _error = null;
+
+    // set by the caller
+    private volatile boolean _closed = false;
+    private Object[] _row = null;
+    private int _rowNum = 0;
+    private boolean _end = false;
+    private boolean _wasNull = false;
+
+    /**
+     * Wrap the given result set in a pipelined result set buffering up to
+     * the given number of rows and read on a thread of the given executor.
+     * Return the result set unchanged if it has columns that cannot be
+     * buffered, or if the executor has no thread to read it.
+     */
+    public static ResultSet newInstance(ResultSet rs, Statement stmnt,
+        int bufferSize, Executor executor)
+        throws SQLException {
+        if (bufferSize <= 0 || rs.getType() != ResultSet.TYPE_FORWARD_ONLY)
+            return rs;
+        ResultSetMetaData meta = rs.getMetaData();
+        int[] types = new int[meta.getColumnCount()];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = meta.getColumnType(i + 1);
+            switch (types[i]) {
+                case Types.BLOB:
+                case Types.CLOB:
+                case Types.NCLOB:
+                case Types.ARRAY:
+                case Types.STRUCT:
+                case Types.REF:
+                case Types.SQLXML:
+                case Types.DATALINK:
+                    return rs;
+            }
+        }
+
+        PipelinedResultSet prs = new PipelinedResultSet(rs, stmnt, meta,
+            types, bufferSize);
+        try {
+            executor.execute(prs::readRows);
+        } catch (RejectedExecutionException ree) {
+            return rs;
+        }
+        return prs;
+    }
+
+    private PipelinedResultSet(ResultSet rs, Statement stmnt,
+        ResultSetMetaData meta, int[] types, int bufferSize) {
+        super(rs, stmnt);
+        _rs = rs;
+        _stmnt = stmnt;
+        _meta = meta;
+        _types = types;
+        _rows = new ArrayBlockingQueue<>(bufferSize);
+    }
+
+    /**
+     * Copy the rows of the wrapped result set into the buffer. Runs on the
+     * reading thread.
+     */
+    private void readRows() {
+        try {
+            while (!_closed && _rs.next()) {
+                Object[] row = new Object[_types.length];
+                for (int i = 0; i < row.length; i++)
+                    row[i] = readValue(i + 1, _types[i]);
+                if (!enqueue(row))
+                    return;
+            }
+        } catch (Throwable t) {
+            _error = t;
+        } finally {
+            try {
+                enqueue(END);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            _done.countDown();
+        }
+    }
+
+    /**
+     * Read the current value of the given column. Temporal values are read
+     * with the standard types rather than as vendor objects, so they can be
+     * converted later without the cursor.
+     */
+    private Object readValue(int col, int type)
+        throws SQLException {
+        switch (type) {
+            case Types.TIMESTAMP:
+                return _rs.getTimestamp(col);
+            case Types.TIME:
+                return _rs.getTime(col);
+            case Types.DATE:
+                Object val = _rs.getObject(col);
+                return (val == null || val instanceof java.util.Date) ? val
+                    : _rs.getTimestamp(col);
+            default:
+                return _rs.getObject(col);
+        }
+    }
+
+    /**
+     * Put the given row into the buffer, waiting for space.
+     *
+     * @return false if the result set was closed while waiting
+     */
+    private boolean enqueue(Object[] row)
+        throws InterruptedException {
+        while (!_rows.offer(row, 100, TimeUnit.MILLISECONDS))
+            if (_closed)
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean next()
+        throws SQLException {
+        if (_closed)
+            throw new SQLException(_loc.get("pipelined-closed").getMessage());
+        if (_end)
+            return false;
+        try {
+            _row = _rows.take();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(ie);
+        }
+        if (_row == END) {
+            _row = null;
+            _end = true;
+            Throwable t = _error;
+            if (t instanceof SQLException)
+                throw (SQLException) t;
+            if (t != null)
+                throw new SQLException(t);
+            return false;
+        }
+        _rowNum++;
+        return true;
+    }
+
+    @Override
+    public void close()
+        throws SQLException {
+        if (_closed)
+            return;
+        _closed = true;
+        _rows.clear();
+        try {
+            // the reader may be waiting on a slow fetch
+            if (_done.getCount() > 0 && _stmnt != null)
+                _stmnt.cancel();
+        } catch (SQLFeatureNotSupportedException sfnse) {
+        } finally {
+            try {
+                _done.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            _row = null;
+            super.close();
+        }
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData() {
+        return _meta;
+    }
+
+    @Override
+    public int getType() {
+        return ResultSet.TYPE_FORWARD_ONLY;
+    }
+
+    @Override
+    public int getRow() {
+        return (_end) ? 0 : _rowNum;
+    }
+
+    @Override
+    public boolean isBeforeFirst() {
+        return _rowNum == 0 && !_end;
+    }
+
+    @Override
+    public boolean isAfterLast() {
+        return _end && _rowNum > 0;
+    }
+
+    @Override
+    public boolean isFirst() {
+        return _rowNum == 1 && !_end;
+    }
+
+    @Override
+    public boolean wasNull() {
+        return _wasNull;
+    }
+
+    @Override
+    public int findColumn(String label)
+        throws SQLException {
+        if (_labels == null) {
+            _labels = new HashMap<>();
+            for (int i = _types.length; i > 0; i--)
+                _labels.put(_meta.getColumnLabel(i).toUpperCase(Locale.ENGLISH),
+                    i);
+        }
+        Integer col = _labels.get(label.toUpperCase(Locale.ENGLISH));
+        if (col == null)
+            throw new SQLException(_loc.get("pipelined-no-column", label)
+                .getMessage());
+        return col;
+    }
+
+    /**
+     * Return the buffered value of the given column of the current row.
+     */
+    private Object value(int col)
+        throws SQLException {
+        if (_row == null)
+            throw new SQLException(_loc.get("pipelined-no-row").getMessage());
+        if (col < 1 || col > _row.length)
+            throw new SQLException(_loc.get("pipelined-no-column",
+                String.valueOf(col)).getMessage());
+        Object val = _row[col - 1];
+        _wasNull = val == null;
+        return val;
+    }
+
+    private SQLException conversionError(Object val, String type) {
+        return new SQLException(_loc.get("pipelined-conversion",
+            val.getClass().getName(), type).getMessage());
+    }
+
+    private Number number(int col, String type)
+        throws SQLException {
+        Object val = value(col);
+        if (val == null)
+            return null;
+        if (val instanceof Number)
+            return (Number) val;
+        if (val instanceof Boolean)
+            return ((Boolean) val) ? 1 : 0;
+        try {
+            return new BigDecimal(val.toString().trim());
+        } catch (NumberFormatException nfe) {
+            throw conversionError(val, type);
+        }
+    }
+
+    private java.util.Date date(int col, String type)
+        throws SQLException {
+        Object val = value(col);
+        if (val == null || val instanceof java.util.Date)
+            return (java.util.Date) val;
+        if (val instanceof String) {
+            try {
+                String str = ((String) val).trim();
+                if ("Date".equals(type))
+                    return Date.valueOf(str);
+                if ("Time".equals(type))
+                    return Time.valueOf(str);
+                return Timestamp.valueOf(str);
+            } catch (IllegalArgumentException iae) {
+                // fall through
+            }
+        }
+        throw conversionError(val, type);
+    }
+
+    @Override
+    public String getString(int col)
+        throws SQLException {
+        Object val = value(col);
+        if (val == null)
+            return null;
+        if (val instanceof BigDecimal)
+            return ((BigDecimal) val).toPlainString();
+        return val.toString();
+    }
+
+    @Override
+    public String getNString(int col)
+        throws SQLException {
+        return getString(col);
+    }
+
+    @Override
+    public boolean getBoolean(int col)
+        throws SQLException {
+        Object val = value(col);
+        if (val == null)
+            return false;
+        if (val instanceof Boolean)
+            return (Boolean) val;
+        if (val instanceof Number)
+            return ((Number) val).intValue() != 0;
+        String str = val.toString().trim();
+        return "1".equals(str) || "true".equalsIgnoreCase(str);
+    }
+
+    @Override
+    public byte getByte(int col)
+        throws SQLException {
+        Number num = number(col, "byte");
+        return (num == null) ? 0 : num.byteValue();
+    }
+
+    @Override
+    public short getShort(int col)
+        throws SQLException {
+        Number num = number(col, "short");
+        return (num == null) ? 0 : num.shortValue();
+    }
+
+    @Override
+    public int getInt(int col)
+        throws SQLException {
+        Number num = number(col, "int");
+        return (num == null) ? 0 : num.intValue();
+    }
+
+    @Override
+    public long getLong(int col)
+        throws SQLException {
+        Number num = number(col, "long");
+        return (num == null) ? 0 : num.longValue();
+    }
+
+    @Override
+    public float getFloat(int col)
+        throws SQLException {
+        Number num = number(col, "float");
+        return (num == null) ? 0 : num.floatValue();
+    }
+
+    @Override
+    public double getDouble(int col)
+        throws SQLException {
+        Number num = number(col, "double");
+        return (num == null) ? 0 : num.doubleValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(int col)
+        throws SQLException {
+        Number num = number(col, "BigDecimal");
+        if (num == null || num instanceof BigDecimal)
+            return (BigDecimal) num;
+        return new BigDecimal(num.toString());
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(int col, int scale)
+        throws SQLException {
+        BigDecimal dec = getBigDecimal(col);
+        return (dec == null) ? null
+            : dec.setScale(scale, BigDecimal.ROUND_HALF_UP);
+    }
+
+    @Override
+    public byte[] getBytes(int col)
+        throws SQLException {
+        Object val = value(col);
+        if (val == null || val instanceof byte[])
+            return (byte[]) val;
+        throw conversionError(val, "byte[]");
+    }
+
+    @Override
+    public Date getDate(int col)
+        throws SQLException {
+        java.util.Date date = date(col, "Date");
+        if (date == null || date instanceof Date)
+            return (Date) date;
+        if (date instanceof Timestamp)
+            return Date.valueOf(((Timestamp) date).toLocalDateTime()
+                .toLocalDate());
+        return new Date(date.getTime());
+    }
+
+    @Override
+    public Date getDate(int col, Calendar cal)
+        throws SQLException {
+        Date date = getDate(col);
+        if (date == null || cal == null)
+            return date;
+        return new Date(date.toLocalDate().atStartOfDay(cal.getTimeZone()
+            .toZoneId()).toInstant().toEpochMilli());
+    }
+
+    @Override
+    public Time getTime(int col)
+        throws SQLException {
+        java.util.Date date = date(col, "Time");
+        if (date == null || date instanceof Time)
+            return (Time) date;
+        if (date instanceof Timestamp)
+            return Time.valueOf(((Timestamp) date).toLocalDateTime()
+                .toLocalTime());
+        return new Time(date.getTime());
+    }
+
+    @Override
+    public Time getTime(int col, Calendar cal)
+        throws SQLException {
+        Time time = getTime(col);
+        if (time == null || cal == null)
+            return time;
+        return new Time(time.toLocalTime().atDate(java.time.LocalDate
+            .ofEpochDay(0)).atZone(cal.getTimeZone().toZoneId())
+            .toInstant().toEpochMilli());
+    }
+
+    @Override
+    public Timestamp getTimestamp(int col)
+        throws SQLException {
+        java.util.Date date = date(col, "Timestamp");
+        if (date == null || date instanceof Timestamp)
+            return (Timestamp) date;
+        return new Timestamp(date.getTime());
+    }
+
+    @Override
+    public Timestamp getTimestamp(int col, Calendar cal)
+        throws SQLException {
+        Timestamp ts = getTimestamp(col);
+        if (ts == null || cal == null)
+            return ts;
+        return Timestamp.from(ts.toLocalDateTime().atZone(cal.getTimeZone()
+            .toZoneId()).toInstant());
+    }
+
+    @Override
+    public Object getObject(int col)
+        throws SQLException {
+        return value(col);
+    }
+
+    @Override
+    public Object getObject(int col, Map<String, Class<?>> map)
+        throws SQLException {
+        return value(col);
+    }
+
+    @Override
+    public <T> T getObject(int col, Class<T> type)
+        throws SQLException {
+        Object val = value(col);
+        if (val == null || type.isInstance(val))
+            return type.cast(val);
+        if (type == String.class)
+            return type.cast(getString(col));
+        if (type == Integer.class)
+            return type.cast(getInt(col));
+        if (type == Long.class)
+            return type.cast(getLong(col));
+        if (type == Short.class)
+            return type.cast(getShort(col));
+        if (type == Byte.class)
+            return type.cast(getByte(col));
+        if (type == Double.class)
+            return type.cast(getDouble(col));
+        if (type == Float.class)
+            return type.cast(getFloat(col));
+        if (type == Boolean.class)
+            return type.cast(getBoolean(col));
+        if (type == BigDecimal.class)
+            return type.cast(getBigDecimal(col));
+        if (type == Date.class)
+            return type.cast(getDate(col));
+        if (type == Time.class)
+            return type.cast(getTime(col));
+        if (type == Timestamp.class)
+            return type.cast(getTimestamp(col));
+        throw conversionError(val, type.getName());
+    }
+
+    @Override
+    public Reader getCharacterStream(int col)
+        throws SQLException {
+        String str = getString(col);
+        return (str == null) ? null : new StringReader(str);
+    }
+
+    @Override
+    public Reader getNCharacterStream(int col)
+        throws SQLException {
+        return getCharacterStream(col);
+    }
+
+    @Override
+    public InputStream getAsciiStream(int col)
+        throws SQLException {
+        String str = getString(col);
+        return (str == null) ? null
+            : new ByteArrayInputStream(str.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(int col)
+        throws SQLException {
+        String str = getString(col);
+        return (str == null) ? null
+            : new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_16BE));
+    }
+
+    @Override
+    public InputStream getBinaryStream(int col)
+        throws SQLException {
+        byte[] bytes = getBytes(col);
+        return (bytes == null) ? null : new ByteArrayInputStream(bytes);
+    }
+
+    private <T> T cast(int col, Class<T> type)
+        throws SQLException {
+        Object val = value(col);
+        if (val == null || type.isInstance(val))
+            return type.cast(val);
+        throw conversionError(val, type.getName());
+    }
+
+    @Override
+    public Blob getBlob(int col)
+        throws SQLException {
+        return cast(col, Blob.class);
+    }
+
+    @Override
+    public Clob getClob(int col)
+        throws SQLException {
+        return cast(col, Clob.class);
+    }
+
+    @Override
+    public NClob getNClob(int col)
+        throws SQLException {
+        return cast(col, NClob.class);
+    }
+
+    @Override
+    public Array getArray(int col)
+        throws SQLException {
+        return cast(col, Array.class);
+    }
+
+    @Override
+    public Ref getRef(int col)
+        throws SQLException {
+        return cast(col, Ref.class);
+    }
+
+    @Override
+    public URL getURL(int col)
+        throws SQLException {
+        return cast(col, URL.class);
+    }
+
+    @Override
+    public RowId getRowId(int col)
+        throws SQLException {
+        return cast(col, RowId.class);
+    }
+
+    @Override
+    public SQLXML getSQLXML(int col)
+        throws SQLException {
+        return cast(col, SQLXML.class);
+    }
+
+    // access by column label maps to access by index
+
+    @Override
+    public String getString(String label)
+        throws SQLException {
+        return getString(findColumn(label));
+    }
+
+    @Override
+    public String getNString(String label)
+        throws SQLException {
+        return getNString(findColumn(label));
+    }
+
+    @Override
+    public boolean getBoolean(String label)
+        throws SQLException {
+        return getBoolean(findColumn(label));
+    }
+
+    @Override
+    public byte getByte(String label)
+        throws SQLException {
+        return getByte(findColumn(label));
+    }
+
+    @Override
+    public short getShort(String label)
+        throws SQLException {
+        return getShort(findColumn(label));
+    }
+
+    @Override
+    public int getInt(String label)
+        throws SQLException {
+        return getInt(findColumn(label));
+    }
+
+    @Override
+    public long getLong(String label)
+        throws SQLException {
+        return getLong(findColumn(label));
+    }
+
+    @Override
+    public float getFloat(String label)
+        throws SQLException {
+        return getFloat(findColumn(label));
+    }
+
+    @Override
+    public double getDouble(String label)
+        throws SQLException {
+        return getDouble(findColumn(label));
+    }
+
+    @Override
+    public BigDecimal getBigDecimal(String label)
+        throws SQLException {
+        return getBigDecimal(findColumn(label));
+    }
+
+    @Override
+    @Deprecated
+    public BigDecimal getBigDecimal(String label, int scale)
+        throws SQLException {
+        return getBigDecimal(findColumn(label), scale);
+    }
+
+    @Override
+    public byte[] getBytes(String label)
+        throws SQLException {
+        return getBytes(findColumn(label));
+    }
+
+    @Override
+    public Date getDate(String label)
+        throws SQLException {
+        return getDate(findColumn(label));
+    }
+
+    @Override
+    public Date getDate(String label, Calendar cal)
+        throws SQLException {
+        return getDate(findColumn(label), cal);
+    }
+
+    @Override
+    public Time getTime(String label)
+        throws SQLException {
+        return getTime(findColumn(label));
+    }
+
+    @Override
+    public Time getTime(String label, Calendar cal)
+        throws SQLException {
+        return getTime(findColumn(label), cal);
+    }
+
+    @Override
+    public Timestamp getTimestamp(String label)
+        throws SQLException {
+        return getTimestamp(findColumn(label));
+    }
+
+    @Override
+    public Timestamp getTimestamp(String label, Calendar cal)
+        throws SQLException {
+        return getTimestamp(findColumn(label), cal);
+    }
+
+    @Override
+    public Object getObject(String label)
+        throws SQLException {
+        return getObject(findColumn(label));
+    }
+
+    @Override
+    public Object getObject(String label, Map<String, Class<?>> map)
+        throws SQLException {
+        return getObject(findColumn(label), map);
+    }
+
+    @Override
+    public <T> T getObject(String label, Class<T> type)
+        throws SQLException {
+        return getObject(findColumn(label), type);
+    }
+
+    @Override
+    public Reader getCharacterStream(String label)
+        throws SQLException {
+        return getCharacterStream(findColumn(label));
+    }
+
+    @Override
+    public Reader getNCharacterStream(String label)
+        throws SQLException {
+        return getNCharacterStream(findColumn(label));
+    }
+
+    @Override
+    public InputStream getAsciiStream(String label)
+        throws SQLException {
+        return getAsciiStream(findColumn(label));
+    }
+
+    @Override
+    @Deprecated
+    public InputStream getUnicodeStream(String label)
+        throws SQLException {
+        return getUnicodeStream(findColumn(label));
+    }
+
+    @Override
+    public InputStream getBinaryStream(String label)
+        throws SQLException {
+        return getBinaryStream(findColumn(label));
+    }
+
+    @Override
+    public Blob getBlob(String label)
+        throws SQLException {
+        return getBlob(findColumn(label));
+    }
+
+    @Override
+    public Clob getClob(String label)
+        throws SQLException {
+        return getClob(findColumn(label));
+    }
+
+    @Override
+    public NClob getNClob(String label)
+        throws SQLException {
+        return getNClob(findColumn(label));
+    }
+
+    @Override
+    public Array getArray(String label)
+        throws SQLException {
+        return getArray(findColumn(label));
+    }
+
+    @Override
+    public Ref getRef(String label)
+        throws SQLException {
+        return getRef(findColumn(label));
+    }
+
+    @Override
+    public URL getURL(String label)
+        throws SQLException {
+        return getURL(findColumn(label));
+    }
+
+    @Override
+    public RowId getRowId(String label)
+        throws SQLException {
+        return getRowId(findColumn(label));
+    }
+
+    @Override
+    public SQLXML getSQLXML(String label)
+        throws SQLException {
+        return getSQLXML(findColumn(label));
+    }
+}
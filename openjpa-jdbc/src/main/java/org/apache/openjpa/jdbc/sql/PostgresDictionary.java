@@ -133,6 +133,8 @@ public class PostgresDictionary extends DBDictionary {
         supportsDeferredConstraints = true;
         supportsSelectStartIndex = true;
         supportsSelectEndIndex = true;
+        supportsMultiRowInsert = true;
+        maxParametersPerStatement = 32767;
 
         maxTableNameLength = 63;
         maxColumnNameLength = 63;
@@ -40,6 +40,7 @@ import java.time.OffsetDateTime;
 import java.time.OffsetTime;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 
@@ -69,6 +70,9 @@ public class ResultSetResult
     private int _row = -1;
     private int _size = -1;
 
+    // result set indexes of the columns or ids found by name
+    private Map<Object, Integer> _indexes = null;
+
     // optional; used to deserialize blobs containing refs to persistent objs
     private JDBCStore _store = null;
 
@@ -589,14 +593,23 @@ public class ResultSetResult
      */
     protected int findObject(Object obj, Joins joins)
         throws SQLException {
+        // the columns of a result set do not change from row to row, so
+        // each is only searched by name once
+        Integer idx = (_indexes == null) ? null : _indexes.get(obj);
+        if (idx != null)
+            return idx;
+        int index;
         try {
-          String s1 = obj.toString();
           DBIdentifier sName = DBIdentifier.newColumn(obj.toString());
-          return getResultSet().findColumn(_dict.convertSchemaCase(sName));
+          index = getResultSet().findColumn(_dict.convertSchemaCase(sName));
         } catch (SQLException se) {
             _dict.log.trace(se.getMessage());
-            return 0;
+            index = 0;
         }
+        if (_indexes == null)
+            _indexes = new HashMap<>();
+        _indexes.put(obj, index);
+        return index;
     }
 
     @Override
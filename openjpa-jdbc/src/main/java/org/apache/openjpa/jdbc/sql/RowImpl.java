@@ -879,7 +879,6 @@ public class RowImpl
      */
     private String getInsertSQL(DBDictionary dict) {
         StringBuilder buf = new StringBuilder();
-        StringBuilder vals = new StringBuilder();
         buf.append("INSERT INTO ").
             append(dict.getFullName(getTable(), false)).append(" (");
 
@@ -888,20 +887,53 @@ public class RowImpl
             if (_vals[i] == null)
                 continue;
 
-            if (hasVal) {
+            if (hasVal)
                 buf.append(", ");
-                vals.append(", ");
-            }
             buf.append(dict.getColumnDBName(_cols[i]));
+            hasVal = true;
+        }
+
+        buf.append(") VALUES ").append(getInsertValuesSQL(dict));
+        return buf.toString();
+    }
+
+    /**
+     * Return the parenthesized list of values of the insert SQL for this
+     * row. Multi-row inserts repeat this list once per row.
+     *
+     * @since 3.1.3
+     */
+    public String getInsertValuesSQL(DBDictionary dict) {
+        StringBuilder vals = new StringBuilder();
+        vals.append("(");
+        boolean hasVal = false;
+        for (int i = 0; i < _cols.length; i++) {
+            if (_vals[i] == null)
+                continue;
+
+            if (hasVal)
+                vals.append(", ");
             if (_types[i] == RAW)
                 vals.append(_vals[i]);
             else
                 vals.append(dict.getMarkerForInsertUpdate(_cols[i], _vals[i]));
             hasVal = true;
         }
+        return vals.append(")").toString();
+    }
 
-        buf.append(") VALUES (").append(vals.toString()).append(")");
-        return buf.toString();
+    /**
+     * The number of parameters that {@link #flush} sets on the statement
+     * for an insert of this row.
+     *
+     * @since 3.1.3
+     */
+    public int getInsertParameterCount() {
+        int count = 0;
+        for (int i = 0; i < _cols.length; i++)
+            if (_vals[i] != null && (_vals[i] == NULL || _types[i] != RAW))
+                count++;
+        return count;
     }
 
     /**
@@ -26,6 +26,7 @@ import java.sql.Statement;
 import java.sql.Types;
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -53,6 +54,7 @@ import org.apache.openjpa.jdbc.meta.strats.RelationStrategies;
 import org.apache.openjpa.jdbc.schema.Column;
 import org.apache.openjpa.jdbc.schema.ForeignKey;
 import org.apache.openjpa.jdbc.schema.Table;
+import org.apache.openjpa.kernel.QueryHints;
 import org.apache.openjpa.kernel.StoreContext;
 import org.apache.openjpa.kernel.exps.Context;
 import org.apache.openjpa.kernel.exps.Value;
@@ -441,7 +443,7 @@ public class SelectImpl
         boolean isLRS = isLRS();
         int rsType = (isLRS && supportsRandomAccess(forUpdate))
             ? -1 : ResultSet.TYPE_FORWARD_ONLY;
-        Connection conn = store.getConnection();
+        Connection conn = getConnection(store, fetch, forUpdate);
         PreparedStatement stmnt = null;
         ResultSet rs = null;
         try {
@@ -453,6 +455,7 @@ public class SelectImpl
             _dict.setTimeouts(stmnt, fetch, forUpdate);
 
             rs = executeQuery(conn, stmnt, sql, isLRS, store);
+            rs = pipeline(rs, stmnt, store, fetch, forUpdate);
         } catch (SQLException se) {
             // clean up statement
             if (stmnt != null)
@@ -463,6 +466,60 @@ public class SelectImpl
         return getEagerResult(conn, stmnt, rs, store, fetch, forUpdate, sql);
     }
 
+    /**
+     * Return the connection to execute this select on. A select whose rows
+     * are pipelined gets a connection of its own, which only its reading
+     * thread uses; any other select uses the store's connection.
+     *
+     * @see #pipeline
+     */
+    public Connection getConnection(JDBCStore store,
+        JDBCFetchConfiguration fetch, boolean forUpdate) {
+        if (isPipelined(store, fetch, forUpdate))
+            return store.getNewConnection();
+        return store.getConnection();
+    }
+
+    /**
+     * Wrap the given result set of this select, executed on the connection
+     * from {@link #getConnection}, in a {@link PipelinedResultSet} if its
+     * rows are pipelined.
+     */
+    public ResultSet pipeline(ResultSet rs, Statement stmnt, JDBCStore store,
+        JDBCFetchConfiguration fetch, boolean forUpdate)
+        throws SQLException {
+        if (!isPipelined(store, fetch, forUpdate))
+            return rs;
+        return PipelinedResultSet.newInstance(rs, stmnt,
+            getPipelinedFetchSize(fetch), store.getConfiguration()
+            .getPipelinedFetchExecutorInstance());
+    }
+
+    /**
+     * Whether the rows of this select are read ahead on a separate thread.
+     * A separate connection does not see the changes of a data store
+     * transaction, so selects are only pipelined while none is active.
+     */
+    private boolean isPipelined(JDBCStore store, JDBCFetchConfiguration fetch,
+        boolean forUpdate) {
+        return !forUpdate && !isLRS() && getPipelinedFetchSize(fetch) > 0
+            && !store.getContext().isStoreActive();
+    }
+
+    /**
+     * Return the number of rows to read ahead on a separate thread, as
+     * given by the {@link QueryHints#HINT_PIPELINED_FETCH} hint.
+     */
+    private static int getPipelinedFetchSize(JDBCFetchConfiguration fetch) {
+        Object hint = (fetch == null) ? null
+            : fetch.getHint(QueryHints.HINT_PIPELINED_FETCH);
+        if (hint instanceof Number)
+            return ((Number) hint).intValue();
+        if (hint instanceof String)
+            return Integer.parseInt((String) hint);
+        return 0;
+    }
+
     /**
      * Execute our eager selects, adding the results under the same keys
      * to the given result.
@@ -2637,6 +2694,11 @@ public class SelectImpl
             if (_sel._selects.get(_pos).equals(obj))
                 return ++_pos;
 
+            // the positions the id was selected at, in ascending order
+            int[] positions = _sel._selects.getPositions(obj);
+            if (positions == null)
+                throw new SQLException(obj.toString());
+
             // if we're looking for a primary key, try back a couple places,
             // since pks might be selected in a slightly different order than
             // they are loaded back; don't change the marker position
@@ -2644,17 +2706,17 @@ public class SelectImpl
                 pk = (obj instanceof Column && ((Column) obj).isPrimaryKey())
                     ? Boolean.TRUE : Boolean.FALSE;
             if (pk.booleanValue()) {
-                for (int i = _pos - 1; i >= 0 && i >= _pos - 3; i--)
-                    if (_sel._selects.get(i).equals(obj))
-                        return i + 1;
+                for (int i = positions.length - 1; i >= 0; i--)
+                    if (positions[i] < _pos && positions[i] >= _pos - 3)
+                        return positions[i] + 1;
             }
 
             // search forward on the assumption that we might be skipping
             // selects for sibling classes; advance the position if we find
             // something forward
-            for (int i = _pos + 1; i < _sel._selects.size(); i++) {
-                if (_sel._selects.get(i).equals(obj)) {
-                    _pos = i;
+            for (int i = 0; i < positions.length; i++) {
+                if (positions[i] > _pos) {
+                    _pos = positions[i];
                     return ++_pos;
                 }
             }
@@ -2663,12 +2725,7 @@ public class SelectImpl
             // somewhere prior to the current position; in this case leave the
             // position marker at its current place cause subsequent loads will
             // still probably start from there
-            for (int i = 0; i < _pos; i++)
-                if (_sel._selects.get(i).equals(obj))
-                    return i + 1;
-
-            // somethings's wrong...
-            throw new SQLException(obj.toString());
+            return positions[0] + 1;
         }
 
         /**
@@ -3365,10 +3422,43 @@ public class SelectImpl
         protected Map _selectAs = null;
         protected DBDictionary _dict = null;
 
+        // compiled map of each id to the positions it is selected at
+        private volatile Map<Object, int[]> _positions = null;
+
+        /**
+         * Return the 0-based positions the given id is selected at in
+         * ascending order, or null if it is not selected. The positions are
+         * compiled once for all ids when first requested after the selects
+         * change, so that results can find the columns they read without
+         * searching the select list.
+         */
+        public int[] getPositions(Object id) {
+            if (_ids == null)
+                return null;
+            Map<Object, int[]> positions = _positions;
+            if (positions == null) {
+                positions = new HashMap<>((int) (_ids.size() * 1.33 + 1));
+                int[] idxs;
+                for (int i = 0; i < _ids.size(); i++) {
+                    idxs = positions.get(_ids.get(i));
+                    if (idxs == null)
+                        idxs = new int[] { i };
+                    else {
+                        idxs = Arrays.copyOf(idxs, idxs.length + 1);
+                        idxs[idxs.length - 1] = i;
+                    }
+                    positions.put(_ids.get(i), idxs);
+                }
+                _positions = positions;
+            }
+            return positions.get(id);
+        }
+
         /**
          * Add all aliases from another instance.
          */
         public void addAll(Selects sels) {
+            _positions = null;
             if (_ids == null && sels._ids != null)
                 _ids = new ArrayList(sels._ids);
             else if (sels._ids != null)
@@ -3410,6 +3500,7 @@ public class SelectImpl
             if (_aliases.put(id, alias) != null)
                 idx = _ids.indexOf(id);
             else {
+                _positions = null;
                 _ids.add(id);
                 idx = _ids.size() - 1;
 
@@ -3435,6 +3526,7 @@ public class SelectImpl
          * to count backwards.
          */
         public void insertAlias(int idx, Object id, Object alias) {
+            _positions = null;
             _aliases.put(id, alias);
             if (idx >= 0)
                 _ids.add(idx, id);
@@ -3516,6 +3608,7 @@ public class SelectImpl
             if (_ids == null)
                 return;
 
+            _positions = null;
             Object id;
             for (Iterator itr = _ids.iterator(); itr.hasNext();) {
                 id = itr.next();
@@ -3545,6 +3638,7 @@ public class SelectImpl
 
         @Override
         public void clear() {
+            _positions = null;
             _ids = null;
             _aliases = null;
             _selectAs = null;
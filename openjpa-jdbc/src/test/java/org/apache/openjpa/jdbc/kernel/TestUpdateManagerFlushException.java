@@ -314,6 +314,11 @@ public class TestUpdateManagerFlushException {
             return null;
         }
 
+        @Override
+        public boolean isDirty(int field) {
+            return false;
+        }
+
         @Override
         public BitSet getFlushed() {
             return null;
@@ -344,6 +349,11 @@ public class TestUpdateManagerFlushException {
             return null;
         }
 
+        @Override
+        public boolean isLoaded(int field) {
+            return false;
+        }
+
         @Override
         public Object getLock() {
             return null;
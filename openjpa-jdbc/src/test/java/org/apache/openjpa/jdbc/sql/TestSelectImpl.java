@@ -27,7 +27,9 @@ import org.apache.openjpa.jdbc.identifier.DBIdentifier;
 import org.apache.openjpa.jdbc.schema.Column;
 import org.apache.openjpa.jdbc.schema.Table;
 import static org.apache.openjpa.jdbc.sql.Select.FROM_SELECT_ALIAS;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import org.junit.Test;
 
 /**
@@ -50,6 +52,42 @@ public class TestSelectImpl {
         verifySelectResultGetColumnAlias(true, true, true /* requiresAliasForSubselect */, 92, "Col", 18, FROM_SELECT_ALIAS + ".t92_Col");
     }
 
+    @Test
+    public void testSelectResultFindsColumnsByPosition() throws Exception {
+        DBDictionary dict = new DBDictionary();
+        JDBCConfiguration conf = new JDBCConfigurationImpl();
+        dict.setConfiguration(conf);
+        conf.setDBDictionary(dict);
+        SelectImpl sel = new SelectImpl(conf);
+        Column a = new Column(DBIdentifier.newColumn("A", false), null);
+        Column b = new Column(DBIdentifier.newColumn("B", false), null);
+        Column c = new Column(DBIdentifier.newColumn("C", false), null);
+        sel._selects.setAlias(a, "t0.A", false);
+        sel._selects.setAlias(b, "t0.B", false);
+        sel._selects.setAlias(c, "t0.C", false);
+        assertArrayEquals(new int[] { 1 }, sel._selects.getPositions(b));
+
+        // a column selected twice
+        sel._selects.insertAlias(0, c, "t0.C");
+        assertArrayEquals(new int[] { 0, 3 }, sel._selects.getPositions(c));
+        assertNull(sel._selects.getPositions("t0.A"));
+
+        SelectImpl.SelectResult result = new SelectImpl.SelectResult(null,
+            null, null, dict);
+        result.setSelect(sel);
+        assertEquals(1, result.findObject(c, null));
+        assertEquals(2, result.findObject(a, null));
+        assertEquals(3, result.findObject(b, null));
+        assertEquals(4, result.findObject(c, null));
+        // read again out of order
+        assertEquals(2, result.findObject(a, null));
+        assertEquals(4, result.findObject(c, null));
+        assertEquals(1, result.findObject(c, null));
+
+        sel._selects.clear();
+        assertNull(sel._selects.getPositions(c));
+    }
+
     private void verifySelectResultGetColumnAlias(boolean delimitIdentifiers, boolean fromSelect, boolean requiresAliasForSubselect,
             int fromSelectTableIndex, String colName, int tableIndex, String expected) {
         DBDictionary dict = new DBDictionary();
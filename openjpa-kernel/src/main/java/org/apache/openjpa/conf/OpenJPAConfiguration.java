@@ -20,6 +20,7 @@ package org.apache.openjpa.conf;
 
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.openjpa.audit.Auditor;
 import org.apache.openjpa.datacache.CacheDistributionPolicy;
@@ -36,6 +37,7 @@ import org.apache.openjpa.event.RemoteCommitProvider;
 import org.apache.openjpa.instrumentation.InstrumentationManager;
 import org.apache.openjpa.kernel.AutoClear;
 import org.apache.openjpa.kernel.AutoDetach;
+import org.apache.openjpa.kernel.Broker;
 import org.apache.openjpa.kernel.BrokerFactory;
 import org.apache.openjpa.kernel.BrokerImpl;
 import org.apache.openjpa.kernel.ConnectionRetainModes;
@@ -1906,6 +1908,38 @@ public interface OpenJPAConfiguration
      */
     void setAuditor(String s);
 
+    /**
+     * Gets the plug-in string of the {@link Executor} that runs asynchronous
+     * finds and queries submitted through {@link Broker#submit}.
+     *
+     * @since 3.1.3
+     */
+    String getAsyncExecutor();
+
+    /**
+     * Sets the plug-in string of the {@link Executor} that runs asynchronous
+     * finds and queries submitted through {@link Broker#submit}.
+     *
+     * @since 3.1.3
+     */
+    void setAsyncExecutor(String executor);
+
+    /**
+     * Gets the singular {@link Executor} that runs asynchronous finds and
+     * queries submitted through {@link Broker#submit}.
+     *
+     * @since 3.1.3
+     */
+    Executor getAsyncExecutorInstance();
+
+    /**
+     * Sets the singular {@link Executor} that runs asynchronous finds and
+     * queries submitted through {@link Broker#submit}.
+     *
+     * @since 3.1.3
+     */
+    void setAsyncExecutorInstance(Executor executor);
+
      /**
       * Whether to send &#064;PostLoad events on a merge operation.
       * @since 2.2.0
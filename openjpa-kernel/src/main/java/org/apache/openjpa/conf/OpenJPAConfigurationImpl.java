@@ -23,6 +23,7 @@ import static java.util.Arrays.asList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.apache.openjpa.audit.AuditLogger;
 import org.apache.openjpa.audit.Auditor;
@@ -31,6 +32,7 @@ import org.apache.openjpa.datacache.ConcurrentDataCache;
 import org.apache.openjpa.datacache.ConcurrentQueryCache;
 import org.apache.openjpa.datacache.DataCacheManager;
 import org.apache.openjpa.datacache.DataCacheManagerImpl;
+import org.apache.openjpa.datacache.OffHeapDataCache;
 import org.apache.openjpa.datacache.PartitionedDataCache;
 import org.apache.openjpa.ee.ManagedRuntime;
 import org.apache.openjpa.enhance.RuntimeUnenhancedClassesModes;
@@ -53,6 +55,8 @@ import org.apache.openjpa.kernel.QueryFlushModes;
 import org.apache.openjpa.kernel.RestoreState;
 import org.apache.openjpa.kernel.SavepointManager;
 import org.apache.openjpa.kernel.Seq;
+import org.apache.openjpa.kernel.ThreadPoolAsyncExecutor;
+import org.apache.openjpa.kernel.VirtualThreadAsyncExecutor;
 import org.apache.openjpa.kernel.exps.AggregateListener;
 import org.apache.openjpa.kernel.exps.FilterListener;
 import org.apache.openjpa.lib.conf.BooleanValue;
@@ -103,6 +107,7 @@ public class OpenJPAConfigurationImpl
     public ObjectValue dataCachePlugin;
     public ObjectValue dataCacheManagerPlugin;
     public ObjectValue auditorPlugin;
+    public ObjectValue asyncExecutorPlugin;
     public ObjectValue cacheDistributionPolicyPlugin;
     public IntValue dataCacheTimeout;
     public ObjectValue queryCachePlugin;
@@ -269,6 +274,7 @@ public class OpenJPAConfigurationImpl
             "true", ConcurrentDataCache.class.getName(),
             "concurrent", ConcurrentDataCache.class.getName(),
             "partitioned", PartitionedDataCache.class.getName(),
+            "offheap", OffHeapDataCache.class.getName(),
         };
         dataCachePlugin.setAliases(aliases);
         dataCachePlugin.setDefault(aliases[0]);
@@ -672,6 +678,16 @@ public class OpenJPAConfigurationImpl
         auditorPlugin.setAliases(aliases);
         auditorPlugin.setInstantiatingGetter("getAuditorInstance");
 
+        asyncExecutorPlugin = addPlugin("AsyncExecutor", true);
+        aliases = new String[] {
+            "default", ThreadPoolAsyncExecutor.class.getName(),
+            "virtual", VirtualThreadAsyncExecutor.class.getName(),
+        };
+        asyncExecutorPlugin.setAliases(aliases);
+        asyncExecutorPlugin.setDefault(aliases[0]);
+        asyncExecutorPlugin.setString(aliases[0]);
+        asyncExecutorPlugin.setInstantiatingGetter("getAsyncExecutorInstance");
+
         useTcclForSelectNew = addBoolean("UseTCCLinSelectNew");
         useTcclForSelectNew.setDefault("false");
         useTcclForSelectNew.set(false);
@@ -2170,6 +2186,30 @@ public class OpenJPAConfigurationImpl
     	auditorPlugin.setString(auditor);
     }
 
+    @Override
+    public String getAsyncExecutor() {
+        return asyncExecutorPlugin.getString();
+    }
+
+    @Override
+    public void setAsyncExecutor(String executor) {
+        asyncExecutorPlugin.setString(executor);
+    }
+
+    @Override
+    public Executor getAsyncExecutorInstance() {
+        Executor executor = (Executor) asyncExecutorPlugin.get();
+        if (executor == null) {
+            executor = (Executor) asyncExecutorPlugin.instantiate(Executor.class, this);
+        }
+        return executor;
+    }
+
+    @Override
+    public void setAsyncExecutorInstance(Executor executor) {
+        asyncExecutorPlugin.set(executor);
+    }
+
     @Override
     public boolean getPostLoadOnMerge() {
         return postLoadOnMerge.get();
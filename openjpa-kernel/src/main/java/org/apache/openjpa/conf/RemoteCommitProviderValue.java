@@ -29,7 +29,7 @@ import org.apache.openjpa.lib.util.StringUtil;
 /**
  * Value type used to represent a {@link RemoteCommitProvider}. This
  * plugin allows users to specify whether to transmit the ids of added objects
- * in the remote commit events distributed.
+ * and patches of updated objects in the remote commit events distributed.
  *
  * @author Abe White
  */
@@ -44,6 +44,7 @@ public class RemoteCommitProviderValue
 
     private Options _opts = null;
     private Boolean _transmitPersIds = null;
+    private Integer _patchSize = null;
 
     public RemoteCommitProviderValue() {
         super("RemoteCommitProvider", true);
@@ -55,6 +56,7 @@ public class RemoteCommitProviderValue
         super.setProperties(props);
         _opts = null;
         _transmitPersIds = null;
+        _patchSize = null;
     }
 
     @Override
@@ -62,6 +64,7 @@ public class RemoteCommitProviderValue
         super.setString(str);
         _opts = null;
         _transmitPersIds = null;
+        _patchSize = null;
     }
 
     /**
@@ -92,6 +95,26 @@ public class RemoteCommitProviderValue
         _transmitPersIds = (transmit) ? Boolean.TRUE : Boolean.FALSE;
     }
 
+    /**
+     * The maximum number of changed field values remote commit events
+     * carry to patch cached instances, or 0 to transmit no patches.
+     *
+     * @since 3.1.3
+     */
+    public int getPatchSize() {
+        return (_patchSize == null) ? 0 : _patchSize;
+    }
+
+    /**
+     * The maximum number of changed field values remote commit events
+     * carry to patch cached instances.
+     *
+     * @since 3.1.3
+     */
+    public void setPatchSize(int patchSize) {
+        _patchSize = patchSize;
+    }
+
     /**
      * Instantiate the provider.
      */
@@ -115,6 +138,8 @@ public class RemoteCommitProviderValue
         parseOptions();
         if (_transmitPersIds != null)
             mgr.setTransmitPersistedObjectIds(_transmitPersIds.booleanValue());
+        if (_patchSize != null)
+            mgr.setPatchSize(_patchSize);
     }
 
     /**
@@ -138,5 +163,9 @@ public class RemoteCommitProviderValue
             ("transmitPersistedObjectIds", "TransmitPersistedObjectIds", null));
         if (transmit != null)
             _transmitPersIds = Boolean.valueOf (transmit);
+        String patchSize = StringUtil.trimToNull(_opts.removeProperty
+            ("patchSize", "PatchSize", null));
+        if (patchSize != null)
+            _patchSize = Integer.valueOf(patchSize);
 	}
 }
@@ -18,6 +18,8 @@
  */
 package org.apache.openjpa.datacache;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.BitSet;
@@ -30,18 +32,28 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.event.RemoteCommitEvent;
 import org.apache.openjpa.event.RemoteCommitListener;
+import org.apache.openjpa.event.UpdatePatch;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.lib.conf.Configurable;
 import org.apache.openjpa.lib.conf.Configuration;
+import org.apache.openjpa.lib.conf.Configurations;
 import org.apache.openjpa.lib.log.Log;
 import org.apache.openjpa.lib.util.Localizer;
 import org.apache.openjpa.lib.util.StringUtil;
 import org.apache.openjpa.lib.util.concurrent.AbstractConcurrentEventManager;
+import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.util.GeneralException;
+import org.apache.openjpa.util.OpenJPAId;
+import org.apache.openjpa.util.UserException;
 
 
 /**
@@ -80,6 +92,20 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
     protected Set<String> _includedTypes = new HashSet<>();
     protected Set<String> _excludedTypes = new HashSet<>();
     protected boolean _evictOnBulkUpdate = true;
+    private double _refreshAhead = 0;
+    private int _refreshThreads = 1;
+    private int _refreshQueueSize = 1000;
+    private transient ThreadPoolExecutor _refresher = null;
+    private final Set<Object> _refreshing =
+        Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private boolean _coalesceLoads = false;
+    private int _coalesceTimeout = 1000;
+    private transient LoadCoalescer _loads = null;
+    private String _snapshotFile = null;
+    private final Set<Object> _unverified =
+        Collections.newSetFromMap(new ConcurrentHashMap<>());
+    private String _metricsClass = null;
+    private transient CacheMetrics _metrics = null;
 
     @Override
     public String getName() {
@@ -107,13 +133,254 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
         _schedule = s;
     }
 
+    /**
+     * The fraction of an instance's data cache timeout after which reading
+     * the instance from the cache schedules an asynchronous reload from the
+     * data store. Readers keep being served the cached data until the reload
+     * replaces it. Defaults to 0, which disables refresh-ahead.
+     *
+     * @since 3.1.3
+     */
+    public double getRefreshAhead() {
+        return _refreshAhead;
+    }
+
+    /**
+     * The fraction of an instance's data cache timeout after which reading
+     * the instance from the cache schedules an asynchronous reload from the
+     * data store, or 0 to disable refresh-ahead.
+     *
+     * @since 3.1.3
+     */
+    public void setRefreshAhead(double fraction) {
+        _refreshAhead = fraction;
+    }
+
+    /**
+     * The number of threads that reload instances due for refresh.
+     * Defaults to 1.
+     *
+     * @since 3.1.3
+     */
+    public int getRefreshThreads() {
+        return _refreshThreads;
+    }
+
+    /**
+     * The number of threads that reload instances due for refresh.
+     *
+     * @since 3.1.3
+     */
+    public void setRefreshThreads(int threads) {
+        _refreshThreads = threads;
+    }
+
+    /**
+     * The maximum number of scheduled reloads waiting for a thread. Reads
+     * that find the queue full do not schedule a reload. Defaults to 1000.
+     *
+     * @since 3.1.3
+     */
+    public int getRefreshQueueSize() {
+        return _refreshQueueSize;
+    }
+
+    /**
+     * The maximum number of scheduled reloads waiting for a thread.
+     *
+     * @since 3.1.3
+     */
+    public void setRefreshQueueSize(int size) {
+        _refreshQueueSize = size;
+    }
+
+    /**
+     * Whether concurrent cache misses on the same instance wait for a single
+     * data store load instead of each loading the instance. Defaults to
+     * false.
+     *
+     * @since 3.1.3
+     */
+    public boolean getCoalesceLoads() {
+        return _coalesceLoads;
+    }
+
+    /**
+     * Whether concurrent cache misses on the same instance wait for a single
+     * data store load instead of each loading the instance.
+     *
+     * @since 3.1.3
+     */
+    public void setCoalesceLoads(boolean coalesce) {
+        _coalesceLoads = coalesce;
+    }
+
+    /**
+     * The maximum time in milliseconds that a cache miss waits for a
+     * concurrent load of the same instance before loading it itself.
+     * Defaults to 1000.
+     *
+     * @since 3.1.3
+     */
+    public int getCoalesceTimeout() {
+        return _coalesceTimeout;
+    }
+
+    /**
+     * The maximum time in milliseconds that a cache miss waits for a
+     * concurrent load of the same instance before loading it itself.
+     *
+     * @since 3.1.3
+     */
+    public void setCoalesceTimeout(int timeout) {
+        _coalesceTimeout = timeout;
+    }
+
+    /**
+     * The loads in progress, or null if loads are not coalesced.
+     */
+    LoadCoalescer getLoadCoalescer() {
+        return _loads;
+    }
+
+    /**
+     * The file that the cache contents are written to on close and
+     * restored from on startup, or null for none. Restored instances are
+     * checked against the data store version before their first use.
+     * Defaults to null.
+     *
+     * @since 3.1.3
+     */
+    public String getSnapshotFile() {
+        return _snapshotFile;
+    }
+
+    /**
+     * The file that the cache contents are written to on close and
+     * restored from on startup, or null for none.
+     *
+     * @since 3.1.3
+     */
+    public void setSnapshotFile(String file) {
+        _snapshotFile = StringUtil.isEmpty(file) ? null : file;
+    }
+
+    /**
+     * Whether the cached data for the given oid was restored from the
+     * snapshot and has not been checked against the data store yet.
+     */
+    boolean isUnverified(Object oid) {
+        return !_unverified.isEmpty() && _unverified.contains(oid);
+    }
+
+    /**
+     * Record the outcome of checking restored data against the data store,
+     * evicting it if it is stale.
+     */
+    void setVerified(Object oid, boolean current) {
+        _unverified.remove(oid);
+        if (!current)
+            remove(oid);
+    }
+
+    /**
+     * The name of a {@link CacheMetrics} class to publish the latencies of
+     * cache operations to, or null for none. Defaults to null.
+     *
+     * @since 3.1.3
+     */
+    public String getMetrics() {
+        return _metricsClass;
+    }
+
+    /**
+     * The name of a {@link CacheMetrics} class to publish the latencies of
+     * cache operations to, or null for none.
+     *
+     * @since 3.1.3
+     */
+    public void setMetrics(String cls) {
+        _metricsClass = StringUtil.isEmpty(cls) ? null : cls;
+    }
+
+    /**
+     * The metrics the latencies of cache operations are published to, or
+     * null for none.
+     *
+     * @since 3.1.3
+     */
+    public CacheMetrics getMetricsInstance() {
+        return _metrics;
+    }
+
+    /**
+     * The metrics the latencies of cache operations are published to.
+     *
+     * @since 3.1.3
+     */
+    public void setMetricsInstance(CacheMetrics metrics) {
+        _metrics = metrics;
+    }
+
+    /**
+     * Return the start time of an operation whose latency is recorded, or 0
+     * if latencies are neither collected nor published.
+     */
+    long startTimer() {
+        return (_metrics != null || _stats.isEnabled()) ? System.nanoTime()
+            : 0;
+    }
+
+    /**
+     * Record the latency of an operation on an instance of the given type
+     * started at the given {@link #startTimer} time.
+     */
+    void recordLatency(Class<?> type, int operation, long start) {
+        if (start != 0)
+            recordNanos(type, operation, System.nanoTime() - start);
+    }
+
+    private void recordNanos(Class<?> type, int operation, long nanos) {
+        _stats.newLatency(type, operation, nanos);
+        if (_metrics != null)
+            _metrics.record(_name, type, operation, nanos);
+    }
+
+    /**
+     * Return the type of the instance with the given oid and data.
+     */
+    private static Class<?> typeOf(Object oid, DataCachePCData data) {
+        if (data != null)
+            return data.getType();
+        return (oid instanceof OpenJPAId) ? ((OpenJPAId) oid).getType() : null;
+    }
+
     @Override
     public void initialize(DataCacheManager manager) {
+        if (_coalesceLoads)
+            _loads = new LoadCoalescer(Math.max(0, _coalesceTimeout));
+        if (_refreshAhead != 0) {
+            if (_refreshAhead < 0 || _refreshAhead >= 1
+                || _refreshThreads < 1 || _refreshQueueSize < 1)
+                throw new UserException(s_loc.get("bad-refresh-ahead",
+                    getName(), _refreshAhead));
+            final String thread = "openjpa-datacache-refresh-" + getName();
+            _refresher = new ThreadPoolExecutor(_refreshThreads,
+                _refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(_refreshQueueSize), r -> {
+                    Thread t = new Thread(r, thread);
+                    t.setDaemon(true);
+                    return t;
+                });
+            _refresher.allowCoreThreadTimeOut(true);
+        }
         if (_schedule != null && !"".equals(_schedule)) {
             ClearableScheduler scheduler = manager.getClearableScheduler();
             if (scheduler != null)
                 scheduler.scheduleEviction(this, _schedule);
         }
+        if (_snapshotFile != null)
+            restoreSnapshot();
         // Cast here rather than add to the interface because this is a hack to support an older way of configuring
         if(manager instanceof DataCacheManagerImpl){
             List<String> invalidConfigured = new ArrayList<>();
@@ -190,7 +457,9 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
 
     @Override
     public DataCachePCData get(Object key) {
+        long start = startTimer();
         DataCachePCData o = getInternal(key);
+        recordLatency(typeOf(key, o), CacheStatistics.OP_GET, start);
         if (o != null && o.isTimedOut()) {
             o = null;
             removeInternal(key);
@@ -213,15 +482,50 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
      */
     @Override
     public Map<Object,DataCachePCData> getAll(List<Object> keys) {
-        Map<Object,DataCachePCData> resultMap = new HashMap<>(keys.size());
-        for (Object key : keys)
-            resultMap.put(key, get(key));
+        int size = keys.size();
+        DataCachePCData[] datas = new DataCachePCData[size];
+        long start = startTimer();
+        getAllInternal(keys, datas);
+        if (start != 0 && size > 0) {
+            // attribute an equal share of the batch to each key
+            long share = (System.nanoTime() - start) / size;
+            for (int i = 0; i < size; i++)
+                recordNanos(typeOf(keys.get(i), datas[i]),
+                    CacheStatistics.OP_GET, share);
+        }
+
+        Map<Object,DataCachePCData> resultMap = new HashMap<>(
+            (int) (size / .75f) + 1);
+        List<Object> timedOut = null;
+        boolean trace = log.isTraceEnabled();
+        Object key;
+        DataCachePCData o;
+        for (int i = 0; i < size; i++) {
+            key = keys.get(i);
+            o = datas[i];
+            if (o != null && o.isTimedOut()) {
+                o = null;
+                if (timedOut == null)
+                    timedOut = new ArrayList<>();
+                timedOut.add(key);
+                if (trace)
+                    log.trace(s_loc.get("cache-timeout", key));
+            }
+            if (trace)
+                log.trace(s_loc.get((o == null) ? "cache-miss" : "cache-hit",
+                    key));
+            resultMap.put(key, o);
+        }
+        if (timedOut != null)
+            removeAllInternal(timedOut);
         return resultMap;
     }
 
     @Override
     public DataCachePCData put(DataCachePCData data) {
+        long start = startTimer();
         DataCachePCData o = putInternal(data.getId(), data);
+        recordLatency(data.getType(), CacheStatistics.OP_PUT, start);
         if (log.isTraceEnabled())
             log.trace(s_loc.get("cache-put", data.getId()));
         return (o == null || o.isTimedOut()) ? null : o;
@@ -236,7 +540,9 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
 
     @Override
     public DataCachePCData remove(Object key) {
+        long start = startTimer();
         DataCachePCData o = removeInternal(key);
+        recordLatency(typeOf(key, o), CacheStatistics.OP_EVICT, start);
         if (o != null && o.isTimedOut())
             o = null;
         if (log.isTraceEnabled()) {
@@ -331,9 +637,76 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
             log.warn(s_loc.get("cache-class-unpin", getName()));
     }
 
+    /**
+     * Load the snapshot file on a background thread. Restored data does not
+     * replace data cached in the meantime.
+     */
+    private void restoreSnapshot() {
+        final CacheSnapshot snapshot = new CacheSnapshot(
+            new File(_snapshotFile), log);
+        if (!snapshot.exists())
+            return;
+        Thread restore = new Thread(() -> {
+            int[] restored = new int[1];
+            try {
+                snapshot.read((oid, value) -> {
+                    if (_closed)
+                        return false;
+                    DataCachePCData data = (DataCachePCData) value;
+                    if (!data.isTimedOut() && getInternal(oid) == null) {
+                        _unverified.add(oid);
+                        putInternal(oid, data);
+                        restored[0]++;
+                    }
+                    return true;
+                });
+                if (log.isInfoEnabled())
+                    log.info(s_loc.get("snapshot-restored", restored[0],
+                        getName(), snapshot.getFile()));
+            } catch (IOException | RuntimeException e) {
+                if (log.isWarnEnabled())
+                    log.warn(s_loc.get("snapshot-read-failed", getName(),
+                        snapshot.getFile()), e);
+            }
+        }, "openjpa-datacache-restore-" + getName());
+        restore.setDaemon(true);
+        restore.start();
+    }
+
+    /**
+     * Write the cached data that has a version to the snapshot file.
+     */
+    private void writeSnapshot() {
+        CacheSnapshot snapshot = new CacheSnapshot(new File(_snapshotFile),
+            log);
+        CacheSnapshot.Writer out = null;
+        try {
+            out = snapshot.write();
+            DataCachePCData data;
+            for (Object oid : keySet()) {
+                data = getInternal(oid);
+                if (data != null && !data.isTimedOut()
+                    && data.getVersion() != null)
+                    out.write(oid, data);
+            }
+            out.commit();
+            if (log.isInfoEnabled())
+                log.info(s_loc.get("snapshot-written", out.size(), getName(),
+                    snapshot.getFile()));
+        } catch (IOException | RuntimeException e) {
+            if (log.isWarnEnabled())
+                log.warn(s_loc.get("snapshot-write-failed", getName(),
+                    snapshot.getFile()), e);
+        } finally {
+            if (out != null)
+                out.release();
+        }
+    }
+
     @Override
     public void clear() {
         clearInternal();
+        _unverified.clear();
         if (log.isTraceEnabled())
             log.trace(s_loc.get("cache-clear", getName()));
     }
@@ -345,12 +718,67 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
 
     protected void close(boolean clear) {
         if (!_closed) {
+            if (_refresher != null)
+                _refresher.shutdownNow();
+            _closed = true;
+            if (_snapshotFile != null)
+                writeSnapshot();
             if (clear)
                 clearInternal();
-            _closed = true;
         }
     }
 
+    /**
+     * Whether the given cached data has passed the refresh-ahead point of
+     * its timeout. Always false when refresh-ahead is disabled.
+     *
+     * @since 3.1.3
+     */
+    public boolean isRefreshDue(DataCachePCData data) {
+        if (_refresher == null || data == null)
+            return false;
+        long exp = data.getTimeOut();
+        if (exp == -1)
+            return false;
+        ClassMetaData meta = conf.getMetaDataRepositoryInstance().
+            getCachedMetaData(data.getType());
+        if (meta == null || meta.getDataCacheTimeout() <= 0)
+            return false;
+        long lead = (long) (meta.getDataCacheTimeout() * (1 - _refreshAhead));
+        return System.currentTimeMillis() >= exp - lead;
+    }
+
+    /**
+     * Run the given reload of the given oid on the refresh threads, unless a
+     * reload of the same oid is already scheduled or running, or the queue
+     * is full.
+     *
+     * @return true if the reload was scheduled
+     * @since 3.1.3
+     */
+    public boolean scheduleRefresh(final Object oid, final Runnable reload) {
+        if (_refresher == null || _closed || !_refreshing.add(oid))
+            return false;
+        try {
+            _refresher.execute(() -> {
+                try {
+                    reload.run();
+                } catch (RuntimeException re) {
+                    if (log.isWarnEnabled())
+                        log.warn(s_loc.get("cache-refresh-failed", oid), re);
+                } finally {
+                    _refreshing.remove(oid);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            _refreshing.remove(oid);
+            return false;
+        }
+        if (log.isTraceEnabled())
+            log.trace(s_loc.get("cache-refresh", oid));
+        return true;
+    }
+
     public boolean isClosed() {
         return _closed;
     }
@@ -387,11 +815,54 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
             // drop all the committed OIDs, excepting brand
             // new OIDs. brand new OIDs either won't be in
             // the cache, or if they are, will be more up to date
-            removeAllInternal(event.getUpdatedObjectIds());
+            Map<Object, UpdatePatch> patches = event.getUpdatePatches();
+            if (patches.isEmpty())
+                removeAllInternal(event.getUpdatedObjectIds());
+            else
+                removeAllInternal(applyPatches(event.getUpdatedObjectIds(),
+                    patches));
             removeAllInternal(event.getDeletedObjectIds());
         }
     }
 
+    /**
+     * Apply the given patches to the cached data of the updated oids,
+     * returning the oids whose data must be evicted instead: those without
+     * a patch, and those whose cached version is not the version the patch
+     * was made from. Patches older than the cached data are ignored.
+     */
+    private Collection<Object> applyPatches(Collection<Object> oids,
+        Map<Object, UpdatePatch> patches) {
+        List<Object> evict = new ArrayList<>();
+        UpdatePatch patch;
+        DataCachePCData data;
+        writeLock();
+        try {
+            for (Object oid : oids) {
+                patch = patches.get(oid);
+                if (patch == null) {
+                    evict.add(oid);
+                    continue;
+                }
+                data = getInternal(oid);
+                if (data == null || patch.isStale(data.getVersion()))
+                    continue;
+                if (!(data instanceof DataCachePCDataImpl)
+                    || !((DataCachePCDataImpl) data).patch(patch)) {
+                    evict.add(oid);
+                    continue;
+                }
+                if (recacheUpdates())
+                    putInternal(oid, data);
+                if (log.isTraceEnabled())
+                    log.trace(s_loc.get("cache-patched", oid, patch));
+            }
+        } finally {
+            writeUnlock();
+        }
+        return evict;
+    }
+
     /**
      * Invoke when a key is removed from this cache. Propagates the
      * expiration event on to all expiration listeners registered
@@ -420,6 +891,18 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
      */
     protected abstract DataCachePCData getInternal(Object oid);
 
+    /**
+     * Return the objects for the given oids, storing each at the oid's index
+     * in <code>datas</code>. Looks up each oid in turn by default; caches
+     * that can read a batch of oids more cheaply should override.
+     *
+     * @since 3.1.3
+     */
+    protected void getAllInternal(List<Object> oids, DataCachePCData[] datas) {
+        for (int i = 0, size = oids.size(); i < size; i++)
+            datas[i] = getInternal(oids.get(i));
+    }
+
     /**
      * Add the given object to the cache, returning the old object under the
      * given oid.
@@ -469,6 +952,16 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
         }
     }
 
+    /**
+     * Return the oids of the cached data, used to write the snapshot file.
+     * Caches that do not override this method write empty snapshots.
+     *
+     * @since 3.1.3
+     */
+    protected Collection<Object> keySet() {
+        return Collections.emptySet();
+    }
+
     /**
      * Clear the cache.
      */
@@ -524,6 +1017,9 @@ public abstract class AbstractDataCache extends AbstractConcurrentEventManager
     public void endConfiguration() {
         if (_name == null)
             setName(NAME_DEFAULT);
+        if (_metricsClass != null && _metrics == null)
+            _metrics = (CacheMetrics) Configurations.newInstance(_metricsClass,
+                conf, (String) null, AbstractDataCache.class.getClassLoader());
     }
 
     // ---------- AbstractEventManager implementation ----------
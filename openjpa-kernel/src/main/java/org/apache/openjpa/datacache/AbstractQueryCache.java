@@ -18,6 +18,8 @@
  */
 package org.apache.openjpa.datacache;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.security.AccessController;
 import java.util.ArrayList;
@@ -35,18 +37,21 @@ import org.apache.commons.collections4.map.AbstractReferenceMap.ReferenceStrengt
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.event.RemoteCommitEvent;
 import org.apache.openjpa.event.RemoteCommitListener;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.QueryStatistics;
 import org.apache.openjpa.lib.conf.Configurable;
 import org.apache.openjpa.lib.conf.Configuration;
 import org.apache.openjpa.lib.log.Log;
 import org.apache.openjpa.lib.util.J2DoPrivHelper;
 import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.lib.util.StringUtil;
 import org.apache.openjpa.lib.util.concurrent.AbstractConcurrentEventManager;
 import org.apache.openjpa.lib.util.concurrent.ConcurrentReferenceHashMap;
 import org.apache.openjpa.lib.util.concurrent.ConcurrentReferenceHashSet;
 import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.meta.MetaDataRepository;
 import org.apache.openjpa.util.Id;
+import org.apache.openjpa.util.UserException;
 
 /**
  * Abstract {@link QueryCache} implementation that provides various
@@ -89,6 +94,12 @@ public abstract class AbstractQueryCache
 
     private QueryStatistics<QueryKey> _stats;
     private boolean _statsEnabled = false;
+    private double _refreshAhead = 0;
+    private final Set<QueryKey> _refreshing =
+        ConcurrentHashMap.newKeySet();
+    private String _snapshotFile = null;
+    private final Set<QueryKey> _unverified = ConcurrentHashMap.newKeySet();
+    private boolean _columnarResults = true;
 
     public void setEnableStatistics(boolean enable){
         _statsEnabled = enable;
@@ -104,6 +115,8 @@ public abstract class AbstractQueryCache
 
     @Override
     public void initialize(DataCacheManager manager) {
+        if (_snapshotFile != null)
+            restoreSnapshot();
         if (evictPolicy == EvictPolicy.TIMESTAMP) {
             entityTimestampMap = new ConcurrentHashMap<>();
 
@@ -137,11 +150,14 @@ public abstract class AbstractQueryCache
                 writeUnlock();
             }
 
+            Collection<OpenJPAStateManager> instances = ev.getInstances();
             QueryKey qk;
                 List<QueryKey> removes = null;
                 for (Object o: keys) {
                     qk = (QueryKey) o;
-                if (qk.changeInvalidatesQuery(ev.getTypes())) {
+                if (qk.changeInvalidatesQuery(ev.getTypes(), instances,
+                    instances == null || !qk.hasComparisons() ? null
+                    : getInternal(qk))) {
                     if (removes == null)
                         removes = new ArrayList<>();
                     removes.add(qk);
@@ -177,6 +193,16 @@ public abstract class AbstractQueryCache
             if (log.isTraceEnabled())
                 log.trace(s_loc.get("cache-timeout", key));
         }
+        if (o == null)
+            endRefresh(key);
+        else if ((isRefreshDue(key, o) || isUnverified(key))
+            && _refreshing.add(key)) {
+            // this caller re-runs the query and puts the new result, while
+            // everyone else keeps getting the current one until then
+            o = null;
+            if (log.isTraceEnabled())
+                log.trace(s_loc.get("query-cache-refresh", key));
+        }
 
         if (log.isTraceEnabled()) {
             if (o == null)
@@ -193,6 +219,7 @@ public abstract class AbstractQueryCache
     @Override
     public QueryResult put(QueryKey qk, QueryResult oids) {
         QueryResult o = putInternal(qk, oids);
+        endRefresh(qk);
         if (log.isTraceEnabled())
             log.trace(s_loc.get("cache-put", qk));
         return (o == null || o.isTimedOut()) ? null : o;
@@ -201,6 +228,7 @@ public abstract class AbstractQueryCache
     @Override
     public QueryResult remove(QueryKey key) {
         QueryResult o = removeInternal(key);
+        endRefresh(key);
         if (_statsEnabled) {
             _stats.recordEviction(key);
         }
@@ -242,6 +270,8 @@ public abstract class AbstractQueryCache
     @Override
     public void clear() {
         clearInternal();
+        _refreshing.clear();
+        _unverified.clear();
         if (log.isTraceEnabled())
             log.trace(s_loc.get("cache-clear", "<query-cache>"));
         if (_statsEnabled) {
@@ -256,9 +286,11 @@ public abstract class AbstractQueryCache
 
     protected void close(boolean clear) {
         if (!_closed) {
+            _closed = true;
+            if (_snapshotFile != null)
+                writeSnapshot();
             if (clear)
                 clearInternal();
-            _closed = true;
         }
     }
 
@@ -420,6 +452,175 @@ public abstract class AbstractQueryCache
         return new ConcurrentReferenceHashSet(ReferenceStrength.WEAK);
 	}
 
+    /**
+     * Whether projection results whose columns each hold a single primitive
+     * wrapper or string type are cached in columnar primitive arrays rather
+     * than as rows of boxed values. Defaults to true.
+     *
+     * @since 3.1.3
+     */
+    public boolean getColumnarResults() {
+        return _columnarResults;
+    }
+
+    /**
+     * Whether projection results are cached in columnar primitive arrays
+     * where possible.
+     *
+     * @since 3.1.3
+     */
+    public void setColumnarResults(boolean columnar) {
+        _columnarResults = columnar;
+    }
+
+    /**
+     * The fraction of a query result's timeout after which one lookup of the
+     * result reports a miss, so that its caller re-runs the query and
+     * replaces the result before it times out. Other lookups keep getting
+     * the current result meanwhile. Defaults to 0, which disables
+     * refresh-ahead.
+     *
+     * @since 3.1.3
+     */
+    public double getRefreshAhead() {
+        return _refreshAhead;
+    }
+
+    /**
+     * The fraction of a query result's timeout after which the result is
+     * refreshed, or 0 to disable refresh-ahead.
+     *
+     * @since 3.1.3
+     */
+    public void setRefreshAhead(double fraction) {
+        if (fraction < 0 || fraction >= 1)
+            throw new UserException(s_loc.get("bad-refresh-ahead", getName(),
+                fraction));
+        _refreshAhead = fraction;
+    }
+
+    /**
+     * Whether the given result has passed the refresh-ahead point of its
+     * timeout.
+     */
+    private boolean isRefreshDue(QueryKey key, QueryResult res) {
+        if (_refreshAhead == 0 || key == null || res.getTimeoutTime() == -1
+            || key.getTimeout() <= 0)
+            return false;
+        long lead = (long) (key.getTimeout() * (1 - _refreshAhead));
+        return System.currentTimeMillis() >= res.getTimeoutTime() - lead;
+    }
+
+    /**
+     * Release the refresh claimed by a lookup of the given key, if any.
+     */
+    private void endRefresh(QueryKey key) {
+        if (key == null)
+            return;
+        if (!_refreshing.isEmpty())
+            _refreshing.remove(key);
+        if (!_unverified.isEmpty())
+            _unverified.remove(key);
+    }
+
+    /**
+     * Whether the result for the given key was restored from the snapshot
+     * and its query has not been re-run since.
+     */
+    private boolean isUnverified(QueryKey key) {
+        return key != null && !_unverified.isEmpty()
+            && _unverified.contains(key);
+    }
+
+    /**
+     * The file that the cached query results are written to on close and
+     * restored from on startup, or null for none. The first lookup of a
+     * restored result reports a miss so that its caller re-runs the query,
+     * while other lookups get the restored result until then. Defaults to
+     * null.
+     *
+     * @since 3.1.3
+     */
+    public String getSnapshotFile() {
+        return _snapshotFile;
+    }
+
+    /**
+     * The file that the cached query results are written to on close and
+     * restored from on startup, or null for none.
+     *
+     * @since 3.1.3
+     */
+    public void setSnapshotFile(String file) {
+        _snapshotFile = StringUtil.isEmpty(file) ? null : file;
+    }
+
+    /**
+     * Load the snapshot file on a background thread. Restored results do not
+     * replace results cached in the meantime.
+     */
+    private void restoreSnapshot() {
+        final CacheSnapshot snapshot = new CacheSnapshot(
+            new File(_snapshotFile), log);
+        if (!snapshot.exists())
+            return;
+        Thread restore = new Thread(() -> {
+            int[] restored = new int[1];
+            try {
+                snapshot.read((key, value) -> {
+                    if (_closed)
+                        return false;
+                    QueryKey qk = (QueryKey) key;
+                    QueryResult res = (QueryResult) value;
+                    if (!res.isTimedOut() && getInternal(qk) == null) {
+                        _unverified.add(qk);
+                        putInternal(qk, res);
+                        restored[0]++;
+                    }
+                    return true;
+                });
+                if (log.isInfoEnabled())
+                    log.info(s_loc.get("snapshot-restored", restored[0],
+                        getName(), snapshot.getFile()));
+            } catch (IOException | RuntimeException e) {
+                if (log.isWarnEnabled())
+                    log.warn(s_loc.get("snapshot-read-failed", getName(),
+                        snapshot.getFile()), e);
+            }
+        }, "openjpa-querycache-restore-" + getName());
+        restore.setDaemon(true);
+        restore.start();
+    }
+
+    /**
+     * Write the cached query results to the snapshot file.
+     */
+    private void writeSnapshot() {
+        CacheSnapshot snapshot = new CacheSnapshot(new File(_snapshotFile),
+            log);
+        CacheSnapshot.Writer out = null;
+        try {
+            out = snapshot.write();
+            QueryResult res;
+            for (Object key : new ArrayList<Object>(keySet())) {
+                res = getInternal((QueryKey) key);
+                if (res != null && !res.isTimedOut())
+                    out.write(key, res);
+            }
+            out.commit();
+            if (log.isInfoEnabled())
+                log.info(s_loc.get("snapshot-written", out.size(), getName(),
+                    snapshot.getFile()));
+        } catch (IOException | RuntimeException e) {
+            if (log.isWarnEnabled())
+                log.warn(s_loc.get("snapshot-write-failed", getName(),
+                    snapshot.getFile()), e);
+        } finally {
+            if (out != null)
+                out.release();
+        }
+    }
+
     /**
      * Sets the eviction policy for the query cache
      * @param evictPolicy -- String value that specifies the eviction policy
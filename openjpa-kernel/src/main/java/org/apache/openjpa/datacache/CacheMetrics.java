@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+/**
+ * Receives the latencies of data cache operations, to publish them to a
+ * metrics library. Set the class name as the <code>Metrics</code> property
+ * of the data cache; it is instantiated once per cache and called
+ * regardless of whether statistics are enabled. Implementations are called
+ * on the thread performing the operation and must be thread safe.
+ *
+ * @since 3.1.3
+ */
+public interface CacheMetrics {
+
+    /**
+     * Record the latency of a cache operation.
+     *
+     * @param cache the name of the cache
+     * @param type the class of the instance operated on
+     * @param operation one of the {@link CacheStatistics}
+     * <code>OP_*</code> constants
+     * @param nanos the time the operation took in nanoseconds
+     */
+    void record(String cache, Class<?> type, int operation, long nanos);
+}
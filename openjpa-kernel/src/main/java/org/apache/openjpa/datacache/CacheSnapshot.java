@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.BiPredicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.util.Serialization;
+
+/**
+ * Reads and writes cache snapshot files. A snapshot is a compressed
+ * sequence of serialized key and value pairs, each serialized on its own so
+ * that entries that cannot be written or read are skipped rather than
+ * corrupting the file.
+ *
+ * @since 3.1.3
+ */
+final class CacheSnapshot {
+
+    private static final Localizer _loc = Localizer.forPackage
+        (CacheSnapshot.class);
+
+    private static final int MAGIC = 0x4F4A4353;
+    private static final int FORMAT = 1;
+
+    private final File _file;
+    private final Log _log;
+
+    /**
+     * @param file the snapshot file
+     * @param log the log for skipped entries
+     */
+    CacheSnapshot(File file, Log log) {
+        _file = file;
+        _log = log;
+    }
+
+    /**
+     * The snapshot file.
+     */
+    File getFile() {
+        return _file;
+    }
+
+    /**
+     * Whether a snapshot file exists.
+     */
+    boolean exists() {
+        return _file.isFile();
+    }
+
+    /**
+     * Return a writer that replaces the snapshot file when committed.
+     */
+    Writer write()
+        throws IOException {
+        return new Writer();
+    }
+
+    /**
+     * Read the snapshot file, handing each entry to the given consumer
+     * until it returns false.
+     *
+     * @return the number of entries accepted by the consumer
+     */
+    int read(BiPredicate<Object, Object> consumer)
+        throws IOException {
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream
+            (new BufferedInputStream(new FileInputStream(_file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT)
+                return 0;
+
+            byte[] bytes;
+            Object key;
+            Object value;
+            while (in.readBoolean()) {
+                bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (ObjectInputStream oin = new Serialization.
+                    ClassResolvingObjectInputStream(new ByteArrayInputStream
+                    (bytes))) {
+                    key = oin.readObject();
+                    value = oin.readObject();
+                } catch (IOException | ClassNotFoundException e) {
+                    if (_log.isTraceEnabled())
+                        _log.trace(_loc.get("snapshot-entry-skipped", _file),
+                            e);
+                    continue;
+                }
+                if (!consumer.test(key, value))
+                    break;
+                count++;
+            }
+        } catch (EOFException eof) {
+            // truncated file; keep what was read
+        }
+        return count;
+    }
+
+    /**
+     * Writes the entries of a snapshot to a temporary file that replaces
+     * the snapshot file on {@link #commit}. Writers must be
+     * {@link #release}d once done.
+     */
+    final class Writer {
+
+        private final File _tmp;
+        private final DataOutputStream _out;
+        private final ByteArrayOutputStream _bytes =
+            new ByteArrayOutputStream();
+        private int _count = 0;
+        private boolean _closed = false;
+
+        private Writer()
+            throws IOException {
+            File dir = _file.getAbsoluteFile().getParentFile();
+            if (dir != null)
+                dir.mkdirs();
+            _tmp = new File(_file.getPath() + ".tmp");
+            _out = new DataOutputStream(new GZIPOutputStream
+                (new BufferedOutputStream(new FileOutputStream(_tmp))));
+            _out.writeInt(MAGIC);
+            _out.writeInt(FORMAT);
+        }
+
+        /**
+         * Write the given entry, skipping it if it is not serializable.
+         */
+        void write(Object key, Object value)
+            throws IOException {
+            _bytes.reset();
+            try (ObjectOutputStream oout = new ObjectOutputStream(_bytes)) {
+                oout.writeObject(key);
+                oout.writeObject(value);
+            } catch (IOException ioe) {
+                if (_log.isTraceEnabled())
+                    _log.trace(_loc.get("snapshot-entry-skipped", _file), ioe);
+                return;
+            }
+            _out.writeBoolean(true);
+            _out.writeInt(_bytes.size());
+            _bytes.writeTo(_out);
+            _count++;
+        }
+
+        /**
+         * The number of entries written.
+         */
+        int size() {
+            return _count;
+        }
+
+        /**
+         * Replace the snapshot file with the entries written.
+         */
+        void commit()
+            throws IOException {
+            _out.writeBoolean(false);
+            _closed = true;
+            _out.close();
+            Files.move(_tmp.toPath(), _file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        /**
+         * Discard the entries written unless they were committed.
+         */
+        void release() {
+            if (_closed)
+                return;
+            _closed = true;
+            try {
+                _out.close();
+            } catch (IOException ioe) {
+                // the file is deleted anyway
+            }
+            _tmp.delete();
+        }
+    }
+}
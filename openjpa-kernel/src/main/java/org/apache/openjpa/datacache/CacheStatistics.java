@@ -37,6 +37,35 @@ import java.util.Set;
  */
 public interface CacheStatistics extends Serializable {
 
+    /**
+     * Latency operation: reading an instance from the cache.
+     *
+     * @since 3.1.3
+     */
+    int OP_GET = 0;
+
+    /**
+     * Latency operation: putting an instance into the cache.
+     *
+     * @since 3.1.3
+     */
+    int OP_PUT = 1;
+
+    /**
+     * Latency operation: evicting an instance from the cache.
+     *
+     * @since 3.1.3
+     */
+    int OP_EVICT = 2;
+
+    /**
+     * Latency operation: loading an instance from the data store after a
+     * cache miss.
+     *
+     * @since 3.1.3
+     */
+    int OP_LOAD = 3;
+
 	/**
 	 * Gets number of total read requests since last reset.
 	 */
@@ -168,4 +197,47 @@ public interface CacheStatistics extends Serializable {
 
     Map<String, long[]> toMap();
 
+    /**
+     * Gets the estimated number of bytes held by the cache, or 0 if the
+     * cache does not weigh its entries. Unlike the counts, this is the
+     * current usage and is not cleared by {@link #reset}.
+     *
+     * @since 3.1.3
+     */
+    long getBytes();
+
+    /**
+     * Gets the estimated number of bytes held by the cache for instances of
+     * the given class.
+     *
+     * @since 3.1.3
+     */
+    long getBytes(String c);
+
+    /**
+     * Gets the number of cache misses since last reset that were served by
+     * waiting for a concurrent load of the same instance rather than by
+     * loading the instance from the data store.
+     *
+     * @since 3.1.3
+     */
+    long getCoalescedLoadCount();
+
+    /**
+     * Gets the number of cache misses since start that were served by
+     * waiting for a concurrent load of the same instance.
+     *
+     * @since 3.1.3
+     */
+    long getTotalCoalescedLoadCount();
+
+    /**
+     * Gets the latencies of the given operation on instances of the given
+     * class since last reset, or null if none were recorded. Latencies are
+     * only recorded while statistics are enabled.
+     *
+     * @param operation one of the <code>OP_*</code> constants
+     * @since 3.1.3
+     */
+    LatencyHistogram getLatency(String c, int operation);
 }
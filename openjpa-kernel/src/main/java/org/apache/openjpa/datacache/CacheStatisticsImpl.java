@@ -23,6 +23,8 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.openjpa.util.OpenJPAId;
 
@@ -36,6 +38,12 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
     private long[] stat = new long[ARRAY_SIZE];
     private Map<String, long[]> stats = new HashMap<>();
     private Map<String, long[]> totalStats = new HashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Map<String, Long> classBytes = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong totalCoalesced = new AtomicLong();
+    private final Map<String, LatencyHistogram[]> latencies =
+        new ConcurrentHashMap<>();
 
     private Date start = new Date();
     private Date since = new Date();
@@ -134,6 +142,33 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
         return getCount(totalStats, str, WRITE);
     }
 
+    @Override
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public long getBytes(String str) {
+        Long b = classBytes.get(str);
+        return (b == null) ? 0 : b;
+    }
+
+    @Override
+    public long getCoalescedLoadCount() {
+        return coalesced.get();
+    }
+
+    @Override
+    public long getTotalCoalescedLoadCount() {
+        return totalCoalesced.get();
+    }
+
+    @Override
+    public LatencyHistogram getLatency(String str, int operation) {
+        LatencyHistogram[] hists = latencies.get(str);
+        return (hists == null) ? null : hists[operation];
+    }
+
     @Override
     public Date since() {
         return since;
@@ -148,6 +183,8 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
     public void reset() {
         stat = new long[ARRAY_SIZE];
         stats.clear();
+        coalesced.set(0);
+        latencies.clear();
         since = new Date();
     }
 
@@ -223,6 +260,37 @@ public class CacheStatisticsImpl implements CacheStatisticsSPI {
         }
     }
 
+    @Override
+    public void newBytes(Class<?> cls, long delta) {
+        cls = (cls == null) ? Object.class : cls;
+        bytes.addAndGet(delta);
+        classBytes.merge(cls.getName(), delta, Long::sum);
+    }
+
+    @Override
+    public void newCoalescedLoad(Class<?> cls) {
+        if (!enabled) {
+            return;
+        }
+        coalesced.incrementAndGet();
+        totalCoalesced.incrementAndGet();
+    }
+
+    @Override
+    public void newLatency(Class<?> cls, int operation, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        cls = (cls == null) ? Object.class : cls;
+        latencies.computeIfAbsent(cls.getName(), c -> {
+            LatencyHistogram[] hists = new LatencyHistogram[OP_LOAD + 1];
+            for (int i = 0; i < hists.length; i++) {
+                hists[i] = new LatencyHistogram();
+            }
+            return hists;
+        })[operation].record(nanos);
+    }
+
     /**
      *  Private worker methods.
      */
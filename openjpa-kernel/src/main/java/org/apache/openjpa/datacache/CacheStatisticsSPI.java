@@ -41,6 +41,41 @@ public interface CacheStatisticsSPI extends CacheStatistics {
      */
     void newPut(Class<?> cls);
 
+    /**
+     * Record a change in the estimated bytes held by the cache. Recorded
+     * even while collection of the counts is disabled.
+     *
+     * @param cls
+     *            - The class describing the type that is contained in the cache.
+     * @param delta
+     *            - The change in bytes; negative when entries are removed.
+     * @since 3.1.3
+     */
+    void newBytes(Class<?> cls, long delta);
+
+    /**
+     * Record a cache miss that was served by waiting for a concurrent load
+     * of the same instance.
+     *
+     * @param cls
+     *            - The class describing the type that is contained in the cache.
+     * @since 3.1.3
+     */
+    void newCoalescedLoad(Class<?> cls);
+
+    /**
+     * Record the latency of a cache operation or of a load behind a miss.
+     *
+     * @param cls
+     *            - The class describing the type that is contained in the cache.
+     * @param operation
+     *            - One of the {@link CacheStatistics} <code>OP_*</code> constants.
+     * @param nanos
+     *            - The time the operation took in nanoseconds.
+     * @since 3.1.3
+     */
+    void newLatency(Class<?> cls, int operation, long nanos);
+
 
     /**
      * Enable statistics collection.
@@ -0,0 +1,43 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import org.apache.openjpa.meta.ClassMetaData;
+
+/**
+ * Estimates the memory held by cached data, so that caches can bound their
+ * size in bytes rather than in entries.
+ *
+ * @since 3.1.3
+ */
+public interface CacheWeigher {
+
+    /**
+     * Return the estimated size in bytes of the given cached instance.
+     *
+     * @param meta the metadata of the instance's type
+     */
+    long weigh(DataCachePCData data, ClassMetaData meta);
+
+    /**
+     * Return the estimated size in bytes of the given cached query result
+     * and its key.
+     */
+    long weigh(QueryKey key, QueryResult result);
+}
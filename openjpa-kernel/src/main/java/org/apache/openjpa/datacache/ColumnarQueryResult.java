@@ -0,0 +1,478 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.apache.openjpa.meta.JavaTypes;
+
+/**
+ * A cached projection result whose rows of boxed primitives and strings are
+ * stored column by column in primitive arrays, with strings encoded as
+ * indexes into a dictionary of their distinct values. Rows are rebuilt as
+ * new <code>Object[]</code> arrays when accessed. The result is read-only.
+ *
+ * Use {@link #newInstance} to encode a result; results whose rows do not
+ * have a single primitive or string type per column stay row-based.
+ *
+ * @since 3.1.3
+ */
+public class ColumnarQueryResult extends QueryResult {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Results with fewer rows are not worth encoding.
+     */
+    public static final int MIN_ROWS = 8;
+
+    private final int _size;
+    private final Column[] _columns;
+
+    private ColumnarQueryResult(QueryKey key, int size, Column[] columns) {
+        super(key, Collections.emptyList());
+        _size = size;
+        _columns = columns;
+    }
+
+    /**
+     * Return a columnar result of the given projection rows for the given
+     * key, or null if the rows cannot be encoded.
+     */
+    public static ColumnarQueryResult newInstance(QueryKey key,
+        Collection<Object> rows) {
+        if (rows.size() < MIN_ROWS)
+            return null;
+
+        int width = -1;
+        for (Object row : rows) {
+            if (!(row instanceof Object[]))
+                return null;
+            if (width == -1)
+                width = ((Object[]) row).length;
+            else if (((Object[]) row).length != width)
+                return null;
+        }
+
+        Column[] columns = new Column[width];
+        for (int i = 0; i < width; i++) {
+            columns[i] = Column.newInstance(rows, i);
+            if (columns[i] == null)
+                return null;
+        }
+        return new ColumnarQueryResult(key, rows.size(), columns);
+    }
+
+    /**
+     * The number of columns of each row.
+     */
+    public int getColumnCount() {
+        return _columns.length;
+    }
+
+    /**
+     * Estimate the bytes held by the encoded columns.
+     */
+    long estimateSize() {
+        long size = 0;
+        for (Column col : _columns)
+            size += col.estimateSize();
+        return size;
+    }
+
+    /**
+     * View of the rows, rebuilt on access.
+     */
+    private List<Object> rows() {
+        return new AbstractList<Object>() {
+            @Override
+            public Object get(int idx) {
+                return ColumnarQueryResult.this.get(idx);
+            }
+
+            @Override
+            public int size() {
+                return _size;
+            }
+        };
+    }
+
+    @Override
+    public Object get(int idx) {
+        if (idx < 0 || idx >= _size)
+            throw new IndexOutOfBoundsException(String.valueOf(idx));
+        Object[] row = new Object[_columns.length];
+        for (int i = 0; i < row.length; i++)
+            row[i] = _columns[i].get(idx);
+        return row;
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return rows().contains(o);
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return rows().indexOf(o);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return rows().lastIndexOf(o);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return rows().iterator();
+    }
+
+    @Override
+    public ListIterator<Object> listIterator() {
+        return rows().listIterator();
+    }
+
+    @Override
+    public ListIterator<Object> listIterator(int idx) {
+        return rows().listIterator(idx);
+    }
+
+    @Override
+    public Spliterator<Object> spliterator() {
+        return rows().spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super Object> action) {
+        rows().forEach(action);
+    }
+
+    @Override
+    public List<Object> subList(int from, int to) {
+        return rows().subList(from, to);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return rows().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return rows().toArray(a);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || rows().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return rows().hashCode();
+    }
+
+    @Override
+    public Object clone() {
+        return this;
+    }
+
+    @Override
+    public boolean add(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void add(int idx, Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean addAll(int idx, Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object set(int idx, Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Object remove(int idx) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Object> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<Object> op) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void sort(Comparator<? super Object> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * The values of one column, held in a primitive array of the column's
+     * type.
+     */
+    private static class Column
+        implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int _type;
+        private final Object _values;
+        private final String[] _dictionary;
+        private final BitSet _nulls;
+
+        private Column(int type, Object values, String[] dictionary,
+            BitSet nulls) {
+            _type = type;
+            _values = values;
+            _dictionary = dictionary;
+            _nulls = nulls;
+        }
+
+        /**
+         * Encode the given column of the given rows, or return null if its
+         * values are not all of one primitive wrapper or string type.
+         */
+        static Column newInstance(Collection<Object> rows, int col) {
+            Class<?> cls = null;
+            BitSet nulls = null;
+            int idx = 0;
+            Object val;
+            for (Object row : rows) {
+                val = ((Object[]) row)[col];
+                if (val == null) {
+                    if (nulls == null)
+                        nulls = new BitSet();
+                    nulls.set(idx);
+                } else if (cls == null)
+                    cls = val.getClass();
+                else if (cls != val.getClass())
+                    return null;
+                idx++;
+            }
+            if (cls == null)
+                return new Column(JavaTypes.OBJECT, null, null, nulls);
+
+            int type = JavaTypes.getTypeCode(cls);
+            int size = rows.size();
+            Object values;
+            switch (type) {
+                case JavaTypes.BOOLEAN_OBJ:
+                    values = new boolean[size];
+                    break;
+                case JavaTypes.BYTE_OBJ:
+                    values = new byte[size];
+                    break;
+                case JavaTypes.CHAR_OBJ:
+                    values = new char[size];
+                    break;
+                case JavaTypes.SHORT_OBJ:
+                    values = new short[size];
+                    break;
+                case JavaTypes.INT_OBJ:
+                case JavaTypes.STRING:
+                    values = new int[size];
+                    break;
+                case JavaTypes.LONG_OBJ:
+                    values = new long[size];
+                    break;
+                case JavaTypes.FLOAT_OBJ:
+                    values = new float[size];
+                    break;
+                case JavaTypes.DOUBLE_OBJ:
+                    values = new double[size];
+                    break;
+                default:
+                    return null;
+            }
+
+            Map<String, Integer> codes = (type == JavaTypes.STRING)
+                ? new HashMap<>() : null;
+            idx = 0;
+            for (Object row : rows) {
+                val = ((Object[]) row)[col];
+                if (val != null)
+                    set(type, values, idx, val, codes);
+                idx++;
+            }
+
+            String[] dictionary = null;
+            if (codes != null) {
+                dictionary = new String[codes.size()];
+                for (Map.Entry<String, Integer> e : codes.entrySet())
+                    dictionary[e.getValue()] = e.getKey();
+            }
+            return new Column(type, values, dictionary, nulls);
+        }
+
+        private static void set(int type, Object values, int idx, Object val,
+            Map<String, Integer> codes) {
+            switch (type) {
+                case JavaTypes.BOOLEAN_OBJ:
+                    ((boolean[]) values)[idx] = (Boolean) val;
+                    break;
+                case JavaTypes.BYTE_OBJ:
+                    ((byte[]) values)[idx] = (Byte) val;
+                    break;
+                case JavaTypes.CHAR_OBJ:
+                    ((char[]) values)[idx] = (Character) val;
+                    break;
+                case JavaTypes.SHORT_OBJ:
+                    ((short[]) values)[idx] = (Short) val;
+                    break;
+                case JavaTypes.INT_OBJ:
+                    ((int[]) values)[idx] = (Integer) val;
+                    break;
+                case JavaTypes.LONG_OBJ:
+                    ((long[]) values)[idx] = (Long) val;
+                    break;
+                case JavaTypes.FLOAT_OBJ:
+                    ((float[]) values)[idx] = (Float) val;
+                    break;
+                case JavaTypes.DOUBLE_OBJ:
+                    ((double[]) values)[idx] = (Double) val;
+                    break;
+                case JavaTypes.STRING:
+                    Integer code = codes.get(val);
+                    if (code == null) {
+                        code = codes.size();
+                        codes.put((String) val, code);
+                    }
+                    ((int[]) values)[idx] = code;
+                    break;
+            }
+        }
+
+        Object get(int idx) {
+            if (_nulls != null && _nulls.get(idx))
+                return null;
+            switch (_type) {
+                case JavaTypes.BOOLEAN_OBJ:
+                    return ((boolean[]) _values)[idx];
+                case JavaTypes.BYTE_OBJ:
+                    return ((byte[]) _values)[idx];
+                case JavaTypes.CHAR_OBJ:
+                    return ((char[]) _values)[idx];
+                case JavaTypes.SHORT_OBJ:
+                    return ((short[]) _values)[idx];
+                case JavaTypes.INT_OBJ:
+                    return ((int[]) _values)[idx];
+                case JavaTypes.LONG_OBJ:
+                    return ((long[]) _values)[idx];
+                case JavaTypes.FLOAT_OBJ:
+                    return ((float[]) _values)[idx];
+                case JavaTypes.DOUBLE_OBJ:
+                    return ((double[]) _values)[idx];
+                case JavaTypes.STRING:
+                    return _dictionary[((int[]) _values)[idx]];
+                default:
+                    return null;
+            }
+        }
+
+        long estimateSize() {
+            long size = 48;
+            if (_values != null)
+                size += 16 + (long) Array.getLength(_values)
+                    * width();
+            if (_nulls != null)
+                size += 32 + _nulls.size() / 8;
+            if (_dictionary != null)
+                for (String str : _dictionary)
+                    size += 8 + 40 + 2L * str.length();
+            return size;
+        }
+
+        private int width() {
+            switch (_type) {
+                case JavaTypes.BOOLEAN_OBJ:
+                case JavaTypes.BYTE_OBJ:
+                    return 1;
+                case JavaTypes.CHAR_OBJ:
+                case JavaTypes.SHORT_OBJ:
+                    return 2;
+                case JavaTypes.LONG_OBJ:
+                case JavaTypes.DOUBLE_OBJ:
+                    return 8;
+                default:
+                    return 4;
+            }
+        }
+    }
+}
@@ -18,9 +18,16 @@
  */
 package org.apache.openjpa.datacache;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import org.apache.openjpa.event.RemoteCommitListener;
+import org.apache.openjpa.lib.conf.Configurations;
 import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.meta.ClassMetaData;
 import org.apache.openjpa.util.CacheMap;
+import org.apache.openjpa.util.StripedCacheMap;
 
 /**
  * A {@link DataCache} implementation that is optimized for concurrent
@@ -45,6 +52,10 @@ public class ConcurrentDataCache
     private int _cacheSize = Integer.MIN_VALUE;
     private int _softRefs = Integer.MIN_VALUE;
     protected boolean _lru = false;
+    private int _stripes = 1;
+    private long _maxBytes = -1;
+    private String _weigher = null;
+    private CacheWeigher _weigherInstance = null;
 
     /**
      * Returns the underlying {@link CacheMap} that this cache is using.
@@ -93,10 +104,79 @@ public class ConcurrentDataCache
         return _cache.getSoftReferenceSize();
     }
 
+    /**
+     * Sets the maximum estimated size in bytes of the unpinned objects to
+     * keep hard references to, as measured by the {@link #getWeigher
+     * weigher}. The entry count limit of {@link #setCacheSize} still
+     * applies; set it to <code>-1</code> to limit the cache by size only.
+     * Defaults to <code>-1</code> for no limit.
+     *
+     * @since 3.1.3
+     */
+    public void setMaxBytes(long bytes) {
+        _maxBytes = bytes;
+    }
+
+    /**
+     * The maximum estimated size in bytes of the unpinned objects to keep
+     * hard references to, or <code>-1</code> for no limit.
+     *
+     * @since 3.1.3
+     */
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * Sets the plugin string of the {@link CacheWeigher} used to estimate
+     * the size of cached objects. Objects are weighed, and their size
+     * published through the cache statistics, when either a weigher or
+     * {@link #setMaxBytes MaxBytes} is configured. Defaults to
+     * {@link DefaultCacheWeigher}.
+     *
+     * @since 3.1.3
+     */
+    public void setWeigher(String weigher) {
+        _weigher = weigher;
+    }
+
+    /**
+     * The plugin string of the {@link CacheWeigher}.
+     *
+     * @since 3.1.3
+     */
+    public String getWeigher() {
+        return _weigher;
+    }
+
+    /**
+     * The weigher in use, or null if cached objects are not weighed.
+     *
+     * @since 3.1.3
+     */
+    public CacheWeigher getWeigherInstance() {
+        return _weigherInstance;
+    }
+
+    /**
+     * The estimated size in bytes of the cached objects, or 0 if they are
+     * not weighed.
+     *
+     * @since 3.1.3
+     */
+    public long getBytes() {
+        return _cache.getBytes();
+    }
+
     @Override
     public void initialize(DataCacheManager mgr) {
-        super.initialize(mgr);
-        conf.getRemoteCommitEventManager().addInternalListener(this);
+        if (_weigher != null)
+            _weigherInstance = (CacheWeigher) Configurations.newInstance
+                (Configurations.getClassName(_weigher), conf,
+                    Configurations.getProperties(_weigher),
+                    getClass().getClassLoader());
+        else if (_maxBytes >= 0)
+            _weigherInstance = new DefaultCacheWeigher();
         // Wait to instantiate _cache so that we know the proper value of _cache
         _cache = newCacheMap();
         if (_cacheSize != Integer.MIN_VALUE) {
@@ -105,6 +185,12 @@ public class ConcurrentDataCache
         if (_softRefs != Integer.MIN_VALUE) {
             _cache.setSoftReferenceSize(_softRefs);
         }
+        if (_maxBytes >= 0) {
+            _cache.setMaxBytes(_maxBytes);
+        }
+        // initialize after the map exists, as the snapshot restores into it
+        super.initialize(mgr);
+        conf.getRemoteCommitEventManager().addInternalListener(this);
     }
 
     @Override
@@ -129,31 +215,105 @@ public class ConcurrentDataCache
      * invoke {@link AbstractDataCache#keyRemoved}.
      */
     protected CacheMap newCacheMap() {
+        if (_stripes > 1) {
+            return new StripedCacheMap(_lru, 1000, _stripes) {
+                @Override
+                protected void entryRemoved(Object key, Object value, boolean expired) {
+                    keyRemoved(key, expired);
+                }
+
+                @Override
+                protected long weigh(Object key, Object value) {
+                    return weighEntry(value);
+                }
+
+                @Override
+                protected void weightChanged(Object key, Object value, long delta) {
+                    entryWeighed(value, delta);
+                }
+            };
+        }
+
         CacheMap res = new CacheMap(_lru) {
             @Override
             protected void entryRemoved(Object key, Object value, boolean expired) {
                 keyRemoved(key, expired);
             }
+
+            @Override
+            protected long weigh(Object key, Object value) {
+                return weighEntry(value);
+            }
+
+            @Override
+            protected void weightChanged(Object key, Object value, long delta) {
+                entryWeighed(value, delta);
+            }
         };
 
         return res;
     }
 
+    /**
+     * Weigh the given cached value with the configured weigher.
+     */
+    private long weighEntry(Object value) {
+        if (_weigherInstance == null || !(value instanceof DataCachePCData))
+            return 0;
+        DataCachePCData data = (DataCachePCData) value;
+        ClassMetaData meta = conf.getMetaDataRepositoryInstance().
+            getMetaData(data.getType(), null, false);
+        return (meta == null) ? 0 : _weigherInstance.weigh(data, meta);
+    }
+
+    /**
+     * Publish a change in the weight of the given cached value.
+     */
+    private void entryWeighed(Object value, long delta) {
+        _stats.newBytes((value instanceof DataCachePCData)
+            ? ((DataCachePCData) value).getType() : null, delta);
+    }
+
     @Override
     protected DataCachePCData getInternal(Object key) {
         return (DataCachePCData) _cache.get(key);
     }
 
+    @Override
+    protected void getAllInternal(List<Object> keys, DataCachePCData[] datas) {
+        _cache.getAll(keys, datas);
+    }
+
     @Override
     protected DataCachePCData putInternal(Object key, DataCachePCData pc) {
         return (DataCachePCData) _cache.put(key, pc);
     }
 
+    @Override
+    protected void putAllInternal(Collection<DataCachePCData> pcs) {
+        if (pcs.isEmpty())
+            return;
+        List<DataCachePCData> values = (pcs instanceof List)
+            ? (List<DataCachePCData>) pcs : new ArrayList<>(pcs);
+        List<Object> keys = new ArrayList<>(values.size());
+        for (DataCachePCData pc : values)
+            keys.add(pc.getId());
+        _cache.putAll(keys, values);
+    }
+
     @Override
     protected DataCachePCData removeInternal(Object key) {
         return (DataCachePCData) _cache.remove(key);
     }
 
+    @Override
+    protected void removeAllInternal(Collection<Object> keys) {
+        if (keys.isEmpty())
+            return;
+        _cache.removeAll((keys instanceof List) ? (List<Object>) keys
+            : new ArrayList<>(keys));
+    }
+
     @Override
     protected void removeAllInternal(Class<?> cls, boolean subs) {
         // The performance in this area can be improved upon, however it seems
@@ -163,6 +323,11 @@ public class ConcurrentDataCache
         _cache.clear();
     }
 
+    @Override
+    protected Collection<Object> keySet() {
+        return new ArrayList<Object>(_cache.keySet());
+    }
+
     @Override
     protected void clearInternal() {
         _cache.clear();
@@ -190,4 +355,25 @@ public class ConcurrentDataCache
     public boolean getLru() {
         return _lru;
     }
+
+    /**
+     * Sets the number of independently locked segments the cache is split
+     * into. Values greater than 1 replace the single map-wide lock with one
+     * lock per segment, which reduces contention under highly concurrent
+     * access at the cost of approximate eviction. Defaults to 1.
+     *
+     * @since 3.1.3
+     */
+    public void setStripes(int stripes) {
+        _stripes = stripes;
+    }
+
+    /**
+     * The number of independently locked segments the cache is split into.
+     *
+     * @since 3.1.3
+     */
+    public int getStripes() {
+        return _stripes;
+    }
 }
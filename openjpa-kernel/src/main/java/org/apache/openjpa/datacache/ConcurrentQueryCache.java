@@ -21,6 +21,7 @@ package org.apache.openjpa.datacache;
 import java.util.Collection;
 
 import org.apache.openjpa.event.RemoteCommitListener;
+import org.apache.openjpa.lib.conf.Configurations;
 import org.apache.openjpa.util.CacheMap;
 
 /**
@@ -42,6 +43,9 @@ public class ConcurrentQueryCache
     protected boolean _lru = false;
     private int _cacheSize = Integer.MIN_VALUE;
     private int _softRefs = Integer.MIN_VALUE;
+    private long _maxBytes = -1;
+    private String _weigher = null;
+    private CacheWeigher _weigherInstance = null;
 
     /**
      * Returns the underlying {@link CacheMap} that this cache is using.
@@ -93,10 +97,68 @@ public class ConcurrentQueryCache
         _softRefs = size;
     }
 
+    /**
+     * Sets the maximum estimated size in bytes of the unpinned query results
+     * to keep hard references to, as measured by the {@link #getWeigher
+     * weigher}. The entry count limit of {@link #setCacheSize} still
+     * applies. Defaults to <code>-1</code> for no limit.
+     *
+     * @since 3.1.3
+     */
+    public void setMaxBytes(long bytes) {
+        _maxBytes = bytes;
+    }
+
+    /**
+     * The maximum estimated size in bytes of the unpinned query results to
+     * keep hard references to, or <code>-1</code> for no limit.
+     *
+     * @since 3.1.3
+     */
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * Sets the plugin string of the {@link CacheWeigher} used to estimate
+     * the size of query results. Results are weighed when either a weigher
+     * or {@link #setMaxBytes MaxBytes} is configured. Defaults to
+     * {@link DefaultCacheWeigher}.
+     *
+     * @since 3.1.3
+     */
+    public void setWeigher(String weigher) {
+        _weigher = weigher;
+    }
+
+    /**
+     * The plugin string of the {@link CacheWeigher}.
+     *
+     * @since 3.1.3
+     */
+    public String getWeigher() {
+        return _weigher;
+    }
+
+    /**
+     * The estimated size in bytes of the cached query results, or 0 if they
+     * are not weighed.
+     *
+     * @since 3.1.3
+     */
+    public long getBytes() {
+        return _cache.getBytes();
+    }
+
     @Override
     public void initialize(DataCacheManager mgr) {
-        super.initialize(mgr);
-        conf.getRemoteCommitEventManager().addInternalListener(this);
+        if (_weigher != null)
+            _weigherInstance = (CacheWeigher) Configurations.newInstance
+                (Configurations.getClassName(_weigher), conf,
+                    Configurations.getProperties(_weigher),
+                    getClass().getClassLoader());
+        else if (_maxBytes >= 0)
+            _weigherInstance = new DefaultCacheWeigher();
         _cache = newCacheMap();
         if (_cacheSize != Integer.MIN_VALUE) {
             _cache.setCacheSize(_cacheSize);
@@ -104,6 +166,12 @@ public class ConcurrentQueryCache
         if (_softRefs != Integer.MIN_VALUE) {
             _cache.setSoftReferenceSize(_softRefs);
         }
+        if (_maxBytes >= 0) {
+            _cache.setMaxBytes(_maxBytes);
+        }
+        // initialize after the map exists, as the snapshot restores into it
+        super.initialize(mgr);
+        conf.getRemoteCommitEventManager().addInternalListener(this);
     }
 
     @Override
@@ -122,7 +190,16 @@ public class ConcurrentQueryCache
      * Return the map to use as an internal cache.
      */
     protected CacheMap newCacheMap() {
-        CacheMap res = new CacheMap(_lru);
+        CacheMap res = new CacheMap(_lru) {
+            @Override
+            protected long weigh(Object key, Object value) {
+                if (_weigherInstance == null || !(key instanceof QueryKey)
+                    || !(value instanceof QueryResult))
+                    return 0;
+                return _weigherInstance.weigh((QueryKey) key,
+                    (QueryResult) value);
+            }
+        };
 
         return res;
     }
@@ -20,6 +20,7 @@ package org.apache.openjpa.datacache;
 
 import java.util.BitSet;
 
+import org.apache.openjpa.event.UpdatePatch;
 import org.apache.openjpa.kernel.AbstractPCData;
 import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.PCData;
@@ -146,6 +147,28 @@ public class DataCachePCDataImpl
         super.store(sm, fields);
     }
 
+    /**
+     * Apply the given patch of a remote update if this data holds the
+     * version the update was made from.
+     *
+     * @return false if this data holds another version, and must be evicted
+     * @since 3.1.3
+     */
+    public synchronized boolean patch(UpdatePatch patch) {
+        if (getVersion() == null
+            || !getVersion().equals(patch.getPreviousVersion()))
+            return false;
+
+        int[] fields = patch.getFields();
+        Object[] values = patch.getValues();
+        for (int i = 0; i < fields.length; i++) {
+            setData(fields[i], values[i]);
+            setImplData(fields[i], null);
+        }
+        setVersion(patch.getVersion());
+        return true;
+    }
+
     /**
      * Store field-level information from the given state manager.
      * Special process of checking if the cached collection data is out of
@@ -199,6 +222,8 @@ public class DataCachePCDataImpl
                     DataCachePCData data = cache.get(oid);
                     if (data instanceof DataCachePCDataImpl) {
                         ((DataCachePCDataImpl) data).clearData(inverse.getIndex());
+                        // caches that hold copies need the change put back
+                        cache.update(data);
                     }
                 }
             }
@@ -29,6 +29,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import org.apache.openjpa.enhance.PCDataGenerator;
+import org.apache.openjpa.kernel.Broker;
+import org.apache.openjpa.kernel.BrokerFactory;
 import org.apache.openjpa.kernel.DataCacheRetrieveMode;
 import org.apache.openjpa.kernel.DataCacheStoreMode;
 import org.apache.openjpa.kernel.DelegatingStoreManager;
@@ -242,21 +244,19 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
      * stale instances into a collection of up-to-date {@link DataCachePCData}s.
      */
     private List<DataCachePCData> transformToVersionSafePCDatas(DataCache cache, List<PCDataHolder> holders) {
+        if (holders.isEmpty())
+            return Collections.emptyList();
         List<DataCachePCData> transformed = new ArrayList<>(holders.size());
-        Map<Object,Integer> ids = new HashMap<>(holders.size());
-        // this list could be removed if DataCache.getAll() took a Collection
         List<Object> idList = new ArrayList<>(holders.size());
-        int i = 0;
-        for (PCDataHolder holder : holders) {
-            ids.put(holder.sm.getObjectId(), i++);
+        for (PCDataHolder holder : holders)
             idList.add(holder.sm.getObjectId());
-        }
 
+        // walk the holders in order so that the cache sees the additions in
+        // the order they were flushed
         Map<Object,DataCachePCData> pcdatas = cache.getAll(idList);
-        for (Entry<Object,DataCachePCData> entry : pcdatas.entrySet()) {
-            Integer index = ids.get(entry.getKey());
-            DataCachePCData oldpc = entry.getValue();
-            PCDataHolder holder = holders.get(index);
+        for (int i = 0; i < holders.size(); i++) {
+            PCDataHolder holder = holders.get(i);
+            DataCachePCData oldpc = pcdatas.get(idList.get(i));
             if (oldpc != null && compareVersion(holder.sm,
                 holder.sm.getVersion(), oldpc.getVersion()) == VERSION_EARLIER)
                 continue;
@@ -366,46 +366,83 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
             return super.initialize(sm, state, fetch, edata);
         }
 
-        DataCachePCData data = cache.get(sm.getObjectId());
+        Object oid = sm.getObjectId();
+        DataCachePCData data = cache.get(oid);
         CacheStatistics stats = cache.getStatistics();
         boolean fromDatabase = false;
         boolean alreadyCached = data != null;
-        if (sm.isEmbedded()
-         || fetch.getCacheRetrieveMode() == DataCacheRetrieveMode.BYPASS
-         || fetch.getCacheStoreMode() == DataCacheStoreMode.REFRESH) {
-            // stats -- Skipped reading from the cache, noop
-            fromDatabase = super.initialize(sm, state, fetch, edata);
-        } else {
-            if (alreadyCached && !isLocking(fetch)) {
-                if (stats.isEnabled()) {
-                    ((CacheStatisticsSPI)stats).newGet(data.getType(), true);
-                }
-                sm.initialize(data.getType(), state);
-                data.load(sm, fetch, edata);
+        LoadCoalescer loading = null;
+        try {
+            if (sm.isEmbedded()
+             || fetch.getCacheRetrieveMode() == DataCacheRetrieveMode.BYPASS
+             || fetch.getCacheStoreMode() == DataCacheStoreMode.REFRESH) {
+                // stats -- Skipped reading from the cache, noop
+                fromDatabase = super.initialize(sm, state, fetch, edata);
             } else {
-                if (!alreadyCached) {
+                if (alreadyCached && !isLocking(fetch)) {
                     if (stats.isEnabled()) {
-                        // Get the classname from MetaData... but this won't be right in every case.
-                        ((CacheStatisticsSPI)stats).newGet(sm.getMetaData().getDescribedType(), false);
+                        ((CacheStatisticsSPI)stats).newGet(data.getType(), true);
+                    }
+                    sm.initialize(data.getType(), state);
+                    if (isCurrent(cache, data, sm, fetch, edata)) {
+                        data.load(sm, fetch, edata);
+                        refreshAhead(cache, data);
+                    } else {
+                        // the data is stale; drop it and load the instance
+                        // from the database, which may no longer hold it
+                        cache.remove(oid);
+                        data = null;
+                        alreadyCached = false;
+                        fromDatabase = super.initialize(sm, state, fetch, edata);
+                    }
+                } else {
+                    if (!alreadyCached) {
+                        if (stats.isEnabled()) {
+                            // Get the classname from MetaData... but this won't be right in every case.
+                            ((CacheStatisticsSPI)stats).newGet(sm.getMetaData().getDescribedType(), false);
+                        }
+
+                        // either load the instance on behalf of concurrent
+                        // misses, or wait for the running load and use its data
+                        LoadCoalescer loads = isLocking(fetch) ? null : getLoadCoalescer(cache);
+                        if (loads != null && loads.claim(oid))
+                            loading = loads;
+                        else if (loads != null && loads.await(oid)) {
+                            data = cache.get(oid);
+                            alreadyCached = data != null;
+                        }
+                    }
+                    if (alreadyCached && !isLocking(fetch)) {
+                        if (stats.isEnabled()) {
+                            ((CacheStatisticsSPI)stats).newCoalescedLoad(data.getType());
+                        }
+                        sm.initialize(data.getType(), state);
+                        data.load(sm, fetch, edata);
+                    } else {
+                        long start = startTimer(cache);
+                        fromDatabase = super.initialize(sm, state, fetch, edata);
+                        recordLoad(cache, sm, start);
                     }
                 }
-                fromDatabase = super.initialize(sm, state, fetch, edata);
             }
-        }
-        // update cache if the result came from the database and configured to use or refresh the cache.
-        boolean updateCache = fromDatabase && _ctx.getPopulateDataCache()
-                           && ((fetch.getCacheStoreMode() == DataCacheStoreMode.USE && !alreadyCached)
-                            || (fetch.getCacheStoreMode() == DataCacheStoreMode.REFRESH));
-        if (updateCache) {
-            // It is possible that the "cacheability" of the provided SM changed after hitting the DB. This can happen
-            // when we are operating against an Entity that is in some sort of inheritance structure.
-            cache = _mgr.selectCache(sm);
-            if (cache != null) {
-                cacheStateManager(cache, sm, data);
-                if (stats.isEnabled()) {
-                    ((CacheStatisticsSPI) stats).newPut(sm.getMetaData().getDescribedType());
+            // update cache if the result came from the database and configured to use or refresh the cache.
+            boolean updateCache = fromDatabase && _ctx.getPopulateDataCache()
+                               && ((fetch.getCacheStoreMode() == DataCacheStoreMode.USE && !alreadyCached)
+                                || (fetch.getCacheStoreMode() == DataCacheStoreMode.REFRESH));
+            if (updateCache) {
+                // It is possible that the "cacheability" of the provided SM changed after hitting the DB. This can happen
+                // when we are operating against an Entity that is in some sort of inheritance structure.
+                cache = _mgr.selectCache(sm);
+                if (cache != null) {
+                    cacheStateManager(cache, sm, data);
+                    if (stats.isEnabled()) {
+                        ((CacheStatisticsSPI) stats).newPut(sm.getMetaData().getDescribedType());
+                    }
                 }
             }
+        } finally {
+            if (loading != null)
+                loading.finish(oid);
         }
         return fromDatabase || alreadyCached;
     }
@@ -423,8 +460,10 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
 
             // cache newly loaded info. It is safe to cache data frorm
             // initialize() because this method is only called upon
-            // initial load of the data.
-            boolean isNew = data == null;
+            // initial load of the data. Data that is due for refresh is
+            // replaced rather than updated so that its timeout starts over
+            boolean isNew = data == null || (cache instanceof AbstractDataCache
+                && ((AbstractDataCache) cache).isRefreshDue(data));
             if (isNew) {
                 data = newPCData(sm, cache);
             }
@@ -456,8 +495,11 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
 
         CacheStatistics stats = cache.getStatistics();
         DataCachePCData data = cache.get(sm.getObjectId());
-        if (lockLevel == LockLevels.LOCK_NONE && !isLocking(fetch) && data != null)
+        if (lockLevel == LockLevels.LOCK_NONE && !isLocking(fetch) && data != null
+            && isCurrent(cache, data, sm, fetch, edata)) {
             data.load(sm, fields, fetch, edata);
+            refreshAhead(cache, data);
+        }
         if (fields.length() == 0){
             if (stats.isEnabled()) {
                 Class<?> cls = (data == null) ? sm.getMetaData().getDescribedType() : data.getType();
@@ -468,7 +510,9 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
 
         // load from store manager; clone the set of still-unloaded fields
         // so that if the store manager decides to modify it it won't affect us
+        long start = startTimer(cache);
         found = super.load(sm,(BitSet) fields.clone() , fetch, lockLevel, edata);
+        recordLoad(cache, sm, start);
 
         int loadedFieldsAfter = sm.getLoaded().cardinality();
         boolean changed = loadedFieldsAfter > loadedFieldsBefore;
@@ -478,6 +522,87 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
         return found;
     }
 
+    /**
+     * Return the start time of a load behind a miss of the given cache, or
+     * 0 if the cache does not record latencies.
+     */
+    private static long startTimer(DataCache cache) {
+        return (cache instanceof AbstractDataCache)
+            ? ((AbstractDataCache) cache).startTimer() : 0;
+    }
+
+    /**
+     * Record the latency of a load of the given instance behind a miss of
+     * the given cache.
+     */
+    private static void recordLoad(DataCache cache, OpenJPAStateManager sm,
+        long start) {
+        if (start != 0)
+            ((AbstractDataCache) cache).recordLatency(sm.getMetaData().
+                getDescribedType(), CacheStatistics.OP_LOAD, start);
+    }
+
+    /**
+     * Whether the given cached data may be loaded into the given state
+     * manager. Data restored from a cache snapshot is checked once: against
+     * the version of the state manager if it has one, or else against the
+     * data store version, which is then set into the state manager. Stale
+     * data is evicted, leaving the state manager to load from the store.
+     */
+    private boolean isCurrent(DataCache cache, DataCachePCData data,
+        OpenJPAStateManager sm, FetchConfiguration fetch, Object edata) {
+        if (!(cache instanceof AbstractDataCache)
+            || !((AbstractDataCache) cache).isUnverified(data.getId()))
+            return true;
+
+        boolean current;
+        if (sm.getVersion() != null)
+            current = compareVersion(sm, sm.getVersion(), data.getVersion())
+                == VERSION_SAME;
+        else {
+            data.load(sm, new BitSet(0), fetch, edata);
+            current = super.syncVersion(sm, edata);
+        }
+        ((AbstractDataCache) cache).setVerified(data.getId(), current);
+        return current;
+    }
+
+    /**
+     * Return the tracker of the running loads of the given cache, or null if
+     * the cache does not coalesce concurrent loads.
+     */
+    private static LoadCoalescer getLoadCoalescer(DataCache cache) {
+        return (cache instanceof AbstractDataCache)
+            ? ((AbstractDataCache) cache).getLoadCoalescer() : null;
+    }
+
+    /**
+     * Schedule an asynchronous reload of the given cached data if it is due
+     * for refresh. The reload runs in its own broker, bypasses the cache on
+     * read and refreshes it on store.
+     */
+    private void refreshAhead(DataCache cache, final DataCachePCData data) {
+        if (!(cache instanceof AbstractDataCache))
+            return;
+        final AbstractDataCache acache = (AbstractDataCache) cache;
+        if (!acache.isRefreshDue(data))
+            return;
+        final Object oid = data.getId();
+        final BrokerFactory factory = _ctx.getBroker().getBrokerFactory();
+        acache.scheduleRefresh(oid, () -> {
+            Broker broker = factory.newBroker();
+            try {
+                FetchConfiguration fetch = broker.getFetchConfiguration();
+                fetch.setCacheRetrieveMode(DataCacheRetrieveMode.BYPASS);
+                fetch.setCacheStoreMode(DataCacheStoreMode.REFRESH);
+                if (broker.find(oid, true, null) == null)
+                    acache.remove(oid);
+            } finally {
+                broker.close();
+            }
+        });
+    }
+
     /**
      * Updates or inserts and item into the data cache.  If storeMode=USE and not in the cache,
      * the item is inserted.  If storeMode=REFRESH the item is inserted, updated, or if found=false,
@@ -578,7 +703,12 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
                             ((CacheStatisticsSPI) stats).newGet(data.getType(), true);
                         }
                         sm.initialize(data.getType(), state);
-                        data.load(sm, fetch, edata);
+                        if (isCurrent(cache, data, sm, fetch, edata)) {
+                            data.load(sm, fetch, edata);
+                            refreshAhead(cache, data);
+                        } else
+                            unloaded = addUnloaded(sm, sm.getUnloaded(fetch),
+                                unloaded);
                     } else {
                         unloaded = addUnloaded(sm, null, unloaded);
                         if (stats.isEnabled()) {
@@ -588,6 +718,8 @@ public class DataCacheStoreManager extends DelegatingStoreManager {
                 } else if (load != FORCE_LOAD_NONE
                         || sm.getPCState() == PCState.HOLLOW) {
                     data = cache.get(sm.getObjectId());
+                    if (data != null && !isCurrent(cache, data, sm, fetch, edata))
+                        data = null;
                     if (data != null) {
                         // load unloaded fields
                         fields = sm.getUnloaded(fetch);
@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Map;
+
+import org.apache.openjpa.kernel.AbstractPCData;
+import org.apache.openjpa.kernel.PCData;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.meta.FieldMetaData;
+import org.apache.openjpa.meta.JavaTypes;
+import org.apache.openjpa.meta.ValueMetaData;
+import org.apache.openjpa.util.OpenJPAId;
+
+/**
+ * Default {@link CacheWeigher}. Walks the cached field values using the
+ * declared type of each field, falling back to the runtime type of values
+ * whose field type does not determine their size. Sizes assume a 64-bit
+ * JVM with compressed references and are estimates only.
+ *
+ * @since 3.1.3
+ */
+public class DefaultCacheWeigher
+    implements CacheWeigher {
+
+    private static final int HEADER = 16;
+    private static final int REF = 8;
+
+    // PCDataImpl with its field array and loaded bit set
+    private static final int PCDATA = 2 * HEADER + 8 * REF + 40;
+    private static final int OID = 40;
+    private static final int BOXED = HEADER;
+    private static final int BOXED_WIDE = HEADER + 8;
+    private static final int DATE = 32;
+    private static final int BIG_NUMBER = 48;
+    private static final int COLLECTION = 48;
+    private static final int MAP_ENTRY = 32;
+    private static final int QUERY_KEY = 128;
+    private static final int UNKNOWN = 32;
+
+    @Override
+    public long weigh(DataCachePCData data, ClassMetaData meta) {
+        return OID + weighData(data, meta);
+    }
+
+    @Override
+    public long weigh(QueryKey key, QueryResult result) {
+        if (result instanceof ColumnarQueryResult)
+            return QUERY_KEY + COLLECTION
+                + ((ColumnarQueryResult) result).estimateSize();
+        long size = QUERY_KEY + COLLECTION + REF * result.size();
+        for (Object val : result)
+            size += weigh(val);
+        return size;
+    }
+
+    /**
+     * Weigh the loaded fields of the given data.
+     */
+    protected long weighData(PCData data, ClassMetaData meta) {
+        FieldMetaData[] fmds = meta.getFields();
+        long size = PCDATA + REF * fmds.length;
+        for (int i = 0; i < fmds.length; i++)
+            if (data.isLoaded(i))
+                size += weigh(data.getData(i), fmds[i]);
+        return size;
+    }
+
+    /**
+     * Weigh the given cached value of a field, collection element or map
+     * key or value.
+     */
+    protected long weigh(Object val, ValueMetaData vmd) {
+        if (val == null || val == AbstractPCData.NULL)
+            return 0;
+        if (val instanceof PCData) {
+            ClassMetaData meta = vmd.getEmbeddedMetaData();
+            return (meta == null) ? weigh(val)
+                : weighData((PCData) val, meta);
+        }
+
+        switch (vmd.getDeclaredTypeCode()) {
+            case JavaTypes.BOOLEAN:
+            case JavaTypes.BYTE:
+            case JavaTypes.CHAR:
+            case JavaTypes.SHORT:
+            case JavaTypes.INT:
+            case JavaTypes.FLOAT:
+            case JavaTypes.BOOLEAN_OBJ:
+            case JavaTypes.BYTE_OBJ:
+            case JavaTypes.CHAR_OBJ:
+            case JavaTypes.SHORT_OBJ:
+            case JavaTypes.INT_OBJ:
+            case JavaTypes.FLOAT_OBJ:
+                return BOXED;
+            case JavaTypes.LONG:
+            case JavaTypes.DOUBLE:
+            case JavaTypes.LONG_OBJ:
+            case JavaTypes.DOUBLE_OBJ:
+                return BOXED_WIDE;
+            case JavaTypes.PC:
+            case JavaTypes.PC_UNTYPED:
+            case JavaTypes.OID:
+                return OID;
+            case JavaTypes.COLLECTION:
+                if (val instanceof Collection && vmd instanceof FieldMetaData) {
+                    ValueMetaData elem = ((FieldMetaData) vmd).getElement();
+                    Collection<?> c = (Collection<?>) val;
+                    long size = COLLECTION + REF * c.size();
+                    for (Object o : c)
+                        size += weigh(o, elem);
+                    return size;
+                }
+                break;
+            case JavaTypes.MAP:
+                if (val instanceof Map && vmd instanceof FieldMetaData) {
+                    FieldMetaData fmd = (FieldMetaData) vmd;
+                    Map<?, ?> m = (Map<?, ?>) val;
+                    long size = COLLECTION + MAP_ENTRY * m.size();
+                    for (Map.Entry<?, ?> e : m.entrySet())
+                        size += weigh(e.getKey(), fmd.getKey())
+                            + weigh(e.getValue(), fmd.getElement());
+                    return size;
+                }
+                break;
+        }
+        return weigh(val);
+    }
+
+    /**
+     * Weigh the given value based on its runtime type.
+     */
+    protected long weigh(Object val) {
+        if (val == null || val == AbstractPCData.NULL)
+            return 0;
+        if (val instanceof String)
+            return HEADER + 24 + 2L * ((String) val).length();
+        if (val instanceof Long || val instanceof Double)
+            return BOXED_WIDE;
+        if (val instanceof Number) {
+            Class<?> cls = val.getClass();
+            return (cls.getName().startsWith("java.math.")) ? BIG_NUMBER
+                : BOXED;
+        }
+        if (val instanceof Boolean || val instanceof Character)
+            return BOXED;
+        if (val instanceof Date)
+            return DATE;
+        if (val instanceof byte[])
+            return HEADER + ((byte[]) val).length;
+        if (val instanceof char[])
+            return HEADER + 2L * ((char[]) val).length;
+        if (val instanceof Object[]) {
+            Object[] arr = (Object[]) val;
+            long size = HEADER + REF * arr.length;
+            for (Object o : arr)
+                size += weigh(o);
+            return size;
+        }
+        if (val.getClass().isArray())
+            return HEADER + 8L * Array.getLength(val);
+        if (val instanceof Collection) {
+            Collection<?> c = (Collection<?>) val;
+            long size = COLLECTION + REF * c.size();
+            for (Object o : c)
+                size += weigh(o);
+            return size;
+        }
+        if (val instanceof Map) {
+            Map<?, ?> m = (Map<?, ?>) val;
+            long size = COLLECTION + MAP_ENTRY * m.size();
+            for (Map.Entry<?, ?> e : m.entrySet())
+                size += weigh(e.getKey()) + weigh(e.getValue());
+            return size;
+        }
+        if (val instanceof PCData)
+            return PCDATA;
+        return (val instanceof OpenJPAId) ? OID : UNKNOWN;
+    }
+}
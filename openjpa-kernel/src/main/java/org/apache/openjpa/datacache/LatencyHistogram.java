@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of operation latencies in nanoseconds. Values are
+ * counted in log-linear buckets: each power of two is split into
+ * {@value #SUB_BUCKETS} buckets, so that reported percentiles are within
+ * about 6% of the recorded values. Latencies above about 18 minutes are
+ * counted as 18 minutes.
+ *
+ * The histogram also counts operations per second over the last
+ * {@value #WINDOW_SECONDS} seconds. Concurrent recording at the turn of a
+ * second may lose a few counts of that second, so rates are approximate.
+ *
+ * @since 3.1.3
+ */
+public class LatencyHistogram
+    implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Number of buckets per power of two.
+     */
+    public static final int SUB_BUCKETS = 16;
+
+    /**
+     * Number of seconds over which {@link #getRate} is computed.
+     */
+    public static final int WINDOW_SECONDS = 60;
+
+    private static final int SUB_BITS = 4;
+    private static final int MAX_BIT = 39;
+    private static final long MAX_VALUE = (1L << (MAX_BIT + 1)) - 1;
+
+    private final AtomicLongArray _buckets = new AtomicLongArray(
+        index(MAX_VALUE) + 1);
+    private final AtomicLong _count = new AtomicLong();
+    private final AtomicLong _sum = new AtomicLong();
+    private final AtomicLong _max = new AtomicLong();
+    private final AtomicLongArray _window = new AtomicLongArray(
+        WINDOW_SECONDS);
+    private final AtomicLongArray _windowSeconds = new AtomicLongArray(
+        WINDOW_SECONDS);
+
+    /**
+     * Return the bucket of the given value.
+     */
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS
+            + (int) ((value >> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Return the highest value counted in the given bucket.
+     */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    /**
+     * Record an operation that took the given number of nanoseconds.
+     */
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+        else if (nanos > MAX_VALUE)
+            nanos = MAX_VALUE;
+        _buckets.incrementAndGet(index(nanos));
+        _count.incrementAndGet();
+        _sum.addAndGet(nanos);
+        long max;
+        while ((max = _max.get()) < nanos && !_max.compareAndSet(max, nanos))
+            ;
+
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        int slot = (int) Math.floorMod(second, (long) WINDOW_SECONDS);
+        long slotSecond = _windowSeconds.get(slot);
+        if (slotSecond != second
+            && _windowSeconds.compareAndSet(slot, slotSecond, second))
+            _window.set(slot, 0);
+        _window.incrementAndGet(slot);
+    }
+
+    /**
+     * The number of recorded operations.
+     */
+    public long getCount() {
+        return _count.get();
+    }
+
+    /**
+     * The highest recorded latency in nanoseconds.
+     */
+    public long getMax() {
+        return _max.get();
+    }
+
+    /**
+     * The mean recorded latency in nanoseconds.
+     */
+    public double getMean() {
+        long count = _count.get();
+        return (count == 0) ? 0 : (double) _sum.get() / count;
+    }
+
+    /**
+     * The latency in nanoseconds that the given percentage of the recorded
+     * operations did not exceed.
+     *
+     * @param percentile a percentage between 0 and 100
+     */
+    public long getPercentile(double percentile) {
+        long count = _count.get();
+        if (count == 0)
+            return 0;
+        long target = (long) Math.ceil(Math.min(100, Math.max(0, percentile))
+            / 100 * count);
+        if (target < 1)
+            target = 1;
+        long seen = 0;
+        for (int i = 0; i < _buckets.length(); i++) {
+            seen += _buckets.get(i);
+            if (seen >= target)
+                return Math.min(highestValue(i), _max.get());
+        }
+        return _max.get();
+    }
+
+    /**
+     * The mean number of operations per second over the last
+     * {@link #WINDOW_SECONDS} seconds.
+     */
+    public double getRate() {
+        long now = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long sum = 0;
+        long second;
+        for (int i = 0; i < WINDOW_SECONDS; i++) {
+            second = _windowSeconds.get(i);
+            if (second > now - WINDOW_SECONDS && second <= now)
+                sum += _window.get(i);
+        }
+        return (double) sum / WINDOW_SECONDS;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + " p50=" + getPercentile(50) + " p99="
+            + getPercentile(99) + " max=" + getMax() + " rate=" + getRate();
+    }
+}
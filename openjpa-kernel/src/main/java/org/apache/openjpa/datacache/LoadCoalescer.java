@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the data store loads of cache misses so that concurrent misses on
+ * the same oid wait for a single load instead of each querying the data
+ * store. One instance is shared by all brokers using a cache.
+ *
+ * A thread that {@link #claim}s an oid must {@link #finish} it once the
+ * loaded data is in the cache. Other threads {@link #await} the load and
+ * then read the cache. Waits are bounded, so that loads that depend on
+ * each other across threads degrade to independent loads rather than
+ * deadlock.
+ *
+ * @since 3.1.3
+ */
+final class LoadCoalescer {
+
+    private final ConcurrentHashMap<Object, Load> _loads =
+        new ConcurrentHashMap<>();
+    private final long _timeout;
+
+    /**
+     * @param timeout the maximum time in milliseconds to wait for a load
+     */
+    LoadCoalescer(long timeout) {
+        _timeout = timeout;
+    }
+
+    /**
+     * Claim the load of the given oid.
+     *
+     * @return true if the calling thread now loads the oid, false if
+     * another load of the oid is running
+     */
+    boolean claim(Object oid) {
+        return _loads.putIfAbsent(oid, new Load()) == null;
+    }
+
+    /**
+     * Wait for the running load of the given oid, if any.
+     *
+     * @return false if the wait timed out or was interrupted, or if the
+     * load runs in the calling thread
+     */
+    boolean await(Object oid) {
+        Load load = _loads.get(oid);
+        if (load == null)
+            return true;
+        if (load.thread == Thread.currentThread())
+            return false;
+        try {
+            return load.done.await(_timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Release the claim on the given oid and wake up the waiting threads.
+     */
+    void finish(Object oid) {
+        Load load = _loads.remove(oid);
+        if (load != null)
+            load.done.countDown();
+    }
+
+    /**
+     * The number of loads in progress.
+     */
+    int size() {
+        return _loads.size();
+    }
+
+    /**
+     * A running load.
+     */
+    private static final class Load {
+        final Thread thread = Thread.currentThread();
+        final CountDownLatch done = new CountDownLatch(1);
+    }
+}
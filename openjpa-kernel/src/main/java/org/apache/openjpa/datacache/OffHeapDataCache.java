@@ -0,0 +1,475 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.openjpa.event.RemoteCommitListener;
+import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.util.UserException;
+
+/**
+ * A {@link DataCache} implementation that keeps cached field values outside
+ * of the Java heap. Each cached instance is encoded into a compact byte form
+ * and appended to one of a fixed number of direct memory segments. When the
+ * segments are full, the oldest segment is recycled and the instances stored
+ * in it are evicted, so the cache never holds more than
+ * {@link #getMaxBytes} bytes of cached state. Pinned instances are copied
+ * forward instead of being evicted.
+ * Only the index from oid to segment location remains on the heap.
+ * Reads do not block writes; a read that races with the recycling of its
+ * segment is treated as a cache miss.
+ * Direct memory is limited by the <code>-XX:MaxDirectMemorySize</code>
+ * JVM option, which must allow for {@link #getMaxBytes}.
+ *
+ * @since 3.1.3
+ */
+public class OffHeapDataCache
+    extends AbstractDataCache
+    implements RemoteCommitListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Localizer _loc = Localizer.forPackage
+        (OffHeapDataCache.class);
+
+    private long _maxBytes = 64L * 1024 * 1024;
+    private int _segmentSize = 4 * 1024 * 1024;
+
+    private final Map<Object, Entry> _index = new ConcurrentHashMap<>();
+    private final Set<Object> _pinned = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock _lock = new ReentrantLock();
+    private final AtomicLong _usedBytes = new AtomicLong();
+    private Segment[] _segments;
+    private int _head = 0;
+
+    /**
+     * The maximum number of bytes of direct memory used to hold cached
+     * data. Defaults to 64 MB.
+     */
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * The maximum number of bytes of direct memory used to hold cached
+     * data. Defaults to 64 MB.
+     */
+    public void setMaxBytes(long maxBytes) {
+        _maxBytes = maxBytes;
+    }
+
+    /**
+     * The size in bytes of each memory segment. Eviction removes a whole
+     * segment at a time, and instances larger than a segment are not
+     * cached. Defaults to 4 MB.
+     */
+    public int getSegmentSize() {
+        return _segmentSize;
+    }
+
+    /**
+     * The size in bytes of each memory segment. Eviction removes a whole
+     * segment at a time, and instances larger than a segment are not
+     * cached. Defaults to 4 MB.
+     */
+    public void setSegmentSize(int segmentSize) {
+        _segmentSize = segmentSize;
+    }
+
+    /**
+     * The number of bytes of encoded data held by the cached instances.
+     */
+    public long getUsedBytes() {
+        return _usedBytes.get();
+    }
+
+    /**
+     * The number of instances in the cache.
+     */
+    public int getEntryCount() {
+        return _index.size();
+    }
+
+    @Override
+    public void initialize(DataCacheManager mgr) {
+        if (_segmentSize <= 0 || _maxBytes / _segmentSize < 2)
+            throw new UserException(_loc.get("offheap-bad-size", getName(),
+                _maxBytes, _segmentSize)).setFatal(true);
+        _segments = new Segment[(int) Math.min(Integer.MAX_VALUE,
+            _maxBytes / _segmentSize)];
+        // initialize after the segments exist, as the snapshot restores
+        // into them
+        super.initialize(mgr);
+        conf.getRemoteCommitEventManager().addInternalListener(this);
+    }
+
+    @Override
+    public void unpinAll(Class<?> cls, boolean subs) {
+        if (log.isWarnEnabled())
+            log.warn(_loc.get("cache-class-unpin-all", getName()));
+        unpinAll(new ArrayList<>(_pinned));
+    }
+
+    @Override
+    public void writeLock() {
+        _lock.lock();
+    }
+
+    @Override
+    public void writeUnlock() {
+        _lock.unlock();
+    }
+
+    @Override
+    protected DataCachePCData getInternal(Object key) {
+        Entry entry = _index.get(key);
+        if (entry == null)
+            return null;
+        byte[] bytes = entry.read();
+        if (bytes == null)
+            return null;
+        try {
+            return entry.decode(bytes, getName());
+        } catch (IOException ioe) {
+            if (log.isWarnEnabled())
+                log.warn(_loc.get("offheap-decode-failed", key), ioe);
+            if (_index.remove(key, entry))
+                release(entry);
+            return null;
+        }
+    }
+
+    /**
+     * Encode and store the given data. Always returns null rather than
+     * decoding the replaced instance.
+     */
+    @Override
+    protected DataCachePCData putInternal(Object key, DataCachePCData pc) {
+        ClassMetaData meta = conf.getMetaDataRepositoryInstance().
+            getMetaData(pc.getType(), null, false);
+        byte[] bytes = null;
+        if (meta != null) {
+            try {
+                bytes = PCDataCodec.encode(pc, meta);
+            } catch (IOException ioe) {
+                if (log.isTraceEnabled())
+                    log.trace(_loc.get("offheap-encode-failed", key), ioe);
+            }
+        }
+
+        _lock.lock();
+        try {
+            if (bytes == null || bytes.length > _segmentSize) {
+                release(_index.remove(key));
+                return null;
+            }
+            Entry entry = write(key, meta, pc.getTimeOut(), bytes);
+            if (entry == null)
+                release(_index.remove(key));
+            else
+                release(_index.put(key, entry));
+        } finally {
+            _lock.unlock();
+        }
+        return null;
+    }
+
+    @Override
+    protected DataCachePCData removeInternal(Object key) {
+        DataCachePCData data = getInternal(key);
+        release(_index.remove(key));
+        return data;
+    }
+
+    @Override
+    protected void removeAllInternal(Collection<Object> oids) {
+        for (Object oid : oids)
+            release(_index.remove(oid));
+    }
+
+    @Override
+    protected void removeAllInternal(Class<?> cls, boolean subs) {
+        for (Entry entry : _index.values()) {
+            Class<?> type = entry.meta.getDescribedType();
+            if ((type == cls || (subs && cls.isAssignableFrom(type)))
+                && _index.remove(entry.key, entry))
+                release(entry);
+        }
+    }
+
+    @Override
+    protected Collection<Object> keySet() {
+        return new ArrayList<>(_index.keySet());
+    }
+
+    @Override
+    protected void clearInternal() {
+        _lock.lock();
+        try {
+            for (Object key : _index.keySet())
+                release(_index.remove(key));
+            // drop the segments so that their memory can be reclaimed
+            for (int i = 0; i < _segments.length; i++) {
+                if (_segments[i] != null)
+                    _segments[i].recycle();
+                _segments[i] = null;
+            }
+            _head = 0;
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    @Override
+    protected boolean pinInternal(Object key) {
+        _pinned.add(key);
+        return _index.containsKey(key);
+    }
+
+    @Override
+    protected boolean unpinInternal(Object key) {
+        _pinned.remove(key);
+        return _index.containsKey(key);
+    }
+
+    @Override
+    protected boolean recacheUpdates() {
+        return true;
+    }
+
+    /**
+     * Account for an entry that is no longer indexed.
+     */
+    private void release(Entry entry) {
+        if (entry != null)
+            _usedBytes.addAndGet(-entry.length);
+    }
+
+    /**
+     * Append the given bytes to the head segment, recycling the oldest
+     * segment if the head is full. Must be called with the write lock held.
+     *
+     * @return the written entry, or null if there is no room for it
+     */
+    private Entry write(Object key, ClassMetaData meta, long exp,
+        byte[] bytes) {
+        for (int i = 0; i < _segments.length; i++) {
+            Segment seg = _segments[_head];
+            if (seg == null) {
+                seg = new Segment(_segmentSize);
+                _segments[_head] = seg;
+            }
+            Entry entry = seg.append(key, meta, exp, bytes);
+            if (entry != null) {
+                _usedBytes.addAndGet(bytes.length);
+                return entry;
+            }
+            _head = (_head + 1) % _segments.length;
+            if (_segments[_head] != null)
+                evict(_segments[_head]);
+        }
+        // every segment is taken up by pinned instances
+        return null;
+    }
+
+    /**
+     * Evict the instances stored in the given segment, carrying pinned
+     * instances over into the recycled segment.
+     */
+    private void evict(Segment seg) {
+        // copy out pinned instances before their bytes are overwritten
+        Map<Entry, byte[]> keep = null;
+        for (Entry entry : seg._entries) {
+            if (_pinned.contains(entry.key) && _index.get(entry.key) == entry) {
+                if (keep == null)
+                    keep = new LinkedHashMap<>();
+                keep.put(entry, entry.copy());
+            }
+        }
+
+        for (Entry entry : seg.recycle()) {
+            if ((keep == null || !keep.containsKey(entry))
+                && _index.remove(entry.key, entry)) {
+                release(entry);
+                keyRemoved(entry.key, true);
+            }
+        }
+        if (keep == null)
+            return;
+
+        for (Map.Entry<Entry, byte[]> e : keep.entrySet()) {
+            Entry entry = e.getKey();
+            Entry moved = seg.append(entry.key, entry.meta, entry.exp,
+                e.getValue());
+            if (moved != null)
+                _index.replace(entry.key, entry, moved);
+            else if (_index.remove(entry.key, entry)) {
+                release(entry);
+                keyRemoved(entry.key, true);
+            }
+        }
+    }
+
+    /**
+     * A fixed-size region of direct memory that cached instances are
+     * appended to.
+     */
+    private static class Segment {
+
+        private final ByteBuffer _buf;
+        private final StampedLock _stamp = new StampedLock();
+        private final List<Entry> _entries = new ArrayList<>();
+        private volatile int _generation = 0;
+        private int _used = 0;
+
+        public Segment(int size) {
+            _buf = ByteBuffer.allocateDirect(size);
+        }
+
+        /**
+         * Append the given bytes, returning null if they do not fit.
+         */
+        public Entry append(Object key, ClassMetaData meta, long exp,
+            byte[] bytes) {
+            if (_used + bytes.length > _buf.capacity())
+                return null;
+            ByteBuffer buf = _buf.duplicate();
+            buf.position(_used);
+            buf.put(bytes);
+            Entry entry = new Entry(key, meta, exp, this, _generation, _used,
+                bytes.length);
+            _used += bytes.length;
+            _entries.add(entry);
+            return entry;
+        }
+
+        /**
+         * Invalidate the current contents so that the segment can be
+         * rewritten, and return the entries that were stored in it.
+         */
+        public List<Entry> recycle() {
+            long stamp = _stamp.writeLock();
+            try {
+                _generation++;
+            } finally {
+                _stamp.unlockWrite(stamp);
+            }
+            List<Entry> entries = new ArrayList<>(_entries);
+            _entries.clear();
+            _used = 0;
+            return entries;
+        }
+    }
+
+    /**
+     * Location of a cached instance.
+     */
+    private static class Entry {
+
+        public final Object key;
+        public final ClassMetaData meta;
+        public final long exp;
+        private final Segment _seg;
+        private final int _generation;
+        private final int _offset;
+        public final int length;
+
+        public Entry(Object key, ClassMetaData meta, long exp, Segment seg,
+            int generation, int offset, int length) {
+            this.key = key;
+            this.meta = meta;
+            this.exp = exp;
+            _seg = seg;
+            _generation = generation;
+            _offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Copy the encoded bytes out of the segment without validating
+         * them. Used by the writer, which excludes concurrent recycling.
+         */
+        public byte[] copy() {
+            byte[] bytes = new byte[length];
+            ByteBuffer buf = _seg._buf.duplicate();
+            buf.position(_offset);
+            buf.get(bytes);
+            return bytes;
+        }
+
+        /**
+         * Copy the encoded bytes out of the segment, returning null if the
+         * segment has been recycled.
+         */
+        public byte[] read() {
+            long stamp = _seg._stamp.tryOptimisticRead();
+            if (stamp == 0 || _seg._generation != _generation)
+                return null;
+            byte[] bytes = copy();
+            return _seg._stamp.validate(stamp) ? bytes : null;
+        }
+
+        public DataCachePCData decode(byte[] bytes, String cache)
+            throws IOException {
+            CachedPCData data = new CachedPCData(key, meta, cache, exp);
+            PCDataCodec.decode(bytes, meta, data);
+            return data;
+        }
+    }
+
+    /**
+     * Decoded instance, which keeps the expiration time of the data it was
+     * encoded from.
+     */
+    private static class CachedPCData
+        extends DataCachePCDataImpl {
+
+        private static final long serialVersionUID = 1L;
+        private final long _exp;
+
+        public CachedPCData(Object oid, ClassMetaData meta, String name,
+            long exp) {
+            super(oid, meta, name);
+            _exp = exp;
+        }
+
+        @Override
+        public boolean isTimedOut() {
+            return _exp != -1 && _exp < System.currentTimeMillis();
+        }
+
+        @Override
+        public long getTimeOut() {
+            return _exp;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Date;
+
+import org.apache.openjpa.kernel.AbstractPCData;
+import org.apache.openjpa.kernel.PCDataImpl;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.meta.FieldMetaData;
+import org.apache.openjpa.meta.JavaTypes;
+import org.apache.openjpa.util.Serialization;
+
+/**
+ * Encodes the loaded field values and version of a {@link DataCachePCData}
+ * into a compact byte array, and decodes them again. The declared type of
+ * each field selects its encoding: primitives, strings, dates and big
+ * numbers are written directly, and all other values (oids, collections,
+ * maps and embedded data) are written with Java serialization into a
+ * separate section that is only created when needed.
+ *
+ * @since 3.1.3
+ */
+final class PCDataCodec {
+
+    private static final byte TAG_NULL = 0;
+    private static final byte TAG_UNCACHEABLE = 1;
+    private static final byte TAG_TRUE = 2;
+    private static final byte TAG_FALSE = 3;
+    private static final byte TAG_BYTE = 4;
+    private static final byte TAG_CHAR = 5;
+    private static final byte TAG_SHORT = 6;
+    private static final byte TAG_INT = 7;
+    private static final byte TAG_LONG = 8;
+    private static final byte TAG_FLOAT = 9;
+    private static final byte TAG_DOUBLE = 10;
+    private static final byte TAG_STRING = 11;
+    private static final byte TAG_DATE = 12;
+    private static final byte TAG_SQL_DATE = 13;
+    private static final byte TAG_TIME = 14;
+    private static final byte TAG_TIMESTAMP = 15;
+    private static final byte TAG_BIGDECIMAL = 16;
+    private static final byte TAG_BIGINTEGER = 17;
+    private static final byte TAG_OBJECT = 18;
+
+    // DataOutput.writeUTF is limited to 64K encoded bytes
+    private static final int MAX_UTF_CHARS = 65535 / 3;
+
+    private PCDataCodec() {
+    }
+
+    /**
+     * Encode the loaded fields and version of the given data.
+     *
+     * @throws IOException if a value could not be serialized
+     */
+    public static byte[] encode(DataCachePCData data, ClassMetaData meta)
+        throws IOException {
+        ByteArrayOutputStream primary = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(primary);
+        ObjectSink objects = new ObjectSink();
+
+        writeValue(out, objects, JavaTypes.OBJECT, data.getVersion());
+
+        FieldMetaData[] fmds = meta.getFields();
+        long[] loaded = new long[(fmds.length + 63) >>> 6];
+        for (int i = 0; i < fmds.length; i++)
+            if (data.isLoaded(i))
+                loaded[i >>> 6] |= 1L << i;
+        for (long word : loaded)
+            out.writeLong(word);
+        for (int i = 0; i < fmds.length; i++)
+            if ((loaded[i >>> 6] & (1L << i)) != 0)
+                writeValue(out, objects, fmds[i].getDeclaredTypeCode(),
+                    data.getData(i));
+        out.flush();
+
+        byte[] obj = objects.toByteArray();
+        byte[] bytes = new byte[4 + primary.size() + obj.length];
+        bytes[0] = (byte) (primary.size() >>> 24);
+        bytes[1] = (byte) (primary.size() >>> 16);
+        bytes[2] = (byte) (primary.size() >>> 8);
+        bytes[3] = (byte) primary.size();
+        System.arraycopy(primary.toByteArray(), 0, bytes, 4, primary.size());
+        System.arraycopy(obj, 0, bytes, 4 + primary.size(), obj.length);
+        return bytes;
+    }
+
+    /**
+     * Decode the given bytes into the given data instance.
+     *
+     * @throws IOException if a serialized value could not be read
+     */
+    public static void decode(byte[] bytes, ClassMetaData meta,
+        PCDataImpl data)
+        throws IOException {
+        int len = ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16)
+            | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream
+            (bytes, 4, len));
+        ObjectSource objects = new ObjectSource(bytes, 4 + len);
+
+        data.setVersion(readValue(in, objects));
+
+        int fields = meta.getFields().length;
+        long[] loaded = new long[(fields + 63) >>> 6];
+        for (int i = 0; i < loaded.length; i++)
+            loaded[i] = in.readLong();
+        for (int i = 0; i < fields; i++)
+            if ((loaded[i >>> 6] & (1L << i)) != 0)
+                data.setData(i, readValue(in, objects));
+    }
+
+    private static void writeValue(DataOutputStream out, ObjectSink objects,
+        int type, Object val)
+        throws IOException {
+        if (val == null) {
+            out.writeByte(TAG_NULL);
+            return;
+        }
+        if (val == AbstractPCData.NULL) {
+            out.writeByte(TAG_UNCACHEABLE);
+            return;
+        }
+
+        // try the representation of the declared type first
+        switch (type) {
+            case JavaTypes.BOOLEAN:
+            case JavaTypes.BOOLEAN_OBJ:
+                if (val instanceof Boolean) {
+                    out.writeByte(((Boolean) val) ? TAG_TRUE : TAG_FALSE);
+                    return;
+                }
+                break;
+            case JavaTypes.INT:
+            case JavaTypes.INT_OBJ:
+                if (val instanceof Integer) {
+                    out.writeByte(TAG_INT);
+                    out.writeInt((Integer) val);
+                    return;
+                }
+                break;
+            case JavaTypes.LONG:
+            case JavaTypes.LONG_OBJ:
+                if (val instanceof Long) {
+                    out.writeByte(TAG_LONG);
+                    out.writeLong((Long) val);
+                    return;
+                }
+                break;
+            case JavaTypes.DOUBLE:
+            case JavaTypes.DOUBLE_OBJ:
+                if (val instanceof Double) {
+                    out.writeByte(TAG_DOUBLE);
+                    out.writeDouble((Double) val);
+                    return;
+                }
+                break;
+            case JavaTypes.STRING:
+                if (val instanceof String
+                    && ((String) val).length() <= MAX_UTF_CHARS) {
+                    out.writeByte(TAG_STRING);
+                    out.writeUTF((String) val);
+                    return;
+                }
+                break;
+            case JavaTypes.PC:
+            case JavaTypes.PC_UNTYPED:
+            case JavaTypes.COLLECTION:
+            case JavaTypes.MAP:
+            case JavaTypes.ARRAY:
+            case JavaTypes.OID:
+                writeObject(out, objects, val);
+                return;
+        }
+        writeTagged(out, objects, val);
+    }
+
+    /**
+     * Write the given value based on its runtime type.
+     */
+    private static void writeTagged(DataOutputStream out, ObjectSink objects,
+        Object val)
+        throws IOException {
+        Class<?> cls = val.getClass();
+        if (cls == String.class
+            && ((String) val).length() <= MAX_UTF_CHARS) {
+            out.writeByte(TAG_STRING);
+            out.writeUTF((String) val);
+        } else if (cls == Integer.class) {
+            out.writeByte(TAG_INT);
+            out.writeInt((Integer) val);
+        } else if (cls == Long.class) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) val);
+        } else if (cls == Boolean.class) {
+            out.writeByte(((Boolean) val) ? TAG_TRUE : TAG_FALSE);
+        } else if (cls == Double.class) {
+            out.writeByte(TAG_DOUBLE);
+            out.writeDouble((Double) val);
+        } else if (cls == Float.class) {
+            out.writeByte(TAG_FLOAT);
+            out.writeFloat((Float) val);
+        } else if (cls == Short.class) {
+            out.writeByte(TAG_SHORT);
+            out.writeShort((Short) val);
+        } else if (cls == Byte.class) {
+            out.writeByte(TAG_BYTE);
+            out.writeByte((Byte) val);
+        } else if (cls == Character.class) {
+            out.writeByte(TAG_CHAR);
+            out.writeChar((Character) val);
+        } else if (cls == Date.class) {
+            out.writeByte(TAG_DATE);
+            out.writeLong(((Date) val).getTime());
+        } else if (cls == java.sql.Date.class) {
+            out.writeByte(TAG_SQL_DATE);
+            out.writeLong(((Date) val).getTime());
+        } else if (cls == Time.class) {
+            out.writeByte(TAG_TIME);
+            out.writeLong(((Date) val).getTime());
+        } else if (cls == Timestamp.class) {
+            out.writeByte(TAG_TIMESTAMP);
+            out.writeLong(((Timestamp) val).getTime());
+            out.writeInt(((Timestamp) val).getNanos());
+        } else if (cls == BigDecimal.class) {
+            BigDecimal dec = (BigDecimal) val;
+            out.writeByte(TAG_BIGDECIMAL);
+            out.writeInt(dec.scale());
+            writeBytes(out, dec.unscaledValue().toByteArray());
+        } else if (cls == BigInteger.class) {
+            out.writeByte(TAG_BIGINTEGER);
+            writeBytes(out, ((BigInteger) val).toByteArray());
+        } else
+            writeObject(out, objects, val);
+    }
+
+    private static void writeObject(DataOutputStream out, ObjectSink objects,
+        Object val)
+        throws IOException {
+        out.writeByte(TAG_OBJECT);
+        objects.write(val);
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes)
+        throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Object readValue(DataInputStream in, ObjectSource objects)
+        throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_NULL:
+                return null;
+            case TAG_UNCACHEABLE:
+                return AbstractPCData.NULL;
+            case TAG_TRUE:
+                return Boolean.TRUE;
+            case TAG_FALSE:
+                return Boolean.FALSE;
+            case TAG_BYTE:
+                return in.readByte();
+            case TAG_CHAR:
+                return in.readChar();
+            case TAG_SHORT:
+                return in.readShort();
+            case TAG_INT:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_FLOAT:
+                return in.readFloat();
+            case TAG_DOUBLE:
+                return in.readDouble();
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_DATE:
+                return new Date(in.readLong());
+            case TAG_SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case TAG_TIME:
+                return new Time(in.readLong());
+            case TAG_TIMESTAMP:
+                Timestamp ts = new Timestamp(in.readLong());
+                ts.setNanos(in.readInt());
+                return ts;
+            case TAG_BIGDECIMAL:
+                int scale = in.readInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            case TAG_BIGINTEGER:
+                return new BigInteger(readBytes(in));
+            case TAG_OBJECT:
+                return objects.read();
+            default:
+                throw new IOException(String.valueOf(tag));
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in)
+        throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Lazily created serialization section of an encoded entry.
+     */
+    private static class ObjectSink {
+
+        private ByteArrayOutputStream _bytes;
+        private ObjectOutputStream _out;
+
+        public void write(Object val)
+            throws IOException {
+            if (_out == null) {
+                _bytes = new ByteArrayOutputStream();
+                _out = new ObjectOutputStream(_bytes);
+            }
+            _out.writeObject(val);
+        }
+
+        public byte[] toByteArray()
+            throws IOException {
+            if (_out == null)
+                return new byte[0];
+            _out.flush();
+            return _bytes.toByteArray();
+        }
+    }
+
+    /**
+     * Lazily opened serialization section of an encoded entry.
+     */
+    private static class ObjectSource {
+
+        private final byte[] _bytes;
+        private final int _offset;
+        private ObjectInputStream _in;
+
+        public ObjectSource(byte[] bytes, int offset) {
+            _bytes = bytes;
+            _offset = offset;
+        }
+
+        public Object read()
+            throws IOException {
+            if (_in == null)
+                _in = new Serialization.ClassResolvingObjectInputStream
+                    (new ByteArrayInputStream(_bytes, _offset,
+                        _bytes.length - _offset));
+            try {
+                return _in.readObject();
+            } catch (ClassNotFoundException cnfe) {
+                throw new IOException(cnfe);
+            }
+        }
+    }
+}
@@ -354,6 +354,8 @@ public class QueryCacheStoreQuery
             QueryKey key =
                 QueryKey.newInstance(cq.getContext(), _ex.isPacking(q), params, _candidate, _subs, range.start,
                     range.end, parsed);
+            if (key != null)
+                key.setComparisons(_ex.getQueryExpressions());
 
             // Create a new FetchConfiguration that will be used to ensure that any JOIN FETCHed fields are loaded
             StoreContext store = q.getContext().getStoreContext();
@@ -575,6 +577,9 @@ public class QueryCacheStoreQuery
             if (!_proj)
                 return fromObjectId(_res.get(idx), _sctx, _fc);
 
+            // columnar results rebuild a new row of immutable values
+            if (_res instanceof ColumnarQueryResult)
+                return _res.get(idx);
             Object[] cached = (Object[]) _res.get(idx);
             if (cached == null)
                 return null;
@@ -687,7 +692,11 @@ public class QueryCacheStoreQuery
                     if (_maintainCache) {
                         QueryResult res = null;
                         synchronized (this) {
-                            res = new QueryResult(_qk, _data.values());
+                            if (_proj && (!(_cache instanceof AbstractQueryCache)
+                                || ((AbstractQueryCache) _cache).getColumnarResults()))
+                                res = ColumnarQueryResult.newInstance(_qk, _data.values());
+                            if (res == null)
+                                res = new QueryResult(_qk, _data.values());
                             res.setTimestamp(System.currentTimeMillis());
                         }
                         _cache.put(_qk, res);
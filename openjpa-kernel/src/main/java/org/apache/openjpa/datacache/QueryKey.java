@@ -38,10 +38,15 @@ import java.util.SortedSet;
 import java.util.TreeSet;
 
 import org.apache.openjpa.enhance.PCRegistry;
+import org.apache.openjpa.kernel.OpenJPAStateManager;
 import org.apache.openjpa.kernel.Query;
 import org.apache.openjpa.kernel.QueryContext;
+import org.apache.openjpa.kernel.QueryOperations;
 import org.apache.openjpa.kernel.StoreContext;
+import org.apache.openjpa.kernel.exps.FieldComparison;
+import org.apache.openjpa.kernel.exps.QueryExpressions;
 import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.meta.FieldMetaData;
 import org.apache.openjpa.meta.JavaTypes;
 import org.apache.openjpa.meta.MetaDataRepository;
 import org.apache.openjpa.util.ImplHelper;
@@ -101,6 +106,11 @@ public class QueryKey
     // ### or not OIDs should be registered for expiration callbacks
     private int _timeout = -1;
 
+    // comparisons making up the query filter, used to tell whether changed
+    // instances can affect the cached result; not part of the identity of
+    // the key, and lost on externalization
+    private transient FieldComparison[] _comparisons;
+
     /**
      * Return a key for the given query, or null if it is not cacheable.
      */
@@ -374,6 +384,98 @@ public class QueryKey
         return intersects(_accessPathClassNames, changed);
     }
 
+    /**
+     * Returns <code>true</code> if the given changes could invalidate the
+     * given cached result of this query. If the changed instances are known
+     * and the query selects candidates by a conjunction of comparisons on
+     * their fields, only changes to instances in the result and changes
+     * that could make an instance satisfy the filter invalidate the query.
+     * Otherwise this is the same as {@link #changeInvalidatesQuery(Collection)}.
+     *
+     * @param changed the changed types
+     * @param instances the changed instances, or null if not known
+     * @param res the cached result of this query, or null if not known
+     * @since 3.1.3
+     */
+    public boolean changeInvalidatesQuery(Collection<Class<?>> changed,
+        Collection<OpenJPAStateManager> instances, QueryResult res) {
+        if (!changeInvalidatesQuery(changed))
+            return false;
+        if (_comparisons == null || instances == null || res == null)
+            return true;
+
+        for (OpenJPAStateManager sm : instances) {
+            if (!intersects(_accessPathClassNames, Collections.
+                <Class<?>>singleton(sm.getMetaData().getDescribedType())))
+                continue;
+            // the old state matched if the instance is in the result
+            if (res.contains(sm.getObjectId()))
+                return true;
+            if (!sm.isDeleted() && couldMatch(sm))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether this key can tell which changed instances affect its query.
+     */
+    boolean hasComparisons() {
+        return _comparisons != null;
+    }
+
+    /**
+     * Record the comparisons making up the filter of the given compiled
+     * query if they are enough to tell whether a changed instance could be
+     * selected: the query must select unranged candidate instances without
+     * grouping, and only access the candidate class hierarchy. The compiler
+     * only records comparisons for queries whose single variable is the
+     * candidate, so joins, self joins and subqueries never qualify.
+     */
+    void setComparisons(QueryExpressions[] exps) {
+        if (exps == null || exps.length != 1 || _rangeStart != 0
+            || _rangeEnd != Long.MAX_VALUE)
+            return;
+        QueryExpressions exp = exps[0];
+        if (exp.comparisons == null
+            || exp.operation != QueryOperations.OP_SELECT
+            || exp.projections.length > 0 || exp.grouping.length > 0
+            || exp.having != null || exp.accessPath.length == 0)
+            return;
+
+        String root = null;
+        ClassMetaData meta;
+        for (int i = 0; i < exp.accessPath.length; i++) {
+            meta = exp.accessPath[i];
+            while (meta.getPCSuperclass() != null)
+                meta = meta.getPCSuperclassMetaData();
+            if (root == null)
+                root = meta.getDescribedType().getName();
+            else if (!root.equals(meta.getDescribedType().getName()))
+                return;
+        }
+        _comparisons = exp.comparisons;
+    }
+
+    /**
+     * Whether the current state of the given instance could satisfy all
+     * the comparisons of the query filter.
+     */
+    private boolean couldMatch(OpenJPAStateManager sm) {
+        ClassMetaData meta = sm.getMetaData();
+        FieldMetaData fmd;
+        for (FieldComparison comp : _comparisons) {
+            fmd = meta.getField(comp.getFieldName());
+            // not an instance of the candidate class
+            if (fmd == null)
+                return false;
+            if (sm.isLoaded(fmd.getIndex())
+                && !comp.couldMatch(sm.fetch(fmd.getIndex()), _params))
+                return false;
+        }
+        return true;
+    }
+
     /**
      * Whether the given set of least-derived class names intersects with
      * the given set of changed classes.
@@ -18,7 +18,15 @@
  */
 package org.apache.openjpa.event;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.lib.conf.Configurable;
@@ -29,6 +37,11 @@ import org.apache.openjpa.lib.util.Localizer;
 /**
  * Abstract implementation of {@link RemoteCommitProvider}. Obtains handles
  * to the event manager and log.
+ * Optionally coalesces the events of many transactions into a single
+ * broadcast: when a positive {@link #setCoalesceWindowMillis coalescing
+ * window} is set, events passed to {@link #publish} are merged and sent
+ * once the window elapses or the merged event reaches
+ * {@link #setCoalesceMaxSize the maximum size}, whichever comes first.
  *
  * @author Patrick Linskey
  * @since 0.2.5.0
@@ -42,6 +55,15 @@ public abstract class AbstractRemoteCommitProvider
     protected RemoteCommitEventManager eventManager;
     protected Log log;
 
+    private int _coalesceWindow = 0;
+    private int _coalesceMaxSize = 1000;
+    private final Object _coalesceLock = new Object();
+    private Batch _batch;
+    private Timer _timer;
+    private final AtomicLong _coalescedCommits = new AtomicLong();
+    private final AtomicLong _coalescedPackets = new AtomicLong();
+    private final AtomicLong _maxCommitsPerPacket = new AtomicLong();
+
     @Override
     public void setConfiguration(Configuration config) {
         this.log = config.getLog(OpenJPAConfiguration.LOG_RUNTIME);
@@ -60,6 +82,172 @@ public abstract class AbstractRemoteCommitProvider
         eventManager = mgr;
     }
 
+    /**
+     * The number of milliseconds to collect committed changes before they
+     * are broadcast as a single event, or 0 to broadcast every commit
+     * immediately. Defaults to 0.
+     *
+     * @since 3.1.3
+     */
+    public void setCoalesceWindowMillis(int millis) {
+        _coalesceWindow = millis;
+    }
+
+    /**
+     * The number of milliseconds to collect committed changes before they
+     * are broadcast as a single event.
+     *
+     * @since 3.1.3
+     */
+    public int getCoalesceWindowMillis() {
+        return _coalesceWindow;
+    }
+
+    /**
+     * The number of class names and object ids a coalesced event may
+     * collect before it is broadcast without waiting for the window to
+     * elapse. Defaults to 1000.
+     *
+     * @since 3.1.3
+     */
+    public void setCoalesceMaxSize(int size) {
+        _coalesceMaxSize = size;
+    }
+
+    /**
+     * The number of class names and object ids a coalesced event may
+     * collect before it is broadcast.
+     *
+     * @since 3.1.3
+     */
+    public int getCoalesceMaxSize() {
+        return _coalesceMaxSize;
+    }
+
+    /**
+     * The number of committed events that have been broadcast as part of a
+     * coalesced event.
+     *
+     * @since 3.1.3
+     */
+    public long getCoalescedCommitCount() {
+        return _coalescedCommits.get();
+    }
+
+    /**
+     * The number of coalesced events that have been broadcast.
+     *
+     * @since 3.1.3
+     */
+    public long getCoalescedPacketCount() {
+        return _coalescedPackets.get();
+    }
+
+    /**
+     * The largest number of committed events merged into one broadcast.
+     *
+     * @since 3.1.3
+     */
+    public long getMaxCommitsPerPacket() {
+        return _maxCommitsPerPacket.get();
+    }
+
+    /**
+     * Broadcast the given event, or merge it into the pending coalesced
+     * event if a coalescing window is configured.
+     *
+     * @since 3.1.3
+     */
+    public void publish(RemoteCommitEvent event) {
+        if (_coalesceWindow <= 0) {
+            broadcast(event);
+            return;
+        }
+
+        Batch other = null;
+        Batch full = null;
+        synchronized (_coalesceLock) {
+            // events of different payload types cannot be merged
+            if (_batch != null && _batch.payload != event.getPayloadType()) {
+                other = _batch;
+                _batch = null;
+            }
+            if (_batch == null) {
+                _batch = new Batch(event.getPayloadType());
+                schedule(_batch);
+            }
+            _batch.add(event, (eventManager == null) ? 0
+                : eventManager.getPatchSize());
+            if (_batch.size() >= _coalesceMaxSize) {
+                full = _batch;
+                _batch = null;
+            }
+        }
+        if (other != null)
+            send(other);
+        if (full != null)
+            send(full);
+    }
+
+    /**
+     * Immediately broadcast any pending coalesced event. Invoked by the
+     * event manager before the provider is closed.
+     *
+     * @since 3.1.3
+     */
+    public void flush() {
+        Batch batch;
+        synchronized (_coalesceLock) {
+            batch = _batch;
+            _batch = null;
+            if (_timer != null) {
+                _timer.cancel();
+                _timer = null;
+            }
+        }
+        if (batch != null)
+            send(batch);
+    }
+
+    /**
+     * Schedule the given batch to be sent once the window elapses.
+     */
+    private void schedule(final Batch batch) {
+        if (_timer == null)
+            _timer = new Timer("OpenJPA-RemoteCommitCoalescer", true);
+        _timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                synchronized (_coalesceLock) {
+                    // already sent because it grew too large
+                    if (_batch != batch)
+                        return;
+                    _batch = null;
+                }
+                send(batch);
+            }
+        }, _coalesceWindow);
+    }
+
+    private void send(Batch batch) {
+        long commits = batch.commits;
+        _coalescedCommits.addAndGet(commits);
+        _coalescedPackets.incrementAndGet();
+        long max;
+        while ((max = _maxCommitsPerPacket.get()) < commits
+            && !_maxCommitsPerPacket.compareAndSet(max, commits))
+            ;
+        if (log != null && log.isTraceEnabled())
+            log.trace(_loc.get("remote-coalesced", String.valueOf(commits),
+                String.valueOf(batch.size())));
+        try {
+            broadcast(batch.toEvent());
+        } catch (RuntimeException re) {
+            if (log != null && log.isWarnEnabled())
+                log.warn(_loc.get("remote-coalesce-error"), re);
+        }
+    }
+
     /**
      * Fire a remote commit event via the cached event manager.
      */
@@ -71,4 +259,91 @@ public abstract class AbstractRemoteCommitProvider
             for (int i = 0; i < es.length; i++)
                 log.trace(es[i]);
     }
+
+    /**
+     * Changes of several committed events merged together.
+     */
+    private static class Batch {
+
+        private final int payload;
+        private int commits = 0;
+        private Collection addIds;
+        private final Collection addClasses = new LinkedHashSet();
+        private final Collection updates;
+        private final Collection deletes;
+        private Map<Object, UpdatePatch> patches;
+        private int patchValues = 0;
+
+        private Batch(int payload) {
+            this.payload = payload;
+            if (payload == RemoteCommitEvent.PAYLOAD_OIDS_WITH_ADDS)
+                addIds = new ArrayList();
+            // class names repeat across commits; ids rarely do
+            if (payload == RemoteCommitEvent.PAYLOAD_EXTENTS) {
+                updates = new LinkedHashSet();
+                deletes = new LinkedHashSet();
+            } else {
+                updates = new ArrayList();
+                deletes = new ArrayList();
+            }
+        }
+
+        private void add(RemoteCommitEvent event, int patchSize) {
+            commits++;
+            addClasses.addAll(event.getPersistedTypeNames());
+            if (payload == RemoteCommitEvent.PAYLOAD_EXTENTS) {
+                updates.addAll(event.getUpdatedTypeNames());
+                deletes.addAll(event.getDeletedTypeNames());
+            } else {
+                if (addIds != null)
+                    addIds.addAll(event.getPersistedObjectIds());
+                updates.addAll(event.getUpdatedObjectIds());
+                deletes.addAll(event.getDeletedObjectIds());
+                addPatches(event, patchSize);
+            }
+        }
+
+        /**
+         * Merge the patches of the given event with the patches of earlier
+         * commits of the same instances, dropping the patches that do not
+         * fit and those of instances updated without a patch.
+         */
+        private void addPatches(RemoteCommitEvent event, int patchSize) {
+            Map<Object, UpdatePatch> add = event.getUpdatePatches();
+            if (patches == null) {
+                if (add.isEmpty())
+                    return;
+                patches = new LinkedHashMap<>();
+            }
+
+            UpdatePatch prev;
+            UpdatePatch patch;
+            for (Object oid : event.getUpdatedObjectIds()) {
+                prev = patches.remove(oid);
+                if (prev != null)
+                    patchValues -= prev.size();
+                patch = add.get(oid);
+                if (patch == null)
+                    continue;
+                if (prev != null)
+                    patch = prev.merge(patch);
+                if (patchValues + patch.size() <= patchSize) {
+                    patches.put(oid, patch);
+                    patchValues += patch.size();
+                }
+            }
+        }
+
+        private int size() {
+            return addClasses.size() + updates.size() + deletes.size()
+                + ((addIds == null) ? 0 : addIds.size());
+        }
+
+        private RemoteCommitEvent toEvent() {
+            return new RemoteCommitEvent(payload, addIds,
+                (addClasses.isEmpty()) ? null : addClasses,
+                (updates.isEmpty()) ? null : updates,
+                (deletes.isEmpty()) ? null : deletes, patches);
+        }
+    }
 }
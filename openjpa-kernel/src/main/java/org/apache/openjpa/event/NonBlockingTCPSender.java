@@ -0,0 +1,347 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.event;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.openjpa.lib.log.Log;
+import org.apache.openjpa.lib.util.Localizer;
+
+/**
+ * Transmits packets to the peers of a {@link TCPRemoteCommitProvider} from
+ * a single selector thread using non-blocking socket channels.
+ * Every peer has its own bounded queue of outbound packets. Queued packets
+ * are written with gathering writes, so bursts of small packets leave in as
+ * few system calls as possible. When a peer does not drain its queue fast
+ * enough, further packets for that peer are dropped rather than delaying
+ * the commit thread or the other peers; a peer that fails is skipped for
+ * the configured recovery time before a new connection is attempted.
+ * The bytes on the wire are identical to those of the blocking transport.
+ *
+ * @since 3.1.3
+ */
+class NonBlockingTCPSender
+    implements Runnable {
+
+    private static final Localizer s_loc = Localizer.forPackage
+        (NonBlockingTCPSender.class);
+
+    // maximum number of queued packets written with one gathering write
+    private static final int MAX_GATHER = 64;
+
+    private final Log _log;
+    private final Selector _selector;
+    private final ConcurrentLinkedQueue<Peer> _ready =
+        new ConcurrentLinkedQueue<>();
+    private final Thread _thread;
+    private volatile boolean _running = true;
+
+    NonBlockingTCPSender(Log log)
+        throws IOException {
+        _log = log;
+        _selector = Selector.open();
+        _thread = new Thread(this, "OpenJPA-TCPRemoteCommitSender");
+        _thread.setDaemon(true);
+        _thread.start();
+    }
+
+    /**
+     * Create the outbound channel state for a peer.
+     *
+     * @param capacity maximum number of packets queued for the peer
+     * @param recoveryMillis time to skip the peer after a failure
+     */
+    Peer newPeer(InetAddress address, int port, int capacity,
+        int recoveryMillis) {
+        return new Peer(new InetSocketAddress(address, port), capacity,
+            recoveryMillis);
+    }
+
+    /**
+     * Stop the selector thread and close all channels. Packets still
+     * queued are discarded.
+     */
+    void close() {
+        _running = false;
+        _selector.wakeup();
+        try {
+            _thread.join(5000);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeup(Peer peer) {
+        if (peer._scheduled.compareAndSet(false, true)) {
+            _ready.add(peer);
+            _selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (_running) {
+            try {
+                _selector.select();
+                Peer peer;
+                while ((peer = _ready.poll()) != null) {
+                    peer._scheduled.set(false);
+                    peer.prepare();
+                }
+                Iterator<SelectionKey> itr = _selector.selectedKeys()
+                    .iterator();
+                while (itr.hasNext()) {
+                    SelectionKey key = itr.next();
+                    itr.remove();
+                    peer = (Peer) key.attachment();
+                    try {
+                        if (key.isConnectable())
+                            peer.finishConnect();
+                        else if (key.isWritable())
+                            peer.write();
+                    } catch (CancelledKeyException cke) {
+                        // closed concurrently
+                    }
+                }
+            } catch (Throwable t) {
+                if (_log.isWarnEnabled())
+                    _log.warn(s_loc.get("tcp-nio-select-error"), t);
+            }
+        }
+
+        for (SelectionKey key : _selector.keys())
+            ((Peer) key.attachment()).disconnect();
+        try {
+            _selector.close();
+        } catch (IOException ioe) {
+            if (_log.isWarnEnabled())
+                _log.warn(s_loc.get("tcp-close-error"), ioe);
+        }
+    }
+
+    /**
+     * Outbound state of a single peer. Queue operations may be invoked from
+     * any thread; the channel is only touched by the selector thread.
+     */
+    class Peer {
+
+        private final InetSocketAddress _address;
+        private final int _capacity;
+        private final int _recoveryMillis;
+        private final ArrayDeque<ByteBuffer> _queue = new ArrayDeque<>();
+        private final AtomicBoolean _scheduled = new AtomicBoolean();
+        private final AtomicLong _dropped = new AtomicLong();
+        private volatile boolean _closed = false;
+        private volatile long _timeLastError = 0;
+        private boolean _overflowLogged = false;
+
+        // selector thread only
+        private SocketChannel _channel;
+        private SelectionKey _key;
+
+        private Peer(InetSocketAddress address, int capacity,
+            int recoveryMillis) {
+            _address = address;
+            _capacity = capacity;
+            _recoveryMillis = recoveryMillis;
+        }
+
+        /**
+         * Queue a packet for transmission without blocking.
+         *
+         * @return false if the packet was dropped because the peer's queue
+         * is full or the peer is recovering from a failure
+         */
+        boolean offer(byte[] bytes) {
+            if (_closed)
+                return false;
+            if (_timeLastError != 0) {
+                if (System.currentTimeMillis() - _timeLastError
+                    < _recoveryMillis) {
+                    _dropped.incrementAndGet();
+                    return false;
+                }
+                _timeLastError = 0;
+            }
+            synchronized (this) {
+                if (_queue.size() >= _capacity) {
+                    _dropped.incrementAndGet();
+                    if (!_overflowLogged && _log.isWarnEnabled()) {
+                        _log.warn(s_loc.get("tcp-nio-queue-full",
+                            _address.toString(), String.valueOf(_capacity)));
+                        _overflowLogged = true;
+                    }
+                    return false;
+                }
+                _queue.addLast(ByteBuffer.wrap(bytes));
+            }
+            wakeup(this);
+            return true;
+        }
+
+        /**
+         * Number of packets dropped for this peer.
+         */
+        long getDroppedCount() {
+            return _dropped.get();
+        }
+
+        /**
+         * Number of packets waiting to be written to this peer.
+         */
+        synchronized int getQueuedCount() {
+            return _queue.size();
+        }
+
+        /**
+         * Close the channel to this peer. Queued packets are discarded.
+         */
+        void close() {
+            _closed = true;
+            wakeup(this);
+        }
+
+        /**
+         * Connect or register interest in writing, as needed.
+         */
+        private void prepare() {
+            if (_closed) {
+                disconnect();
+                return;
+            }
+            try {
+                if (_channel == null) {
+                    _channel = SocketChannel.open();
+                    _channel.configureBlocking(false);
+                    _channel.setOption(StandardSocketOptions.TCP_NODELAY,
+                        Boolean.TRUE);
+                    if (_channel.connect(_address)) {
+                        _key = _channel.register(_selector,
+                            SelectionKey.OP_WRITE, this);
+                        opened();
+                    } else
+                        _key = _channel.register(_selector,
+                            SelectionKey.OP_CONNECT, this);
+                } else if (_channel.isConnected())
+                    _key.interestOps(SelectionKey.OP_WRITE);
+            } catch (IOException ioe) {
+                failed(ioe);
+            }
+        }
+
+        private void finishConnect() {
+            try {
+                if (_channel.finishConnect()) {
+                    _key.interestOps(SelectionKey.OP_WRITE);
+                    opened();
+                }
+            } catch (IOException ioe) {
+                failed(ioe);
+            }
+        }
+
+        private void opened() {
+            if (_log.isTraceEnabled())
+                _log.trace(s_loc.get("tcp-open-connection", _address,
+                    String.valueOf(_channel.socket().getLocalPort())));
+        }
+
+        /**
+         * Write as many queued packets as the channel accepts.
+         */
+        private void write() {
+            ByteBuffer[] bufs;
+            synchronized (this) {
+                bufs = new ByteBuffer[Math.min(_queue.size(), MAX_GATHER)];
+                Iterator<ByteBuffer> itr = _queue.iterator();
+                for (int i = 0; i < bufs.length; i++)
+                    bufs[i] = itr.next();
+            }
+            if (bufs.length == 0) {
+                _key.interestOps(0);
+                return;
+            }
+
+            try {
+                _channel.write(bufs);
+            } catch (IOException ioe) {
+                failed(ioe);
+                return;
+            }
+
+            int sent = 0;
+            while (sent < bufs.length && !bufs[sent].hasRemaining())
+                sent++;
+            synchronized (this) {
+                for (int i = 0; i < sent; i++)
+                    _queue.pollFirst();
+                // warn again on the next overflow only once the queue has
+                // drained well below capacity, so that a queue hovering at
+                // capacity does not log on every other packet
+                if (_queue.size() <= _capacity / 2)
+                    _overflowLogged = false;
+                if (_queue.isEmpty())
+                    _key.interestOps(0);
+            }
+            if (sent > 0 && _log.isTraceEnabled())
+                _log.trace(s_loc.get("tcp-nio-sent", _address,
+                    String.valueOf(sent)));
+        }
+
+        private void failed(IOException ioe) {
+            if (_timeLastError == 0 && _log.isWarnEnabled())
+                _log.warn(s_loc.get("tcp-send-error", _address), ioe);
+            _timeLastError = System.currentTimeMillis();
+            disconnect();
+        }
+
+        private void disconnect() {
+            synchronized (this) {
+                _queue.clear();
+                _overflowLogged = false;
+            }
+            if (_key != null)
+                _key.cancel();
+            if (_channel != null) {
+                try {
+                    _channel.close();
+                } catch (IOException ioe) {
+                    if (_log.isTraceEnabled())
+                        _log.trace(s_loc.get("tcp-close-sending-socket",
+                            _address, ""), ioe);
+                }
+            }
+            _key = null;
+            _channel = null;
+        }
+    }
+}
@@ -22,8 +22,10 @@ import java.io.Externalizable;
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.OptionalDataException;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 
 import org.apache.openjpa.kernel.BrokerFactory;
 import org.apache.openjpa.lib.util.Localizer;
@@ -73,6 +75,7 @@ public class RemoteCommitEvent
     private Collection _addClasses = null;
     private Collection _updates = null;
     private Collection _deletes = null;
+    private Map<Object, UpdatePatch> _patches = null;
 
     /**
      * Constructor used during externalization.
@@ -102,6 +105,25 @@ public class RemoteCommitEvent
             _deletes = Collections.unmodifiableCollection(deletes);
     }
 
+    /**
+     * Constructor. All collections will be proxied with unmodifiable views.
+     *
+     * @param payloadType PAYLOAD constant for type of data in this event
+     * @param addIds set of object IDs for added instances, or null
+     * @param addClasses set of class names for added instances
+     * @param updates set of class names or object IDs for updated instances
+     * @param deletes set of class names or object IDs for deleted instances
+     * @param patches patches of updated instances keyed on object ID, or null
+     * @since 3.1.3
+     */
+    public RemoteCommitEvent(int payloadType, Collection addIds,
+        Collection addClasses, Collection updates, Collection deletes,
+        Map<Object, UpdatePatch> patches) {
+        this(payloadType, addIds, addClasses, updates, deletes);
+        if (patches != null && !patches.isEmpty())
+            _patches = Collections.unmodifiableMap(patches);
+    }
+
     /**
      * The event PAYLOAD constant.
      */
@@ -145,6 +167,19 @@ public class RemoteCommitEvent
         return (_deletes == null) ? Collections.EMPTY_LIST : _deletes;
     }
 
+    /**
+     * When the event type is not PAYLOAD_EXTENTS, return the patches of
+     * updated instances, keyed on object ID. Instances without a patch must
+     * be evicted from caches.
+     *
+     * @since 3.1.3
+     */
+    public Map<Object, UpdatePatch> getUpdatePatches() {
+        if (_payload == PAYLOAD_EXTENTS)
+            throw new UserException(s_loc.get("extent-only-event"));
+        return (_patches == null) ? Collections.emptyMap() : _patches;
+    }
+
     /**
      * For all event types, return the set of class names for
      * the classes of inserted objects.
@@ -182,6 +217,8 @@ public class RemoteCommitEvent
             out.writeObject(_addIds);
         out.writeObject(_updates);
         out.writeObject(_deletes);
+        if (_patches != null)
+            out.writeObject(_patches);
     }
 
     @Override
@@ -194,6 +231,10 @@ public class RemoteCommitEvent
                 _addIds = (Collection) in.readObject();
             _updates = (Collection) in.readObject();
             _deletes = (Collection) in.readObject();
+            // patches are only written when present
+            _patches = (Map<Object, UpdatePatch>) in.readObject();
+        } catch (OptionalDataException ode) {
+            // end of event data
         } catch (ClassNotFoundException cnfe) {
             // ### do something
 		}
@@ -0,0 +1,652 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.event;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AccessController;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.openjpa.lib.util.J2DoPrivHelper;
+import org.apache.openjpa.lib.util.MultiClassLoader;
+import org.apache.openjpa.util.BigDecimalId;
+import org.apache.openjpa.util.BigIntegerId;
+import org.apache.openjpa.util.BlacklistClassResolver;
+import org.apache.openjpa.util.BooleanId;
+import org.apache.openjpa.util.ByteId;
+import org.apache.openjpa.util.CharId;
+import org.apache.openjpa.util.DateId;
+import org.apache.openjpa.util.DoubleId;
+import org.apache.openjpa.util.FloatId;
+import org.apache.openjpa.util.Id;
+import org.apache.openjpa.util.IntId;
+import org.apache.openjpa.util.LongId;
+import org.apache.openjpa.util.ObjectId;
+import org.apache.openjpa.util.OpenJPAId;
+import org.apache.openjpa.util.Serialization;
+import org.apache.openjpa.util.ShortId;
+import org.apache.openjpa.util.StringId;
+
+/**
+ * Compact binary encoding of {@link RemoteCommitEvent}s for transmission
+ * between remote commit providers. Class names and strings are written once
+ * per payload and referenced by index afterwards, integral values are
+ * variable-length encoded, and the built-in {@link OpenJPAId} types are
+ * written field by field rather than through Java serialization. Values of
+ * any other type fall back to Java serialization. Payloads larger than the
+ * given compression threshold are deflated.
+ *
+ * @since 3.1.3
+ */
+public final class RemoteCommitEventCodec {
+
+    /**
+     * Version of the encoding; written as the first byte of every payload.
+     */
+    public static final byte VERSION = 2;
+
+    /**
+     * Largest encoded or inflated payload accepted when decoding. Lengths
+     * above this can only come from a corrupt or hostile packet.
+     */
+    public static final int MAX_PAYLOAD_SIZE = 64 * 1024 * 1024;
+
+    private static final int FLAG_DEFLATED = 1;
+
+    private static final byte T_NULL = 0;
+    private static final byte T_STRING = 1;
+    private static final byte T_LONG = 2;
+    private static final byte T_INT = 3;
+    private static final byte T_SHORT = 4;
+    private static final byte T_BYTE = 5;
+    private static final byte T_CHAR = 6;
+    private static final byte T_BOOLEAN = 7;
+    private static final byte T_DOUBLE = 8;
+    private static final byte T_FLOAT = 9;
+    private static final byte T_BIG_DECIMAL = 10;
+    private static final byte T_BIG_INTEGER = 11;
+    private static final byte T_DATE = 12;
+    private static final byte T_SERIALIZED = 13;
+    private static final byte T_ID_DATASTORE = 20;
+    private static final byte T_ID_LONG = 21;
+    private static final byte T_ID_STRING = 22;
+    private static final byte T_ID_INT = 23;
+    private static final byte T_ID_SHORT = 24;
+    private static final byte T_ID_BYTE = 25;
+    private static final byte T_ID_CHAR = 26;
+    private static final byte T_ID_BOOLEAN = 27;
+    private static final byte T_ID_DOUBLE = 28;
+    private static final byte T_ID_FLOAT = 29;
+    private static final byte T_ID_DATE = 30;
+    private static final byte T_ID_BIG_DECIMAL = 31;
+    private static final byte T_ID_BIG_INTEGER = 32;
+    private static final byte T_ID_OBJECT = 33;
+
+    private RemoteCommitEventCodec() {
+    }
+
+    /**
+     * Encode the given event.
+     *
+     * @param event the event to encode
+     * @param compressionThreshold payloads whose encoded size exceeds
+     * this number of bytes are deflated; use -1 to never compress
+     */
+    public static byte[] encode(RemoteCommitEvent event,
+        int compressionThreshold)
+        throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        Encoder enc = new Encoder(new DataOutputStream(bytes));
+        int payload = event.getPayloadType();
+        enc.writeVarInt(payload);
+        enc.writeCollection(event.getPersistedTypeNames());
+        if (payload == RemoteCommitEvent.PAYLOAD_OIDS_WITH_ADDS)
+            enc.writeCollection(event.getPersistedObjectIds());
+        if (payload == RemoteCommitEvent.PAYLOAD_EXTENTS) {
+            enc.writeCollection(event.getUpdatedTypeNames());
+            enc.writeCollection(event.getDeletedTypeNames());
+        } else {
+            enc.writeCollection(event.getUpdatedObjectIds());
+            enc.writeCollection(event.getDeletedObjectIds());
+            enc.writePatches(event.getUpdatePatches());
+        }
+        enc.out.flush();
+
+        byte[] body = bytes.toByteArray();
+        boolean deflate = compressionThreshold >= 0
+            && body.length > compressionThreshold;
+        ByteArrayOutputStream res = new ByteArrayOutputStream(
+            (deflate ? body.length / 2 : body.length) + 8);
+        res.write(VERSION);
+        res.write(deflate ? FLAG_DEFLATED : 0);
+        if (!deflate) {
+            res.write(body);
+            return res.toByteArray();
+        }
+
+        DataOutputStream out = new DataOutputStream(res);
+        out.writeInt(body.length);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(body);
+            deflater.finish();
+            byte[] buf = new byte[Math.max(64, Math.min(body.length, 8192))];
+            while (!deflater.finished()) {
+                int len = deflater.deflate(buf);
+                out.write(buf, 0, len);
+            }
+        } finally {
+            deflater.end();
+        }
+        out.flush();
+        return res.toByteArray();
+    }
+
+    /**
+     * Decode an event previously encoded with {@link #encode}.
+     */
+    public static RemoteCommitEvent decode(byte[] data)
+        throws IOException {
+        if (data.length < 2 || data.length > MAX_PAYLOAD_SIZE)
+            throw new StreamCorruptedException("bad payload size "
+                + data.length);
+        if (data[0] != VERSION)
+            throw new StreamCorruptedException("unsupported encoding version "
+                + data[0]);
+
+        byte[] body;
+        int off;
+        if ((data[1] & FLAG_DEFLATED) == 0) {
+            body = data;
+            off = 2;
+        } else {
+            if (data.length < 6)
+                throw new StreamCorruptedException("payload too short");
+            int len = ((data[2] & 0xFF) << 24) | ((data[3] & 0xFF) << 16)
+                | ((data[4] & 0xFF) << 8) | (data[5] & 0xFF);
+            if (len < 0 || len > MAX_PAYLOAD_SIZE)
+                throw new StreamCorruptedException("bad inflated size " + len);
+            body = new byte[len];
+            off = 0;
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, 6, data.length - 6);
+                int read = 0;
+                while (read < len && !inflater.finished()) {
+                    int n = inflater.inflate(body, read, len - read);
+                    if (n == 0 && (inflater.needsInput()
+                        || inflater.needsDictionary()))
+                        break;
+                    read += n;
+                }
+                if (read != len)
+                    throw new StreamCorruptedException("truncated payload");
+            } catch (DataFormatException dfe) {
+                throw new StreamCorruptedException(dfe.getMessage());
+            } finally {
+                inflater.end();
+            }
+        }
+
+        Decoder dec = new Decoder(new DataInputStream(
+            new ByteArrayInputStream(body, off, body.length - off)));
+        int payload = dec.readVarInt();
+        Collection addClasses = dec.readCollection();
+        Collection addIds = null;
+        if (payload == RemoteCommitEvent.PAYLOAD_OIDS_WITH_ADDS)
+            addIds = dec.readCollection();
+        Collection updates = dec.readCollection();
+        Collection deletes = dec.readCollection();
+        Map<Object, UpdatePatch> patches = null;
+        if (payload != RemoteCommitEvent.PAYLOAD_EXTENTS)
+            patches = dec.readPatches();
+        return new RemoteCommitEvent(payload, addIds, addClasses, updates,
+            deletes, patches);
+    }
+
+    /**
+     * Writes values, sharing repeated strings through an index table.
+     */
+    private static class Encoder {
+
+        private final DataOutputStream out;
+        private final Map<String, Integer> _strings = new HashMap<>();
+
+        private Encoder(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void writeVarInt(int v)
+            throws IOException {
+            while ((v & ~0x7F) != 0) {
+                out.writeByte((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out.writeByte(v);
+        }
+
+        private void writeVarLong(long v)
+            throws IOException {
+            // zig-zag so that small negative values stay short
+            v = (v << 1) ^ (v >> 63);
+            while ((v & ~0x7FL) != 0) {
+                out.writeByte((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.writeByte((int) v);
+        }
+
+        /**
+         * Write a string as a back-reference if it was seen before, or
+         * as a new table entry otherwise.
+         */
+        private void writeString(String str)
+            throws IOException {
+            Integer idx = _strings.get(str);
+            if (idx != null) {
+                writeVarInt(idx + 1);
+                return;
+            }
+            _strings.put(str, _strings.size());
+            writeVarInt(0);
+            byte[] utf = str.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(utf.length);
+            out.write(utf);
+        }
+
+        private void writeCollection(Collection c)
+            throws IOException {
+            if (c == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(c.size() + 1);
+            for (Iterator itr = c.iterator(); itr.hasNext();)
+                writeValue(itr.next());
+        }
+
+        /**
+         * Write the given patches, preceded by their number.
+         */
+        private void writePatches(Map<Object, UpdatePatch> patches)
+            throws IOException {
+            writeVarInt(patches.size());
+            int[] fields;
+            Object[] values;
+            for (Map.Entry<Object, UpdatePatch> entry : patches.entrySet()) {
+                writeValue(entry.getKey());
+                writeValue(entry.getValue().getPreviousVersion());
+                writeValue(entry.getValue().getVersion());
+                fields = entry.getValue().getFields();
+                values = entry.getValue().getValues();
+                writeVarInt(fields.length);
+                for (int i = 0; i < fields.length; i++) {
+                    writeVarInt(fields[i]);
+                    writeValue(values[i]);
+                }
+            }
+        }
+
+        private void writeId(byte tag, OpenJPAId id)
+            throws IOException {
+            out.writeByte(tag);
+            writeString(id.getType().getName());
+            out.writeBoolean(id.hasSubclasses());
+        }
+
+        private void writeValue(Object o)
+            throws IOException {
+            if (o == null) {
+                out.writeByte(T_NULL);
+                return;
+            }
+
+            Class<?> cls = o.getClass();
+            if (cls == LongId.class) {
+                writeId(T_ID_LONG, (OpenJPAId) o);
+                writeVarLong(((LongId) o).getId());
+            } else if (cls == StringId.class) {
+                writeId(T_ID_STRING, (OpenJPAId) o);
+                writeString(((StringId) o).getId());
+            } else if (cls == Id.class) {
+                writeId(T_ID_DATASTORE, (OpenJPAId) o);
+                writeVarLong(((Id) o).getId());
+            } else if (cls == IntId.class) {
+                writeId(T_ID_INT, (OpenJPAId) o);
+                writeVarLong(((IntId) o).getId());
+            } else if (cls == ShortId.class) {
+                writeId(T_ID_SHORT, (OpenJPAId) o);
+                writeVarLong(((ShortId) o).getId());
+            } else if (cls == ByteId.class) {
+                writeId(T_ID_BYTE, (OpenJPAId) o);
+                out.writeByte(((ByteId) o).getId());
+            } else if (cls == CharId.class) {
+                writeId(T_ID_CHAR, (OpenJPAId) o);
+                out.writeChar(((CharId) o).getId());
+            } else if (cls == BooleanId.class) {
+                writeId(T_ID_BOOLEAN, (OpenJPAId) o);
+                out.writeBoolean(((BooleanId) o).getId());
+            } else if (cls == DoubleId.class) {
+                writeId(T_ID_DOUBLE, (OpenJPAId) o);
+                out.writeDouble(((DoubleId) o).getId());
+            } else if (cls == FloatId.class) {
+                writeId(T_ID_FLOAT, (OpenJPAId) o);
+                out.writeFloat(((FloatId) o).getId());
+            } else if (cls == DateId.class
+                && ((DateId) o).getId().getClass() == Date.class) {
+                writeId(T_ID_DATE, (OpenJPAId) o);
+                writeVarLong(((DateId) o).getId().getTime());
+            } else if (cls == BigDecimalId.class) {
+                writeId(T_ID_BIG_DECIMAL, (OpenJPAId) o);
+                writeString(((BigDecimalId) o).getId().toString());
+            } else if (cls == BigIntegerId.class) {
+                writeId(T_ID_BIG_INTEGER, (OpenJPAId) o);
+                writeString(((BigIntegerId) o).getId().toString());
+            } else if (cls == ObjectId.class) {
+                writeId(T_ID_OBJECT, (OpenJPAId) o);
+                writeValue(((ObjectId) o).getId());
+            } else if (cls == String.class) {
+                out.writeByte(T_STRING);
+                writeString((String) o);
+            } else if (cls == Long.class) {
+                out.writeByte(T_LONG);
+                writeVarLong((Long) o);
+            } else if (cls == Integer.class) {
+                out.writeByte(T_INT);
+                writeVarLong((Integer) o);
+            } else if (cls == Short.class) {
+                out.writeByte(T_SHORT);
+                writeVarLong((Short) o);
+            } else if (cls == Byte.class) {
+                out.writeByte(T_BYTE);
+                out.writeByte((Byte) o);
+            } else if (cls == Character.class) {
+                out.writeByte(T_CHAR);
+                out.writeChar((Character) o);
+            } else if (cls == Boolean.class) {
+                out.writeByte(T_BOOLEAN);
+                out.writeBoolean((Boolean) o);
+            } else if (cls == Double.class) {
+                out.writeByte(T_DOUBLE);
+                out.writeDouble((Double) o);
+            } else if (cls == Float.class) {
+                out.writeByte(T_FLOAT);
+                out.writeFloat((Float) o);
+            } else if (cls == BigDecimal.class) {
+                out.writeByte(T_BIG_DECIMAL);
+                writeString(o.toString());
+            } else if (cls == BigInteger.class) {
+                out.writeByte(T_BIG_INTEGER);
+                writeString(o.toString());
+            } else if (cls == Date.class) {
+                out.writeByte(T_DATE);
+                writeVarLong(((Date) o).getTime());
+            } else {
+                // application identity classes and anything else we do not
+                // know how to take apart
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                    oos.writeObject(o);
+                }
+                out.writeByte(T_SERIALIZED);
+                writeVarInt(bytes.size());
+                bytes.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Reads values written by {@link Encoder}.
+     */
+    private static class Decoder {
+
+        private final DataInputStream in;
+        private final List<String> _strings = new ArrayList<>();
+        private final Map<String, Class<?>> _types = new HashMap<>();
+        private MultiClassLoader _loader;
+
+        private Decoder(DataInputStream in) {
+            this.in = in;
+        }
+
+        private int readVarInt()
+            throws IOException {
+            int v = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = in.readUnsignedByte();
+                v |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return v;
+            }
+            throw new StreamCorruptedException("malformed varint");
+        }
+
+        private long readVarLong()
+            throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return (v >>> 1) ^ -(v & 1);
+            }
+            throw new StreamCorruptedException("malformed varlong");
+        }
+
+        /**
+         * Check a length or count read from the payload before allocating
+         * for it. Every unit needs at least one more byte of input, so a
+         * larger value can only come from a corrupt payload.
+         */
+        private int checkLength(int len)
+            throws IOException {
+            if (len < 0 || len > in.available())
+                throw new StreamCorruptedException("bad length " + len);
+            return len;
+        }
+
+        private String readString()
+            throws IOException {
+            int idx = readVarInt();
+            if (idx > 0) {
+                if (idx > _strings.size())
+                    throw new StreamCorruptedException("bad string reference");
+                return _strings.get(idx - 1);
+            }
+            byte[] utf = new byte[checkLength(readVarInt())];
+            in.readFully(utf);
+            String str = new String(utf, StandardCharsets.UTF_8);
+            _strings.add(str);
+            return str;
+        }
+
+        private Collection readCollection()
+            throws IOException {
+            int size = readVarInt();
+            if (size == 0)
+                return null;
+            List res = new ArrayList(checkLength(size - 1));
+            for (int i = 1; i < size; i++)
+                res.add(readValue());
+            return res;
+        }
+
+        /**
+         * Read the patches written by {@link Encoder#writePatches}, or
+         * return null if there are none.
+         */
+        private Map<Object, UpdatePatch> readPatches()
+            throws IOException {
+            int size = checkLength(readVarInt());
+            if (size == 0)
+                return null;
+            Map<Object, UpdatePatch> patches = new LinkedHashMap<>(
+                (int) (size * 1.34) + 1);
+            Object oid;
+            Object prevVersion;
+            Object version;
+            int[] fields;
+            Object[] values;
+            for (int i = 0; i < size; i++) {
+                oid = readValue();
+                prevVersion = readValue();
+                version = readValue();
+                fields = new int[checkLength(readVarInt())];
+                values = new Object[fields.length];
+                for (int j = 0; j < fields.length; j++) {
+                    fields[j] = readVarInt();
+                    values[j] = readValue();
+                }
+                patches.put(oid, new UpdatePatch(prevVersion, version, fields,
+                    values));
+            }
+            return patches;
+        }
+
+        /**
+         * Resolve a class the same way the Java serialization path does.
+         */
+        private Class<?> readType()
+            throws IOException {
+            String name = readString();
+            Class<?> cls = _types.get(name);
+            if (cls != null)
+                return cls;
+
+            if (_loader == null) {
+                _loader = AccessController.doPrivileged(
+                    J2DoPrivHelper.newMultiClassLoaderAction());
+                _loader.addClassLoader(AccessController.doPrivileged(
+                    J2DoPrivHelper.getContextClassLoaderAction()));
+                _loader.addClassLoader(getClass().getClassLoader());
+                _loader.addClassLoader(MultiClassLoader.SYSTEM_LOADER);
+            }
+            try {
+                cls = Class.forName(BlacklistClassResolver.DEFAULT.check(name),
+                    true, _loader);
+            } catch (ClassNotFoundException cnfe) {
+                throw new IOException(cnfe);
+            }
+            _types.put(name, cls);
+            return cls;
+        }
+
+        private Object readValue()
+            throws IOException {
+            byte tag = in.readByte();
+            Class<?> type = null;
+            boolean subs = true;
+            if (tag >= T_ID_DATASTORE) {
+                type = readType();
+                subs = in.readBoolean();
+            }
+
+            switch (tag) {
+                case T_NULL:
+                    return null;
+                case T_STRING:
+                    return readString();
+                case T_LONG:
+                    return readVarLong();
+                case T_INT:
+                    return (int) readVarLong();
+                case T_SHORT:
+                    return (short) readVarLong();
+                case T_BYTE:
+                    return in.readByte();
+                case T_CHAR:
+                    return in.readChar();
+                case T_BOOLEAN:
+                    return in.readBoolean();
+                case T_DOUBLE:
+                    return in.readDouble();
+                case T_FLOAT:
+                    return in.readFloat();
+                case T_BIG_DECIMAL:
+                    return new BigDecimal(readString());
+                case T_BIG_INTEGER:
+                    return new BigInteger(readString());
+                case T_DATE:
+                    return new Date(readVarLong());
+                case T_SERIALIZED:
+                    byte[] bytes = new byte[checkLength(readVarInt())];
+                    in.readFully(bytes);
+                    try (ObjectInputStream ois = new Serialization
+                        .ClassResolvingObjectInputStream(
+                        new ByteArrayInputStream(bytes))) {
+                        return ois.readObject();
+                    } catch (ClassNotFoundException cnfe) {
+                        throw new IOException(cnfe);
+                    }
+                case T_ID_DATASTORE:
+                    return new Id(type, readVarLong(), subs);
+                case T_ID_LONG:
+                    return new LongId(type, readVarLong(), subs);
+                case T_ID_STRING:
+                    return new StringId(type, readString(), subs);
+                case T_ID_INT:
+                    return new IntId(type, (int) readVarLong(), subs);
+                case T_ID_SHORT:
+                    return new ShortId(type, (short) readVarLong(), subs);
+                case T_ID_BYTE:
+                    return new ByteId(type, in.readByte(), subs);
+                case T_ID_CHAR:
+                    return new CharId(type, in.readChar(), subs);
+                case T_ID_BOOLEAN:
+                    return new BooleanId(type, in.readBoolean(), subs);
+                case T_ID_DOUBLE:
+                    return new DoubleId(type, in.readDouble(), subs);
+                case T_ID_FLOAT:
+                    return new FloatId(type, in.readFloat(), subs);
+                case T_ID_DATE:
+                    return new DateId(type, new Date(readVarLong()), subs);
+                case T_ID_BIG_DECIMAL:
+                    return new BigDecimalId(type, new BigDecimal(readString()),
+                        subs);
+                case T_ID_BIG_INTEGER:
+                    return new BigIntegerId(type, new BigInteger(readString()),
+                        subs);
+                case T_ID_OBJECT:
+                    return new ObjectId(type, readValue(), subs);
+                default:
+                    throw new StreamCorruptedException("unknown value tag "
+                        + tag);
+            }
+        }
+    }
+}
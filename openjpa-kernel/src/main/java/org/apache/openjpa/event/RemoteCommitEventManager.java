@@ -23,7 +23,9 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.kernel.Broker;
@@ -55,6 +57,7 @@ public class RemoteCommitEventManager
 
     private final RemoteCommitProvider _provider;
     private boolean _transmitPersIds = false;
+    private int _patchSize = 0;
 
     /**
      * Constructor. Supply configuration.
@@ -96,6 +99,29 @@ public class RemoteCommitEventManager
         _transmitPersIds = transmit;
     }
 
+    /**
+     * The maximum number of changed field values an event carries to let
+     * receiving caches patch updated instances in place rather than evict
+     * them. Updates past this limit, or that change fields that cannot be
+     * patched, are only transmitted as object ids. Defaults to 0, which
+     * transmits no patches.
+     *
+     * @since 3.1.3
+     */
+    public int getPatchSize() {
+        return _patchSize;
+    }
+
+    /**
+     * The maximum number of changed field values an event carries to let
+     * receiving caches patch updated instances in place.
+     *
+     * @since 3.1.3
+     */
+    public void setPatchSize(int patchSize) {
+        _patchSize = patchSize;
+    }
+
     /**
      * Adds an OpenJPA-internal listener to this RemoteCommitEventManager.
      * Listeners so registered will be fired before any that are registered
@@ -123,6 +149,8 @@ public class RemoteCommitEventManager
     @Override
     public void close() {
         if (_provider != null) {
+            if (_provider instanceof AbstractRemoteCommitProvider)
+                ((AbstractRemoteCommitProvider) _provider).flush();
             _provider.close();
             Collection listeners = getListeners();
             for (Iterator itr = listeners.iterator(); itr.hasNext();)
@@ -158,7 +186,11 @@ public class RemoteCommitEventManager
     public void afterCommit(TransactionEvent event) {
         if (_provider != null) {
             RemoteCommitEvent rce = createRemoteCommitEvent(event);
-            if (rce != null)
+            if (rce == null)
+                return;
+            if (_provider instanceof AbstractRemoteCommitProvider)
+                ((AbstractRemoteCommitProvider) _provider).publish(rce);
+            else
                 _provider.broadcast(rce);
         }
     }
@@ -173,6 +205,7 @@ public class RemoteCommitEventManager
         Collection addClassNames = null;
         Collection updates = null;
         Collection deletes = null;
+        Map<Object, UpdatePatch> patches = null;
 
         if (broker.isTrackChangesByType()) {
             payload = RemoteCommitEvent.PAYLOAD_EXTENTS;
@@ -192,6 +225,8 @@ public class RemoteCommitEventManager
             Object oid;
             Object obj;
             OpenJPAStateManager sm;
+            UpdatePatch patch;
+            int patchValues = 0;
             for (Iterator itr = trans.iterator(); itr.hasNext();) {
                 obj = itr.next();
                 sm = broker.getStateManager(obj);
@@ -219,13 +254,21 @@ public class RemoteCommitEventManager
                     if (updates == null)
                         updates = new ArrayList();
                     updates.add(oid);
+                    patch = UpdatePatch.newInstance(sm,
+                        _patchSize - patchValues);
+                    if (patch != null) {
+                        if (patches == null)
+                            patches = new LinkedHashMap<>();
+                        patches.put(oid, patch);
+                        patchValues += patch.size();
+                    }
                 }
             }
             if (addClassNames == null && updates == null && deletes == null)
                 return null;
         }
         return new RemoteCommitEvent(payload, persIds, addClassNames, updates,
-            deletes);
+            deletes, patches);
     }
 
     /**
@@ -26,6 +26,7 @@ import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.StreamCorruptedException;
 import java.net.InetAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
@@ -89,6 +90,11 @@ public class TCPRemoteCommitProvider
     private int _maxTotal = 2;
     private int _maxIdle = 2;
     private int _recoveryTimeMillis = 15000;
+    private boolean _compactEncoding = false;
+    private int _compressionThreshold = -1;
+    private boolean _nonBlocking = false;
+    private int _maxQueuedPackets = 1000;
+    private NonBlockingTCPSender _sender;
     private TCPPortListener _listener;
     private final BroadcastQueue _broadcastQueue = new BroadcastQueue();
     private final List<BroadcastWorkerThread> _broadcastThreads = Collections.synchronizedList(new LinkedList<>());
@@ -141,6 +147,86 @@ public class TCPRemoteCommitProvider
         return _recoveryTimeMillis;
     }
 
+    /**
+     * Whether to transmit events in the compact binary encoding of {@link RemoteCommitEventCodec} rather than
+     * through Java serialization. Peers always accept both encodings, but peers running an older release only
+     * understand Java serialization, so enable this once every node in the cluster has been upgraded.
+     * Defaults to <code>false</code>.
+     *
+     * @param compact whether to use the compact encoding
+     * @since 3.1.3
+     */
+    public void setCompactEncoding(final boolean compact) {
+        _compactEncoding = compact;
+    }
+
+    /**
+     * @return whether events are transmitted in the compact binary encoding.
+     * @since 3.1.3
+     */
+    public boolean getCompactEncoding() {
+        return _compactEncoding;
+    }
+
+    /**
+     * Set the size in bytes above which compactly encoded events are deflated before being sent, or -1 to never
+     * compress. Only used together with {@link #setCompactEncoding}. Defaults to <code>-1</code>.
+     *
+     * @param threshold the payload size in bytes above which to compress
+     * @since 3.1.3
+     */
+    public void setCompressionThreshold(final int threshold) {
+        _compressionThreshold = threshold;
+    }
+
+    /**
+     * @return the payload size in bytes above which compactly encoded events are deflated, or -1.
+     * @since 3.1.3
+     */
+    public int getCompressionThreshold() {
+        return _compressionThreshold;
+    }
+
+    /**
+     * Whether to transmit packets from a single selector thread over non-blocking channels, with a bounded queue
+     * of outbound packets per peer, rather than from the broadcast worker threads over pooled blocking sockets.
+     * A peer that cannot keep up then only causes its own packets to be dropped instead of delaying transmission
+     * to the rest of the cluster. Defaults to <code>false</code>.
+     *
+     * @param nonBlocking whether to use the non-blocking transport
+     * @since 3.1.3
+     */
+    public void setNonBlocking(final boolean nonBlocking) {
+        _nonBlocking = nonBlocking;
+    }
+
+    /**
+     * @return whether packets are transmitted over non-blocking channels.
+     * @since 3.1.3
+     */
+    public boolean getNonBlocking() {
+        return _nonBlocking;
+    }
+
+    /**
+     * Set the maximum number of packets that the non-blocking transport queues for a single peer. Packets for a
+     * peer whose queue is full are dropped. Defaults to 1000.
+     *
+     * @param maxQueuedPackets the maximum number of packets queued per peer
+     * @since 3.1.3
+     */
+    public void setMaxQueuedPackets(final int maxQueuedPackets) {
+        _maxQueuedPackets = maxQueuedPackets;
+    }
+
+    /**
+     * @return the maximum number of packets that the non-blocking transport queues for a single peer.
+     * @since 3.1.3
+     */
+    public int getMaxQueuedPackets() {
+        return _maxQueuedPackets;
+    }
+
     /**
      * Set the maximum number of sockets that this provider can simultaneously open to each peer in the cluster.
      *
@@ -291,6 +377,16 @@ public class TCPRemoteCommitProvider
     @Override
     public void endConfiguration() {
         super.endConfiguration();
+        if (_nonBlocking && _sender == null) {
+            try {
+                _sender = new NonBlockingTCPSender(log);
+            } catch (IOException ioe) {
+                throw new GeneralException(s_loc.get("tcp-nio-init-exception"), ioe).setFatal(true);
+            }
+            // packets are queued per peer; no need to hand them off
+            setNumBroadcastThreads(0);
+        }
+
         synchronized (s_portListenerMap) {
             // see if a listener exists for this port.
             _listener = s_portListenerMap.get(String.valueOf(_port));
@@ -333,22 +429,37 @@ public class TCPRemoteCommitProvider
     // 3.4 			= 0x1428acff;
     private static final long PROTOCOL_VERSION = 0x1428acff;
 
+    // Same envelope, but the sender address and event are written as
+    // length-prefixed raw bytes, the event in RemoteCommitEventCodec form.
+    private static final long PROTOCOL_VERSION_COMPACT = 0x1428ad01;
+
     @Override
     public void broadcast(final RemoteCommitEvent event) {
         // build a packet notifying other JVMs of object changes.
         try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 ObjectOutputStream oos = new ObjectOutputStream(baos);) {
 
-            oos.writeLong(PROTOCOL_VERSION);
-            oos.writeLong(_id);
-            oos.writeInt(_port);
-            oos.writeObject(_localhost);
-            oos.writeObject(event);
+            if (_compactEncoding) {
+                byte[] payload = RemoteCommitEventCodec.encode(event, _compressionThreshold);
+                oos.writeLong(PROTOCOL_VERSION_COMPACT);
+                oos.writeLong(_id);
+                oos.writeInt(_port);
+                oos.writeInt(_localhost.length);
+                oos.write(_localhost);
+                oos.writeInt(payload.length);
+                oos.write(payload);
+            } else {
+                oos.writeLong(PROTOCOL_VERSION);
+                oos.writeLong(_id);
+                oos.writeInt(_port);
+                oos.writeObject(_localhost);
+                oos.writeObject(event);
+            }
             oos.flush();
 
             byte[] bytes = baos.toByteArray();
             baos.close();
-            if (_broadcastThreads.isEmpty()) {
+            if (_broadcastThreads.isEmpty() || _sender != null) {
                 sendUpdatePacket(bytes);
             } else {
                 _broadcastQueue.addPacket(bytes);
@@ -397,6 +508,10 @@ public class TCPRemoteCommitProvider
         } finally {
             _addressesLock.unlock();
         }
+
+        if (_sender != null) {
+            _sender.close();
+        }
     }
 
     /**
@@ -712,7 +827,7 @@ public class TCPRemoteCommitProvider
                 ObjectInputStream ois = new Serialization.ClassResolvingObjectInputStream(in);
 
                 long protocolVersion = ois.readLong();
-                if (protocolVersion != PROTOCOL_VERSION) {
+                if (protocolVersion != PROTOCOL_VERSION && protocolVersion != PROTOCOL_VERSION_COMPACT) {
                     if (_log.isWarnEnabled()) {
                         _log.warn(s_loc.get("tcp-wrong-version-error",
                             _s.getInetAddress().getHostAddress() + ":" + _s.getPort()));
@@ -722,8 +837,26 @@ public class TCPRemoteCommitProvider
 
                 long senderId = ois.readLong();
                 int senderPort = ois.readInt();
-                byte[] senderAddress = (byte[]) ois.readObject();
-                RemoteCommitEvent rce = (RemoteCommitEvent) ois.readObject();
+                byte[] senderAddress;
+                RemoteCommitEvent rce;
+                if (protocolVersion == PROTOCOL_VERSION_COMPACT) {
+                    // check lengths before allocating so that a malformed
+                    // packet cannot exhaust the heap
+                    int len = ois.readInt();
+                    if (len < 0 || len > 16)
+                        throw new StreamCorruptedException("bad address length " + len);
+                    senderAddress = new byte[len];
+                    ois.readFully(senderAddress);
+                    len = ois.readInt();
+                    if (len < 0 || len > RemoteCommitEventCodec.MAX_PAYLOAD_SIZE)
+                        throw new StreamCorruptedException("bad payload length " + len);
+                    byte[] payload = new byte[len];
+                    ois.readFully(payload);
+                    rce = RemoteCommitEventCodec.decode(payload);
+                } else {
+                    senderAddress = (byte[]) ois.readObject();
+                    rce = (RemoteCommitEvent) ois.readObject();
+                }
                 if (_log.isTraceEnabled()) {
                     _log.trace(s_loc.get("tcp-received-event",
                         _s.getInetAddress().getHostAddress() + ":"
@@ -755,6 +888,7 @@ public class TCPRemoteCommitProvider
         protected int _infosIssued = 0; // limit log entries
 
         protected final GenericObjectPool<Socket> _socketPool; // reusable open sockets
+        private NonBlockingTCPSender.Peer _peer; // outbound queue when using the non-blocking transport
 
         /**
          * Construct a new host address from a string of the form "host:port" or of the form "host".
@@ -800,6 +934,12 @@ public class TCPRemoteCommitProvider
         }
 
         public void close() {
+            synchronized (this) {
+                if (_peer != null) {
+                    _peer.close();
+                }
+            }
+
             // Close the pool of sockets to this peer. This
             // will close all sockets in the pool.
             try {
@@ -812,6 +952,16 @@ public class TCPRemoteCommitProvider
         }
 
         protected void sendUpdatePacket(byte[] bytes) {
+            if (_sender != null) {
+                synchronized (this) {
+                    if (_peer == null) {
+                        _peer = _sender.newPeer(_address, _port, _maxQueuedPackets, _recoveryTimeMillis);
+                    }
+                }
+                _peer.offer(bytes);
+                return;
+            }
+
             if (!_isAvailable) {
                 long now = System.currentTimeMillis();
                 if (now - _timeLastError < _recoveryTimeMillis) {
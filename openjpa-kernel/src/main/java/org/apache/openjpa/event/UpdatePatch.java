@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.event;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.kernel.StateManagerImpl;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.meta.FieldMetaData;
+import org.apache.openjpa.meta.JavaTypes;
+
+/**
+ * The changes a committed update made to an instance: the version it was
+ * updated from and to, and the new values of the changed fields. Remote
+ * commit events carry patches for small updates so that receiving caches
+ * holding the previous version can apply the changes instead of evicting
+ * the instance.
+ *
+ * Only updates that change fields of immutable simple types are patched.
+ *
+ * @since 3.1.3
+ */
+public class UpdatePatch
+    implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object _prevVersion;
+    private final Object _version;
+    private final int[] _fields;
+    private final Object[] _values;
+
+    /**
+     * Constructor.
+     *
+     * @param prevVersion the version the instance was updated from
+     * @param version the version the instance was updated to
+     * @param fields the indexes of the changed fields
+     * @param values the new values of the changed fields
+     */
+    public UpdatePatch(Object prevVersion, Object version, int[] fields,
+        Object[] values) {
+        _prevVersion = prevVersion;
+        _version = version;
+        _fields = fields;
+        _values = values;
+    }
+
+    /**
+     * Create the patch for the committed update of the given instance, or
+     * return null if the update cannot be patched with at most
+     * <code>maxValues</code> field values.
+     */
+    public static UpdatePatch newInstance(OpenJPAStateManager sm,
+        int maxValues) {
+        if (maxValues <= 0 || sm.isEmbedded()
+            || !(sm instanceof StateManagerImpl))
+            return null;
+        Object prevVersion = ((StateManagerImpl) sm).getLoadVersion();
+        Object version = sm.getVersion();
+        if (prevVersion == null || version == null
+            || prevVersion.equals(version))
+            return null;
+
+        ClassMetaData meta = sm.getMetaData();
+        BitSet changed = (BitSet) sm.getDirty().clone();
+        FieldMetaData vfield = meta.getVersionField();
+        if (vfield != null)
+            changed.set(vfield.getIndex());
+        if (changed.cardinality() > maxValues)
+            return null;
+
+        int[] fields = new int[changed.cardinality()];
+        Object[] values = new Object[fields.length];
+        int idx = 0;
+        for (int i = changed.nextSetBit(0); i >= 0;
+            i = changed.nextSetBit(i + 1)) {
+            if (!isPatchable(meta.getField(i)))
+                return null;
+            fields[idx] = i;
+            values[idx++] = sm.fetchField(i, false);
+        }
+        return new UpdatePatch(prevVersion, version, fields, values);
+    }
+
+    /**
+     * Whether the cached value of the given field is its field value, so
+     * that it can be carried by a patch.
+     */
+    private static boolean isPatchable(FieldMetaData fmd) {
+        if (fmd == null || fmd.getManagement() != FieldMetaData.MANAGE_PERSISTENT
+            || fmd.isExternalized() || fmd.isLRS() || fmd.isStream()
+            || fmd.isUsedInOrderBy())
+            return false;
+        switch (fmd.getDeclaredTypeCode()) {
+            case JavaTypes.BOOLEAN:
+            case JavaTypes.BYTE:
+            case JavaTypes.CHAR:
+            case JavaTypes.DOUBLE:
+            case JavaTypes.FLOAT:
+            case JavaTypes.INT:
+            case JavaTypes.LONG:
+            case JavaTypes.SHORT:
+            case JavaTypes.STRING:
+            case JavaTypes.NUMBER:
+            case JavaTypes.BOOLEAN_OBJ:
+            case JavaTypes.BYTE_OBJ:
+            case JavaTypes.CHAR_OBJ:
+            case JavaTypes.DOUBLE_OBJ:
+            case JavaTypes.FLOAT_OBJ:
+            case JavaTypes.INT_OBJ:
+            case JavaTypes.LONG_OBJ:
+            case JavaTypes.SHORT_OBJ:
+            case JavaTypes.BIGDECIMAL:
+            case JavaTypes.BIGINTEGER:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The version the instance was updated from.
+     */
+    public Object getPreviousVersion() {
+        return _prevVersion;
+    }
+
+    /**
+     * The version the instance was updated to.
+     */
+    public Object getVersion() {
+        return _version;
+    }
+
+    /**
+     * The indexes of the changed fields.
+     */
+    public int[] getFields() {
+        return _fields;
+    }
+
+    /**
+     * The new values of the changed fields, in the order of
+     * {@link #getFields}.
+     */
+    public Object[] getValues() {
+        return _values;
+    }
+
+    /**
+     * The number of field values carried.
+     */
+    public int size() {
+        return _fields.length;
+    }
+
+    /**
+     * Whether the given cached version is this patch's version or a later
+     * one, meaning that the patch is stale.
+     */
+    public boolean isStale(Object version) {
+        if (version == null)
+            return false;
+        if (version.equals(_version))
+            return true;
+        if (version instanceof Comparable
+            && version.getClass() == _version.getClass())
+            return ((Comparable) version).compareTo(_version) > 0;
+        return false;
+    }
+
+    /**
+     * Return a patch combining this patch with the given patch of a later
+     * update, or the later patch if it does not follow this one directly.
+     */
+    public UpdatePatch merge(UpdatePatch next) {
+        if (!_version.equals(next._prevVersion))
+            return next;
+
+        BitSet changed = new BitSet();
+        for (int field : _fields)
+            changed.set(field);
+        for (int field : next._fields)
+            changed.set(field);
+        int[] fields = new int[changed.cardinality()];
+        Object[] values = new Object[fields.length];
+        int idx = 0;
+        for (int i = changed.nextSetBit(0); i >= 0;
+            i = changed.nextSetBit(i + 1)) {
+            fields[idx] = i;
+            values[idx++] = next.contains(i) ? next.getValue(i) : getValue(i);
+        }
+        return new UpdatePatch(_prevVersion, next._version, fields, values);
+    }
+
+    private boolean contains(int field) {
+        return Arrays.binarySearch(_fields, field) >= 0;
+    }
+
+    private Object getValue(int field) {
+        return _values[Arrays.binarySearch(_fields, field)];
+    }
+
+    @Override
+    public String toString() {
+        return _prevVersion + "->" + _version + Arrays.toString(_fields);
+    }
+}
@@ -19,12 +19,14 @@
 package org.apache.openjpa.instrumentation;
 
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.openjpa.datacache.CacheStatistics;
 import org.apache.openjpa.datacache.CacheStatisticsSPI;
 import org.apache.openjpa.datacache.DataCache;
 import org.apache.openjpa.datacache.DataCacheManager;
+import org.apache.openjpa.datacache.LatencyHistogram;
 import org.apache.openjpa.lib.instrumentation.AbstractInstrument;
 import org.apache.openjpa.lib.instrumentation.InstrumentationLevel;
 
@@ -239,6 +241,67 @@ public abstract class AbstractDataCacheInstrument extends AbstractInstrument imp
     public Map<String, long[]> getCacheStatistics() {
         return _dc.getStatistics().toMap();
     }
+
+    @Override
+    public long getLatencyPercentile(String className, String operation,
+        double percentile) {
+        LatencyHistogram hist = getLatency(className, operation);
+        if (hist != null)
+            return hist.getPercentile(percentile);
+        return NO_STATS;
+    }
+
+    @Override
+    public double getOperationRate(String className, String operation) {
+        LatencyHistogram hist = getLatency(className, operation);
+        if (hist != null)
+            return hist.getRate();
+        return NO_STATS;
+    }
+
+    @Override
+    public Map<String, long[]> getLatencyStatistics(String operation) {
+        Map<String, long[]> map = new HashMap<>();
+        CacheStatistics stats = getStatistics();
+        if (stats == null)
+            return map;
+        int op = toOperation(operation);
+        LatencyHistogram hist;
+        for (String c : stats.classNames()) {
+            hist = stats.getLatency(c, op);
+            if (hist != null && hist.getCount() > 0)
+                map.put(c, new long[] { hist.getCount(),
+                    hist.getPercentile(50), hist.getPercentile(99),
+                    hist.getMax() });
+        }
+        return map;
+    }
+
+    private LatencyHistogram getLatency(String className, String operation) {
+        CacheStatistics stats = getStatistics();
+        if (stats == null)
+            return null;
+        LatencyHistogram hist = stats.getLatency(className,
+            toOperation(operation));
+        return (hist == null || hist.getCount() == 0) ? null : hist;
+    }
+
+    /**
+     * Return the {@link CacheStatistics} constant of the given operation
+     * name.
+     */
+    private static int toOperation(String operation) {
+        if ("get".equalsIgnoreCase(operation))
+            return CacheStatistics.OP_GET;
+        if ("put".equalsIgnoreCase(operation))
+            return CacheStatistics.OP_PUT;
+        if ("evict".equalsIgnoreCase(operation))
+            return CacheStatistics.OP_EVICT;
+        if ("load".equalsIgnoreCase(operation))
+            return CacheStatistics.OP_LOAD;
+        throw new IllegalArgumentException(operation);
+    }
+
     @Override
     public void clear() {
         _dc.clear();
@@ -134,6 +134,37 @@ public interface DataCacheInstrument {
      */
     Map<String, long[]> getCacheStatistics();
 
+    /**
+     * Returns the latency in nanoseconds that the given percentage of the
+     * given operation on instances of the given class did not exceed, or -1
+     * if none were recorded.
+     *
+     * @param operation one of get, put, evict or load
+     * @since 3.1.3
+     */
+    long getLatencyPercentile(String className, String operation,
+        double percentile);
+
+    /**
+     * Returns the mean number of the given operation on instances of the
+     * given class per second over the last minute, or -1 if none were
+     * recorded.
+     *
+     * @param operation one of get, put, evict or load
+     * @since 3.1.3
+     */
+    double getOperationRate(String className, String operation);
+
+    /**
+     * Returns the latencies of the given operation in nanoseconds.
+     * The format for this map is:
+     *  Type(String) => Count(Long),50th percentile(Long),99th percentile(Long),Max(Long)
+     *
+     * @param operation one of get, put, evict or load
+     * @since 3.1.3
+     */
+    Map<String, long[]> getLatencyStatistics(String operation);
+
 
     /**
      * Clears all data from the DataCache.
@@ -21,6 +21,8 @@ package org.apache.openjpa.kernel;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 
 import javax.transaction.Synchronization;
 
@@ -695,6 +697,22 @@ public interface Broker
      */
     boolean cancelAll();
 
+    /**
+     * Run the given operation against this broker on the configured
+     * {@link org.apache.openjpa.conf.OpenJPAConfiguration#getAsyncExecutorInstance
+     * asynchronous executor}. Operations submitted to the same broker run one
+     * at a time in submission order, so the broker is never used by two
+     * asynchronous operations at once; the caller must likewise not use the
+     * broker until the returned stage completes, unless the broker is
+     * multithreaded. To run independent operations in parallel, submit them
+     * to separate brokers.
+     *
+     * @return a stage completed with the operation's result, or
+     * exceptionally with the exception it threw
+     * @since 3.1.3
+     */
+    <T> CompletionStage<T> submit(Callable<T> op);
+
     /**
      * Mark the given class as dirty within the current transaction.
      *
@@ -39,6 +39,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.transaction.Status;
@@ -171,6 +175,7 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
     private transient LockManager _lm = null;
     private transient InverseManager _im = null;
     private transient ReentrantLock _lock = null;
+    private transient CompletableFuture<Void> _asyncTail = null;
     private transient OpCallbacks _call = null;
     private transient RuntimeExceptionTranslator _extrans = null;
     private transient InstrumentationManager _instm = null;
@@ -202,6 +207,7 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
     private Set<Class<?>> _persistedClss = null;
     private Set<Class<?>> _updatedClss = null;
     private Set<Class<?>> _deletedClss = null;
+    private boolean _typesDirtied = false;
     private Set<StateManagerImpl> _pending = null;
     private int findAllDepth = 0;
 
@@ -1111,8 +1117,12 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
                 ? PCState.PCLEAN : PCState.PNONTRANS;
             sm.setLoading(true);
             try {
-                if (!_store.initialize(sm, state, fetch, edata))
+                if (!_store.initialize(sm, state, fetch, edata)) {
+                    // the store may have initialized the instance before
+                    // finding that it no longer exists
+                    sm.release(false, true);
                     return null;
+                }
             } finally {
                 sm.setLoading(false);
             }
@@ -1522,6 +1532,26 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
         }
     }
 
+    /**
+     * Return the new, dirty and deleted instances of the transaction, or
+     * null if they do not account for all of the given changed types.
+     */
+    private Collection<OpenJPAStateManager> getChangedStates(
+        Collection<Class<?>> types) {
+        if (_typesDirtied)
+            return null;
+        Collection<StateManagerImpl> states = getTransactionalStates();
+        List<OpenJPAStateManager> changed = new ArrayList<>(states.size());
+        Set<Class<?>> changedTypes = new HashSet<>();
+        for (StateManagerImpl sm : states) {
+            if (sm.isNew() || sm.isDirty() || sm.isDeleted()) {
+                changed.add(sm);
+                changedTypes.add(sm.getMetaData().getDescribedType());
+            }
+        }
+        return changedTypes.containsAll(types) ? changed : null;
+    }
+
     /**
      * End the current store manager transaction. Throws an
      * exception to signal a forced rollback after failed commit, otherwise
@@ -1550,7 +1580,8 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
                             types.addAll(pers);
                             types.addAll(del);
                             types.addAll(up);
-                            queryCache.onTypesChanged(new TypesChangedEvent(this, types));
+                            queryCache.onTypesChanged(new TypesChangedEvent(this, types,
+                                getChangedStates(types)));
                         }
                     }
                     _store.commit();
@@ -2519,6 +2550,7 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
             _updatedClss = null;
         if (_deletedClss != null)
             _deletedClss = null;
+        _typesDirtied = false;
 
         // new cache would get cleared anyway during transitions, but doing so
         // immediately saves us some lookups
@@ -4137,6 +4169,49 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
         }
     }
 
+    @Override
+    public <T> CompletionStage<T> submit(final Callable<T> op) {
+        assertOpen();
+        final Executor executor = _conf.getAsyncExecutorInstance();
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        final Runnable task = () -> {
+            try {
+                result.complete(op.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                // only let the next operation start once this one and any
+                // dependent stages run by its completion are finished
+                done.complete(null);
+            }
+        };
+
+        // chain on the previous operation so that the broker stays confined
+        // to one asynchronous thread at a time
+        CompletableFuture<Void> prev;
+        synchronized (this) {
+            prev = _asyncTail;
+            _asyncTail = done;
+        }
+        if (prev == null || prev.isDone())
+            executeAsync(executor, task, result, done);
+        else
+            prev.whenComplete((v, t) -> executeAsync(executor, task, result, done));
+        return result;
+    }
+
+    private static void executeAsync(Executor executor, Runnable task,
+        CompletableFuture<?> result, CompletableFuture<Void> done) {
+        try {
+            executor.execute(task);
+        } catch (RuntimeException re) {
+            // rejected, or the executor could not be started
+            result.completeExceptionally(re);
+            done.complete(null);
+        }
+    }
+
     @Override
     public Object getConnection() {
         assertOpen();
@@ -4492,6 +4567,7 @@ public class BrokerImpl implements Broker, FindCallbacks, Cloneable, Serializabl
             if (_updatedClss == null)
                 _updatedClss = new HashSet<>();
             _updatedClss.add(cls);
+            _typesDirtied = true;
         } finally {
             endOperation();
         }
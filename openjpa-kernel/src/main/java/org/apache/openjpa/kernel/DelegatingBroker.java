@@ -24,6 +24,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
 
 import org.apache.openjpa.conf.OpenJPAConfiguration;
 import org.apache.openjpa.ee.ManagedRuntime;
@@ -1493,6 +1495,15 @@ public class DelegatingBroker
         }
     }
 
+    @Override
+    public <T> CompletionStage<T> submit(Callable<T> op) {
+        try {
+            return _broker.submit(op);
+        } catch (RuntimeException re) {
+            throw translate(re);
+        }
+    }
+
     @Override
     public void dirtyType(Class cls) {
         try {
@@ -80,7 +80,9 @@ public class DetachedStateManager
         _embedded = sm.isEmbedded();
         _loaded = load;
         _access = access;
-        if (!sm.isFlushed())
+        // avoid creating the dirty fields of a clean managed instance
+        if (!sm.isFlushed() && (!(sm instanceof StateManagerImpl)
+            || ((StateManagerImpl) sm).hasDirtyFields()))
             _dirty = (BitSet) sm.getDirty().clone();
         else
             _dirty = new BitSet(_loaded.length());
@@ -825,11 +827,21 @@ public class DetachedStateManager
         return _loaded;
     }
 
+    @Override
+    public boolean isLoaded(int field) {
+        return _loaded.get(field);
+    }
+
     @Override
     public BitSet getDirty() {
         return _dirty;
     }
 
+    @Override
+    public boolean isDirty(int field) {
+        return _dirty.get(field);
+    }
+
     /**
      * Should DetachedStateField be used by Proxies to determine when to remove
      * $proxy wrappers during serialization.
@@ -122,11 +122,21 @@ public class DetachedValueStateManager
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public boolean isLoaded(int field) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public BitSet getDirty() {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public boolean isDirty(int field) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public BitSet getFlushed() {
         throw new UnsupportedOperationException();
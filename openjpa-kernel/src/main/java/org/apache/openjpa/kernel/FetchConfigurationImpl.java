@@ -1015,6 +1015,19 @@ public class FetchConfigurationImpl
         return clone;
     }
 
+    /**
+     * Return the number of relations traversed from the root configuration
+     * to reach this one.
+     *
+     * @since 3.1.3
+     */
+    public int getTraversalDepth() {
+        int depth = 0;
+        for (FetchConfigurationImpl f = _parent; f != null; f = f._parent)
+            depth++;
+        return depth;
+    }
+
     /**
      * Whether our configuration state includes the given field.
      */
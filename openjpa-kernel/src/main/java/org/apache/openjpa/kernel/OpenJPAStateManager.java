@@ -134,11 +134,27 @@ public interface OpenJPAStateManager
      */
     BitSet getLoaded();
 
+    /**
+     * Return whether the field with the given index is loaded. Unlike
+     * {@link #getLoaded}, this never creates a mask.
+     *
+     * @since 3.1.3
+     */
+    boolean isLoaded(int field);
+
     /**
      * Return a read-only mask of the indexes of all dirty fields.
      */
     BitSet getDirty();
 
+    /**
+     * Return whether the field with the given index is dirty. Unlike
+     * {@link #getDirty}, this never creates a mask.
+     *
+     * @since 3.1.3
+     */
+    boolean isDirty(int field);
+
     /**
      * Return a read-only mask of the indexes of all fields that have been
      * flushed since they were last changed.
@@ -160,7 +160,7 @@ public class PCDataImpl
             // fields in configured fetch groups
             if (!isLoaded(i))
                 loadIntermediate(sm, fmds[i]);
-            else if (!sm.getLoaded().get(i) && fetch.requiresFetch(fmds[i])
+            else if (!sm.isLoaded(i) && fetch.requiresFetch(fmds[i])
                 != FetchConfiguration.FETCH_NONE)
                 loadField(sm, fmds[i], fetch, context);
         }
@@ -246,7 +246,7 @@ public class PCDataImpl
     protected void loadIntermediate(OpenJPAStateManager sm, FieldMetaData fmd) {
         int index = fmd.getIndex();
         Object inter = getIntermediate(index);
-        if (inter != null && !sm.getLoaded().get(index))
+        if (inter != null && !sm.isLoaded(index))
             sm.setIntermediate(index, inter);
     }
 
@@ -257,7 +257,7 @@ public class PCDataImpl
 
         FieldMetaData[] fmds = sm.getMetaData().getFields();
         for (int i = 0; i < fmds.length; i++) {
-            if (sm.getLoaded().get(i)) {
+            if (sm.isLoaded(i)) {
                 storeField(sm, fmds[i]);
                 storeImplData(sm, fmds[i], isLoaded(i));
             } else if (!isLoaded(i))
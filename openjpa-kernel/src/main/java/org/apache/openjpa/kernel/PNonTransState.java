@@ -113,7 +113,7 @@ class PNonTransState extends PCState {
             }
         } else if (!mutate) {
             // state is stored for rollback and fields are reloaded
-            if (context.getDirty().length() > 0)
+            if (context.hasDirtyFields())
                 context.saveFields(true);
             context.clearFields();
             context.load(null, StateManagerImpl.LOAD_FGS, null, null, true);
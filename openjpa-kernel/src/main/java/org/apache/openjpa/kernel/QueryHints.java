@@ -108,4 +108,15 @@ public interface QueryHints {
      * if possible.
      */
     String HINT_USE_LITERAL_IN_SQL = "openjpa.hint.UseLiteralInSQL";
+
+    /**
+     * An integer directive to read the rows of the result on a separate
+     * thread, buffering up to the given number of rows ahead of the caller.
+     * Zero, the default, reads the rows on the calling thread. The rows are
+     * read on a connection of their own, so the directive is ignored while
+     * a data store transaction is active.
+     *
+     * @since 3.1.3
+     */
+    String HINT_PIPELINED_FETCH = "openjpa.hint.PipelinedFetch";
 }
@@ -110,6 +110,32 @@ public interface QueryStatistics<T> extends Serializable {
      */
     long getTotalEvictionCount();
 
+    /**
+     * Record that a lookup of the given query found no cached entry.
+     *
+     * @since 3.1.3
+     */
+    default void recordMiss(T query) {
+    }
+
+    /**
+     * Gets number of lookups that found no cached entry since last reset.
+     *
+     * @since 3.1.3
+     */
+    default long getMissCount() {
+        return 0;
+    }
+
+    /**
+     * Gets number of lookups that found no cached entry since start.
+     *
+     * @since 3.1.3
+     */
+    default long getTotalMissCount() {
+        return 0;
+    }
+
 	/**
 	 * Gets the time of last reset.
 	 */
@@ -149,10 +175,11 @@ public interface QueryStatistics<T> extends Serializable {
 	    private static final float LOAD_FACTOR = 0.75f;
 	    private static final int CONCURRENCY = 16;
 
-		private static final int ARRAY_SIZE = 3;
+		private static final int ARRAY_SIZE = 4;
         private static final int READ  = 0;
         private static final int HIT   = 1;
         private static final int EVICT = 2;
+        private static final int MISS  = 3;
 
 		private long[] astat = new long[ARRAY_SIZE];
 		private long[] stat  = new long[ARRAY_SIZE];
@@ -288,6 +315,17 @@ public interface QueryStatistics<T> extends Serializable {
             addSample(query, EVICT);
         }
 
+        @Override
+        public void recordMiss(T query) {
+            // only the totals are kept, since a per-query row would make the
+            // next execution of the query count as a hit
+            if (query == null) {
+                return;
+            }
+            stat[MISS]++;
+            astat[MISS]++;
+        }
+
 		@Override
         public void dump(PrintStream out) {
             String header = "Query Statistics starting from " + start;
@@ -334,6 +372,16 @@ public interface QueryStatistics<T> extends Serializable {
         public long getTotalEvictionCount() {
             return astat[EVICT];
         }
+
+        @Override
+        public long getMissCount() {
+            return stat[MISS];
+        }
+
+        @Override
+        public long getTotalMissCount() {
+            return astat[MISS];
+        }
 	}
 
 	/**
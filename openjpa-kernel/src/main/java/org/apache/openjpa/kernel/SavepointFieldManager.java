@@ -74,8 +74,8 @@ class SavepointFieldManager
         _sm = sm;
         _state = _sm.getPCState();
 
-        _dirty = (BitSet) _sm.getDirty().clone();
-        _flush = (BitSet) _sm.getFlushed().clone();
+        _dirty = _sm.cloneDirty();
+        _flush = _sm.cloneFlushed();
         _loaded = (BitSet) _sm.getLoaded().clone();
 
         FieldMetaData[] fields = _sm.getMetaData().getFields();
@@ -137,14 +137,16 @@ class SavepointFieldManager
     }
 
     /**
-     * Return the dirty fields during the saved state.
+     * Return the dirty fields during the saved state, or null if there were
+     * none.
      */
     public BitSet getDirty() {
         return _dirty;
     }
 
     /**
-     * Return the flushed fields during the saved state.
+     * Return the flushed fields during the saved state, or null if there
+     * were none.
      */
     public BitSet getFlushed() {
         return _flush;
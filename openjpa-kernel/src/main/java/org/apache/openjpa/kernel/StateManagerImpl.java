@@ -115,13 +115,21 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     // information about the instance
     private transient PersistenceCapable _pc = null;
     protected transient ClassMetaData _meta = null;
-    protected BitSet _loaded = null;
-
-    // Care needs to be taken when accessing these fields as they will can be null if no fields are
+    // the loaded, dirty and flushed fields of classes with at most 64 fields
+    // are tracked in single words; the bit sets are only used for wider
+    // classes, in which case _loaded is never null. Care needs to be taken
+    // when accessing _dirty and _flush as they will be null if no fields are
     // dirty, or have been flushed.
+    protected BitSet _loaded = null;
     private BitSet _dirty = null;
     private BitSet _flush = null;
+    private long _loadedWord = 0;
+    private long _dirtyWord = 0;
+    private long _flushWord = 0;
 
+    // delayed fields below 64 are tracked in a single word; the bit set is
+    // only created for wider classes
+    private long _delayedWord = 0;
     private BitSet _delayed = null;
     private int _flags = 0;
 
@@ -222,9 +230,12 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         _state = newState;
 
         // clone the field bitsets.
-        _dirty=(BitSet)sm.getDirty().clone();
-        _loaded = (BitSet)sm.getLoaded().clone();
-        _flush = (BitSet) sm.getFlushed().clone();
+        _dirty = (sm._dirty == null) ? null : (BitSet) sm._dirty.clone();
+        _loaded = (sm._loaded == null) ? null : (BitSet) sm._loaded.clone();
+        _flush = (sm._flush == null) ? null : (BitSet) sm._flush.clone();
+        _dirtyWord = sm._dirtyWord;
+        _loadedWord = sm._loadedWord;
+        _flushWord = sm._flushWord;
         _version = sm.getVersion();
 
         _oid = sm.getObjectId();
@@ -359,11 +370,12 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         pc.pcReplaceStateManager(this);
 
         FieldMetaData[] fmds = _meta.getFields();
-        _loaded = new BitSet(fmds.length);
+        _loaded = (fmds.length > Long.SIZE) ? new BitSet(fmds.length) : null;
+        _loadedWord = 0;
 
         // mark primary key and non-persistent fields as loaded
         for(int i : _meta.getPkAndNonPersistentManagedFmdIndexes()){
-            _loaded.set(i);
+            markLoaded(i, true);
         }
 
         _mappedByIdFields = _meta.getMappyedByIdFields();
@@ -505,7 +517,8 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
     @Override
     public BitSet getLoaded() {
-        return _loaded;
+        // narrow classes hand out a snapshot of their loaded word
+        return (_loaded == null) ? toBitSet(_loadedWord) : _loaded;
     }
 
     @Override
@@ -529,7 +542,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         FieldMetaData[] fmds = _meta.getFields();
         boolean load;
         for (int i = 0; i < fmds.length; i++) {
-            if (_loaded.get(i) || (exclude != null && exclude.get(i)))
+            if (isLoaded(i) || (exclude != null && exclude.get(i)))
                 continue;
 
             switch (mode) {
@@ -735,7 +748,11 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         assignVersionField(version);
     }
 
-    Object getLoadVersion() {
+    /**
+     * The version the instance had when it was loaded or last committed,
+     * which differs from {@link #getVersion} once an update is flushed.
+     */
+    public Object getLoadVersion() {
         return _loadVersion;
     }
 
@@ -825,7 +842,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
     @Override
     public synchronized boolean isImplDataCacheable(int field) {
-        if (_fieldImpl == null || !_loaded.get(field))
+        if (_fieldImpl == null || !isLoaded(field))
             return false;
         if (_meta.getField(field).usesImplData() != null)
             return false;
@@ -850,7 +867,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         // only return the field data if the field is in the right loaded
         // state; otherwise we might return intermediate for impl data or
         // vice versa
-        if (_fieldImpl == null || _loaded.get(field) != isLoaded)
+        if (_fieldImpl == null || isLoaded(field) != isLoaded)
             return null;
         int idx = _meta.getExtraFieldDataIndex(field);
         return (idx == -1) ? null : _fieldImpl[idx];
@@ -868,7 +885,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         Object old = (_fieldImpl == null) ? null : _fieldImpl[idx];
         if (data != null) {
             // cannot set if field in wrong loaded state
-            if (_loaded.get(field) != loaded)
+            if (isLoaded(field) != loaded)
                 throw new InternalException(String.valueOf(_meta.getField
                     (field)));
 
@@ -876,7 +893,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             if (_fieldImpl == null)
                 _fieldImpl = new Object[_meta.getExtraFieldDataLength()];
             _fieldImpl[idx] = data;
-        } else if (_fieldImpl != null && _loaded.get(field) == loaded)
+        } else if (_fieldImpl != null && isLoaded(field) == loaded)
             _fieldImpl[idx] = null;
         return old;
     }
@@ -972,7 +989,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             // pk and version fields cannot be mutated; don't mark them
             // as such. ##### validate?
             if (!fmds[i].isPrimaryKey() && !fmds[i].isVersion()
-                && _loaded.get(i)) {
+                && isLoaded(i)) {
                 if (!saved.isFieldEqual(i, fetch(i))) {
                     dirty(i);
                 }
@@ -1015,7 +1032,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
         lock();
         try {
-            if (_saved == null || !_loaded.get(field) || !isFieldDirty(field))
+            if (_saved == null || !isLoaded(field) || !isDirty(field))
                 return fetchField(field, false);
 
             // if the field is dirty but we never loaded it, we can't restore it
@@ -1132,7 +1149,9 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
             // all dirty fields were flushed, we are referencing the _dirty BitSet directly here
             // because we don't want to instantiate it if we don't have to.
-            if (_dirty != null) {
+            if (_loaded == null) {
+                _flushWord |= _dirtyWord;
+            } else if (_dirty != null) {
                 getFlushed().or(_dirty);
             }
 
@@ -1233,9 +1252,15 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
                 replaceField(_pc, savepoint, i);
             }
         }
-        _loaded = loaded;
-        _dirty = savepoint.getDirty();
-        _flush = savepoint.getFlushed();
+        if (_loaded == null) {
+            _loadedWord = toWord(loaded);
+            _dirtyWord = toWord(savepoint.getDirty());
+            _flushWord = toWord(savepoint.getFlushed());
+        } else {
+            _loaded = loaded;
+            _dirty = savepoint.getDirty();
+            _flush = savepoint.getFlushed();
+        }
         _version = savepoint.getVersion();
         _loadVersion = savepoint.getLoadVersion();
     }
@@ -1331,7 +1356,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     void gatherCascadeRefresh(OpCallbacks call) {
         FieldMetaData[] fmds = _meta.getFields();
         for (int i = 0; i < fmds.length; i++) {
-            if (!_loaded.get(i))
+            if (!isLoaded(i))
                 continue;
 
             if (fmds[i].getCascadeRefresh() == ValueMetaData.CASCADE_IMMEDIATE
@@ -1366,7 +1391,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             // if some fields have been loaded but the instance is out of
             // date or this is part of a refreshAll() and we don't want to
             // take the extra hit to see if the instance is out of date, clear
-            if (_loaded.length() > 0 && (refreshAll || isEmbedded()
+            if (loadedLength() > 0 && (refreshAll || isEmbedded()
                 || !syncVersion(null))) {
                 Object version = _version;
                 clearFields();
@@ -1672,7 +1697,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         try {
             // If this field is loaded, and not a PK field allow pass through
             // TODO -- what about version fields? Could probably UT this
-            if(_loaded.get(field) && !_meta.getField(field).isPrimaryKey())
+            if(isLoaded(field) && !_meta.getField(field).isPrimaryKey())
                 return;
 
             beforeRead(field);
@@ -1684,20 +1709,26 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
     @Override
     public boolean isDelayed(int field) {
-        if (_delayed == null) {
-            return false;
+        if (field < 64) {
+            return (_delayedWord & (1L << field)) != 0;
         }
-        return _delayed.get(field);
+        return _delayed != null && _delayed.get(field);
     }
 
     @Override
     public void setDelayed(int field, boolean delay) {
-        if (_delayed == null) {
-            _delayed = new BitSet();
-        }
-        if (delay) {
+        if (field < 64) {
+            if (delay) {
+                _delayedWord |= 1L << field;
+            } else {
+                _delayedWord &= ~(1L << field);
+            }
+        } else if (delay) {
+            if (_delayed == null) {
+                _delayed = new BitSet();
+            }
             _delayed.set(field);
-        } else {
+        } else if (_delayed != null) {
             _delayed.clear(field);
         }
     }
@@ -1727,7 +1758,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
                     setFailedObject(getManagedInstance());
             }
             // Cleared the delayed bit
-            _delayed.clear(field);
+            setDelayed(field, false);
             obtainLocks(active, false, lockLevel, null, null);
         } catch (RuntimeException re) {
             throw translate(re);
@@ -1744,7 +1775,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         try {
             boolean active = _broker.isActive();
             int lockLevel = calculateLockLevel(active, false, null);
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, lockLevel, false, true);
             else
                 assignField(field, false);
@@ -1872,7 +1903,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
             // dirty the field and mark loaded; load fetch group if needed
             int lockLevel = calculateLockLevel(active, true, null);
-            if (!isFieldDirty(field)) {
+            if (!isDirty(field)) {
                 setLoaded(field, true);
                 setFieldDirty(field);
 
@@ -2004,7 +2035,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingBooleanField(PersistenceCapable pc, int field,
         boolean curVal, boolean newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2024,7 +2055,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingByteField(PersistenceCapable pc, int field,
         byte curVal, byte newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2044,7 +2075,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingCharField(PersistenceCapable pc, int field,
         char curVal, char newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2064,7 +2095,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingDoubleField(PersistenceCapable pc, int field,
         double curVal, double newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2084,7 +2115,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingFloatField(PersistenceCapable pc, int field,
         float curVal, float newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2104,7 +2135,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingIntField(PersistenceCapable pc, int field,
         int curVal, int newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2124,7 +2155,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingLongField(PersistenceCapable pc, int field,
         long curVal, long newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2145,7 +2176,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         Object curVal, Object newVal, int set) {
         if (set != SET_REMOTE) {
             FieldMetaData fmd = _meta.getField(field);
-            if (_loaded.get(field)) {
+            if (isLoaded(field)) {
                 if (newVal == curVal)
                     return;
 
@@ -2215,7 +2246,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingShortField(PersistenceCapable pc, int field,
         short curVal, short newVal, int set) {
         if (set != SET_REMOTE) {
-            if (newVal == curVal && _loaded.get(field))
+            if (newVal == curVal && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2235,7 +2266,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public void settingStringField(PersistenceCapable pc, int field,
         String curVal, String newVal, int set) {
         if (set != SET_REMOTE) {
-            if (Objects.equals(newVal, curVal) && _loaded.get(field))
+            if (Objects.equals(newVal, curVal) && isLoaded(field))
                 return;
             assertNoPrimaryKeyChange(field);
         }
@@ -2405,7 +2436,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public boolean fetchBooleanField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2429,7 +2460,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public byte fetchByteField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2453,7 +2484,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public char fetchCharField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2477,7 +2508,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public double fetchDoubleField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2501,7 +2532,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public float fetchFloatField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2525,7 +2556,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public int fetchIntField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2549,7 +2580,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public long fetchLongField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2573,7 +2604,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public Object fetchObjectField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2597,7 +2628,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public short fetchShortField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2621,7 +2652,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     public String fetchStringField(int field) {
         lock();
         try {
-            if (!_loaded.get(field))
+            if (!isLoaded(field))
                 loadField(field, LockLevels.LOCK_NONE, false, false);
 
             provideField(_pc, _single, field);
@@ -2923,6 +2954,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         _flags &= ~FLAG_FLUSHED_DIRTY;
 
         _flush = null;
+        _flushWord = 0;
     }
 
     /**
@@ -3013,7 +3045,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
         _flags |= FLAG_SAVE;
         if (immediate) {
-            for (int i = 0, len = _loaded.length(); i < len; i++)
+            for (int i = 0, len = loadedLength(); i < len; i++)
                 saveField(i);
             _flags &= ~FLAG_SAVE;
             // OPENJPA-659
@@ -3035,14 +3067,14 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
         // if this is a managed inverse field, load it so we're sure to have
         // the original value
-        if (!_loaded.get(field) && ((_flags & FLAG_INVERSES) != 0
+        if (!isLoaded(field) && ((_flags & FLAG_INVERSES) != 0
             && _meta.getField(field).getInverseMetaDatas().length > 0))
             loadField(field, LockLevels.LOCK_NONE, false, false);
 
         // don't bother creating the save field manager if we're not going to
         // save the old field value anyway
         if (_saved == null) {
-            if (_loaded.get(field))
+            if (isLoaded(field))
                 _saved = new SaveFieldManager(this, null, getDirty());
             else
                 return;
@@ -3083,19 +3115,22 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
                 if ((_flags & FLAG_SAVE) == 0)
                     clearFields();
                 else // only unloaded fields were dirtied
-                    _loaded.andNot(_loaded);
+                    clearLoaded();
             }
             // we direct state transitions based on our own getRestoreState
             // method, but to decide whether to actually rollback field
             // values, we consult the broker for the user's setting
             else if (_broker.getRestoreState() != RestoreState.RESTORE_NONE) {
                 // rollback all currently-loaded fields
-                for (int i = 0, len = _loaded.length(); i < len; i++)
-                    if (_loaded.get(i) && _saved.restoreField(i))
+                for (int i = 0, len = loadedLength(); i < len; i++)
+                    if (isLoaded(i) && _saved.restoreField(i))
                         replaceField(_pc, _saved, i);
 
                 // rollback loaded set
-                _loaded.andNot(_saved.getUnloaded());
+                if (_loaded == null)
+                    _loadedWord &= ~toWord(_saved.getUnloaded());
+                else
+                    _loaded.andNot(_saved.getUnloaded());
             }
         }
         finally {
@@ -3124,7 +3159,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             for (FieldMetaData fmd : _meta.getProxyFields()) {
                 int index = fmd.getIndex();
                 // only reload if dirty
-                if (_loaded.get(index) && isFieldDirty(index)) {
+                if (isLoaded(index) && isDirty(index)) {
                     provideField(_pc, _single, index);
                     if (_single.proxy(reset, replaceNull)) {
                         replaceField(_pc, _single, index);
@@ -3147,7 +3182,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
         lock();
         try {
-            for (int i = 0, len = _loaded.length(); i < len; i++) {
+            for (int i = 0, len = loadedLength(); i < len; i++) {
                 provideField(_pc, _single, i);
                 _single.unproxy();
                 _single.releaseEmbedded();
@@ -3184,7 +3219,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             if (!logical)
                 assignObjectId(false, true);
             for (int i = 0, len = _meta.getFields().length; i < len; i++) {
-                if ((logical || !assignField(i, true)) && !isFieldFlushed(i) && isFieldDirty(i)) {
+                if ((logical || !assignField(i, true)) && !isFieldFlushed(i) && isDirty(i)) {
                     provideField(_pc, _single, i);
                     if (_single.preFlush(logical, call))
                         replaceField(_pc, _single, i);
@@ -3242,7 +3277,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     void cascadePersist(OpCallbacks call) {
         FieldMetaData[] fmds = _meta.getFields();
         for (int i = 0; i < fmds.length; i++) {
-            if (!_loaded.get(i))
+            if (!isLoaded(i))
                 continue;
 
             if (fmds[i].getCascadePersist() == ValueMetaData.CASCADE_IMMEDIATE
@@ -3290,7 +3325,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             // If the _loadVersion field is null AND the version field has been loaded, skip calling sync version.
             // This indicates that the DB has a null value for the version column.
             FieldMetaData versionMeta = _meta != null ? _meta.getVersionField() : null;
-            if (_loadVersion == null && (versionMeta != null && !_loaded.get(versionMeta.getIndex()))) {
+            if (_loadVersion == null && (versionMeta != null && !isLoaded(versionMeta.getIndex()))) {
                 syncVersion(sdata);
                 ret = ret || _loadVersion != null;
             }
@@ -3328,7 +3363,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
         if (lfg != null) {
             FieldMetaData[] fmds = _meta.getFields();
             for (int i = 0; i < fmds.length; i++) {
-                if (!_loaded.get(i) && (i == field
+                if (!isLoaded(i) && (i == field
                     || fmds[i].isInFetchGroup(lfg))) {
                     if (fields == null)
                         fields = new BitSet(fmds.length);
@@ -3346,7 +3381,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
             // no load group but dfg: add dfg fields if we haven't already
             if (!unloadedDFGFieldMarked)
                 fields = getUnloadedInternal(fetch, LOAD_FGS, null);
-        } else if (!_loaded.get(fmd.getIndex())) {
+        } else if (!isLoaded(fmd.getIndex())) {
             // no load group or dfg: load individual field
             if (fields == null)
                 fields = new BitSet();
@@ -3395,7 +3430,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     private void setLoaded(int field, boolean isLoaded) {
         // don't continue if loaded state is already correct; otherwise we
         // can end up clearing _fieldImpl when we shouldn't
-        if (_loaded.get(field) == isLoaded)
+        if (isLoaded(field) == isLoaded)
             return;
 
         // if loading, clear intermediate data; if unloading, clear impl data
@@ -3405,10 +3440,65 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
                 _fieldImpl[idx] = null;
         }
 
-        if (isLoaded)
-            _loaded.set(field);
+        markLoaded(field, isLoaded);
+    }
+
+    @Override
+    public boolean isLoaded(int field) {
+        if (_loaded == null)
+            return (_loadedWord & (1L << field)) != 0;
+        return _loaded.get(field);
+    }
+
+    /**
+     * Set or clear the loaded bit of the given field.
+     */
+    private void markLoaded(int field, boolean isLoaded) {
+        if (_loaded != null) {
+            if (isLoaded)
+                _loaded.set(field);
+            else
+                _loaded.clear(field);
+        } else if (isLoaded)
+            _loadedWord |= 1L << field;
         else
-            _loaded.clear(field);
+            _loadedWord &= ~(1L << field);
+    }
+
+    /**
+     * Mark all fields as unloaded.
+     */
+    private void clearLoaded() {
+        if (_loaded == null)
+            _loadedWord = 0;
+        else
+            _loaded.clear();
+    }
+
+    /**
+     * Return the index of the highest loaded field plus one.
+     */
+    private int loadedLength() {
+        if (_loaded == null)
+            return Long.SIZE - Long.numberOfLeadingZeros(_loadedWord);
+        return _loaded.length();
+    }
+
+    /**
+     * Return a bit set holding the bits of the given word.
+     */
+    private static BitSet toBitSet(long word) {
+        return BitSet.valueOf(new long[]{ word });
+    }
+
+    /**
+     * Return the low word of the given bit set, or 0 if it is null.
+     */
+    private static long toWord(BitSet bits) {
+        if (bits == null)
+            return 0;
+        long[] words = bits.toLongArray();
+        return (words.length == 0) ? 0 : words[0];
     }
 
     /**
@@ -3477,7 +3567,7 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
         FieldMetaData[] fmds = _meta.getFields();
         for (int i = 0; i < fmds.length; i++)
-            if (!_loaded.get(i) && fmds[i].isInFetchGroup(fgName))
+            if (!isLoaded(i) && fmds[i].isInFetchGroup(fgName))
                 return false;
 
         _flags |= FLAG_LOADED;
@@ -3642,6 +3732,9 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
 
     @Override
     public BitSet getFlushed() {
+        if (_loaded == null) {
+            return toBitSet(_flushWord);
+        }
         if (_flush == null) {
             _flush = new BitSet(_meta.getFields().length);
         }
@@ -3649,6 +3742,9 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     }
 
     private boolean isFieldFlushed(int index) {
+        if (_loaded == null) {
+            return (_flushWord & (1L << index)) != 0;
+        }
         if (_flush == null) {
             return false;
         }
@@ -3659,20 +3755,61 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
      * Will clear the bit at the specified if the _flush BetSet has been created.
      */
     private void clearFlushField(int index) {
-        if (_flush != null) {
-            getFlushed().clear(index);
+        if (_loaded == null) {
+            _flushWord &= ~(1L << index);
+        } else if (_flush != null) {
+            _flush.clear(index);
         }
     }
 
     @Override
     public BitSet getDirty() {
+        if (_loaded == null) {
+            return toBitSet(_dirtyWord);
+        }
         if (_dirty == null) {
             _dirty = new BitSet(_meta.getFields().length);
         }
         return _dirty;
     }
 
-    private boolean isFieldDirty(int index) {
+    /**
+     * Whether any field is dirty. Unlike {@link #getDirty}, does not create
+     * the dirty field set.
+     */
+    boolean hasDirtyFields() {
+        if (_loaded == null) {
+            return _dirtyWord != 0;
+        }
+        return _dirty != null && !_dirty.isEmpty();
+    }
+
+    /**
+     * Return a copy of the dirty fields, or null if no field has been dirtied.
+     */
+    BitSet cloneDirty() {
+        if (_loaded == null) {
+            return (_dirtyWord == 0) ? null : toBitSet(_dirtyWord);
+        }
+        return (_dirty == null) ? null : (BitSet) _dirty.clone();
+    }
+
+    /**
+     * Return a copy of the flushed fields, or null if no field has been
+     * flushed.
+     */
+    BitSet cloneFlushed() {
+        if (_loaded == null) {
+            return (_flushWord == 0) ? null : toBitSet(_flushWord);
+        }
+        return (_flush == null) ? null : (BitSet) _flush.clone();
+    }
+
+    @Override
+    public boolean isDirty(int index) {
+        if (_loaded == null) {
+            return (_dirtyWord & (1L << index)) != 0;
+        }
         if (_dirty == null) {
             return false;
         }
@@ -3680,15 +3817,21 @@ public class StateManagerImpl implements OpenJPAStateManager, Serializable {
     }
 
     private void setFieldDirty(int index) {
-        getDirty().set(index);
+        if (_loaded == null) {
+            _dirtyWord |= 1L << index;
+        } else {
+            getDirty().set(index);
+        }
     }
 
     /**
      * Will clear the bit at the specified index if the _dirty BetSet has been created.
      */
     private void clearDirty(int index) {
-        if (_dirty != null) {
-            getDirty().clear(index);
+        if (_loaded == null) {
+            _dirtyWord &= ~(1L << index);
+        } else if (_dirty != null) {
+            _dirty.clear(index);
         }
     }
 
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.openjpa.lib.util.Closeable;
+
+/**
+ * Default <code>openjpa.AsyncExecutor</code>. Runs asynchronous finds and
+ * queries on daemon platform threads that are created on first use and
+ * released after a minute of idleness. With the default
+ * <code>MaxThreads</code> of 0 the pool grows on demand; a positive value
+ * bounds the pool and queues the excess tasks.
+ *
+ * @since 3.1.3
+ */
+public class ThreadPoolAsyncExecutor
+    implements Executor, Closeable {
+
+    private static final AtomicInteger POOLS = new AtomicInteger();
+
+    private int _maxThreads = 0;
+    private ExecutorService _pool = null;
+
+    /**
+     * The maximum number of threads, or 0 for no limit. Defaults to 0.
+     */
+    public int getMaxThreads() {
+        return _maxThreads;
+    }
+
+    /**
+     * The maximum number of threads, or 0 for no limit. Defaults to 0.
+     */
+    public void setMaxThreads(int maxThreads) {
+        _maxThreads = maxThreads;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        getPool().execute(task);
+    }
+
+    private synchronized ExecutorService getPool() {
+        if (_pool == null) {
+            ThreadFactory factory = newThreadFactory();
+            if (_maxThreads > 0) {
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(_maxThreads,
+                    _maxThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), factory);
+                pool.allowCoreThreadTimeOut(true);
+                _pool = pool;
+            } else
+                _pool = Executors.newCachedThreadPool(factory);
+        }
+        return _pool;
+    }
+
+    private static ThreadFactory newThreadFactory() {
+        final String prefix = "OpenJPA-Async-" + POOLS.incrementAndGet() + "-";
+        final AtomicInteger threads = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Stop accepting tasks. Tasks already submitted still run.
+     */
+    @Override
+    public synchronized void close() {
+        if (_pool != null)
+            _pool.shutdown();
+    }
+}
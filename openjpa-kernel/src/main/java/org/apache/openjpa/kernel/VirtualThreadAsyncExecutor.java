@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import org.apache.openjpa.lib.util.Closeable;
+import org.apache.openjpa.lib.util.Localizer;
+import org.apache.openjpa.util.UserException;
+
+/**
+ * <code>openjpa.AsyncExecutor</code> that starts a new virtual thread for
+ * each asynchronous find or query. Virtual threads require a Java 21 or later
+ * runtime; on earlier runtimes the first task fails with a
+ * {@link UserException}.
+ *
+ * @since 3.1.3
+ */
+public class VirtualThreadAsyncExecutor
+    implements Executor, Closeable {
+
+    private static final Localizer _loc = Localizer.forPackage
+        (VirtualThreadAsyncExecutor.class);
+
+    private ExecutorService _pool = null;
+
+    @Override
+    public void execute(Runnable task) {
+        getPool().execute(task);
+    }
+
+    private synchronized ExecutorService getPool() {
+        if (_pool == null) {
+            // looked up reflectively so that the kernel still builds and
+            // runs on Java 8
+            try {
+                Method m = java.util.concurrent.Executors.class.getMethod
+                    ("newVirtualThreadPerTaskExecutor");
+                _pool = (ExecutorService) m.invoke(null);
+            } catch (Exception e) {
+                throw new UserException(_loc.get("no-virtual-threads",
+                    System.getProperty("java.version")), e);
+            }
+        }
+        return _pool;
+    }
+
+    /**
+     * Stop accepting tasks. Tasks already submitted still run.
+     */
+    @Override
+    public synchronized void close() {
+        if (_pool != null)
+            _pool.shutdown();
+    }
+}
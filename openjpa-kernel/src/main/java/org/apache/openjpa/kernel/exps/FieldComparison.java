@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.kernel.exps;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Map;
+
+import org.apache.openjpa.meta.FieldMetaData;
+import org.apache.openjpa.meta.JavaTypes;
+
+/**
+ * Comparison of a field of the candidate with a parameter or literal.
+ * Queries whose filter is a conjunction of such comparisons record them in
+ * {@link QueryExpressions#comparisons}, so that caches can tell whether a
+ * changed instance could satisfy the filter.
+ *
+ * Evaluation is conservative: {@link #couldMatch} only returns false when
+ * the value certainly fails the comparison in the database. Comparisons of
+ * strings depend on the collation of the database, so they are never
+ * evaluated.
+ *
+ * @since 3.1.3
+ */
+public class FieldComparison
+    implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int EQUAL = 0;
+    public static final int LESS_THAN = 1;
+    public static final int LESS_THAN_EQUAL = 2;
+    public static final int GREATER_THAN = 3;
+    public static final int GREATER_THAN_EQUAL = 4;
+
+    private final String _field;
+    private final int _op;
+    private final Object _operand;
+    private final boolean _param;
+
+    /**
+     * Constructor.
+     *
+     * @param field the name of the candidate field
+     * @param op the comparison of the field value with the operand
+     * @param operand the parameter key or literal value
+     * @param param whether the operand is a parameter key
+     */
+    public FieldComparison(String field, int op, Object operand,
+        boolean param) {
+        _field = field;
+        _op = op;
+        _operand = operand;
+        _param = param;
+    }
+
+    /**
+     * Whether comparisons of the given field can make up a recorded filter.
+     * Only fields of simple types qualify; of these, string comparisons
+     * could always match.
+     */
+    public static boolean isComparable(FieldMetaData fmd) {
+        if (fmd == null || fmd.isExternalized())
+            return false;
+        switch (fmd.getDeclaredTypeCode()) {
+            case JavaTypes.BOOLEAN:
+            case JavaTypes.BOOLEAN_OBJ:
+            case JavaTypes.BYTE:
+            case JavaTypes.BYTE_OBJ:
+            case JavaTypes.SHORT:
+            case JavaTypes.SHORT_OBJ:
+            case JavaTypes.INT:
+            case JavaTypes.INT_OBJ:
+            case JavaTypes.LONG:
+            case JavaTypes.LONG_OBJ:
+            case JavaTypes.BIGINTEGER:
+            case JavaTypes.STRING:
+            case JavaTypes.ENUM:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Return the comparison with its operands swapped, so that
+     * <code>x &lt; y</code> becomes <code>y &gt; x</code>.
+     */
+    public static int reverse(int op) {
+        switch (op) {
+            case LESS_THAN:
+                return GREATER_THAN;
+            case LESS_THAN_EQUAL:
+                return GREATER_THAN_EQUAL;
+            case GREATER_THAN:
+                return LESS_THAN;
+            case GREATER_THAN_EQUAL:
+                return LESS_THAN_EQUAL;
+            default:
+                return op;
+        }
+    }
+
+    /**
+     * The name of the compared field.
+     */
+    public String getFieldName() {
+        return _field;
+    }
+
+    /**
+     * The comparison of the field value with the operand.
+     */
+    public int getOperator() {
+        return _op;
+    }
+
+    /**
+     * The parameter key if {@link #isParameter}, else the literal value.
+     */
+    public Object getOperand() {
+        return _operand;
+    }
+
+    /**
+     * Whether the operand is a query parameter.
+     */
+    public boolean isParameter() {
+        return _param;
+    }
+
+    /**
+     * Whether the given field value could satisfy this comparison.
+     *
+     * @param value the field value
+     * @param params the query parameters keyed as in the parsed query,
+     * or null if the query has none
+     */
+    public boolean couldMatch(Object value, Map<Object,Object> params) {
+        Object operand = _operand;
+        if (_param) {
+            if (params == null || !params.containsKey(_operand))
+                return true;
+            operand = params.get(_operand);
+        }
+        if (value == null || operand == null)
+            return true;
+
+        if (value instanceof String || operand instanceof String)
+            return true;
+        if (value instanceof Boolean || value instanceof Enum) {
+            if (_op != EQUAL || value.getClass() != operand.getClass())
+                return true;
+            return value.equals(operand);
+        }
+
+        BigInteger v = toBigInteger(value);
+        BigInteger o = toBigInteger(operand);
+        if (v == null || o == null)
+            return true;
+        int cmp = v.compareTo(o);
+        switch (_op) {
+            case EQUAL:
+                return cmp == 0;
+            case LESS_THAN:
+                return cmp < 0;
+            case LESS_THAN_EQUAL:
+                return cmp <= 0;
+            case GREATER_THAN:
+                return cmp > 0;
+            case GREATER_THAN_EQUAL:
+                return cmp >= 0;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Return the given integral number as a big integer, or null if it is
+     * not an integral number.
+     */
+    private static BigInteger toBigInteger(Object o) {
+        if (o instanceof BigInteger)
+            return (BigInteger) o;
+        if (o instanceof Long || o instanceof Integer || o instanceof Short
+            || o instanceof Byte)
+            return BigInteger.valueOf(((Number) o).longValue());
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return _field + " " + _op + " " + (_param ? ":" : "") + _operand;
+    }
+}
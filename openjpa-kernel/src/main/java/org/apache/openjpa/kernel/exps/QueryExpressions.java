@@ -76,6 +76,16 @@ public class QueryExpressions implements Serializable {
     public ResultShape<?> shape;
     public boolean hasInExpression;
 
+    /**
+     * The comparisons making up the filter if it is a conjunction of
+     * comparisons between candidate fields and parameters or literals and
+     * the candidate is the only variable of the query, or null if the query
+     * is more complex.
+     *
+     * @since 3.1.3
+     */
+    public FieldComparison[] comparisons;
+
     /**
      * Set reference to the JPQL query contexts.
      */
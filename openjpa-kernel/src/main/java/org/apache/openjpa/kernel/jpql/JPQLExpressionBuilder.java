@@ -49,6 +49,7 @@ import org.apache.openjpa.kernel.exps.AbstractExpressionBuilder;
 import org.apache.openjpa.kernel.exps.Context;
 import org.apache.openjpa.kernel.exps.Expression;
 import org.apache.openjpa.kernel.exps.ExpressionFactory;
+import org.apache.openjpa.kernel.exps.FieldComparison;
 import org.apache.openjpa.kernel.exps.Literal;
 import org.apache.openjpa.kernel.exps.Parameter;
 import org.apache.openjpa.kernel.exps.Path;
@@ -314,6 +315,8 @@ public class JPQLExpressionBuilder
 
         exps.accessPath = getAccessPath();
         exps.hasInExpression = this.hasParameterizedInExpression;
+        if (ctx().getParent() == null)
+            exps.comparisons = evalComparisons();
 
         // verify parameters are consistent.
         validateParameters();
@@ -692,6 +695,101 @@ public class JPQLExpressionBuilder
         return (Expression) eval(whereNode);
     }
 
+    /**
+     * Return the comparisons making up the WHERE clause if it is a
+     * conjunction of comparisons between candidate fields and parameters
+     * or literals, or null otherwise. The FROM clause must declare the
+     * candidate variable alone and the query must have no subqueries, as
+     * joins, further range variables and subqueries make the result depend
+     * on other instances.
+     */
+    private FieldComparison[] evalComparisons() {
+        JPQLNode from = root().findChildByID(JJTFROM, false);
+        if (from == null || from.children.length != 1
+            || from.children[0].id != JJTFROMITEM
+            || root().findChildByID(JJTSUBSELECT, true) != null)
+            return null;
+
+        List<FieldComparison> comps = new ArrayList<>();
+        JPQLNode whereNode = root().findChildByID(JJTWHERE, false);
+        if (whereNode != null && !addComparisons(onlyChild(whereNode), comps))
+            return null;
+        return comps.toArray(new FieldComparison[comps.size()]);
+    }
+
+    private boolean addComparisons(JPQLNode node,
+        List<FieldComparison> comps) {
+        int op;
+        switch (node.id) {
+            case JJTAND:
+                return addComparisons(left(node), comps)
+                    && addComparisons(right(node), comps);
+            case JJTBETWEEN:
+                if (node.not || node.children.length != 3)
+                    return false;
+                return addComparison(node.children[0], node.children[1],
+                    FieldComparison.GREATER_THAN_EQUAL, comps)
+                    && addComparison(node.children[0], node.children[2],
+                    FieldComparison.LESS_THAN_EQUAL, comps);
+            case JJTEQUALS:
+                op = FieldComparison.EQUAL;
+                break;
+            case JJTLESSTHAN:
+                op = FieldComparison.LESS_THAN;
+                break;
+            case JJTLESSOREQUAL:
+                op = FieldComparison.LESS_THAN_EQUAL;
+                break;
+            case JJTGREATERTHAN:
+                op = FieldComparison.GREATER_THAN;
+                break;
+            case JJTGREATEROREQUAL:
+                op = FieldComparison.GREATER_THAN_EQUAL;
+                break;
+            default:
+                return false;
+        }
+        return addComparison(left(node), right(node), op, comps)
+            || addComparison(right(node), left(node),
+            FieldComparison.reverse(op), comps);
+    }
+
+    /**
+     * Add the comparison of the given candidate field path with the given
+     * parameter or literal, returning false if the nodes do not have
+     * that form.
+     */
+    private boolean addComparison(JPQLNode path, JPQLNode operand, int op,
+        List<FieldComparison> comps) {
+        if (path.id != JJTPATH || path.children.length != 2
+            || ctx().meta == null
+            || !firstChild(path).text.equalsIgnoreCase(ctx().schemaAlias))
+            return false;
+        FieldMetaData fmd = ctx().meta.getField(secondChild(path).text);
+        if (!FieldComparison.isComparable(fmd))
+            return false;
+
+        switch (operand.id) {
+            case JJTNAMEDINPUTPARAMETER:
+                comps.add(new FieldComparison(fmd.getName(), op,
+                    onlyChild(operand).text, true));
+                return true;
+            case JJTPOSITIONALINPUTPARAMETER:
+                comps.add(new FieldComparison(fmd.getName(), op,
+                    Integer.parseInt(operand.text), true));
+                return true;
+            case JJTBOOLEANLITERAL:
+            case JJTINTEGERLITERAL:
+            case JJTSTRINGLITERAL:
+            case JJTSTRINGLITERAL2:
+                comps.add(new FieldComparison(fmd.getName(), op,
+                    ((Literal) eval(operand)).getValue(), false));
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private Expression evalFromClause(boolean needsAlias) {
         // build up the alias map in the FROM clause
         JPQLNode from = root().findChildByID(JJTFROM, false);
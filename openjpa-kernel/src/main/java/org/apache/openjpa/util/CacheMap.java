@@ -22,7 +22,9 @@ import java.util.AbstractCollection;
 import java.util.AbstractSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
@@ -65,6 +67,12 @@ public class CacheMap
     // number of pinned values (not including keys not mapped to values)
     private int _pinnedSize = 0;
 
+    // weights of the entries in the cache and pinned maps, in bytes
+    private final Map<Object, Long> _weights = new HashMap<>();
+    private long _bytes = 0;
+    private long _pinnedBytes = 0;
+    private long _maxBytes = -1;
+
     private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock(true);
     private final Lock _readLock = rwl.readLock();
     private final Lock _writeLock = rwl.writeLock();
@@ -156,6 +164,7 @@ public class CacheMap
      * Called from {@link SizedMap#overflowRemoved} in the cache map.
      */
     protected void cacheMapOverflowRemoved(Object key, Object value) {
+        weighed(cacheMap, key, null, value);
         if (softMap.size() < softMap.getMaxSize())
             put(softMap, key, value);
         else
@@ -181,7 +190,10 @@ public class CacheMap
      * take additional actions.
      */
     protected Object put(Map map, Object key, Object value) {
-        return map.put(key, value);
+        Object old = map.put(key, value);
+        if (map != softMap)
+            weighed(map, key, value, old);
+        return old;
     }
 
     /**
@@ -189,7 +201,72 @@ public class CacheMap
      * take additional actions.
      */
     protected Object remove(Map map, Object key) {
-        return map.remove(key);
+        Object old = map.remove(key);
+        if (old != null && map != softMap)
+            weighed(map, key, null, old);
+        return old;
+    }
+
+    /**
+     * Return the estimated size in bytes of the given entry. Entries are
+     * weighed as they are added to the hard or pinned references. Returns 0
+     * by default, which disables the byte accounting.
+     *
+     * @since 3.1.3
+     */
+    protected long weigh(Object key, Object value) {
+        return 0;
+    }
+
+    /**
+     * Invoked when the weight of the hard or pinned references changes
+     * because the given value was added, replaced or removed.
+     *
+     * @param delta the change in bytes; negative for removals
+     * @since 3.1.3
+     */
+    protected void weightChanged(Object key, Object value, long delta) {
+    }
+
+    /**
+     * Record the weight of the entry for the given key after it was changed
+     * from <code>old</code> to <code>value</code> in the given map.
+     */
+    private void weighed(Map map, Object key, Object value, Object old) {
+        long weight = (value == null) ? 0 : weigh(key, value);
+        Long prev = (weight == 0) ? _weights.remove(key)
+            : _weights.put(key, weight);
+        long delta = weight - ((prev == null) ? 0 : prev);
+        if (delta == 0)
+            return;
+        if (map == cacheMap)
+            _bytes += delta;
+        else
+            _pinnedBytes += delta;
+        weightChanged(key, (value == null) ? old : value, delta);
+    }
+
+    /**
+     * Move hard references to the soft map until the weight of the unpinned
+     * entries is within the byte limit. LRU maps give up their least
+     * recently used entries, other maps random entries.
+     */
+    private void evictBytes() {
+        while (_maxBytes >= 0 && _bytes > _maxBytes && !cacheMap.isEmpty()) {
+            Object key;
+            Object value;
+            if (cacheMap instanceof LRUMap) {
+                key = ((LRUMap) cacheMap).firstKey();
+                value = cacheMap.remove(key);
+            } else {
+                Map.Entry entry = ((ConcurrentHashMap) cacheMap).removeRandom();
+                if (entry == null)
+                    break;
+                key = entry.getKey();
+                value = entry.getValue();
+            }
+            cacheMapOverflowRemoved(key, value);
+        }
     }
 
     /**
@@ -267,6 +344,47 @@ public class CacheMap
         return (max == Integer.MAX_VALUE) ? -1 : max;
     }
 
+    /**
+     * The maximum estimated size in bytes of the unpinned hard references,
+     * or -1 for no limit. Only entries given a weight by {@link #weigh}
+     * count towards the limit.
+     *
+     * @since 3.1.3
+     */
+    public void setMaxBytes(long bytes) {
+        writeLock();
+        try {
+            _maxBytes = (bytes < 0) ? -1 : bytes;
+            evictBytes();
+        } finally {
+            writeUnlock();
+        }
+    }
+
+    /**
+     * The maximum estimated size in bytes of the unpinned hard references,
+     * or -1 for no limit.
+     *
+     * @since 3.1.3
+     */
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * The estimated size in bytes of the hard and pinned references.
+     *
+     * @since 3.1.3
+     */
+    public long getBytes() {
+        readLock();
+        try {
+            return _bytes + _pinnedBytes;
+        } finally {
+            readUnlock();
+        }
+    }
+
     /**
      * The keys pinned into the map.
      */
@@ -417,6 +535,7 @@ public class CacheMap
                 entryRemoved(key, val, false);
                 entryAdded(key, value);
             }
+            evictBytes();
             return val;
         } finally {
             writeUnlock();
@@ -438,6 +557,122 @@ public class CacheMap
         }
     }
 
+    /**
+     * Look up the values for all of the given keys under a single read lock.
+     * Values found in the soft map are promoted to hard references under a
+     * single write lock afterwards.
+     *
+     * @param keys the keys to look up
+     * @param values array at least as long as <code>keys</code>; the value
+     * for each key is stored at the key's index, or null if not cached
+     * @return the number of keys found
+     * @since 3.1.3
+     */
+    public int getAll(List keys, Object[] values) {
+        return getAll(keys, values, null, 0);
+    }
+
+    /**
+     * Put all of the given keys and values under a single write lock.
+     *
+     * @param keys the keys to put
+     * @param values the value for each key, in the same order
+     * @since 3.1.3
+     */
+    public void putAll(List keys, List values) {
+        putAll(keys, values, null, 0);
+    }
+
+    /**
+     * Remove all of the given keys under a single write lock. Pinned keys
+     * stay pinned, as in {@link #remove(Object)}.
+     *
+     * @return the number of keys that had a value
+     * @since 3.1.3
+     */
+    public int removeAll(List keys) {
+        return removeAll(keys, null, 0);
+    }
+
+    /**
+     * Bulk lookup of the keys whose owner is <code>owner</code>, or of all
+     * keys when <code>owners</code> is null.
+     */
+    protected int getAll(List keys, Object[] values, int[] owners, int owner) {
+        int found = 0;
+        boolean soft = false;
+        Object key;
+        Object val;
+        readLock();
+        try {
+            for (int i = 0, size = keys.size(); i < size; i++) {
+                if (owners != null && owners[i] != owner)
+                    continue;
+                key = keys.get(i);
+                val = softMap.get(key);
+                if (val == null) {
+                    val = cacheMap.get(key);
+                    if (val == null)
+                        val = pinnedMap.get(key);
+                } else
+                    soft = true;
+                values[i] = val;
+                if (val != null)
+                    found++;
+            }
+        } finally {
+            readUnlock();
+        }
+        if (!soft)
+            return found;
+
+        // cannot obtain a write lock while holding a read lock
+        writeLock();
+        try {
+            for (int i = 0, size = keys.size(); i < size; i++) {
+                if ((owners == null || owners[i] == owner)
+                    && values[i] != null && softMap.containsKey(keys.get(i)))
+                    put(keys.get(i), values[i]);
+            }
+        } finally {
+            writeUnlock();
+        }
+        return found;
+    }
+
+    /**
+     * Bulk put of the keys whose owner is <code>owner</code>, or of all
+     * keys when <code>owners</code> is null.
+     */
+    protected void putAll(List keys, List values, int[] owners, int owner) {
+        writeLock();
+        try {
+            for (int i = 0, size = keys.size(); i < size; i++)
+                if (owners == null || owners[i] == owner)
+                    put(keys.get(i), values.get(i));
+        } finally {
+            writeUnlock();
+        }
+    }
+
+    /**
+     * Bulk removal of the keys whose owner is <code>owner</code>, or of all
+     * keys when <code>owners</code> is null.
+     */
+    protected int removeAll(List keys, int[] owners, int owner) {
+        int removed = 0;
+        writeLock();
+        try {
+            for (int i = 0, size = keys.size(); i < size; i++)
+                if ((owners == null || owners[i] == owner)
+                    && remove(keys.get(i)) != null)
+                    removed++;
+        } finally {
+            writeUnlock();
+        }
+        return removed;
+    }
+
     /**
      * If <code>key</code> is pinned into the cache, the pin is
      * cleared and the object is removed.
@@ -478,6 +713,16 @@ public class CacheMap
     public void clear() {
         writeLock();
         try {
+            for (Map.Entry<Object, Long> entry : _weights.entrySet()) {
+                Object val = pinnedMap.get(entry.getKey());
+                if (val == null)
+                    val = cacheMap.get(entry.getKey());
+                weightChanged(entry.getKey(), val, -entry.getValue());
+            }
+            _weights.clear();
+            _bytes = 0;
+            _pinnedBytes = 0;
+
             notifyEntryRemovals(pinnedMap.entrySet());
             pinnedMap.clear();
             _pinnedSize = 0;
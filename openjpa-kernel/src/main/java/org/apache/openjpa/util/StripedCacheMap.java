@@ -0,0 +1,428 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.util;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.collections4.iterators.IteratorChain;
+
+/**
+ * {@link CacheMap} that partitions its entries across a fixed number of
+ * independently locked segments. Keys are assigned to a segment by hash, so
+ * concurrent reads and writes of different keys rarely contend for the same
+ * lock, and LRU reordering is confined to a single segment. The maximum
+ * cache and soft reference sizes are split evenly among the segments, so
+ * eviction is approximate with respect to the map as a whole.
+ * Pinning, soft reference overflow and the {@link #entryAdded} /
+ * {@link #entryRemoved} callbacks behave as in the unsegmented map. The
+ * byte limit is split among the segments like the size limits.
+ * The map-wide {@link #readLock} and {@link #writeLock} acquire the
+ * corresponding lock of every segment in a fixed order.
+ *
+ * @since 3.1.3
+ */
+public class StripedCacheMap
+    extends CacheMap {
+
+    private final Segment[] _segments;
+    private final int _mask;
+
+    /**
+     * Create a non-LRU cache map with a size of 1000 and 16 segments.
+     */
+    public StripedCacheMap() {
+        this(false, 1000, 16);
+    }
+
+    /**
+     * Create a cache map with the given properties.
+     *
+     * @param lru if true, each segment evicts in LRU order
+     * @param max the maximum number of hard references, or -1 for no limit
+     * @param stripes the number of segments; rounded up to a power of two
+     */
+    public StripedCacheMap(boolean lru, int max, int stripes) {
+        // the inherited maps are never used; keep them minimal
+        super(lru, 0, 1, .75F, 1);
+        int n = 1;
+        while (n < stripes)
+            n <<= 1;
+        _mask = n - 1;
+        _segments = new Segment[n];
+        for (int i = 0; i < n; i++)
+            _segments[i] = new Segment(lru, share(max, n, i));
+    }
+
+    /**
+     * Return the share of the given total for the segment at the given
+     * index, or -1 for no limit.
+     */
+    private static int share(int total, int n, int idx) {
+        if (total < 0 || total == Integer.MAX_VALUE)
+            return -1;
+        return total / n + ((idx < total % n) ? 1 : 0);
+    }
+
+    /**
+     * The number of segments in this map.
+     */
+    public int getStripes() {
+        return _segments.length;
+    }
+
+    /**
+     * Return the segment responsible for the given key.
+     */
+    private Segment segmentFor(Object key) {
+        return _segments[indexFor(key)];
+    }
+
+    /**
+     * Return the index of the segment responsible for the given key.
+     */
+    private int indexFor(Object key) {
+        int h = (key == null) ? 0 : key.hashCode();
+        // spread the high bits down so that poor hashes still distribute
+        h ^= (h >>> 16);
+        return h & _mask;
+    }
+
+    /**
+     * Return the segment index of each of the given keys, and mark the
+     * segments that own at least one of them in <code>used</code>.
+     */
+    private int[] indexesFor(List keys, boolean[] used) {
+        int[] idxs = new int[keys.size()];
+        for (int i = 0; i < idxs.length; i++) {
+            idxs[i] = indexFor(keys.get(i));
+            used[idxs[i]] = true;
+        }
+        return idxs;
+    }
+
+    @Override
+    public void readLock() {
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i].readLock();
+    }
+
+    @Override
+    public void readUnlock() {
+        for (int i = _segments.length - 1; i >= 0; i--)
+            _segments[i].readUnlock();
+    }
+
+    @Override
+    public void writeLock() {
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i].writeLock();
+    }
+
+    @Override
+    public void writeUnlock() {
+        for (int i = _segments.length - 1; i >= 0; i--)
+            _segments[i].writeUnlock();
+    }
+
+    @Override
+    public void setCacheSize(int size) {
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i].setCacheSize(share(size, _segments.length, i));
+    }
+
+    @Override
+    public int getCacheSize() {
+        return total(true);
+    }
+
+    @Override
+    public void setSoftReferenceSize(int size) {
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i].setSoftReferenceSize(share(size, _segments.length,
+                i));
+    }
+
+    @Override
+    public int getSoftReferenceSize() {
+        return total(false);
+    }
+
+    @Override
+    public void setMaxBytes(long bytes) {
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i].setMaxBytes((bytes < 0) ? -1
+                : bytes / _segments.length
+                    + ((i < bytes % _segments.length) ? 1 : 0));
+    }
+
+    @Override
+    public long getMaxBytes() {
+        long sum = 0;
+        for (int i = 0; i < _segments.length; i++) {
+            if (_segments[i].getMaxBytes() == -1)
+                return -1;
+            sum += _segments[i].getMaxBytes();
+        }
+        return sum;
+    }
+
+    @Override
+    public long getBytes() {
+        long sum = 0;
+        for (int i = 0; i < _segments.length; i++)
+            sum += _segments[i].getBytes();
+        return sum;
+    }
+
+    /**
+     * Sum the cache or soft reference limits of all segments.
+     */
+    private int total(boolean hard) {
+        long sum = 0;
+        int max;
+        for (int i = 0; i < _segments.length; i++) {
+            max = (hard) ? _segments[i].getCacheSize()
+                : _segments[i].getSoftReferenceSize();
+            if (max == -1)
+                return -1;
+            sum += max;
+        }
+        return (int) Math.min(sum, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Set getPinnedKeys() {
+        Set keys = new HashSet();
+        for (int i = 0; i < _segments.length; i++)
+            keys.addAll(_segments[i].getPinnedKeys());
+        return Collections.unmodifiableSet(keys);
+    }
+
+    @Override
+    public boolean pin(Object key) {
+        return segmentFor(key).pin(key);
+    }
+
+    @Override
+    public boolean unpin(Object key) {
+        return segmentFor(key).unpin(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return segmentFor(key).get(key);
+    }
+
+    @Override
+    public Object put(Object key, Object value) {
+        return segmentFor(key).put(key, value);
+    }
+
+    @Override
+    public void putAll(Map map, boolean replaceExisting) {
+        Map.Entry entry;
+        for (Iterator itr = map.entrySet().iterator(); itr.hasNext();) {
+            entry = (Map.Entry) itr.next();
+            Segment seg = segmentFor(entry.getKey());
+            if (replaceExisting || !seg.containsKey(entry.getKey()))
+                seg.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return segmentFor(key).remove(key);
+    }
+
+    /**
+     * Looks up the keys of each segment under that segment's read lock.
+     */
+    @Override
+    public int getAll(List keys, Object[] values) {
+        boolean[] used = new boolean[_segments.length];
+        int[] idxs = indexesFor(keys, used);
+        int found = 0;
+        for (int i = 0; i < _segments.length; i++)
+            if (used[i])
+                found += _segments[i].getAll(keys, values, idxs, i);
+        return found;
+    }
+
+    @Override
+    public void putAll(List keys, List values) {
+        boolean[] used = new boolean[_segments.length];
+        int[] idxs = indexesFor(keys, used);
+        for (int i = 0; i < _segments.length; i++)
+            if (used[i])
+                _segments[i].putAll(keys, values, idxs, i);
+    }
+
+    @Override
+    public int removeAll(List keys) {
+        boolean[] used = new boolean[_segments.length];
+        int[] idxs = indexesFor(keys, used);
+        int removed = 0;
+        for (int i = 0; i < _segments.length; i++)
+            if (used[i])
+                removed += _segments[i].removeAll(keys, idxs, i);
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < _segments.length; i++)
+            _segments[i].clear();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < _segments.length; i++)
+            size += _segments[i].size();
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return segmentFor(key).containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object val) {
+        for (int i = 0; i < _segments.length; i++)
+            if (_segments[i].containsValue(val))
+                return true;
+        return false;
+    }
+
+    @Override
+    public Set keySet() {
+        return new AbstractSet() {
+            @Override
+            public int size() {
+                return StripedCacheMap.this.size();
+            }
+
+            @Override
+            public Iterator iterator() {
+                IteratorChain itr = new IteratorChain();
+                for (int i = 0; i < _segments.length; i++)
+                    itr.addIterator(_segments[i].keySet().iterator());
+                return itr;
+            }
+        };
+    }
+
+    @Override
+    public Collection values() {
+        return new AbstractCollection() {
+            @Override
+            public int size() {
+                return StripedCacheMap.this.size();
+            }
+
+            @Override
+            public Iterator iterator() {
+                IteratorChain itr = new IteratorChain();
+                for (int i = 0; i < _segments.length; i++)
+                    itr.addIterator(_segments[i].values().iterator());
+                return itr;
+            }
+        };
+    }
+
+    @Override
+    public Set entrySet() {
+        return new AbstractSet() {
+            @Override
+            public int size() {
+                return StripedCacheMap.this.size();
+            }
+
+            @Override
+            public boolean add(Object o) {
+                Map.Entry entry = (Map.Entry) o;
+                put(entry.getKey(), entry.getValue());
+                return true;
+            }
+
+            @Override
+            public Iterator iterator() {
+                IteratorChain itr = new IteratorChain();
+                for (int i = 0; i < _segments.length; i++)
+                    itr.addIterator(_segments[i].entrySet().iterator());
+                return itr;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder("StripedCacheMap:");
+        for (int i = 0; i < _segments.length; i++) {
+            if (i > 0)
+                buf.append("::");
+            buf.append(_segments[i]);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * A single segment. Forwards addition and removal notifications and
+     * weighing to the owning map so that subclasses only need to override
+     * the owning map's callbacks.
+     */
+    private class Segment
+        extends CacheMap {
+
+        public Segment(boolean lru, int max) {
+            super(lru, max, (max < 0) ? 500 : Math.max(max / 2, 16), .75F,
+                1);
+        }
+
+        @Override
+        protected void entryRemoved(Object key, Object value,
+            boolean expired) {
+            StripedCacheMap.this.entryRemoved(key, value, expired);
+        }
+
+        @Override
+        protected void entryAdded(Object key, Object value) {
+            StripedCacheMap.this.entryAdded(key, value);
+        }
+
+        @Override
+        protected long weigh(Object key, Object value) {
+            return StripedCacheMap.this.weigh(key, value);
+        }
+
+        @Override
+        protected void weightChanged(Object key, Object value, long delta) {
+            StripedCacheMap.this.weightChanged(key, value, delta);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestColumnarQueryResult {
+
+    private static List<Object> rows(int size) {
+        List<Object> rows = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+            rows.add(new Object[] { (long) i, i * 1.5d,
+                (i % 3 == 0) ? null : "name" + (i % 2), i % 2 == 0, null });
+        return rows;
+    }
+
+    @Test
+    public void testRowsRoundTrip() {
+        List<Object> rows = rows(20);
+        ColumnarQueryResult res = ColumnarQueryResult.newInstance(
+            new QueryKey(), rows);
+        assertNotNull(res);
+        assertEquals(20, res.size());
+        assertEquals(5, res.getColumnCount());
+        for (int i = 0; i < rows.size(); i++)
+            assertArrayEquals((Object[]) rows.get(i), (Object[]) res.get(i));
+
+        int i = 0;
+        for (Object row : res)
+            assertArrayEquals((Object[]) rows.get(i++), (Object[]) row);
+        assertEquals(20, i);
+        assertEquals(20, new ArrayList<>(res).size());
+    }
+
+    @Test
+    public void testUnencodableRows() {
+        QueryKey key = new QueryKey();
+        assertNull(ColumnarQueryResult.newInstance(key, rows(
+            ColumnarQueryResult.MIN_ROWS - 1)));
+
+        List<Object> rows = rows(20);
+        rows.set(3, new Object[] { 3, 4.5d, "name1", false, null });
+        assertNull(ColumnarQueryResult.newInstance(key, rows));
+
+        rows = rows(20);
+        rows.add(new Object[] { 1L, 1d, "x", true, BigDecimal.ONE });
+        assertNull(ColumnarQueryResult.newInstance(key, rows));
+
+        rows = rows(20);
+        rows.add(new Object[] { 1L });
+        assertNull(ColumnarQueryResult.newInstance(key, rows));
+    }
+
+    @Test
+    public void testSerialization() throws Exception {
+        List<Object> rows = rows(20);
+        ColumnarQueryResult res = ColumnarQueryResult.newInstance(
+            new QueryKey(), rows);
+        res.setTimestamp(42);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(res);
+        }
+        QueryResult copy;
+        try (ObjectInputStream in = new ObjectInputStream(
+            new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (QueryResult) in.readObject();
+        }
+        assertEquals(42, copy.getTimestamp());
+        assertEquals(20, copy.size());
+        assertArrayEquals((Object[]) rows.get(7), (Object[]) copy.get(7));
+        assertTrue(Arrays.deepEquals(rows.toArray(), copy.toArray()));
+    }
+
+    @Test
+    public void testSmallerWeight() {
+        List<Object> rows = rows(1000);
+        QueryKey key = new QueryKey();
+        DefaultCacheWeigher weigher = new DefaultCacheWeigher();
+        assertTrue(weigher.weigh(key, ColumnarQueryResult.newInstance(key,
+            rows)) * 2 < weigher.weigh(key, new QueryResult(key, rows)));
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testBucketBounds() {
+        for (long v = 0; v < 1000000; v += 7) {
+            int idx = LatencyHistogram.index(v);
+            assertTrue(v <= LatencyHistogram.highestValue(idx));
+            if (idx > 0)
+                assertTrue(v > LatencyHistogram.highestValue(idx - 1));
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram hist = new LatencyHistogram();
+        assertEquals(0, hist.getPercentile(50));
+        for (int i = 1; i <= 1000; i++)
+            hist.record(i * 1000L);
+        assertEquals(1000, hist.getCount());
+        assertEquals(1000000, hist.getMax());
+        assertEquals(500500, hist.getMean(), 0.1);
+        assertWithin(500000, hist.getPercentile(50));
+        assertWithin(990000, hist.getPercentile(99));
+        assertEquals(1000000, hist.getPercentile(100));
+        assertTrue(hist.getRate() > 0);
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " not near " + expected,
+            actual >= expected && actual <= expected * 1.07);
+    }
+
+    @Test
+    public void testStatisticsLatencies() {
+        CacheStatisticsImpl stats = new CacheStatisticsImpl();
+        stats.newLatency(String.class, CacheStatistics.OP_GET, 100);
+        assertNull(stats.getLatency(String.class.getName(),
+            CacheStatistics.OP_GET));
+
+        stats.enable();
+        stats.newLatency(String.class, CacheStatistics.OP_GET, 100);
+        stats.newLatency(String.class, CacheStatistics.OP_LOAD, 5000);
+        assertEquals(1, stats.getLatency(String.class.getName(),
+            CacheStatistics.OP_GET).getCount());
+        assertEquals(5000, stats.getLatency(String.class.getName(),
+            CacheStatistics.OP_LOAD).getMax());
+        assertEquals(0, stats.getLatency(String.class.getName(),
+            CacheStatistics.OP_PUT).getCount());
+
+        stats.reset();
+        assertNull(stats.getLatency(String.class.getName(),
+            CacheStatistics.OP_GET));
+    }
+}
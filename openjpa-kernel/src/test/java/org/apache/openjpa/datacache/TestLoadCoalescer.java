@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.datacache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestLoadCoalescer {
+
+    @Test
+    public void testOneClaimPerOid() {
+        LoadCoalescer loads = new LoadCoalescer(1000);
+        assertTrue(loads.claim("a"));
+        assertFalse(loads.claim("a"));
+        assertTrue(loads.claim("b"));
+        assertEquals(2, loads.size());
+        loads.finish("a");
+        assertTrue(loads.claim("a"));
+    }
+
+    @Test
+    public void testWaitersReleasedOnFinish() throws Exception {
+        final LoadCoalescer loads = new LoadCoalescer(10000);
+        assertTrue(loads.claim("a"));
+
+        final int threads = 8;
+        final CountDownLatch started = new CountDownLatch(threads);
+        final AtomicInteger released = new AtomicInteger();
+        Thread[] waiters = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            waiters[i] = new Thread(() -> {
+                started.countDown();
+                if (!loads.claim("a") && loads.await("a"))
+                    released.incrementAndGet();
+            });
+            waiters[i].start();
+        }
+        started.await();
+        Thread.sleep(50);
+        assertEquals(0, released.get());
+
+        loads.finish("a");
+        for (Thread waiter : waiters)
+            waiter.join(5000);
+        assertEquals(threads, released.get());
+        assertEquals(0, loads.size());
+    }
+
+    @Test
+    public void testNoWaitOnOwnLoadOrPastTimeout() throws Exception {
+        final LoadCoalescer loads = new LoadCoalescer(10);
+        assertTrue(loads.claim("a"));
+        assertFalse(loads.await("a"));
+
+        final boolean[] result = new boolean[] { true };
+        Thread other = new Thread(() -> result[0] = loads.await("a"));
+        other.start();
+        other.join(5000);
+        assertFalse(result[0]);
+        assertTrue(loads.await("b"));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.event;
+
+import java.io.DataInputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import org.apache.openjpa.lib.log.NoneLogFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestNonBlockingTCPSender {
+
+    @Test
+    public void testPacketsArriveInOrder() throws Exception {
+        NonBlockingTCPSender sender = new NonBlockingTCPSender(
+            new NoneLogFactory().getLog("test"));
+        try (ServerSocket server = new ServerSocket(0, 50,
+            InetAddress.getLoopbackAddress())) {
+            NonBlockingTCPSender.Peer peer = sender.newPeer(
+                InetAddress.getLoopbackAddress(), server.getLocalPort(), 100,
+                1000);
+            for (int i = 0; i < 50; i++)
+                assertTrue(peer.offer(new byte[] { (byte) i, (byte) -i }));
+
+            try (Socket s = server.accept()) {
+                DataInputStream in = new DataInputStream(s.getInputStream());
+                for (int i = 0; i < 50; i++) {
+                    assertEquals((byte) i, in.readByte());
+                    assertEquals((byte) -i, in.readByte());
+                }
+            }
+            assertEquals(0, peer.getDroppedCount());
+            peer.close();
+        } finally {
+            sender.close();
+        }
+    }
+
+    @Test
+    public void testUnreachablePeerDropsWithoutBlocking() throws Exception {
+        NonBlockingTCPSender sender = new NonBlockingTCPSender(
+            new NoneLogFactory().getLog("test"));
+        int port;
+        try (ServerSocket server = new ServerSocket(0, 50,
+            InetAddress.getLoopbackAddress())) {
+            port = server.getLocalPort();
+        }
+        try {
+            NonBlockingTCPSender.Peer peer = sender.newPeer(
+                InetAddress.getLoopbackAddress(), port, 2, 60000);
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < 100; i++)
+                peer.offer(new byte[1024]);
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            assertTrue(peer.getDroppedCount() >= 98);
+            assertTrue(peer.getQueuedCount() <= 2);
+        } finally {
+            sender.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestRemoteCommitCoalescing {
+
+    @Test
+    public void testNoWindowBroadcastsImmediately() {
+        RecordingProvider provider = new RecordingProvider();
+        provider.publish(event("a"));
+        provider.publish(event("b"));
+        assertEquals(2, provider.sent.size());
+        assertEquals(0, provider.getCoalescedPacketCount());
+    }
+
+    @Test
+    public void testMergedWithinWindow() throws Exception {
+        RecordingProvider provider = new RecordingProvider();
+        provider.setCoalesceWindowMillis(50);
+        provider.publish(event("a"));
+        provider.publish(event("b"));
+        provider.publish(event("c"));
+        assertTrue(provider.sent.isEmpty());
+
+        long end = System.currentTimeMillis() + 5000;
+        while (provider.size() == 0 && System.currentTimeMillis() < end)
+            Thread.sleep(10);
+        assertEquals(1, provider.size());
+        RemoteCommitEvent merged = provider.sent.get(0);
+        assertEquals(Arrays.asList("a", "b", "c"),
+            new ArrayList(merged.getUpdatedObjectIds()));
+        assertEquals(Collections.singletonList("T"),
+            new ArrayList(merged.getPersistedTypeNames()));
+        assertEquals(3, provider.getCoalescedCommitCount());
+        assertEquals(1, provider.getCoalescedPacketCount());
+        assertEquals(3, provider.getMaxCommitsPerPacket());
+        provider.flush();
+    }
+
+    @Test
+    public void testMaxSizeAndFlush() {
+        RecordingProvider provider = new RecordingProvider();
+        provider.setCoalesceWindowMillis(60000);
+        provider.setCoalesceMaxSize(3);
+        provider.publish(event("a"));
+        provider.publish(event("b"));
+        assertEquals(1, provider.size());
+        provider.publish(event("c"));
+        assertEquals(1, provider.size());
+        provider.flush();
+        assertEquals(2, provider.size());
+        assertEquals(Arrays.asList("c"),
+            new ArrayList(provider.sent.get(1).getUpdatedObjectIds()));
+    }
+
+    private static RemoteCommitEvent event(String oid) {
+        return new RemoteCommitEvent(RemoteCommitEvent.PAYLOAD_OIDS, null,
+            Collections.singleton("T"), Collections.singleton(oid), null);
+    }
+
+    private static class RecordingProvider
+        extends AbstractRemoteCommitProvider {
+
+        private final List<RemoteCommitEvent> sent =
+            Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void broadcast(RemoteCommitEvent event) {
+            sent.add(event);
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private int size() {
+            return sent.size();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.event;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.openjpa.util.BigDecimalId;
+import org.apache.openjpa.util.DateId;
+import org.apache.openjpa.util.Id;
+import org.apache.openjpa.util.IntId;
+import org.apache.openjpa.util.LongId;
+import org.apache.openjpa.util.ObjectId;
+import org.apache.openjpa.util.StringId;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestRemoteCommitEventCodec {
+
+    @Test
+    public void testRoundTripOids() throws Exception {
+        List updates = new ArrayList();
+        updates.add(new LongId(String.class, 42L, false));
+        updates.add(new LongId(String.class, -1L));
+        updates.add(new StringId(Integer.class, "key"));
+        updates.add(new IntId(String.class, 7, true));
+        updates.add(new Id(String.class, 1234567890123L));
+        updates.add(new DateId(String.class, new Date(1000L), false));
+        updates.add(new BigDecimalId(String.class, new BigDecimal("1.50"),
+            false));
+        updates.add(new ObjectId(String.class, Arrays.asList("a", "b")));
+        List deletes = Arrays.asList(new LongId(String.class, 3L), null, "x");
+
+        RemoteCommitEvent event = new RemoteCommitEvent(
+            RemoteCommitEvent.PAYLOAD_OIDS, null,
+            Arrays.asList(String.class.getName()), updates, deletes);
+        RemoteCommitEvent copy = RemoteCommitEventCodec.decode(
+            RemoteCommitEventCodec.encode(event, -1));
+
+        assertEquals(RemoteCommitEvent.PAYLOAD_OIDS, copy.getPayloadType());
+        assertEquals(new ArrayList(event.getPersistedTypeNames()),
+            new ArrayList(copy.getPersistedTypeNames()));
+        assertEquals(updates, new ArrayList(copy.getUpdatedObjectIds()));
+        assertEquals(deletes, new ArrayList(copy.getDeletedObjectIds()));
+        LongId id = (LongId) copy.getUpdatedObjectIds().iterator().next();
+        assertFalse(id.hasSubclasses());
+    }
+
+    @Test
+    public void testRoundTripPatches() throws Exception {
+        LongId oid = new LongId(String.class, 1L);
+        Map<Object, UpdatePatch> patches = new LinkedHashMap<>();
+        patches.put(oid, new UpdatePatch(1, 2, new int[] { 0, 3 },
+            new Object[] { "name", null }));
+        RemoteCommitEvent event = new RemoteCommitEvent(
+            RemoteCommitEvent.PAYLOAD_OIDS, null, null, Arrays.asList(oid),
+            null, patches);
+        RemoteCommitEvent copy = RemoteCommitEventCodec.decode(
+            RemoteCommitEventCodec.encode(event, -1));
+
+        UpdatePatch patch = copy.getUpdatePatches().get(oid);
+        assertEquals(1, patch.getPreviousVersion());
+        assertEquals(2, patch.getVersion());
+        assertArrayEquals(new int[] { 0, 3 }, patch.getFields());
+        assertArrayEquals(new Object[] { "name", null }, patch.getValues());
+        assertTrue(patch.isStale(2));
+        assertTrue(patch.isStale(3));
+        assertFalse(patch.isStale(1));
+
+        // the next update of the instance extends the patch
+        UpdatePatch merged = patch.merge(new UpdatePatch(2, 3,
+            new int[] { 1, 3 }, new Object[] { "x", "y" }));
+        assertEquals(1, merged.getPreviousVersion());
+        assertEquals(3, merged.getVersion());
+        assertArrayEquals(new int[] { 0, 1, 3 }, merged.getFields());
+        assertArrayEquals(new Object[] { "name", "x", "y" },
+            merged.getValues());
+
+        // events without patches decode without them
+        copy = RemoteCommitEventCodec.decode(RemoteCommitEventCodec.encode(
+            new RemoteCommitEvent(RemoteCommitEvent.PAYLOAD_OIDS, null, null,
+                Arrays.asList(oid), null), -1));
+        assertTrue(copy.getUpdatePatches().isEmpty());
+    }
+
+    @Test
+    public void testRejectsOtherVersions() throws Exception {
+        byte[] data = RemoteCommitEventCodec.encode(new RemoteCommitEvent(
+            RemoteCommitEvent.PAYLOAD_OIDS, null, null,
+            Arrays.asList(new LongId(String.class, 1L)), null), -1);
+        assertEquals(RemoteCommitEventCodec.VERSION, data[0]);
+        data[0] = RemoteCommitEventCodec.VERSION - 1;
+        assertCorrupt(data);
+        data[0] = RemoteCommitEventCodec.VERSION + 1;
+        assertCorrupt(data);
+    }
+
+    @Test
+    public void testRoundTripExtentsWithAdds() throws Exception {
+        RemoteCommitEvent event = new RemoteCommitEvent(
+            RemoteCommitEvent.PAYLOAD_OIDS_WITH_ADDS,
+            Arrays.asList(new LongId(String.class, 1L)),
+            Arrays.asList("A"), Arrays.asList(), null);
+        RemoteCommitEvent copy = RemoteCommitEventCodec.decode(
+            RemoteCommitEventCodec.encode(event, -1));
+        assertEquals(1, copy.getPersistedObjectIds().size());
+        assertEquals(0, copy.getUpdatedObjectIds().size());
+
+        event = new RemoteCommitEvent(RemoteCommitEvent.PAYLOAD_EXTENTS, null,
+            Arrays.asList("A"), Arrays.asList("B"), Arrays.asList("C"));
+        copy = RemoteCommitEventCodec.decode(
+            RemoteCommitEventCodec.encode(event, -1));
+        assertEquals(Arrays.asList("B"),
+            new ArrayList(copy.getUpdatedTypeNames()));
+        assertEquals(Arrays.asList("C"),
+            new ArrayList(copy.getDeletedTypeNames()));
+    }
+
+    @Test
+    public void testRejectsOversizedLengths() throws Exception {
+        // a collection claiming Integer.MAX_VALUE elements
+        assertCorrupt(new byte[] { RemoteCommitEventCodec.VERSION, 0, 0,
+            (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+        // a string claiming more bytes than the payload holds
+        assertCorrupt(new byte[] { RemoteCommitEventCodec.VERSION, 0, 0, 2,
+            1, 0, 100, 'a' });
+        // a deflated payload claiming a huge inflated size
+        assertCorrupt(new byte[] { RemoteCommitEventCodec.VERSION, 1,
+            0x7F, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0 });
+        // a truncated deflated header
+        assertCorrupt(new byte[] { RemoteCommitEventCodec.VERSION, 1, 0 });
+    }
+
+    private static void assertCorrupt(byte[] data) throws Exception {
+        try {
+            RemoteCommitEventCodec.decode(data);
+            fail("Expected StreamCorruptedException");
+        } catch (StreamCorruptedException sce) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCompressionAndSize() throws Exception {
+        Collection updates = new ArrayList();
+        for (long i = 0; i < 1000; i++)
+            updates.add(new LongId(RemoteCommitEvent.class, i));
+        RemoteCommitEvent event = new RemoteCommitEvent(
+            RemoteCommitEvent.PAYLOAD_OIDS, null, null, updates, null);
+
+        byte[] plain = RemoteCommitEventCodec.encode(event, -1);
+        byte[] deflated = RemoteCommitEventCodec.encode(event, 100);
+        assertTrue(deflated.length < plain.length);
+        assertEquals(updates, new ArrayList(RemoteCommitEventCodec
+            .decode(deflated).getUpdatedObjectIds()));
+
+        ByteArrayOutputStream java = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(java)) {
+            oos.writeObject(event);
+        }
+        assertTrue(plain.length * 4 < java.size());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestCacheMapBytes {
+
+    /**
+     * Weighs string values by their length and records weight changes.
+     */
+    private static class WeighingCacheMap
+        extends CacheMap {
+
+        final Map<Object, Long> changes = new HashMap<>();
+
+        WeighingCacheMap(boolean lru) {
+            super(lru);
+            setCacheSize(-1);
+        }
+
+        @Override
+        protected long weigh(Object key, Object value) {
+            return ((String) value).length();
+        }
+
+        @Override
+        protected void weightChanged(Object key, Object value, long delta) {
+            changes.merge(key, delta, Long::sum);
+        }
+    }
+
+    @Test
+    public void testBytesTracked() {
+        WeighingCacheMap map = new WeighingCacheMap(false);
+        map.put(1, "aaaa");
+        map.put(2, "bb");
+        assertEquals(6, map.getBytes());
+        map.put(1, "a");
+        assertEquals(3, map.getBytes());
+        map.remove(2);
+        assertEquals(1, map.getBytes());
+        assertEquals(Long.valueOf(1), map.changes.get(1));
+        assertEquals(Long.valueOf(0), map.changes.get(2));
+
+        // pinned entries are weighed but not evicted
+        map.pin(1);
+        assertEquals(1, map.getBytes());
+        map.clear();
+        assertEquals(0, map.getBytes());
+        assertEquals(Long.valueOf(0), map.changes.get(1));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedByBytes() {
+        WeighingCacheMap map = new WeighingCacheMap(true);
+        map.setSoftReferenceSize(0);
+        map.setMaxBytes(10);
+        map.put(1, "aaaa");
+        map.put(2, "bbbb");
+        map.get(1);
+        map.put(3, "cccc");
+        assertTrue(map.getBytes() <= 10);
+        assertTrue(map.containsKey(1));
+        assertFalse(map.containsKey(2));
+        assertTrue(map.containsKey(3));
+
+        map.setMaxBytes(4);
+        assertEquals(4, map.getBytes());
+        assertTrue(map.containsKey(3));
+    }
+
+    @Test
+    public void testPinnedBytesNotEvicted() {
+        WeighingCacheMap map = new WeighingCacheMap(false);
+        map.setSoftReferenceSize(0);
+        map.setMaxBytes(5);
+        map.pin(1);
+        map.put(1, "pinned");
+        for (int i = 2; i < 20; i++)
+            map.put(i, "xx");
+        assertEquals("pinned", map.get(1));
+        assertTrue(map.getBytes() <= 5 + 6);
+    }
+
+    @Test
+    public void testStripedMapSplitsByteLimit() {
+        StripedCacheMap map = new StripedCacheMap(false, 1000, 4) {
+            @Override
+            protected long weigh(Object key, Object value) {
+                return 10;
+            }
+        };
+        map.setCacheSize(-1);
+        map.setSoftReferenceSize(0);
+        map.setMaxBytes(400);
+        assertEquals(400, map.getMaxBytes());
+        for (int i = 0; i < 100; i++)
+            map.put(i, "v");
+        assertTrue(map.getBytes() <= 400);
+        assertTrue(map.size() > 0);
+    }
+}
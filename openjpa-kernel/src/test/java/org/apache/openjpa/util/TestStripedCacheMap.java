@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestStripedCacheMap {
+
+    @Test
+    public void testStripesRoundedToPowerOfTwo() {
+        StripedCacheMap map = new StripedCacheMap(false, 100, 5);
+        assertEquals(8, map.getStripes());
+        assertEquals(100, map.getCacheSize());
+        map.setCacheSize(-1);
+        assertEquals(-1, map.getCacheSize());
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        StripedCacheMap map = new StripedCacheMap(true, 1000, 4);
+        for (int i = 0; i < 100; i++)
+            assertNull(map.put(i, "v" + i));
+        assertEquals(100, map.size());
+        for (int i = 0; i < 100; i++)
+            assertEquals("v" + i, map.get(i));
+        assertEquals("v7", map.remove(7));
+        assertFalse(map.containsKey(7));
+        assertEquals(99, map.size());
+        assertEquals(99, map.keySet().size());
+
+        Set keys = new HashSet(map.keySet());
+        assertEquals(99, keys.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testPinning() {
+        StripedCacheMap map = new StripedCacheMap(false, 1000, 4);
+        map.put("a", "1");
+        assertTrue(map.pin("a"));
+        assertFalse(map.pin("b"));
+        assertEquals(2, map.getPinnedKeys().size());
+        map.put("b", "2");
+        assertEquals("2", map.get("b"));
+        assertTrue(map.unpin("a"));
+        assertEquals(1, map.getPinnedKeys().size());
+        assertEquals("1", map.get("a"));
+    }
+
+    @Test
+    public void testCallbacksForwardedFromSegments() {
+        final Set removed = new HashSet();
+        StripedCacheMap map = new StripedCacheMap(false, 4, 2) {
+            @Override
+            protected void entryRemoved(Object key, Object value,
+                boolean expired) {
+                removed.add(key);
+            }
+        };
+        map.setSoftReferenceSize(0);
+        for (int i = 0; i < 20; i++)
+            map.put(i, i);
+        assertTrue(map.size() <= 4);
+        assertEquals(20 - map.size(), removed.size());
+    }
+
+    @Test
+    public void testBulkOperations() {
+        StripedCacheMap map = new StripedCacheMap(true, 1000, 4);
+        List keys = new ArrayList();
+        List values = new ArrayList();
+        for (int i = 0; i < 50; i++) {
+            keys.add(i);
+            values.add("v" + i);
+        }
+        map.putAll(keys, values);
+        assertEquals(50, map.size());
+        assertTrue(map.pin(3));
+
+        keys.add(99);
+        Object[] found = new Object[keys.size()];
+        assertEquals(50, map.getAll(keys, found));
+        for (int i = 0; i < 50; i++)
+            assertEquals("v" + i, found[i]);
+        assertNull(found[50]);
+
+        assertEquals(50, map.removeAll(keys));
+        assertTrue(map.isEmpty());
+        assertTrue(map.getPinnedKeys().contains(3));
+    }
+}
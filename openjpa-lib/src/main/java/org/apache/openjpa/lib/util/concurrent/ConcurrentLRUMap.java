@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.lib.util.concurrent;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size-bounded map for caches that are read far more often than they are
+ * written. Lookups take no lock: they read a
+ * {@link java.util.concurrent.ConcurrentHashMap} and mark the entry as
+ * recently used. When an insertion exceeds the maximum size, entries are
+ * evicted in approximate least-recently-used order by the CLOCK algorithm:
+ * insertion order is kept in a queue, and an entry that was used since the
+ * last time the queue reached it gets a second chance instead of being
+ * evicted. Only eviction is serialized.
+ *
+ * @since 3.1.3
+ */
+public class ConcurrentLRUMap<K, V>
+    extends AbstractMap<K, V> {
+
+    private final java.util.concurrent.ConcurrentHashMap<K, Node<K, V>> _map =
+        new java.util.concurrent.ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Node<K, V>> _clock =
+        new ConcurrentLinkedQueue<>();
+    private final ReentrantLock _evictLock = new ReentrantLock();
+
+    // number of removed entries still in the clock queue
+    private final AtomicInteger _dead = new AtomicInteger();
+    private volatile int _maxSize;
+
+    /**
+     * Create a map holding at most the given number of entries.
+     */
+    public ConcurrentLRUMap(int maxSize) {
+        _maxSize = (maxSize < 0) ? Integer.MAX_VALUE : maxSize;
+    }
+
+    /**
+     * The maximum number of entries, or Integer.MAX_VALUE for no limit.
+     */
+    public int getMaxSize() {
+        return _maxSize;
+    }
+
+    /**
+     * The maximum number of entries; a negative value means no limit.
+     */
+    public void setMaxSize(int maxSize) {
+        _maxSize = (maxSize < 0) ? Integer.MAX_VALUE : maxSize;
+        evict();
+    }
+
+    /**
+     * Whether the map is full.
+     */
+    public boolean isFull() {
+        return _map.size() >= _maxSize;
+    }
+
+    /**
+     * Overridable callback for when an entry is evicted to make room for
+     * another.
+     */
+    public void overflowRemoved(K key, V value) {
+    }
+
+    @Override
+    public int size() {
+        return _map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return _map.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = _map.get(key);
+        if (node == null)
+            return null;
+        // avoid writing the shared flag when it is already set
+        if (!node.referenced)
+            node.referenced = true;
+        return node.value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Node<K, V> node = new Node<>(key, value);
+        Node<K, V> old = _map.put(key, node);
+        if (old != null)
+            unlinked(old);
+        _clock.offer(node);
+        if (_map.size() > _maxSize)
+            evict();
+        return (old == null) ? null : old.value;
+    }
+
+    /**
+     * Add the given entry unless the key is already mapped.
+     *
+     * @return the existing value, or null if the entry was added
+     */
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Node<K, V> node = new Node<>(key, value);
+        Node<K, V> old = _map.putIfAbsent(key, node);
+        if (old != null)
+            return old.value;
+        _clock.offer(node);
+        if (_map.size() > _maxSize)
+            evict();
+        return null;
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<K, V> node = _map.remove(key);
+        if (node == null)
+            return null;
+        unlinked(node);
+        return node.value;
+    }
+
+    @Override
+    public void clear() {
+        _evictLock.lock();
+        try {
+            _map.clear();
+            _clock.clear();
+            _dead.set(0);
+        } finally {
+            _evictLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final Iterator<Node<K, V>> itr = _map.values().iterator();
+                return new Iterator<Map.Entry<K, V>>() {
+                    private Node<K, V> _last;
+
+                    @Override
+                    public boolean hasNext() {
+                        return itr.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        _last = itr.next();
+                        return new SimpleImmutableEntry<>(_last.key,
+                            _last.value);
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (_last == null)
+                            throw new IllegalStateException();
+                        if (_map.remove(_last.key, _last))
+                            unlinked(_last);
+                        _last = null;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return _map.size();
+            }
+
+            @Override
+            public void clear() {
+                ConcurrentLRUMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * Account for an entry that left the map but is still queued; purge the
+     * queue once such entries outnumber the live ones.
+     */
+    private void unlinked(Node<K, V> node) {
+        node.removed = true;
+        if (_dead.incrementAndGet() > _map.size() + 16
+            && _evictLock.tryLock()) {
+            try {
+                _clock.removeIf(n -> n.removed);
+                _dead.set(0);
+            } finally {
+                _evictLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evict entries until the map is within its maximum size.
+     */
+    private void evict() {
+        _evictLock.lock();
+        try {
+            Node<K, V> node;
+            while (_map.size() > _maxSize && (node = _clock.poll()) != null) {
+                if (node.removed) {
+                    _dead.decrementAndGet();
+                } else if (node.referenced) {
+                    node.referenced = false;
+                    _clock.offer(node);
+                } else if (_map.remove(node.key, node)) {
+                    node.removed = true;
+                    overflowRemoved(node.key, node.value);
+                }
+            }
+        } finally {
+            _evictLock.unlock();
+        }
+    }
+
+    /**
+     * A mapping and its CLOCK state.
+     */
+    private static class Node<K, V> {
+        private final K key;
+        private final V value;
+        private volatile boolean referenced = false;
+        private volatile boolean removed = false;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
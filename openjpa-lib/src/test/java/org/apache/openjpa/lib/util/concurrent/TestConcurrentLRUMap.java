@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.lib.util.concurrent;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the {@link ConcurrentLRUMap}.
+ */
+public class TestConcurrentLRUMap {
+
+    @Test
+    public void testBasics() {
+        ConcurrentLRUMap<String, Integer> map = new ConcurrentLRUMap<>(10);
+        assertNull(map.put("a", 1));
+        assertEquals(Integer.valueOf(1), map.put("a", 2));
+        assertEquals(Integer.valueOf(2), map.get("a"));
+        assertEquals(Integer.valueOf(2), map.putIfAbsent("a", 3));
+        assertNull(map.putIfAbsent("b", 4));
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(4), map.remove("b"));
+        assertFalse(map.containsKey("b"));
+
+        Iterator<Map.Entry<String, Integer>> itr = map.entrySet().iterator();
+        assertEquals("a", itr.next().getKey());
+        itr.remove();
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testEvictsUnusedEntries() {
+        final List<Integer> evicted = new ArrayList<>();
+        ConcurrentLRUMap<Integer, Integer> map =
+            new ConcurrentLRUMap<Integer, Integer>(3) {
+                @Override
+                public void overflowRemoved(Integer key, Integer value) {
+                    evicted.add(key);
+                }
+            };
+        map.put(1, 1);
+        map.put(2, 2);
+        map.put(3, 3);
+        map.get(1);
+        map.put(4, 4);
+
+        assertEquals(3, map.size());
+        assertEquals(1, evicted.size());
+        assertEquals(Integer.valueOf(2), evicted.get(0));
+        assertTrue(map.containsKey(1));
+        assertTrue(map.isFull());
+
+        map.setMaxSize(1);
+        assertEquals(1, map.size());
+        assertEquals(3, evicted.size());
+    }
+
+    @Test
+    public void testRemovalsDoNotGrowQueue() {
+        ConcurrentLRUMap<Integer, Integer> map = new ConcurrentLRUMap<>(-1);
+        assertEquals(Integer.MAX_VALUE, map.getMaxSize());
+        for (int i = 0; i < 100000; i++) {
+            map.put(i % 10, i);
+            map.remove((i + 5) % 10);
+        }
+        assertTrue(map.size() <= 10);
+        map.setMaxSize(2);
+        assertEquals(2, map.size());
+    }
+}
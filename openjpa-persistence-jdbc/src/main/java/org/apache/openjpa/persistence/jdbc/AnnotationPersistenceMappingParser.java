@@ -75,6 +75,7 @@ import static org.apache.openjpa.persistence.jdbc.MappingTag.ORDER_COL;
 import static org.apache.openjpa.persistence.jdbc.MappingTag.ORDER_COLUMN;
 import static org.apache.openjpa.persistence.jdbc.MappingTag.PK_JOIN_COL;
 import static org.apache.openjpa.persistence.jdbc.MappingTag.PK_JOIN_COLS;
+import static org.apache.openjpa.persistence.jdbc.MappingTag.RELATION_BATCH_SIZE;
 import static org.apache.openjpa.persistence.jdbc.MappingTag.SECONDARY_TABLE;
 import static org.apache.openjpa.persistence.jdbc.MappingTag.SECONDARY_TABLES;
 import static org.apache.openjpa.persistence.jdbc.MappingTag.SQL_RESULT_SET_MAPPING;
@@ -266,6 +267,7 @@ public class AnnotationPersistenceMappingParser
         _tags.put(MappingOverrides.class, MAPPING_OVERRIDES);
         _tags.put(Nonpolymorphic.class, NONPOLY);
         _tags.put(OrderColumn.class, ORDER_COL);
+        _tags.put(RelationBatchSize.class, RELATION_BATCH_SIZE);
         _tags.put(javax.persistence.OrderColumn.class, ORDER_COLUMN);
         _tags.put(Strategy.class, STRAT);
         _tags.put(SubclassFetchMode.class, SUBCLASS_FETCH_MODE);
@@ -1132,6 +1134,8 @@ public class AnnotationPersistenceMappingParser
                 return EagerFetchModes.EAGER_JOIN;
             case PARALLEL:
                 return EagerFetchModes.EAGER_PARALLEL;
+            case SUBSELECT:
+                return EagerFetchModes.EAGER_SUBSELECT;
             default:
                 throw new InternalException();
         }
@@ -1347,6 +1351,9 @@ public class AnnotationPersistenceMappingParser
                     fm.setPolymorphic(toPolymorphicConstant
                         (((Nonpolymorphic) anno).value()));
                     break;
+                case RELATION_BATCH_SIZE:
+                    fm.setRelationBatchSize(((RelationBatchSize) anno).value());
+                    break;
                 case ORDER_COLUMN:
                     parseJavaxOrderColumn(fm,
                         (javax.persistence.OrderColumn)anno);
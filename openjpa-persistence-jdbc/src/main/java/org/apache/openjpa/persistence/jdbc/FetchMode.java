@@ -32,7 +32,11 @@ import org.apache.openjpa.persistence.OpenJPAEnum;
 public enum FetchMode implements OpenJPAEnum<FetchMode>{
     NONE(EagerFetchModes.EAGER_NONE, "none"),
     JOIN(EagerFetchModes.EAGER_JOIN, "join"),
-    PARALLEL(EagerFetchModes.EAGER_PARALLEL, "parallel");
+    PARALLEL(EagerFetchModes.EAGER_PARALLEL, "parallel"),
+    /**
+     * @since 3.1.3
+     */
+    SUBSELECT(EagerFetchModes.EAGER_SUBSELECT, "subselect");
 
     private final int eagerFetchConstant;
     private final String[] _names;
@@ -58,6 +62,9 @@ public enum FetchMode implements OpenJPAEnum<FetchMode>{
             case EagerFetchModes.EAGER_PARALLEL:
                 return PARALLEL;
 
+            case EagerFetchModes.EAGER_SUBSELECT:
+                return SUBSELECT;
+
             default:
                 throw new IllegalArgumentException(kernelConstant + "");
         }
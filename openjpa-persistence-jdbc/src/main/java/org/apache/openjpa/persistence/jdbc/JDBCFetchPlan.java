@@ -116,6 +116,24 @@ public interface JDBCFetchPlan
      */
     JDBCFetchPlan setIsolation(IsolationLevel level);
 
+    /**
+     * The number of instances whose lazy relation field is loaded together
+     * when the field is first accessed on one of them. Values of 1 or less
+     * disable batch loading.
+     *
+     * @since 3.1.3
+     */
+    int getRelationBatchSize();
+
+    /**
+     * The number of instances whose lazy relation field is loaded together
+     * when the field is first accessed on one of them. Values of 1 or less
+     * disable batch loading.
+     *
+     * @since 3.1.3
+     */
+    JDBCFetchPlan setRelationBatchSize(int size);
+
 
     // covariant type support for return vals
 
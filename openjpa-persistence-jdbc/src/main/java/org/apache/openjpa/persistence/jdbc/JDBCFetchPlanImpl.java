@@ -46,12 +46,15 @@ public class JDBCFetchPlanImpl
     private DelegatingJDBCFetchConfiguration _fetch;
     static {
         registerHint(new String[]{"openjpa.FetchPlan.EagerFetchMode", "openjpa.jdbc.EagerFetchMode"},
-            new HintValueConverter.StringToInteger(new String[]{"none", "0", "join", "1", "parallel", "2"},
+            new HintValueConverter.StringToInteger(new String[]{"none", "0", "join", "1", "parallel", "2",
+                "subselect", "3"},
                 new int[]{EagerFetchModes.EAGER_NONE, EagerFetchModes.EAGER_NONE,
                           EagerFetchModes.EAGER_JOIN, EagerFetchModes.EAGER_JOIN,
-                          EagerFetchModes.EAGER_PARALLEL,EagerFetchModes.EAGER_PARALLEL}),
+                          EagerFetchModes.EAGER_PARALLEL,EagerFetchModes.EAGER_PARALLEL,
+                          EagerFetchModes.EAGER_SUBSELECT, EagerFetchModes.EAGER_SUBSELECT}),
             new HintValueConverter.EnumToInteger(FetchMode.class,
-                new int[]{EagerFetchModes.EAGER_NONE, EagerFetchModes.EAGER_JOIN, EagerFetchModes.EAGER_PARALLEL}));
+                new int[]{EagerFetchModes.EAGER_NONE, EagerFetchModes.EAGER_JOIN, EagerFetchModes.EAGER_PARALLEL,
+                    EagerFetchModes.EAGER_SUBSELECT}));
         registerHint(new String[]{"openjpa.JoinSyntax", "openjpa.jdbc.JoinSyntax","openjpa.FetchPlan.JoinSyntax"},
             new HintValueConverter.EnumToInteger(JoinSyntax.class,
                 new int[]{JoinSyntaxes.SYNTAX_SQL92, JoinSyntaxes.SYNTAX_TRADITIONAL, JoinSyntaxes.SYNTAX_DATABASE}),
@@ -222,6 +225,17 @@ public class JDBCFetchPlanImpl
         return this;
     }
 
+    @Override
+    public int getRelationBatchSize() {
+        return _fetch.getRelationBatchSize();
+    }
+
+    @Override
+    public JDBCFetchPlan setRelationBatchSize(int size) {
+        _fetch.setRelationBatchSize(size);
+        return this;
+    }
+
     @Override
     public JDBCFetchPlan addFetchGroup(String group) {
         return (JDBCFetchPlan) super.addFetchGroup(group);
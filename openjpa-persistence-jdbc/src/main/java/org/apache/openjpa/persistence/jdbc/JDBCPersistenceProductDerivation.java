@@ -132,6 +132,7 @@ public class JDBCPersistenceProductDerivation
         _hints.add("openjpa.FetchPlan.Isolation");
         _hints.add("openjpa.FetchPlan.JoinSyntax");
         _hints.add("openjpa.FetchPlan.LRSSize");
+        _hints.add("openjpa.FetchPlan.RelationBatchSize");
         _hints.add("openjpa.FetchPlan.ResultSetType");
         _hints.add("openjpa.FetchPlan.SubclassFetchMode");
 
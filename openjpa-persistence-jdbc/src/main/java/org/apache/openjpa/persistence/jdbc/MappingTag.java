@@ -101,6 +101,7 @@ enum MappingTag {
     NAME,
     NONPOLY,
     ORDER_COL,
+    RELATION_BATCH_SIZE,
     STRAT,
     SUBCLASS_FETCH_MODE,
     UNIQUE,
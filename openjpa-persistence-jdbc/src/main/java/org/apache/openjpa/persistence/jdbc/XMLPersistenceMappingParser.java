@@ -1591,6 +1591,8 @@ public class XMLPersistenceMappingParser
             return EagerFetchModes.EAGER_JOIN;
         else if (mode.equals("PARALLEL"))
             return EagerFetchModes.EAGER_PARALLEL;
+        else if (mode.equals("SUBSELECT"))
+            return EagerFetchModes.EAGER_SUBSELECT;
         else
             throw new InternalException();
     }
@@ -1809,6 +1811,8 @@ public class XMLPersistenceMappingParser
                 fm.setEagerFetchMode(EagerFetchModes.EAGER_JOIN);
             } else if (eagerFetchMode.equalsIgnoreCase("PARALLEL")) {
                 fm.setEagerFetchMode(EagerFetchModes.EAGER_PARALLEL);
+            } else if (eagerFetchMode.equalsIgnoreCase("SUBSELECT")) {
+                fm.setEagerFetchMode(EagerFetchModes.EAGER_SUBSELECT);
             }
         }
     }
@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.batch.exception;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.apache.openjpa.jdbc.conf.JDBCConfiguration;
+import org.apache.openjpa.jdbc.sql.DBDictionary;
+import org.apache.openjpa.jdbc.sql.PostgresDictionary;
+import org.apache.openjpa.persistence.test.SQLListenerTestCase;
+import org.apache.openjpa.util.ExceptionInfo;
+
+/**
+ * Verifies that batched inserts are combined into multi-row INSERT
+ * statements when the dictionary's UseMultiRowInsert property is set.
+ */
+public class TestMultiRowInsert extends SQLListenerTestCase {
+
+    private DBDictionary _dict;
+    private boolean _supported;
+
+    @Override
+    public void setUp() {
+        setUp(Ent1.class, CLEAR_TABLES,
+            "openjpa.jdbc.DBDictionary",
+            "batchLimit=100, useMultiRowInsert=true, maxRowsPerInsert=10");
+        _dict = ((JDBCConfiguration) emf.getConfiguration())
+            .getDBDictionaryInstance();
+        // the factory may be reused from a test that changed the limit
+        _dict.setBatchLimit(100);
+        _supported = _dict.supportsMultiRowInsert;
+    }
+
+    /**
+     * Persist the given number of instances and return the number of
+     * insert statements their commit executed.
+     */
+    private int persistAll(int count) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < count; i++)
+            em.persist(new Ent1(i, "name" + i));
+        resetSQL();
+        em.getTransaction().commit();
+        em.close();
+
+        int inserts = 0;
+        for (String s : sql)
+            if (s.startsWith("INSERT INTO Ent1"))
+                inserts++;
+        return inserts;
+    }
+
+    public void testInsertsCombined() {
+        if (!_supported)
+            return;
+
+        assertEquals(toString(sql), 3, persistAll(25));
+
+        EntityManager em = emf.createEntityManager();
+        assertEquals(25L, em.createQuery("select count(e) from Ent1 e")
+            .getSingleResult());
+        assertEquals("name17", em.find(Ent1.class, 17).getName());
+        em.close();
+    }
+
+    public void testBatchLimitLimitsRows() {
+        if (!_supported)
+            return;
+
+        _dict.setBatchLimit(4);
+        assertEquals(toString(sql), 7, persistAll(25));
+    }
+
+    public void testNoBatchingInsertsRowsSingly() {
+        if (!_supported)
+            return;
+
+        _dict.setBatchLimit(1);
+        assertEquals(toString(sql), 5, persistAll(5));
+    }
+
+    public void testDuplicateKeyReportsFailedRow() {
+        if (!_supported)
+            return;
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.persist(new Ent1(3, "three"));
+        em.getTransaction().commit();
+        em.close();
+
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        Ent1 duplicate = null;
+        for (int i = 0; i < 5; i++) {
+            Ent1 ent = new Ent1(i, "name" + i);
+            if (i == 3)
+                duplicate = ent;
+            em.persist(ent);
+        }
+        try {
+            em.getTransaction().commit();
+            fail("Expected duplicate key failure");
+        } catch (PersistenceException pe) {
+            // a database that aborts the transaction fails the first retry
+            if (!(_dict instanceof PostgresDictionary))
+                assertSame(duplicate, ((ExceptionInfo) pe).getFailedObject());
+        } finally {
+            if (em.getTransaction().isActive())
+                em.getTransaction().rollback();
+            em.close();
+        }
+    }
+
+    public void testDuplicateKeyFails() {
+        if (!_supported)
+            return;
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.persist(new Ent1(1, "one"));
+        em.getTransaction().commit();
+        em.close();
+
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < 5; i++)
+            em.persist(new Ent1(i, "name" + i));
+        try {
+            em.getTransaction().commit();
+            fail("Expected duplicate key failure");
+        } catch (PersistenceException pe) {
+            // expected
+        } finally {
+            if (em.getTransaction().isActive())
+                em.getTransaction().rollback();
+            em.close();
+        }
+
+        em = emf.createEntityManager();
+        assertEquals(1L, em.createQuery("select count(e) from Ent1 e")
+            .getSingleResult());
+        em.close();
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import java.io.File;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.test.PersistenceTestCase;
+
+/**
+ * Tests that cache contents written to a snapshot when the factory closes
+ * are restored by the next factory, and that stale restored data is not
+ * used.
+ */
+public class TestCacheSnapshot extends PersistenceTestCase {
+
+    private final File _data = new File("target", "TestCacheSnapshot.data");
+    private final File _query = new File("target", "TestCacheSnapshot.query");
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        _data.delete();
+        _query.delete();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+        super.tearDown();
+        _data.delete();
+        _query.delete();
+    }
+
+    private OpenJPAEntityManagerFactorySPI createSnapshotEMF(Object... props) {
+        Object[] all = new Object[props.length + 7];
+        all[0] = CachedPerson.class;
+        all[1] = "openjpa.DataCache";
+        all[2] = "true(SnapshotFile=" + _data.getPath() + ")";
+        all[3] = "openjpa.QueryCache";
+        all[4] = "true(SnapshotFile=" + _query.getPath() + ")";
+        all[5] = "openjpa.RemoteCommitProvider";
+        all[6] = "sjvm";
+        System.arraycopy(props, 0, all, 7, props.length);
+        return createEMF(all);
+    }
+
+    /**
+     * Persist two people and close the factory to write the snapshot.
+     */
+    private void writeSnapshot() {
+        OpenJPAEntityManagerFactorySPI emf = createSnapshotEMF(CLEAR_TABLES);
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 1; i <= 2; i++) {
+            CachedPerson p = new CachedPerson();
+            p.setId(i);
+            p.setFirstName("first" + i);
+            em.persist(p);
+        }
+        em.getTransaction().commit();
+        em.createQuery("select p from CachedPerson p").getResultList();
+        em.close();
+        assertTrue(emf.getCache().contains(CachedPerson.class, 1));
+        closeEMF(emf);
+        assertTrue(_data.isFile());
+        assertTrue(_query.isFile());
+    }
+
+    /**
+     * Run the given bulk statement behind the back of the cache.
+     */
+    private void executeUpdate(String jpql) {
+        OpenJPAEntityManagerFactorySPI plain = createEMF(CachedPerson.class);
+        EntityManager em = plain.createEntityManager();
+        em.getTransaction().begin();
+        assertEquals(1, em.createQuery(jpql).executeUpdate());
+        em.getTransaction().commit();
+        em.close();
+        closeEMF(plain);
+    }
+
+    /**
+     * Create a factory and wait until it has restored both people.
+     */
+    private OpenJPAEntityManagerFactorySPI restoreSnapshot() throws Exception {
+        OpenJPAEntityManagerFactorySPI emf = createSnapshotEMF();
+        for (int i = 0; i < 100
+            && !(emf.getCache().contains(CachedPerson.class, 1)
+            && emf.getCache().contains(CachedPerson.class, 2)); i++)
+            Thread.sleep(50);
+        assertTrue(emf.getCache().contains(CachedPerson.class, 1));
+        assertTrue(emf.getCache().contains(CachedPerson.class, 2));
+        return emf;
+    }
+
+    public void testRestoreAndValidate() throws Exception {
+        writeSnapshot();
+        executeUpdate("update CachedPerson p "
+            + "set p.firstName = 'changed', p.version = p.version + 1 "
+            + "where p.id = 2");
+
+        OpenJPAEntityManagerFactorySPI emf = restoreSnapshot();
+        EntityManager em = emf.createEntityManager();
+        assertEquals("first1", em.find(CachedPerson.class, 1).getFirstName());
+        assertTrue(emf.getCache().contains(CachedPerson.class, 1));
+        assertEquals("changed", em.find(CachedPerson.class, 2).getFirstName());
+        assertEquals(1, em.createQuery("select p from CachedPerson p "
+            + "where p.firstName = 'changed'").getResultList().size());
+        em.close();
+        closeEMF(emf);
+    }
+
+    public void testRestoreDeleted() throws Exception {
+        writeSnapshot();
+        executeUpdate("delete from CachedPerson p where p.id = 2");
+
+        OpenJPAEntityManagerFactorySPI emf = restoreSnapshot();
+        EntityManager em = emf.createEntityManager();
+        assertNull(em.find(CachedPerson.class, 2));
+        assertFalse(emf.getCache().contains(CachedPerson.class, 2));
+        assertNull(em.find(CachedPerson.class, 2));
+        assertEquals("first1", em.find(CachedPerson.class, 1).getFirstName());
+        em.close();
+        closeEMF(emf);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.datacache.CacheStatistics;
+import org.apache.openjpa.persistence.StoreCacheImpl;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+public class TestDataCacheCoalescedLoads extends SingleEMFTestCase {
+
+    private static final int THREADS = 8;
+
+    @Override
+    public void setUp() {
+        super.setUp(CLEAR_TABLES, CachedPerson.class,
+            "openjpa.DataCache", "true(CoalesceLoads=true, "
+                + "EnableStatistics=true)",
+            "openjpa.RemoteCommitProvider", "sjvm");
+    }
+
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        CachedPerson p = new CachedPerson();
+        p.setId(1);
+        p.setFirstName("first");
+        em.persist(p);
+        em.getTransaction().commit();
+        em.close();
+        emf.getCache().evictAll();
+
+        CacheStatistics stats = ((StoreCacheImpl) emf.getStoreCache()).
+            getDelegate().getStatistics();
+        stats.reset();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Object> results = Collections.synchronizedList(
+            new ArrayList<>());
+        Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            threads[i] = new Thread(() -> {
+                EntityManager tem = emf.createEntityManager();
+                try {
+                    start.await();
+                    results.add(tem.find(CachedPerson.class, 1).
+                        getFirstName());
+                } catch (Throwable t) {
+                    results.add(t);
+                } finally {
+                    tem.close();
+                }
+            });
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads)
+            thread.join(10000);
+
+        assertEquals(THREADS, results.size());
+        for (Object result : results)
+            assertEquals("first", result);
+        assertTrue(emf.getCache().contains(CachedPerson.class, 1));
+
+        // at least one miss went to the database; the rest either hit the
+        // cache or waited for a concurrent load
+        long misses = stats.getReadCount() - stats.getHitCount();
+        assertTrue(misses >= 1);
+        assertTrue(stats.getCoalescedLoadCount() <= misses - 1);
+    }
+}
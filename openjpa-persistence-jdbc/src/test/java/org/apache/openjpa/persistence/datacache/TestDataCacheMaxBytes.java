@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.datacache.CacheStatistics;
+import org.apache.openjpa.datacache.ConcurrentDataCache;
+import org.apache.openjpa.persistence.StoreCacheImpl;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+public class TestDataCacheMaxBytes extends SingleEMFTestCase {
+
+    private static final long MAX_BYTES = 20000;
+
+    @Override
+    public void setUp() {
+        super.setUp(CLEAR_TABLES, CachedPerson.class, CachedEmployee.class,
+            CachedManager.class,
+            "openjpa.DataCache", "true(CacheSize=-1, SoftReferenceSize=0, "
+                + "MaxBytes=" + MAX_BYTES + ")",
+            "openjpa.RemoteCommitProvider", "sjvm");
+    }
+
+    private ConcurrentDataCache getCache() {
+        return (ConcurrentDataCache) ((StoreCacheImpl) emf.getStoreCache()).
+            getDelegate();
+    }
+
+    public void testCacheIsBoundedByBytes() {
+        int count = 500;
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < count; i++) {
+            CachedPerson p = new CachedPerson();
+            p.setId(i);
+            p.setFirstName("first" + i);
+            p.setLastName("last" + i);
+            em.persist(p);
+        }
+        em.getTransaction().commit();
+        em.close();
+
+        ConcurrentDataCache cache = getCache();
+        assertNotNull(cache.getWeigherInstance());
+        assertTrue(cache.getBytes() > 0);
+        assertTrue(cache.getBytes() <= MAX_BYTES);
+        int cached = cache.getCacheMap().size();
+        assertTrue(cached > 0);
+        assertTrue(cached < count);
+
+        CacheStatistics stats = cache.getStatistics();
+        assertEquals(cache.getBytes(), stats.getBytes());
+        assertEquals(cache.getBytes(),
+            stats.getBytes(CachedPerson.class.getName()));
+
+        emf.getStoreCache().evictAll();
+        assertEquals(0, cache.getBytes());
+        assertEquals(0, stats.getBytes(CachedPerson.class.getName()));
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.datacache.AbstractQueryCache;
+import org.apache.openjpa.datacache.DataCache;
+import org.apache.openjpa.datacache.DataCachePCData;
+import org.apache.openjpa.persistence.JPAFacadeHelper;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.StoreCacheImpl;
+import org.apache.openjpa.persistence.datacache.common.apps.CacheObjectE;
+import org.apache.openjpa.persistence.datacache.common.apps.CacheObjectF;
+import org.apache.openjpa.persistence.datacache.common.apps.CacheObjectG;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Tests refresh-ahead of cached instances and query results. CacheObjectG
+ * times out after 5 seconds, so with a refresh-ahead fraction of 0.5 reads
+ * after 2.5 seconds trigger a refresh.
+ */
+public class TestDataCacheRefreshAhead extends SingleEMFTestCase {
+
+    @Override
+    public void setUp() {
+        super.setUp(CLEAR_TABLES, CacheObjectE.class, CacheObjectF.class,
+            CacheObjectG.class,
+            "openjpa.DataCache", "true(RefreshAhead=0.5)",
+            "openjpa.QueryCache", "true(RefreshAhead=0.5, "
+                + "EnableStatistics=true)",
+            "openjpa.RemoteCommitProvider", "sjvm");
+    }
+
+    private DataCache getCache() {
+        return ((StoreCacheImpl) emf.getStoreCache()).getDelegate();
+    }
+
+    private Object persist(String str) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        CacheObjectG g = new CacheObjectG(str);
+        em.persist(g);
+        em.getTransaction().commit();
+        Object oid = JPAFacadeHelper.toBroker(em).getObjectId(g);
+        em.close();
+        return oid;
+    }
+
+    public void testInstanceIsReloadedBeforeTimeout() throws Exception {
+        Object oid = persist("g");
+        DataCachePCData data = getCache().get(oid);
+        assertNotNull(data);
+        long exp = data.getTimeOut();
+
+        Thread.sleep(2700);
+        EntityManager em = emf.createEntityManager();
+        Object id = JPAFacadeHelper.fromOpenJPAObjectId(oid);
+        assertEquals("g", em.find(CacheObjectG.class, id).getStr());
+        em.close();
+
+        // the read is served from the cache while the reload replaces it
+        for (int i = 0; i < 100 && getCache().get(oid) == data; i++)
+            Thread.sleep(20);
+        DataCachePCData refreshed = getCache().get(oid);
+        assertNotNull(refreshed);
+        assertNotSame(data, refreshed);
+        assertTrue(refreshed.getTimeOut() > exp);
+    }
+
+    public void testQueryIsRerunBeforeTimeout() throws Exception {
+        persist("g");
+        String jpql = "select g from CacheObjectG g";
+        AbstractQueryCache qc = (AbstractQueryCache)
+            ((OpenJPAEntityManagerFactorySPI) emf).getConfiguration().
+            getDataCacheManagerInstance().getSystemQueryCache();
+
+        runQuery(jpql);
+        assertEquals(0, qc.getStatistics().getHitCount());
+        Thread.sleep(2700);
+
+        // one lookup misses so that its caller re-runs the query
+        runQuery(jpql);
+        assertEquals(0, qc.getStatistics().getHitCount());
+        runQuery(jpql);
+        assertEquals(1, qc.getStatistics().getHitCount());
+    }
+
+    private void runQuery(String jpql) {
+        EntityManager em = emf.createEntityManager();
+        assertEquals(1, em.createQuery(jpql).getResultList().size());
+        em.close();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import java.util.ArrayList;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.datacache.OffHeapDataCache;
+import org.apache.openjpa.persistence.StoreCacheImpl;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+public class TestOffHeapDataCache extends SingleEMFTestCase {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Override
+    public void setUp() {
+        super.setUp(CLEAR_TABLES, CachedPerson.class, CachedEmployee.class,
+            CachedManager.class,
+            "openjpa.DataCache", "offheap(MaxBytes=" + (4 * SEGMENT_SIZE)
+                + ", SegmentSize=" + SEGMENT_SIZE + ")",
+            "openjpa.RemoteCommitProvider", "sjvm");
+    }
+
+    private OffHeapDataCache getCache() {
+        return (OffHeapDataCache) ((StoreCacheImpl) emf.getStoreCache()).
+            getDelegate();
+    }
+
+    public void testCachedStateSurvivesEncoding() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        CachedManager mgr = new CachedManager();
+        mgr.setId(1);
+        mgr.setFirstName("Ada");
+        mgr.setEmployees(new ArrayList<CachedEmployee>());
+        CachedEmployee emp = new CachedEmployee();
+        emp.setId(2);
+        emp.setFirstName("Alan");
+        emp.setLastName(null);
+        emp.setManager(mgr);
+        mgr.getEmployees().add(emp);
+        em.persist(mgr);
+        em.persist(emp);
+        em.getTransaction().commit();
+        em.close();
+
+        assertTrue(emf.getStoreCache().contains(CachedManager.class, 1));
+        assertTrue(emf.getStoreCache().contains(CachedEmployee.class, 2));
+        assertTrue(getCache().getUsedBytes() > 0);
+
+        em = emf.createEntityManager();
+        emp = em.find(CachedEmployee.class, 2);
+        assertEquals("Alan", emp.getFirstName());
+        assertNull(emp.getLastName());
+        assertEquals(1, emp.getVersion());
+        assertEquals(1, emp.getManager().getId());
+        assertEquals("Ada", emp.getManager().getFirstName());
+        assertEquals(1, emp.getManager().getEmployees().size());
+        em.close();
+    }
+
+    public void testEvictionIsBoundedByBytes() {
+        int count = 200;
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < count; i++) {
+            CachedPerson p = new CachedPerson();
+            p.setId(100 + i);
+            p.setFirstName("first" + i);
+            p.setLastName("last" + i);
+            em.persist(p);
+        }
+        em.getTransaction().commit();
+        em.close();
+
+        OffHeapDataCache cache = getCache();
+        assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+        assertTrue(cache.getEntryCount() > 0);
+        assertTrue(cache.getEntryCount() < count);
+
+        em = emf.createEntityManager();
+        for (int i = 0; i < count; i += 20)
+            assertEquals("last" + i, em.find(CachedPerson.class, 100 + i).
+                getLastName());
+        em.close();
+    }
+
+    public void testPinnedInstancesAreNotEvicted() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        CachedPerson pinned = new CachedPerson();
+        pinned.setId(1);
+        pinned.setFirstName("pinned");
+        em.persist(pinned);
+        em.getTransaction().commit();
+
+        emf.getStoreCache().pin(CachedPerson.class, 1);
+        em.getTransaction().begin();
+        for (int i = 0; i < 200; i++) {
+            CachedPerson p = new CachedPerson();
+            p.setId(100 + i);
+            p.setFirstName("first" + i);
+            em.persist(p);
+        }
+        em.getTransaction().commit();
+        em.close();
+
+        assertTrue(getCache().getEntryCount() < 200);
+        assertTrue(emf.getStoreCache().contains(CachedPerson.class, 1));
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.openjpa.datacache.QueryCache;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Tests that changes only evict the cached results of simple filter queries
+ * that the changed instances could have been or could be selected by.
+ */
+public class TestQueryCachePredicateInvalidation extends SingleEMFTestCase {
+
+    private static final String BY_NAME =
+        "select p from CachedPerson p where p.firstName = :name";
+    private static final String BY_ID =
+        "select p from CachedPerson p where p.id between ?1 and ?2";
+    private static final String BY_LAST_NAME =
+        "select p from CachedPerson p where lower(p.lastName) = :name";
+    private static final String SELF_JOIN =
+        "select p from CachedPerson p, CachedPerson q "
+        + "where p.id between ?1 and ?2";
+
+    @Override
+    public void setUp() {
+        super.setUp(CLEAR_TABLES, CachedPerson.class,
+            "openjpa.DataCache", "true",
+            "openjpa.QueryCache", "true(EnableStatistics=true)",
+            "openjpa.RemoteCommitProvider", "sjvm");
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 1; i <= 3; i++) {
+            CachedPerson p = new CachedPerson();
+            p.setId(i);
+            p.setFirstName("first" + i);
+            p.setLastName("last" + i);
+            em.persist(p);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private QueryCache getQueryCache() {
+        return ((OpenJPAEntityManagerFactorySPI) emf).getConfiguration().
+            getDataCacheManagerInstance().getSystemQueryCache();
+    }
+
+    /**
+     * Run the given query and return whether its result came from the
+     * query cache.
+     */
+    private boolean isCached(String jpql, Object... params) {
+        long hits = getQueryCache().getStatistics().getHitCount();
+        getResultSize(jpql, params);
+        return getQueryCache().getStatistics().getHitCount() > hits;
+    }
+
+    private int getResultSize(String jpql, Object... params) {
+        EntityManager em = emf.createEntityManager();
+        Query q = em.createQuery(jpql);
+        if (params.length == 2) {
+            q.setParameter(1, params[0]);
+            q.setParameter(2, params[1]);
+        } else
+            q.setParameter("name", params[0]);
+        int size = q.getResultList().size();
+        em.close();
+        return size;
+    }
+
+    private void persist(int id) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        CachedPerson p = new CachedPerson();
+        p.setId(id);
+        p.setFirstName("first" + id);
+        em.persist(p);
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private void update(int id, String firstName) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.find(CachedPerson.class, id).setFirstName(firstName);
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    public void testUpdateEvictsOnlyMatchingResults() {
+        assertFalse(isCached(BY_NAME, "first1"));
+        assertFalse(isCached(BY_NAME, "first2"));
+        assertFalse(isCached(BY_NAME, "renamed"));
+        assertFalse(isCached(BY_ID, 1, 1));
+        assertFalse(isCached(BY_ID, 2, 3));
+        assertFalse(isCached(BY_LAST_NAME, "last3"));
+        assertTrue(isCached(BY_NAME, "first2"));
+
+        // person 1 is in the first result and out of the range of the second
+        update(1, "renamed");
+        assertFalse(isCached(BY_ID, 1, 1));
+        assertTrue(isCached(BY_ID, 2, 3));
+
+        // the database decides how strings compare, so any name could match
+        assertFalse(isCached(BY_NAME, "first1"));
+        assertFalse(isCached(BY_NAME, "first2"));
+        assertFalse(isCached(BY_NAME, "renamed"));
+
+        // the filter of this query is not simple enough to evaluate
+        assertFalse(isCached(BY_LAST_NAME, "last3"));
+    }
+
+    public void testPersistEvictsOnlyMatchingResults() {
+        assertFalse(isCached(BY_NAME, "first1"));
+        assertFalse(isCached(BY_NAME, "first4"));
+        assertFalse(isCached(BY_ID, 1, 3));
+        assertFalse(isCached(BY_ID, 4, 10));
+
+        persist(4);
+        assertTrue(isCached(BY_ID, 1, 3));
+        assertFalse(isCached(BY_ID, 4, 10));
+        assertFalse(isCached(BY_NAME, "first1"));
+        assertFalse(isCached(BY_NAME, "first4"));
+    }
+
+    public void testPersistEvictsSelfJoinResults() {
+        assertEquals(1, getResultSize(SELF_JOIN, 1, 1));
+        assertTrue(isCached(SELF_JOIN, 1, 1));
+
+        // the result depends on the instances of the second variable, so
+        // even a new person out of range of the candidate evicts it
+        persist(4);
+        assertFalse(isCached(SELF_JOIN, 1, 1));
+        assertEquals(1, getResultSize(SELF_JOIN, 1, 1));
+    }
+
+    public void testDeleteEvictsResultsContainingInstance() {
+        assertFalse(isCached(BY_NAME, "first1"));
+        assertFalse(isCached(BY_NAME, "first2"));
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.remove(em.find(CachedPerson.class, 2));
+        em.getTransaction().commit();
+        em.close();
+
+        assertTrue(isCached(BY_NAME, "first1"));
+        assertFalse(isCached(BY_NAME, "first2"));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.datacache;
+
+import java.util.Collections;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.event.RemoteCommitEvent;
+import org.apache.openjpa.event.UpdatePatch;
+import org.apache.openjpa.meta.ClassMetaData;
+import org.apache.openjpa.persistence.JPAFacadeHelper;
+import org.apache.openjpa.persistence.OpenJPAEntityManagerFactorySPI;
+import org.apache.openjpa.persistence.test.PersistenceTestCase;
+
+/**
+ * Tests that remote updates patch the cached data of other factories in
+ * place rather than evicting it.
+ */
+public class TestRemoteCachePatches extends PersistenceTestCase {
+
+    private OpenJPAEntityManagerFactorySPI emf1;
+    private OpenJPAEntityManagerFactorySPI emf2;
+
+    @Override
+    public void setUp() throws Exception {
+        super.setUp();
+        emf1 = createEMF(CachedPerson.class, CLEAR_TABLES,
+            "openjpa.DataCache", "true",
+            "openjpa.RemoteCommitProvider", "sjvm(PatchSize=10)",
+            "openjpa.DetachState", "loaded");
+        // set a different detach state to get a separate factory
+        emf2 = createEMF(CachedPerson.class,
+            "openjpa.DataCache", "true",
+            "openjpa.RemoteCommitProvider", "sjvm(PatchSize=10)",
+            "openjpa.DetachState", "fetch-groups");
+    }
+
+    private String findName(OpenJPAEntityManagerFactorySPI emf) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(CachedPerson.class, 1).getFirstName();
+        } finally {
+            em.close();
+        }
+    }
+
+    private void fireEvent(Object prevVersion, Object version) {
+        ClassMetaData meta = emf2.getConfiguration().
+            getMetaDataRepositoryInstance().getMetaData(CachedPerson.class,
+            null, true);
+        Object oid = JPAFacadeHelper.toOpenJPAObjectId(meta, 1);
+        emf1.getConfiguration().getRemoteCommitEventManager().
+            getRemoteCommitProvider().broadcast(new RemoteCommitEvent(
+                RemoteCommitEvent.PAYLOAD_OIDS, null, null,
+                Collections.singleton(oid), null, Collections.singletonMap(
+                oid, new UpdatePatch(prevVersion, version, new int[0],
+                new Object[0]))));
+    }
+
+    public void testRemoteUpdatePatchesCache() {
+        EntityManager em = emf1.createEntityManager();
+        em.getTransaction().begin();
+        CachedPerson p = new CachedPerson();
+        p.setId(1);
+        p.setFirstName("first");
+        em.persist(p);
+        em.getTransaction().commit();
+
+        assertEquals("first", findName(emf2));
+        assertTrue(emf2.getCache().contains(CachedPerson.class, 1));
+
+        em.getTransaction().begin();
+        p.setFirstName("patched");
+        em.getTransaction().commit();
+        em.close();
+
+        // the update was applied to the cached data of the other factory
+        assertTrue(emf2.getCache().contains(CachedPerson.class, 1));
+        assertEquals("patched", findName(emf2));
+        int version = p.getVersion();
+
+        // a late event of the same update is ignored
+        fireEvent(version - 1, version);
+        assertTrue(emf2.getCache().contains(CachedPerson.class, 1));
+
+        // an update made from a version the cache does not hold evicts
+        fireEvent(version + 1, version + 2);
+        assertFalse(emf2.getCache().contains(CachedPerson.class, 1));
+        assertEquals("patched", findName(emf2));
+    }
+}
@@ -249,6 +249,24 @@ public class TestStatistics extends SingleEMFTestCase {
 
     }
 
+    public void testLatencies() {
+        CachedEntityStatistics person = createData(false, false);
+        em.clear();
+        cache.evictAll();
+        cache.getStatistics().reset();
+
+        Object pid = person.getId();
+        em.find(CachedEntityStatistics.class, pid);
+        em.clear();
+        em.find(CachedEntityStatistics.class, pid);
+
+        // the first find missed, loaded from the store and cached the data
+        assertEquals(2, stats.getLatency(cls, CacheStatistics.OP_GET).getCount());
+        assertEquals(1, stats.getLatency(cls, CacheStatistics.OP_LOAD).getCount());
+        assertEquals(1, stats.getLatency(cls, CacheStatistics.OP_PUT).getCount());
+        assertTrue(stats.getLatency(cls, CacheStatistics.OP_LOAD).getMax() > 0);
+    }
+
     CachedEntityStatistics createData(boolean lazy, boolean eager) {
         em.getTransaction().begin();
         CachedEntityStatistics p = new CachedEntityStatistics();
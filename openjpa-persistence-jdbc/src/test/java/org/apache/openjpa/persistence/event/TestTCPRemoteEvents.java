@@ -41,4 +41,16 @@ public class TestTCPRemoteEvents
             "Port=5636, Addresses=127.0.0.1:5636;127.0.0.1:6636",
             "Port=6636, Addresses=127.0.0.1:5636;127.0.0.1:6636");
     }
+
+    public void testCompactEvents() {
+        doTest(TCPRemoteCommitProvider.class,
+            "Port=5636, Addresses=127.0.0.1:5636;127.0.0.1:6636, CompactEncoding=true, CompressionThreshold=64",
+            "Port=6636, Addresses=127.0.0.1:5636;127.0.0.1:6636, CompactEncoding=true");
+    }
+
+    public void testNonBlockingEvents() {
+        doTest(TCPRemoteCommitProvider.class,
+            "Port=5636, Addresses=127.0.0.1:5636;127.0.0.1:6636, NonBlocking=true",
+            "Port=6636, Addresses=127.0.0.1:5636;127.0.0.1:6636, NonBlocking=true, MaxQueuedPackets=10");
+    }
 }
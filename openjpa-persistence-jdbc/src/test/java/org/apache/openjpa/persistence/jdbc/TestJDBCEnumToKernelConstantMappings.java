@@ -54,6 +54,14 @@ public class TestJDBCEnumToKernelConstantMappings
         assertEquals(FetchMode.PARALLEL.toKernelConstant(),
             FetchMode.PARALLEL.ordinal());
 
+        assertEquals(EagerFetchModes.EAGER_SUBSELECT,
+            FetchMode.SUBSELECT.toKernelConstant());
+        assertEquals(FetchMode.SUBSELECT,
+            FetchMode.fromKernelConstant(
+                EagerFetchModes.EAGER_SUBSELECT));
+        assertEquals(FetchMode.SUBSELECT.toKernelConstant(),
+            FetchMode.SUBSELECT.ordinal());
+
         assertEquals(getConstantCount(EagerFetchModes.class),
             FetchMode.values().length);
     }
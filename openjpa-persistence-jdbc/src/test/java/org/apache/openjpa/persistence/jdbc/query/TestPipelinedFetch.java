@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.jdbc.query;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.jdbc.sql.PipelinedFetchExecutor;
+import org.apache.openjpa.jdbc.sql.PipelinedResultSet;
+import org.apache.openjpa.kernel.QueryHints;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
+import org.apache.openjpa.persistence.jdbc.query.domain.TimeEntity;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Verifies that results read with the pipelined fetch hint match results
+ * read on the calling thread.
+ */
+public class TestPipelinedFetch extends SingleEMFTestCase {
+
+    private static final int ROWS = 300;
+
+    @Override
+    public void setUp() {
+        setUp(TimeEntity.class, CLEAR_TABLES);
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < ROWS; i++) {
+            TimeEntity te = new TimeEntity();
+            te.setName("name" + i);
+            te.setValue(i);
+            Calendar cal = Calendar.getInstance();
+            cal.setTimeInMillis(1000000000000L + i * 3600000L);
+            te.setCal2Timestamp(cal);
+            te.setUDate2Timestamp(cal.getTime());
+            te.setUDate2SDate(cal.getTime());
+            em.persist(te);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    public void testPipelinedResultsMatch() {
+        List<TimeEntity> expected = query(0);
+        List<TimeEntity> actual = query(10);
+        assertEquals(ROWS, expected.size());
+        assertEquals(ROWS, actual.size());
+        for (int i = 0; i < ROWS; i++) {
+            TimeEntity e = expected.get(i);
+            TimeEntity a = actual.get(i);
+            assertEquals(e.getId(), a.getId());
+            assertEquals(e.getName(), a.getName());
+            assertEquals(e.getValue(), a.getValue());
+            assertEquals(e.getCal2Timestamp().getTimeInMillis(),
+                a.getCal2Timestamp().getTimeInMillis());
+            assertEquals(e.getUDate2Timestamp().getTime(),
+                a.getUDate2Timestamp().getTime());
+            assertEquals(e.getUDate2SDate().getTime(),
+                a.getUDate2SDate().getTime());
+            assertNull(a.getCal2Time());
+        }
+
+        // rows were read by the pipelining thread
+        boolean pipelined = false;
+        for (Thread t : Thread.getAllStackTraces().keySet())
+            pipelined |= t.getName().startsWith("OpenJPA-PipelinedFetch");
+        assertTrue(pipelined);
+    }
+
+    private List<TimeEntity> query(int pipelined) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return query(em, pipelined);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static List<TimeEntity> query(EntityManager em, int pipelined) {
+        return em.createQuery("select t from TimeEntity t order by t.id",
+            TimeEntity.class)
+            .setHint(QueryHints.HINT_PIPELINED_FETCH, pipelined)
+            .getResultList();
+    }
+
+    public void testFlushedChangesAreRead() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        TimeEntity te = new TimeEntity();
+        te.setName("flushed");
+        em.persist(te);
+        em.flush();
+        List<TimeEntity> res = query(em, 10);
+        assertEquals(ROWS + 1, res.size());
+        assertTrue(res.contains(te));
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    public void testCloseStopsReading() throws Exception {
+        EntityManager em = emf.createEntityManager();
+        Connection conn = (Connection) OpenJPAPersistence.cast(em)
+            .getConnection();
+        PipelinedFetchExecutor executor = new PipelinedFetchExecutor();
+        try {
+            PreparedStatement stmnt = conn.prepareStatement(
+                "SELECT name, value FROM TimeEntity ORDER BY value");
+            ResultSet rs = stmnt.executeQuery();
+            ResultSet prs = PipelinedResultSet.newInstance(rs, stmnt, 2,
+                executor);
+            assertTrue(prs instanceof PipelinedResultSet);
+
+            assertTrue(prs.next());
+            assertEquals("name0", prs.getString(1));
+            assertEquals(0, prs.getInt("VALUE"));
+            assertFalse(prs.wasNull());
+            assertTrue(prs.next());
+            assertEquals(2, prs.getRow());
+            prs.close();
+            assertTrue(rs.isClosed());
+            stmnt.close();
+
+            // without a free thread the result set is read by the caller
+            executor.close();
+            stmnt = conn.prepareStatement("SELECT name FROM TimeEntity");
+            rs = stmnt.executeQuery();
+            assertSame(rs, PipelinedResultSet.newInstance(rs, stmnt, 2,
+                executor));
+            rs.close();
+            stmnt.close();
+        } finally {
+            executor.close();
+            conn.close();
+            em.close();
+        }
+    }
+}
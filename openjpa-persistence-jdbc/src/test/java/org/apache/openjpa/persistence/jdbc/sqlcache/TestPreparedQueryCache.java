@@ -584,7 +584,10 @@ public class TestPreparedQueryCache extends AbstractPersistenceTestCase {
 		assertEquals(N1-1,    stats.getHitCount(jpql1));
 		assertEquals(N2-1,    stats.getHitCount(jpql2));
 		assertEquals(N1+N2-2, stats.getHitCount());
-
+		// each execution is either a hit or a single miss
+		assertEquals(2,       stats.getMissCount());
+		assertEquals(stats.getExecutionCount(),
+		    stats.getHitCount() + stats.getMissCount());
 	}
 
 	public void testResetQueryStatistics() {
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.kernel;
+
+import java.util.BitSet;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.kernel.OpenJPAStateManager;
+import org.apache.openjpa.persistence.JPAFacadeHelper;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+import org.apache.openjpa.util.ImplHelper;
+
+/**
+ * Test loaded, dirty and flushed field tracking of classes on both sides of
+ * the 64 fields that a state manager keeps in single words.
+ */
+public class TestWideFieldTracking extends SingleEMFTestCase {
+
+    @Override
+    public void setUp() {
+        setUp(WideEntity.class, WideEntity63.class, WideEntity64.class,
+            WideEntity65.class, CLEAR_TABLES);
+    }
+
+    public void test63Fields() {
+        verifyTracking(new WideEntity63(), 63);
+    }
+
+    public void test64Fields() {
+        verifyTracking(new WideEntity64(), 64);
+    }
+
+    public void test65Fields() {
+        verifyTracking(new WideEntity65(), 65);
+    }
+
+    private void verifyTracking(WideEntity pc, int width) {
+        Class<? extends WideEntity> cls = pc.getClass();
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        pc.setId(1);
+        pc.setF00(1);
+        pc.setLast(1);
+        em.persist(pc);
+
+        OpenJPAStateManager sm = getStateManager(em, pc);
+        assertEquals(width, sm.getMetaData().getFields().length);
+        int first = sm.getMetaData().getField("f00").getIndex();
+        int last = sm.getMetaData().getField("last").getIndex();
+        assertEquals(width - 1, last);
+        assertTrue(sm.getDirty().get(first));
+        assertTrue(sm.getDirty().get(last));
+
+        em.flush();
+        assertTrue(sm.getFlushed().get(last));
+        assertEquals(sm.getDirty(), sm.getFlushed());
+        em.getTransaction().commit();
+        em.close();
+
+        em = emf.createEntityManager();
+        pc = em.find(cls, 1);
+        sm = getStateManager(em, pc);
+        assertEquals(width, sm.getLoaded().cardinality());
+        assertTrue(sm.getDirty().isEmpty());
+        assertTrue(sm.getFlushed().isEmpty());
+
+        em.getTransaction().begin();
+        pc.setLast(2);
+        assertEquals(bits(last), sm.getDirty());
+        em.flush();
+        assertEquals(bits(last), sm.getFlushed());
+
+        pc.setF00(2);
+        assertTrue(sm.getDirty().get(first));
+        assertFalse(sm.getFlushed().get(first));
+        assertEquals(bits(first), ImplHelper.getUpdateFields(sm));
+        em.getTransaction().commit();
+        assertTrue(sm.getDirty().isEmpty());
+        assertTrue(sm.getFlushed().isEmpty());
+        em.close();
+
+        em = emf.createEntityManager();
+        pc = em.find(cls, 1);
+        assertEquals(2, pc.getF00());
+        assertEquals(2, pc.getLast());
+
+        em.getTransaction().begin();
+        pc.setLast(3);
+        em.refresh(pc);
+        sm = getStateManager(em, pc);
+        assertEquals(2, pc.getLast());
+        assertTrue(sm.getDirty().isEmpty());
+        assertEquals(width, sm.getLoaded().cardinality());
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    private static OpenJPAStateManager getStateManager(EntityManager em,
+        Object pc) {
+        return JPAFacadeHelper.toBroker(em).getStateManager(pc);
+    }
+
+    private static BitSet bits(int index) {
+        BitSet bits = new BitSet();
+        bits.set(index);
+        return bits;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.kernel;
+
+import javax.persistence.Id;
+import javax.persistence.MappedSuperclass;
+
+/**
+ * Base of entities whose field counts straddle the 64 fields that a state
+ * manager tracks in single words. Declares the identity and 61 more fields;
+ * subclasses add the remaining ones, ending with {@code last}.
+ */
+@MappedSuperclass
+public abstract class WideEntity {
+
+    @Id
+    private int id;
+
+    private int f00;
+    private int f01;
+    private int f02;
+    private int f03;
+    private int f04;
+    private int f05;
+    private int f06;
+    private int f07;
+    private int f08;
+    private int f09;
+    private int f10;
+    private int f11;
+    private int f12;
+    private int f13;
+    private int f14;
+    private int f15;
+    private int f16;
+    private int f17;
+    private int f18;
+    private int f19;
+    private int f20;
+    private int f21;
+    private int f22;
+    private int f23;
+    private int f24;
+    private int f25;
+    private int f26;
+    private int f27;
+    private int f28;
+    private int f29;
+    private int f30;
+    private int f31;
+    private int f32;
+    private int f33;
+    private int f34;
+    private int f35;
+    private int f36;
+    private int f37;
+    private int f38;
+    private int f39;
+    private int f40;
+    private int f41;
+    private int f42;
+    private int f43;
+    private int f44;
+    private int f45;
+    private int f46;
+    private int f47;
+    private int f48;
+    private int f49;
+    private int f50;
+    private int f51;
+    private int f52;
+    private int f53;
+    private int f54;
+    private int f55;
+    private int f56;
+    private int f57;
+    private int f58;
+    private int f59;
+    private int f60;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getF00() {
+        return f00;
+    }
+
+    public void setF00(int f00) {
+        this.f00 = f00;
+    }
+
+    public abstract int getLast();
+
+    public abstract void setLast(int last);
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
+import org.apache.openjpa.persistence.OpenJPAQuery;
+import org.apache.openjpa.persistence.simple.Person;
+import org.apache.openjpa.persistence.test.SingleEMFTestCase;
+
+/**
+ * Test asynchronous finds and queries.
+ */
+public class TestAsyncQueries
+    extends SingleEMFTestCase {
+
+    private static final int PEOPLE = 6;
+
+    @Override
+    public void setUp() {
+        setUp(Person.class, CLEAR_TABLES,
+            "openjpa.AsyncExecutor", "default(MaxThreads=4)");
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < PEOPLE; i++) {
+            Person p = new Person();
+            p.setId(i);
+            p.setForename("forename" + i);
+            p.setSurname(i % 2 == 0 ? "even" : "odd");
+            em.persist(p);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private static <T> T await(CompletionStage<T> stage) throws Exception {
+        return stage.toCompletableFuture().get(30, TimeUnit.SECONDS);
+    }
+
+    private OpenJPAQuery<Person> bySurname(OpenJPAEntityManager em,
+        String surname) {
+        OpenJPAQuery<Person> q = OpenJPAPersistence.cast(em.createQuery(
+            "select p from Person p where p.surname = :surname "
+            + "order by p.id", Person.class));
+        q.setParameter("surname", surname);
+        return q;
+    }
+
+    public void testFindAsync() throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        Person p = await(em.findAsync(Person.class, 3));
+        assertEquals("forename3", p.getForename());
+        assertTrue(em.contains(p));
+        assertNull(await(em.findAsync(Person.class, PEOPLE)));
+        em.close();
+    }
+
+    public void testQueriesOnSeparateEntityManagers() throws Exception {
+        OpenJPAEntityManager em1 = emf.createEntityManager();
+        OpenJPAEntityManager em2 = emf.createEntityManager();
+        CompletionStage<List<Person>> evens =
+            bySurname(em1, "even").getResultListAsync();
+        CompletionStage<List<Person>> odds =
+            bySurname(em2, "odd").getResultListAsync();
+        int total = await(evens.thenCombine(odds,
+            (e, o) -> e.size() + o.size()));
+        assertEquals(PEOPLE, total);
+        for (Person p : await(evens))
+            assertEquals("even", p.getSurname());
+        em1.close();
+        em2.close();
+    }
+
+    public void testOperationsOnOneEntityManagerRunInOrder()
+        throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        final List<Integer> order =
+            Collections.synchronizedList(new ArrayList<Integer>());
+        List<CompletionStage<?>> stages = new ArrayList<>();
+        for (int i = 0; i < PEOPLE; i++) {
+            final int id = i;
+            stages.add(em.findAsync(Person.class, id)
+                .thenAccept(p -> order.add(p.getId())));
+        }
+        for (CompletionStage<?> stage : stages)
+            await(stage);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < PEOPLE; i++)
+            expected.add(i);
+        assertEquals(expected, order);
+        em.close();
+    }
+
+    public void testFailureCompletesStageExceptionally() throws Exception {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        try {
+            await(bySurname(em, "none").getSingleResultAsync());
+            fail("Expected NoResultException");
+        } catch (ExecutionException ee) {
+            assertTrue(ee.getCause() instanceof NoResultException);
+        }
+
+        // later operations still run
+        Person p = await(bySurname(em, "odd").getResultListAsync()
+            .thenApply(l -> l.get(0)));
+        assertEquals(1, p.getId());
+        em.close();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.relations;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.persistence.test.SQLListenerTestCase;
+
+/**
+ * Test that lazy relation loads reusing the select compiled by an earlier
+ * load bind the key values of the instance being loaded.
+ */
+public class TestCompiledRelationSelects
+    extends SQLListenerTestCase {
+
+    private long[] ids = new long[3];
+
+    @Override
+    public void setUp() {
+        setUp(BidiParent.class, BidiChild.class, CLEAR_TABLES);
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < ids.length; i++) {
+            BidiParent parent = new BidiParent();
+            parent.setName("parent" + i);
+            em.persist(parent);
+
+            BidiChild oneOneChild = new BidiChild();
+            oneOneChild.setName("oneToOneChild" + i);
+            oneOneChild.setOneToOneParent(parent);
+            parent.setOneToOneChild(oneOneChild);
+            em.persist(oneOneChild);
+
+            for (int j = 0; j <= i; j++) {
+                BidiChild oneManyChild = new BidiChild();
+                oneManyChild.setName("oneToManyChild" + i + "::" + j);
+                oneManyChild.setOneToManyParent(parent);
+                parent.getOneToManyChildren().add(oneManyChild);
+                em.persist(oneManyChild);
+            }
+            ids[i] = parent.getId();
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    public void testLazyOneToMany() {
+        for (int round = 0; round < 2; round++) {
+            EntityManager em = emf.createEntityManager();
+            for (int i = 0; i < ids.length; i++) {
+                BidiParent parent = em.find(BidiParent.class, ids[i]);
+                sql.clear();
+                List<BidiChild> children = parent.getOneToManyChildren();
+                assertEquals(i + 1, children.size());
+                assertEquals(1, sql.size());
+                for (int j = 0; j <= i; j++)
+                    assertEquals("oneToManyChild" + i + "::" + j,
+                        children.get(j).getName());
+            }
+            em.close();
+        }
+    }
+
+    public void testLazyOneToOne() {
+        for (int round = 0; round < 2; round++) {
+            EntityManager em = emf.createEntityManager();
+            for (int i = 0; i < ids.length; i++) {
+                BidiParent parent = em.find(BidiParent.class, ids[i]);
+                sql.clear();
+                assertEquals("oneToOneChild" + i,
+                    parent.getOneToOneChild().getName());
+                assertEquals(1, sql.size());
+            }
+            em.close();
+        }
+    }
+
+    public void testUpdatedCollection() {
+        EntityManager em = emf.createEntityManager();
+        assertEquals(1, em.find(BidiParent.class, ids[0])
+            .getOneToManyChildren().size());
+        em.close();
+
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        BidiParent parent = em.find(BidiParent.class, ids[0]);
+        BidiChild child = new BidiChild();
+        child.setName("oneToManyChild0::1");
+        child.setOneToManyParent(parent);
+        parent.getOneToManyChildren().add(child);
+        em.persist(child);
+        em.getTransaction().commit();
+        em.close();
+
+        em = emf.createEntityManager();
+        assertEquals(2, em.find(BidiParent.class, ids[0])
+            .getOneToManyChildren().size());
+        assertEquals(2, em.find(BidiParent.class, ids[1])
+            .getOneToManyChildren().size());
+        em.close();
+    }
+}
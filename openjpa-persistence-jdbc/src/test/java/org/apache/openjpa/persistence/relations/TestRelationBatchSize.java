@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.relations;
+
+import java.util.List;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.apache.openjpa.persistence.jdbc.JDBCFetchPlan;
+import org.apache.openjpa.persistence.test.SQLListenerTestCase;
+
+/**
+ * Test that a lazy relation accessed on one instance is loaded in the same
+ * select for the other managed instances of its type.
+ */
+public class TestRelationBatchSize
+    extends SQLListenerTestCase {
+
+    private static final int PARENTS = 4;
+    private static final int SUB_PARENTS = 3;
+
+    @Override
+    public void setUp() {
+        setUp(BidiParent.class, BidiSubParent.class, BidiChild.class,
+            CLEAR_TABLES);
+
+        OpenJPAEntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < PARENTS; i++) {
+            BidiParent parent = new BidiParent();
+            parent.setName("parent" + i);
+            em.persist(parent);
+
+            BidiChild oneOneChild = new BidiChild();
+            oneOneChild.setName("oneToOneChild" + i);
+            oneOneChild.setOneToOneParent(parent);
+            parent.setOneToOneChild(oneOneChild);
+            em.persist(oneOneChild);
+
+            for (int j = 0; j < i; j++) {
+                BidiChild oneManyChild = new BidiChild();
+                oneManyChild.setName("oneToManyChild" + i + "::" + j);
+                oneManyChild.setOneToManyParent(parent);
+                parent.getOneToManyChildren().add(oneManyChild);
+                em.persist(oneManyChild);
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private void persistSubParents() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < SUB_PARENTS; i++) {
+            BidiSubParent parent = new BidiSubParent();
+            parent.setName("subParent" + i);
+            parent.setRank(i);
+            em.persist(parent);
+
+            for (int j = 0; j <= i; j++) {
+                BidiChild oneManyChild = new BidiChild();
+                oneManyChild.setName("subOneToManyChild" + i + "::" + j);
+                oneManyChild.setOneToManyParent(parent);
+                parent.getOneToManyChildren().add(oneManyChild);
+                em.persist(oneManyChild);
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private List<BidiParent> findParents(OpenJPAEntityManager em,
+        int batchSize) {
+        ((JDBCFetchPlan) em.getFetchPlan()).setRelationBatchSize(batchSize);
+        List<BidiParent> parents = em.createQuery("select p from BidiParent p "
+            + "order by p.name", BidiParent.class).getResultList();
+        assertEquals(PARENTS, parents.size());
+        sql.clear();
+        return parents;
+    }
+
+    public void testOneToMany() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        List<BidiParent> parents = findParents(em, 10);
+        for (int i = 0; i < PARENTS; i++) {
+            List<BidiChild> children = parents.get(i).getOneToManyChildren();
+            assertEquals(i, children.size());
+            for (int j = 0; j < i; j++)
+                assertEquals("oneToManyChild" + i + "::" + j,
+                    children.get(j).getName());
+        }
+        assertEquals(1, sql.size());
+        em.close();
+    }
+
+    public void testOneToOne() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        List<BidiParent> parents = findParents(em, 10);
+        for (int i = 0; i < PARENTS; i++)
+            assertEquals("oneToOneChild" + i,
+                parents.get(i).getOneToOneChild().getName());
+        assertEquals(1, sql.size());
+        em.close();
+    }
+
+    public void testBatchSmallerThanInstances() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        List<BidiParent> parents = findParents(em, 2);
+        for (int i = 0; i < PARENTS; i++)
+            assertEquals(i, parents.get(i).getOneToManyChildren().size());
+        assertEquals(PARENTS / 2, sql.size());
+        em.close();
+    }
+
+    public void testInstancesLoadedAfterBatch() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        ((JDBCFetchPlan) em.getFetchPlan()).setRelationBatchSize(10);
+        BidiParent first = em.createQuery("select p from BidiParent p "
+            + "where p.name = 'parent1'", BidiParent.class).getSingleResult();
+        assertEquals(1, first.getOneToManyChildren().size());
+
+        List<BidiParent> parents = em.createQuery("select p from BidiParent p "
+            + "where p.name <> 'parent1' order by p.name", BidiParent.class)
+            .getResultList();
+        sql.clear();
+        for (BidiParent parent : parents)
+            parent.getOneToManyChildren().size();
+        assertEquals(1, sql.size());
+        em.close();
+    }
+
+    public void testInheritedFieldLoadedAfterBatch() {
+        persistSubParents();
+        OpenJPAEntityManager em = emf.createEntityManager();
+        ((JDBCFetchPlan) em.getFetchPlan()).setRelationBatchSize(10);
+        BidiSubParent first = em.createQuery("select p from BidiSubParent p "
+            + "where p.name = 'subParent0'", BidiSubParent.class)
+            .getSingleResult();
+        assertEquals(1, first.getOneToManyChildren().size());
+
+        List<BidiSubParent> parents = em.createQuery("select p from "
+            + "BidiSubParent p where p.name <> 'subParent0' order by p.name",
+            BidiSubParent.class).getResultList();
+        assertEquals(SUB_PARENTS - 1, parents.size());
+        sql.clear();
+        for (BidiSubParent parent : parents)
+            assertEquals(parent.getRank() + 1,
+                parent.getOneToManyChildren().size());
+        assertEquals(1, sql.size());
+        em.close();
+    }
+
+    public void testSubclassBatchedWithSuperclass() {
+        persistSubParents();
+        OpenJPAEntityManager em = emf.createEntityManager();
+        ((JDBCFetchPlan) em.getFetchPlan()).setRelationBatchSize(10);
+        List<BidiParent> parents = em.createQuery("select p from BidiParent p "
+            + "order by p.name", BidiParent.class).getResultList();
+        assertEquals(PARENTS + SUB_PARENTS, parents.size());
+        sql.clear();
+        for (BidiParent parent : parents) {
+            int size = (parent instanceof BidiSubParent)
+                ? ((BidiSubParent) parent).getRank() + 1
+                : Integer.parseInt(parent.getName().substring(6));
+            assertEquals(size, parent.getOneToManyChildren().size());
+        }
+        assertEquals(1, sql.size());
+        em.close();
+    }
+
+    public void testNoBatchByDefault() {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        List<BidiParent> parents = findParents(em, 0);
+        for (int i = 0; i < PARENTS; i++)
+            assertEquals(i, parents.get(i).getOneToManyChildren().size());
+        assertEquals(PARENTS, sql.size());
+        em.close();
+    }
+}
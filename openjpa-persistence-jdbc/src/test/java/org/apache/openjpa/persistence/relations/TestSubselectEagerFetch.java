@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.openjpa.persistence.relations;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.apache.openjpa.persistence.OpenJPAEntityManager;
+import org.apache.openjpa.persistence.OpenJPAPersistence;
+import org.apache.openjpa.persistence.OpenJPAQuery;
+import org.apache.openjpa.persistence.jdbc.FetchMode;
+import org.apache.openjpa.persistence.jdbc.JDBCFetchPlan;
+import org.apache.openjpa.persistence.jdbc.maps.spec_10_1_27_ex0.Item1;
+import org.apache.openjpa.persistence.test.SQLListenerTestCase;
+
+/**
+ * Test that subselect eager fetching loads to-many fields by the keys of
+ * the instances read rather than by re-running the query.
+ */
+public class TestSubselectEagerFetch
+    extends SQLListenerTestCase {
+
+    private static final int PARENTS = 4;
+
+    @Override
+    public void setUp() {
+        setUp(BidiParent.class, BidiChild.class, Item1.class, CLEAR_TABLES);
+
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < PARENTS; i++) {
+            BidiParent parent = new BidiParent();
+            parent.setName("parent" + i);
+            em.persist(parent);
+            for (int j = 0; j < i; j++) {
+                BidiChild child = new BidiChild();
+                child.setName("child" + i + "::" + j);
+                child.setOneToManyParent(parent);
+                parent.getOneToManyChildren().add(child);
+                em.persist(child);
+            }
+
+            Item1 item = new Item1();
+            item.setId(i);
+            for (int j = 0; j < i; j++)
+                item.addImage("image" + j, "file" + i + "::" + j);
+            em.persist(item);
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    private List<BidiParent> findParents(FetchMode mode) {
+        OpenJPAEntityManager em = emf.createEntityManager();
+        OpenJPAQuery<BidiParent> q = OpenJPAPersistence.cast(em.createQuery(
+            "select p from BidiParent p where p.name like :name "
+            + "order by p.name", BidiParent.class));
+        q.setParameter("name", "parent%");
+        JDBCFetchPlan fetch = (JDBCFetchPlan) q.getFetchPlan();
+        fetch.setEagerFetchMode(mode);
+        fetch.addField(BidiParent.class, "oneToManyChildren");
+        sql.clear();
+        List<BidiParent> parents = q.getResultList();
+        assertEquals(PARENTS, parents.size());
+        assertEquals(2, sql.size());
+        return parents;
+    }
+
+    public void testCollection() {
+        List<BidiParent> parents = findParents(FetchMode.SUBSELECT);
+        assertFalse(sql.get(1), sql.get(1).contains("LIKE"));
+        assertTrue(sql.get(1), sql.get(1).contains(" IN "));
+
+        sql.clear();
+        for (int i = 0; i < PARENTS; i++) {
+            List<BidiChild> children = parents.get(i).getOneToManyChildren();
+            assertEquals(i, children.size());
+            for (int j = 0; j < i; j++)
+                assertEquals("child" + i + "::" + j, children.get(j).getName());
+        }
+        assertEquals(0, sql.size());
+    }
+
+    public void testParallelRepeatsQuery() {
+        findParents(FetchMode.PARALLEL);
+        assertTrue(sql.get(1), sql.get(1).contains("LIKE"));
+    }
+
+    public void testMapByHint() {
+        EntityManager em = emf.createEntityManager();
+        OpenJPAQuery<Item1> q = OpenJPAPersistence.cast(em.createQuery(
+            "select i from Item1 i order by i.id", Item1.class));
+        q.setHint("openjpa.FetchPlan.EagerFetchMode", "subselect");
+        q.getFetchPlan().addField(Item1.class, "images");
+        sql.clear();
+        List<Item1> items = q.getResultList();
+        assertEquals(PARENTS, items.size());
+        assertEquals(sql.toString(), 2, sql.size());
+
+        sql.clear();
+        for (int i = 0; i < PARENTS; i++) {
+            assertEquals(i, items.get(i).getImages().size());
+            for (int j = 0; j < i; j++)
+                assertEquals("file" + i + "::" + j,
+                    items.get(i).getImages().get("image" + j));
+        }
+        assertEquals(sql.toString(), 0, sql.size());
+        em.close();
+    }
+}
@@ -39,6 +39,7 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 import javax.persistence.CacheRetrieveMode;
 import javax.persistence.CacheStoreMode;
@@ -561,6 +562,12 @@ public class EntityManagerImpl
         return (T) _broker.find(oid, true, this);
     }
 
+    @Override
+    public <T> CompletionStage<T> findAsync(final Class<T> cls, final Object oid) {
+        assertNotCloseInvoked();
+        return _broker.submit(() -> find(cls, oid));
+    }
+
     @Override
     public <T> T find(Class<T> cls, Object oid, LockModeType mode) {
         return find(cls, oid, mode, null);
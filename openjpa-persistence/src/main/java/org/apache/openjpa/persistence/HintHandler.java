@@ -162,7 +162,8 @@ public class HintHandler  {
             for (int i = 0; i < arr.length; i++) {
                 owner.addAggregateListener(arr[i]);
             }
-        } else if (QueryHints.HINT_RESULT_COUNT.equals(key)) {
+        } else if (QueryHints.HINT_RESULT_COUNT.equals(key)
+            || QueryHints.HINT_PIPELINED_FETCH.equals(key)) {
             int v = (Integer) Filters.convert(value, Integer.class);
             if (v < 0) {
                 throw new IllegalArgumentException(_loc.get("bad-query-hint-value", key, value).toString());
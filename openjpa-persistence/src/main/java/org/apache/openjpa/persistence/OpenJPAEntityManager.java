@@ -21,6 +21,7 @@ package org.apache.openjpa.persistence;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityTransaction;
@@ -332,6 +333,19 @@ public interface OpenJPAEntityManager
      */
     <T> Collection<T> findAll(Class<T> cls, Collection oids);
 
+    /**
+     * Look up the object with the given oid on the configured
+     * <code>openjpa.AsyncExecutor</code>. Asynchronous operations of one
+     * entity manager run one at a time; do not use this entity manager
+     * until the returned stage completes unless it is multithreaded.
+     * Use separate entity managers to run lookups in parallel.
+     *
+     * @return a stage completed with the object, or null if it does not exist
+     * @see #find(Class,Object)
+     * @since 3.1.3
+     */
+    <T> CompletionStage<T> findAsync(Class<T> cls, Object oid);
+
     /**
      * Return the cached instance for the given oid/object, or null if not
      * cached.
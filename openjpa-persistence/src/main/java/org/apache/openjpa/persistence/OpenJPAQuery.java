@@ -21,8 +21,10 @@ package org.apache.openjpa.persistence;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 import javax.persistence.FlushModeType;
 import javax.persistence.Query;
@@ -281,4 +283,27 @@ public interface OpenJPAQuery<X> extends TypedQuery<X> {
      * @since 2.0.0
      */
     Set<String> getSupportedHints();
+
+    /**
+     * Execute this query on the configured <code>openjpa.AsyncExecutor</code>.
+     * The results are fully read before the stage completes. Asynchronous
+     * operations of one entity manager run one at a time; do not use the
+     * entity manager or this query until the returned stage completes
+     * unless the entity manager is multithreaded. Use separate entity
+     * managers to run queries in parallel.
+     *
+     * @see #getResultList
+     * @since 3.1.3
+     */
+    CompletionStage<List<X>> getResultListAsync();
+
+    /**
+     * Execute this query for a single result on the configured
+     * <code>openjpa.AsyncExecutor</code>, under the same rules as
+     * {@link #getResultListAsync}.
+     *
+     * @see #getSingleResult
+     * @since 3.1.3
+     */
+    CompletionStage<X> getSingleResultAsync();
 }
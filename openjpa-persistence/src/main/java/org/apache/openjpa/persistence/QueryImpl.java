@@ -21,11 +21,13 @@ package org.apache.openjpa.persistence;
 import static org.apache.openjpa.kernel.QueryLanguages.LANG_PREPARED_SQL;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.persistence.FlushModeType;
@@ -358,6 +360,20 @@ public class QueryImpl<X> extends AbstractQuery<X> implements Serializable {
 		}
 	}
 
+    @Override
+    public CompletionStage<List<X>> getResultListAsync() {
+        _em.assertNotCloseInvoked();
+        // copy the results so that they are not read through the broker
+        // after the stage completes
+        return _em.getBroker().submit(() -> new ArrayList<X>(getResultList()));
+    }
+
+    @Override
+    public CompletionStage<X> getSingleResultAsync() {
+        _em.assertNotCloseInvoked();
+        return _em.getBroker().submit(this::getSingleResult);
+    }
+
 	private boolean pushQueryFetchPlan() {
 		boolean fcPushed = false;
 		if (_hintHandler != null) {